@@ -73,6 +73,9 @@ if not "%HOP_SHARED_JDBC_FOLDER%"=="" (
 if not "%HOP_PLUGIN_BASE_FOLDERS%"=="" (
   set HOP_OPTIONS=%HOP_OPTIONS% -DHOP_PLUGIN_BASE_FOLDERS=%HOP_PLUGIN_BASE_FOLDERS%
 )
+if defined HOP_PLUGIN_CACHE_FILE (
+  set HOP_OPTIONS=%HOP_OPTIONS% -DHOP_PLUGIN_CACHE_FILE=%HOP_PLUGIN_CACHE_FILE%
+)
 if not "%HOP_PASSWORD_ENCODER_PLUGIN%"=="" (
   set HOP_OPTIONS=%HOP_OPTIONS% -DHOP_PASSWORD_ENCODER_PLUGIN=%HOP_PASSWORD_ENCODER_PLUGIN%
 )
@@ -44,6 +44,9 @@ fi
 if [ -n "${HOP_PLUGIN_BASE_FOLDERS}" ]; then
   HOP_OPTIONS="${HOP_OPTIONS} -DHOP_PLUGIN_BASE_FOLDERS=${HOP_PLUGIN_BASE_FOLDERS}"
 fi
+if [ -n "${HOP_PLUGIN_CACHE_FILE+x}" ]; then
+  HOP_OPTIONS="${HOP_OPTIONS} -DHOP_PLUGIN_CACHE_FILE=${HOP_PLUGIN_CACHE_FILE}"
+fi
 if [ -n "${HOP_PASSWORD_ENCODER_PLUGIN}" ]; then
   HOP_OPTIONS="${HOP_OPTIONS} -DHOP_PASSWORD_ENCODER_PLUGIN=${HOP_PASSWORD_ENCODER_PLUGIN}"
 fi
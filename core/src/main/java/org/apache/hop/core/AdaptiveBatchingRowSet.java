@@ -0,0 +1,428 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A row set which passes rows from one producer thread to one consumer thread in batches. The
+ * producer fills a batch without grabbing a lock. Only handing over a complete batch takes a lock
+ * and wakes up the consumer so these costs are paid per batch instead of per row.
+ *
+ * <p>To make sure that a pipeline with a trickle of rows never stalls, a consumer that is waiting
+ * for rows takes over a partially filled batch once it's older than the flush interval or once the
+ * row set is done.
+ *
+ * <p>The batch size adapts to the flow of rows: every time the producer manages to fill a batch, the
+ * batch size is doubled, up to the maximum batch size. Every time the consumer has to take over a
+ * partial batch, the batch size is halved to lower the latency.
+ */
+public class AdaptiveBatchingRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The default maximum number of rows in a batch */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+  /** The default time after which a partial batch is handed to a waiting consumer */
+  public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1;
+
+  private final int capacity;
+  private final int maxBatchSize;
+  private final long flushIntervalNanos;
+
+  private final ReentrantLock lock;
+  private final Condition notEmpty;
+  private final Condition notFull;
+
+  /** Complete batches waiting for the consumer, guarded by lock */
+  private final ArrayDeque<Batch> batches;
+
+  /** The number of rows in the queued batches, guarded by lock */
+  private int queuedRows;
+
+  /** Set by a starving consumer, the producer lowers the batch size on the next hand-over */
+  private volatile boolean consumerStarved;
+
+  /** The batch the producer is filling, published for the consumer */
+  private volatile Batch current;
+
+  /** The batch the producer is filling, only used by the producer */
+  private Batch filling;
+
+  /** The current batch size, only used by the producer */
+  private int batchSize;
+
+  /** The batch the consumer is reading from */
+  private Batch reading;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new batching row set with maxSize capacity and the default batching parameters.
+   *
+   * @param maxSize the maximum number of rows in the row set
+   */
+  public AdaptiveBatchingRowSet(int maxSize) {
+    this(maxSize, DEFAULT_MAX_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+  }
+
+  /**
+   * Create a new batching row set.
+   *
+   * @param maxSize the maximum number of rows in the row set
+   * @param maxBatchSize the maximum number of rows in a single batch
+   * @param flushIntervalMillis the time after which a waiting consumer takes a partial batch
+   */
+  public AdaptiveBatchingRowSet(int maxSize, int maxBatchSize, long flushIntervalMillis) {
+    super();
+
+    this.capacity = Math.max(1, maxSize);
+    // Keep at least a few batches in flight so the producer doesn't have to wait for every batch
+    //
+    this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, capacity / 4));
+    this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushIntervalMillis));
+    this.batchSize = Math.min(64, this.maxBatchSize);
+
+    lock = new ReentrantLock();
+    notEmpty = lock.newCondition();
+    notFull = lock.newCondition();
+    batches = new ArrayDeque<>();
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    if (rowData == null) {
+      return false;
+    }
+    // Only write when it changes, the consumer reads from the same cache line
+    //
+    if (this.rowMeta != rowMeta) {
+      this.rowMeta = rowMeta;
+    }
+
+    Batch batch = filling;
+
+    // A full batch which couldn't be handed over before: try again, waiting this time.
+    // If there's still no room the row is not accepted.
+    //
+    if (batch != null && batch.fillIndex >= batch.rows.length) {
+      try {
+        if (!handOver(batch, tu.toNanos(time))) {
+          return false;
+        }
+      } catch (InterruptedException e) {
+        return false;
+      }
+      batch = filling;
+    }
+
+    if (batch == null || !batch.add(rowData)) {
+      // No batch yet or the consumer took over the previous one.
+      //
+      batch = new Batch(batchSize);
+      batch.add(rowData);
+      filling = batch;
+      current = batch;
+    }
+
+    if (batch.fillIndex >= batch.rows.length) {
+      try {
+        handOver(batch, 0L);
+      } catch (InterruptedException e) {
+        // The row was accepted, the batch is handed over later on.
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Hand a full batch over to the consumer.
+   *
+   * @param batch The batch to queue
+   * @param timeoutNanos the maximum time to wait for room in the queue
+   * @return false if there was no room in the queue and the batch is still the current batch
+   */
+  private boolean handOver(Batch batch, long timeoutNanos) throws InterruptedException {
+    long nanos = timeoutNanos;
+    lock.lockInterruptibly();
+    try {
+      while (queuedRows > 0 && queuedRows + batch.rows.length > capacity) {
+        if (nanos <= 0) {
+          return false;
+        }
+        nanos = notFull.awaitNanos(nanos);
+      }
+
+      int size = batch.close();
+      if (size > 0) {
+        batch.size = size;
+        batches.addLast(batch);
+        queuedRows += size;
+        notEmpty.signal();
+      }
+      filling = null;
+      if (current == batch) {
+        current = null;
+      }
+      adaptBatchSize();
+    } finally {
+      lock.unlock();
+    }
+    return true;
+  }
+
+  /**
+   * Called by the producer while holding the lock. Filling batches in time means larger batches
+   * are fine. If the consumer had to take over a partial batch the rows are coming in too slowly
+   * for the current batch size.
+   */
+  private void adaptBatchSize() {
+    if (consumerStarved) {
+      consumerStarved = false;
+      batchSize = Math.max(1, batchSize / 2);
+    } else {
+      batchSize = Math.min(maxBatchSize, batchSize * 2);
+    }
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return getRowWait(0L, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    if (!hasReadableRows()) {
+      try {
+        if (!nextBatch(tu.toNanos(timeout))) {
+          return null;
+        }
+      } catch (InterruptedException e) {
+        return null;
+      }
+    }
+    Batch batch = reading;
+    Object[] row = batch.rows[batch.readIndex];
+    batch.rows[batch.readIndex++] = null; // prevent any hold-up to GC
+    return row;
+  }
+
+  /**
+   * Get all rows of the current batch, up to max rows, in one go. Only the rows which are available
+   * right away are returned.
+   */
+  @Override
+  public List<Object[]> getRows(int max) {
+    List<Object[]> rows = new ArrayList<>();
+    while (rows.size() < max) {
+      if (!hasReadableRows()) {
+        try {
+          if (!nextBatch(0L)) {
+            break;
+          }
+        } catch (InterruptedException e) {
+          break;
+        }
+      }
+      Batch batch = reading;
+      int end = Math.min(batch.size, batch.readIndex + max - rows.size());
+      while (batch.readIndex < end) {
+        rows.add(batch.rows[batch.readIndex]);
+        batch.rows[batch.readIndex++] = null;
+      }
+    }
+    return rows;
+  }
+
+  private boolean hasReadableRows() {
+    Batch batch = reading;
+    return batch != null && batch.readIndex < batch.size;
+  }
+
+  /**
+   * Make the next batch available to the consumer.
+   *
+   * @param timeoutNanos The maximum time to wait for a batch
+   * @return true if a batch with rows is available
+   */
+  private boolean nextBatch(long timeoutNanos) throws InterruptedException {
+    reading = null;
+
+    long deadline = System.nanoTime() + timeoutNanos;
+    lock.lockInterruptibly();
+    try {
+      while (true) {
+        Batch batch = batches.pollFirst();
+        if (batch != null) {
+          queuedRows -= batch.size;
+          notFull.signal();
+          reading = batch;
+          return true;
+        }
+
+        // Nothing queued: take over the partial batch if it's old enough or if no more rows
+        // are coming anyway.
+        //
+        Batch partial = current;
+        long now = System.nanoTime();
+        if (partial != null
+            && partial.count.get() > 0
+            && (done.get() || now - partial.created >= flushIntervalNanos)) {
+          int size = partial.close();
+          if (size > 0) {
+            partial.size = size;
+            consumerStarved = true;
+            reading = partial;
+            return true;
+          }
+        }
+
+        long remaining = deadline - now;
+        if (remaining <= 0) {
+          return false;
+        }
+        notEmpty.awaitNanos(Math.min(remaining, Math.max(flushIntervalNanos, 1L)));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+
+    // Wake up a waiting consumer: it will pick up the partial batch
+    //
+    lock.lock();
+    try {
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    int size;
+    lock.lock();
+    try {
+      size = queuedRows;
+    } finally {
+      lock.unlock();
+    }
+    Batch batch = current;
+    if (batch != null) {
+      size += Math.max(0, batch.count.get());
+    }
+    Batch read = reading;
+    if (read != null) {
+      size += Math.max(0, read.size - read.readIndex);
+    }
+    return size;
+  }
+
+  /** @return The current number of rows per batch */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /** @return The maximum number of rows per batch */
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      batches.clear();
+      queuedRows = 0;
+      current = null;
+      filling = null;
+      reading = null;
+      done.set(false);
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * A batch of rows. The producer appends rows with a compare-and-set on the count. The consumer
+   * closes the batch by setting the count to -1 so the producer knows it has to start a new one.
+   */
+  private static final class Batch {
+    private final Object[][] rows;
+    private final AtomicInteger count;
+    private final long created;
+
+    /** The next position to fill, only used by the producer */
+    private int fillIndex;
+
+    /** The number of rows in the batch once it's closed, only used by the consumer */
+    private int size;
+
+    /** The next position to read, only used by the consumer */
+    private int readIndex;
+
+    private Batch(int batchSize) {
+      rows = new Object[batchSize][];
+      count = new AtomicInteger(0);
+      created = System.nanoTime();
+    }
+
+    /** @return false if the batch was closed by the consumer */
+    private boolean add(Object[] row) {
+      rows[fillIndex] = row;
+      if (count.compareAndSet(fillIndex, fillIndex + 1)) {
+        fillIndex++;
+        return true;
+      }
+      return false;
+    }
+
+    /** @return the number of rows in the batch or -1 if it was already closed */
+    private int close() {
+      return count.getAndSet(-1);
+    }
+  }
+}
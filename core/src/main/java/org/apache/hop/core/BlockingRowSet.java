@@ -19,6 +19,8 @@ package org.apache.hop.core;
 
 import org.apache.hop.core.row.IRowMeta;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -115,6 +117,20 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
     }
   }
 
+  /**
+   * Drains up to max rows from the queue while grabbing the lock only once.
+   *
+   * @see org.apache.hop.core.IRowSet#getRows(int)
+   */
+  @Override
+  public List<Object[]> getRows(int max) {
+    List<Object[]> rows = new ArrayList<>(Math.max(0, Math.min(max, queArray.size())));
+    if (max > 0) {
+      queArray.drainTo(rows, max);
+    }
+    return rows;
+  }
+
   @Override
   public int size() {
     return queArray.size();
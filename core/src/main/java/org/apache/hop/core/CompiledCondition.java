@@ -0,0 +1,409 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.util.Utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link Condition} compiled for a specific row layout. Field positions are looked up, constant
+ * values are converted, regular expressions are compiled and IN lists are hashed only once. The
+ * evaluation of a row then only runs through a tree of small evaluators.
+ *
+ * <p>The compiled condition doesn't follow changes made to the condition after compiling it. It
+ * can be used by multiple threads at the same time.
+ *
+ * @see Condition#compile(IRowMeta)
+ */
+public class CompiledCondition {
+
+  @FunctionalInterface
+  private interface IEvaluator {
+    boolean evaluate(Object[] row) throws HopValueException;
+  }
+
+  @FunctionalInterface
+  private interface IComparator {
+    int compare(Object[] row) throws HopValueException;
+  }
+
+  @FunctionalInterface
+  private interface IRightValue {
+    Object get(Object[] row);
+  }
+
+  @FunctionalInterface
+  private interface IRightString {
+    String get(Object[] row) throws HopValueException;
+  }
+
+  private final Condition condition;
+  private final IRowMeta rowMeta;
+  private final IEvaluator evaluator;
+
+  CompiledCondition(Condition condition, IRowMeta rowMeta) {
+    this.condition = condition;
+    this.rowMeta = rowMeta;
+    this.evaluator = compile(condition, rowMeta);
+  }
+
+  /**
+   * Evaluate the condition for a row with the layout the condition was compiled for.
+   *
+   * @param row the row data
+   * @return true if the condition evaluates to true.
+   */
+  public boolean evaluate(Object[] row) {
+    try {
+      return evaluator.evaluate(row);
+    } catch (Exception e) {
+      throw new RuntimeException(
+          "Unexpected error evaluation condition [" + condition.toString() + "]", e);
+    }
+  }
+
+  /**
+   * Gets rowMeta
+   *
+   * @return the row layout this condition was compiled for
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  private static IEvaluator compile(Condition condition, IRowMeta rowMeta) {
+    IEvaluator evaluator;
+    if (condition.isAtomic()) {
+      if (condition.getFunction() == Condition.FUNC_TRUE) {
+        boolean result = !condition.isNegated();
+        return row -> result;
+      }
+      int leftIndex = indexOf(rowMeta, condition.getLeftValuename());
+      if (leftIndex < 0) {
+        return row -> false; // no fields to evaluate
+      }
+      evaluator = compileAtomic(condition, rowMeta, leftIndex);
+    } else {
+      evaluator = compileComposite(condition, rowMeta);
+    }
+
+    if (condition.isNegated()) {
+      IEvaluator positive = evaluator;
+      return row -> !positive.evaluate(row);
+    }
+    return evaluator;
+  }
+
+  private static int indexOf(IRowMeta rowMeta, String valueName) {
+    if (Utils.isEmpty(valueName)) {
+      return -1;
+    }
+    return rowMeta.indexOfValue(valueName);
+  }
+
+  private static IEvaluator compileComposite(Condition condition, IRowMeta rowMeta) {
+    List<Condition> children = condition.getChildren();
+    IEvaluator evaluator = compile(children.get(0), rowMeta);
+
+    // Conditions are evaluated in the order in which they are found, short-circuited by the
+    // result of the previous ones.
+    //
+    for (int i = 1; i < children.size(); i++) {
+      IEvaluator left = evaluator;
+      IEvaluator right = compile(children.get(i), rowMeta);
+      switch (children.get(i).getOperator()) {
+        case Condition.OPERATOR_OR:
+          evaluator = row -> left.evaluate(row) || right.evaluate(row);
+          break;
+        case Condition.OPERATOR_AND:
+          evaluator = row -> left.evaluate(row) && right.evaluate(row);
+          break;
+        case Condition.OPERATOR_OR_NOT:
+          evaluator = row -> left.evaluate(row) || !right.evaluate(row);
+          break;
+        case Condition.OPERATOR_AND_NOT:
+          evaluator = row -> left.evaluate(row) && !right.evaluate(row);
+          break;
+        case Condition.OPERATOR_XOR:
+          evaluator = row -> left.evaluate(row) ^ right.evaluate(row);
+          break;
+        default:
+          break;
+      }
+    }
+    return evaluator;
+  }
+
+  private static IEvaluator compileAtomic(Condition condition, IRowMeta rowMeta, int leftIndex) {
+    IValueMeta leftMeta = rowMeta.getValueMeta(leftIndex);
+
+    // The right hand side is either a constant value or a field in the row
+    //
+    ValueMetaAndData rightExact = condition.getRightExact();
+    IValueMeta rightMeta = rightExact != null ? rightExact.getValueMeta() : null;
+    Object rightValue = rightExact != null ? rightExact.getValueData() : null;
+    int rightIndex = indexOf(rowMeta, condition.getRightValuename());
+    boolean constant = rightValue != null || rightIndex < 0;
+    IRightValue right;
+    if (constant) {
+      right = row -> rightValue;
+    } else {
+      rightMeta = rowMeta.getValueMeta(rightIndex);
+      right = row -> row[rightIndex];
+    }
+    IValueMeta finalRightMeta = rightMeta;
+
+    switch (condition.getFunction()) {
+      case Condition.FUNC_EQUAL:
+        {
+          IComparator comparator = comparator(leftIndex, leftMeta, rightMeta, right, constant);
+          return row -> comparator.compare(row) == 0;
+        }
+      case Condition.FUNC_NOT_EQUAL:
+        {
+          IComparator comparator = comparator(leftIndex, leftMeta, rightMeta, right, constant);
+          return row -> comparator.compare(row) != 0;
+        }
+      case Condition.FUNC_SMALLER:
+        {
+          IComparator comparator = comparator(leftIndex, leftMeta, rightMeta, right, constant);
+          return row -> !leftMeta.isNull(row[leftIndex]) && comparator.compare(row) < 0;
+        }
+      case Condition.FUNC_SMALLER_EQUAL:
+        {
+          IComparator comparator = comparator(leftIndex, leftMeta, rightMeta, right, constant);
+          return row -> !leftMeta.isNull(row[leftIndex]) && comparator.compare(row) <= 0;
+        }
+      case Condition.FUNC_LARGER:
+        {
+          IComparator comparator = comparator(leftIndex, leftMeta, rightMeta, right, constant);
+          return row -> comparator.compare(row) > 0;
+        }
+      case Condition.FUNC_LARGER_EQUAL:
+        {
+          IComparator comparator = comparator(leftIndex, leftMeta, rightMeta, right, constant);
+          return row -> comparator.compare(row) >= 0;
+        }
+      case Condition.FUNC_REGEXP:
+        return patternMatcher(leftIndex, leftMeta, rightMeta, right, constant, false);
+      case Condition.FUNC_LIKE:
+        return patternMatcher(leftIndex, leftMeta, rightMeta, right, constant, true);
+      case Condition.FUNC_NULL:
+        return row -> leftMeta.isNull(row[leftIndex]);
+      case Condition.FUNC_NOT_NULL:
+        return row -> !leftMeta.isNull(row[leftIndex]);
+      case Condition.FUNC_IN_LIST:
+        return inList(leftIndex, leftMeta, rightMeta, right, constant);
+      case Condition.FUNC_CONTAINS:
+        {
+          IRightString rightString = rightString(rightMeta, right, constant);
+          return row -> {
+            String string = leftMeta.getCompatibleString(row[leftIndex]);
+            return string != null && string.contains(rightString.get(row));
+          };
+        }
+      case Condition.FUNC_STARTS_WITH:
+        {
+          IRightString rightString = rightString(rightMeta, right, constant);
+          return row -> {
+            String string = leftMeta.getCompatibleString(row[leftIndex]);
+            return string != null && string.startsWith(rightString.get(row));
+          };
+        }
+      case Condition.FUNC_ENDS_WITH:
+        return row -> {
+          String string = leftMeta.getCompatibleString(row[leftIndex]);
+          if (Utils.isEmpty(string)) {
+            return false;
+          }
+          Object value = right.get(row);
+          String suffix = value == null ? null : finalRightMeta.getCompatibleString(value);
+          return suffix != null && string.endsWith(suffix);
+        };
+      default:
+        return row -> false;
+    }
+  }
+
+  /**
+   * Compare the left field with the right hand side. When both have the same data and storage
+   * type no conversion is needed. A constant of another data type is converted only once.
+   */
+  private static IComparator comparator(
+      int leftIndex,
+      IValueMeta leftMeta,
+      IValueMeta rightMeta,
+      IRightValue right,
+      boolean constant) {
+    if (rightMeta != null
+        && leftMeta.getType() == rightMeta.getType()
+        && leftMeta.getStorageType() == rightMeta.getStorageType()) {
+      return row -> leftMeta.compare(row[leftIndex], right.get(row));
+    }
+
+    if (constant
+        && rightMeta != null
+        && leftMeta.getType() != rightMeta.getType()
+        && !(leftMeta.getType() == IValueMeta.TYPE_INTEGER
+            && rightMeta.getType() == IValueMeta.TYPE_NUMBER)) {
+      try {
+        Object converted = leftMeta.convertData(rightMeta, right.get(null));
+        return row -> leftMeta.compare(row[leftIndex], converted);
+      } catch (Exception e) {
+        // Report the conversion error when evaluating a row, like the condition itself does
+      }
+    }
+
+    return row -> leftMeta.compare(row[leftIndex], rightMeta, right.get(row));
+  }
+
+  /** The right hand side as a String, calculated only once for a constant. */
+  private static IRightString rightString(
+      IValueMeta rightMeta, IRightValue right, boolean constant) {
+    if (constant && rightMeta != null) {
+      try {
+        String string = rightMeta.getCompatibleString(right.get(null));
+        if (string != null) {
+          return row -> string;
+        }
+      } catch (Exception e) {
+        // Report the conversion error when evaluating a row, like the condition itself does
+      }
+    }
+    return row -> rightMeta.getCompatibleString(right.get(row));
+  }
+
+  private static IEvaluator patternMatcher(
+      int leftIndex,
+      IValueMeta leftMeta,
+      IValueMeta rightMeta,
+      IRightValue right,
+      boolean constant,
+      boolean like) {
+    if (constant && right.get(null) == null) {
+      return row -> false;
+    }
+    PatternCache patterns = new PatternCache(like);
+    if (constant) {
+      try {
+        Pattern pattern = patterns.get(rightMeta.getCompatibleString(right.get(null)));
+        return row ->
+            !leftMeta.isNull(row[leftIndex])
+                && pattern.matcher(leftMeta.getCompatibleString(row[leftIndex])).matches();
+      } catch (Exception e) {
+        // An invalid expression is reported when evaluating a row, like the condition itself does
+      }
+    }
+    return row -> {
+      Object value = right.get(row);
+      if (leftMeta.isNull(row[leftIndex]) || value == null) {
+        return false;
+      }
+      Pattern pattern = patterns.get(rightMeta.getCompatibleString(value));
+      return pattern.matcher(leftMeta.getCompatibleString(row[leftIndex])).matches();
+    };
+  }
+
+  private static IEvaluator inList(
+      int leftIndex,
+      IValueMeta leftMeta,
+      IValueMeta rightMeta,
+      IRightValue right,
+      boolean constant) {
+    if (constant) {
+      try {
+        Set<String> values = toSet(rightMeta.getString(right.get(null)));
+        return row -> {
+          String string = leftMeta.getCompatibleString(row[leftIndex]);
+          return string != null && values.contains(string);
+        };
+      } catch (Exception e) {
+        // Report the conversion error when evaluating a row, like the condition itself does
+      }
+    }
+
+    // The list is in a field: only split it again when it changes
+    //
+    InListCache lists = new InListCache();
+    return row -> {
+      Set<String> values = lists.get(rightMeta.getString(right.get(row)));
+      String string = leftMeta.getCompatibleString(row[leftIndex]);
+      return string != null && values.contains(string);
+    };
+  }
+
+  private static Set<String> toSet(String list) {
+    String[] values = Const.splitString(list, ';', true);
+    for (int i = 0; i < values.length; i++) {
+      values[i] = values[i] == null ? null : values[i].replace("\\", "");
+    }
+    return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(values)));
+  }
+
+  /** Remembers the last compiled pattern, safe to use by multiple threads. */
+  private static final class PatternCache {
+    private final boolean like;
+    private volatile Object[] last;
+
+    private PatternCache(boolean like) {
+      this.like = like;
+    }
+
+    private Pattern get(String expression) {
+      Object[] cached = last;
+      if (cached != null && cached[0].equals(expression)) {
+        return (Pattern) cached[1];
+      }
+      String regex = expression;
+      if (like) {
+        // Converts to a regular expression
+        //
+        regex = regex.replace("%", ".*").replace("?", ".");
+      }
+      Pattern pattern = Pattern.compile(regex);
+      last = new Object[] {expression, pattern};
+      return pattern;
+    }
+  }
+
+  /** Remembers the last hashed IN list, safe to use by multiple threads. */
+  private static final class InListCache {
+    private volatile Object[] last;
+
+    @SuppressWarnings("unchecked")
+    private Set<String> get(String list) {
+      Object[] cached = last;
+      if (cached != null && (list == null ? cached[0] == null : list.equals(cached[0]))) {
+        return (Set<String>) cached[1];
+      }
+      Set<String> values = toSet(list);
+      last = new Object[] {list, values};
+      return values;
+    }
+  }
+}
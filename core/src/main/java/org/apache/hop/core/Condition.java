@@ -534,6 +534,18 @@ public class Condition implements Cloneable {
     return retval;
   }
 
+  /**
+   * Compile the condition for rows with the given layout. This looks up the fields and prepares the
+   * constant values, regular expressions and IN lists only once. The result doesn't follow changes
+   * made to this condition afterwards.
+   *
+   * @param rowMeta the layout of the rows to evaluate
+   * @return the compiled condition
+   */
+  public CompiledCondition compile(IRowMeta rowMeta) {
+    return new CompiledCondition(this, rowMeta);
+  }
+
   public void addCondition(Condition cb) {
     if (isAtomic() && getLeftValuename() != null) {
       /*
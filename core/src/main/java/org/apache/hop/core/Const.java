@@ -494,6 +494,22 @@ public class Const {
 
   public static final String HOP_PLUGIN_BASE_FOLDERS = "HOP_PLUGIN_BASE_FOLDERS";
 
+  /**
+   * Name of the variable with the file in which the plugins found in the plugin folders are cached
+   * between runs. When it isn't set the cache is kept in config/plugin-cache.bin. Set it to an
+   * empty value or to {@link #HOP_PLUGIN_CACHE_FILE_NONE} to always scan the plugin folders.
+   */
+  public static final String HOP_PLUGIN_CACHE_FILE = "HOP_PLUGIN_CACHE_FILE";
+
+  /**
+   * The value of {@link #HOP_PLUGIN_CACHE_FILE} which disables the plugin cache. Windows can't set
+   * a variable to an empty value.
+   */
+  public static final String HOP_PLUGIN_CACHE_FILE_NONE = "NONE";
+
+  /** The default name of the plugin cache file in the configuration folder */
+  public static final String DEFAULT_PLUGIN_CACHE_FILENAME = "plugin-cache.bin";
+
   /**
    * Name of the environment variable that contains the size of the pipeline rowset size. This
    * overwrites values that you set pipeline settings.
@@ -564,7 +580,10 @@ public class Const {
    */
   public static final String HOP_ROWSET_PUT_TIMEOUT = "HOP_ROWSET_PUT_TIMEOUT";
 
-  /** Set this variable to Y if you want to test a more efficient batching row set. (default = N) */
+  /**
+   * Set this variable to Y if you want to pass rows between transforms in batches for all
+   * pipelines. (default = N)
+   */
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
   /**
@@ -19,6 +19,8 @@ package org.apache.hop.core;
 
 import org.apache.hop.core.row.IRowMeta;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public interface IRowSet {
@@ -67,6 +69,23 @@ public interface IRowSet {
    */
   Object[] getRowWait(long timeout, TimeUnit tu);
 
+  /**
+   * Get up to max rows from the input buffer in one go. Only the rows that are available right away
+   * are returned: this method never waits for rows to arrive. Use {@link #getRow()} or {@link
+   * #getRowWait(long, TimeUnit)} to wait for the first row.
+   *
+   * @param max the maximum number of rows to return
+   * @return the rows which were available, an empty list if there were none.
+   */
+  default List<Object[]> getRows(int max) {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while (rows.size() < max && (row = getRowImmediate()) != null) {
+      rows.add(row);
+    }
+    return rows;
+  }
+
   /** @return Set indication that there is no more input */
   void setDone();
 
@@ -113,4 +132,14 @@ public interface IRowSet {
 
   /** Clear this rowset: remove all rows and remove the "done" flag. */
   void clear();
+
+  /**
+   * Lock-free row sets don't need the readers and writers to back off to reduce stress on the
+   * locking system.
+   *
+   * @return true if putting and getting rows doesn't grab a lock.
+   */
+  default boolean isLockFree() {
+    return false;
+  }
 }
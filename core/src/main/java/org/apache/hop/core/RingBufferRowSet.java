@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free row set for exactly one producer thread and exactly one consumer thread. This is the
+ * case for the row sets of 1:1 and N:N hops where every source transform copy writes to exactly one
+ * target transform copy.
+ *
+ * <p>Rows are kept in a pre-allocated ring buffer. The read and write sequences are padded to avoid
+ * false sharing between the two threads. A thread that has to wait first spins for a short while,
+ * then yields and finally parks for short intervals until the timeout expires. The other side
+ * unparks a parked thread as soon as it made progress.
+ *
+ * <p>Do NOT use this row set when more than one thread puts rows into it or gets rows from it.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The number of busy spins before we start yielding */
+  private static final int SPIN_TRIES = 100;
+
+  /** The number of yields before we start parking */
+  private static final int YIELD_TRIES = 10;
+
+  /** The maximum time a waiting thread parks before it checks the buffer again */
+  private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+
+  /** The next position to read from, only written by the consumer */
+  private final PaddedSequence head;
+
+  /** The next position to write to, only written by the producer */
+  private final PaddedSequence tail;
+
+  /** The last head value seen by the producer, avoids reading the volatile head on every put */
+  private long cachedHead;
+
+  /** The last tail value seen by the consumer, avoids reading the volatile tail on every get */
+  private long cachedTail;
+
+  private volatile Thread waitingProducer;
+  private volatile Thread waitingConsumer;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new ring buffer row set which can hold maxSize rows.
+   *
+   * @param maxSize the maximum number of rows in the buffer
+   */
+  public RingBufferRowSet(int maxSize) {
+    super();
+
+    capacity = Math.max(1, maxSize);
+    int length = Integer.highestOneBit(capacity);
+    if (length < capacity) {
+      length <<= 1;
+    }
+    buffer = new Object[length][];
+    mask = length - 1;
+
+    head = new PaddedSequence();
+    tail = new PaddedSequence();
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    if (rowData == null) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = tail.get();
+    if (position - cachedHead >= capacity) {
+      cachedHead = head.get();
+      if (position - cachedHead >= capacity && !waitForRoom(position, tu.toNanos(time))) {
+        return false;
+      }
+    }
+
+    buffer[(int) position & mask] = rowData;
+    tail.lazySet(position + 1);
+
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+    return true;
+  }
+
+  private boolean waitForRoom(long position, long timeoutNanos) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int tries = 0;
+    while (true) {
+      if (backOff(tries++, deadline, true)) {
+        return false;
+      }
+      cachedHead = head.get();
+      if (position - cachedHead < capacity) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long position = head.get();
+    if (position >= cachedTail) {
+      cachedTail = tail.get();
+      if (position >= cachedTail) {
+        return null;
+      }
+    }
+    return take(position);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    long position = head.get();
+    if (position >= cachedTail) {
+      cachedTail = tail.get();
+      if (position >= cachedTail && !waitForRows(position, tu.toNanos(timeout))) {
+        return null;
+      }
+    }
+    return take(position);
+  }
+
+  /** Reads all available rows, up to max, and publishes the new read position only once. */
+  @Override
+  public List<Object[]> getRows(int max) {
+    long position = head.get();
+    cachedTail = tail.get();
+    int available = (int) Math.min(Math.max(0, max), cachedTail - position);
+    List<Object[]> rows = new ArrayList<>(available);
+    if (available == 0) {
+      return rows;
+    }
+    for (int i = 0; i < available; i++) {
+      int index = (int) (position + i) & mask;
+      rows.add(buffer[index]);
+      buffer[index] = null; // prevent any hold-up to GC
+    }
+    head.lazySet(position + available);
+
+    Thread producer = waitingProducer;
+    if (producer != null) {
+      LockSupport.unpark(producer);
+    }
+    return rows;
+  }
+
+  private boolean waitForRows(long position, long timeoutNanos) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int tries = 0;
+    while (true) {
+      if (backOff(tries++, deadline, false)) {
+        return false;
+      }
+      cachedTail = tail.get();
+      if (position < cachedTail) {
+        return true;
+      }
+    }
+  }
+
+  private Object[] take(long position) {
+    int index = (int) position & mask;
+    Object[] row = buffer[index];
+    buffer[index] = null; // prevent any hold-up to GC
+    head.lazySet(position + 1);
+
+    Thread producer = waitingProducer;
+    if (producer != null) {
+      LockSupport.unpark(producer);
+    }
+    return row;
+  }
+
+  /**
+   * Spin, yield or park for a while.
+   *
+   * @param tries the number of times we already backed off while waiting
+   * @param deadline the System.nanoTime() value at which the wait times out
+   * @param producer true if the producer is waiting, false for the consumer
+   * @return true if the wait timed out or the thread was interrupted, the interrupt status is kept
+   *     so the transform still sees it
+   */
+  private boolean backOff(int tries, long deadline, boolean producer) {
+    long remaining = deadline - System.nanoTime();
+    if (remaining <= 0) {
+      return true;
+    }
+    if (tries < SPIN_TRIES) {
+      return false;
+    }
+    if (tries < SPIN_TRIES + YIELD_TRIES) {
+      Thread.yield();
+      return false;
+    }
+    Thread current = Thread.currentThread();
+    if (producer) {
+      waitingProducer = current;
+    } else {
+      waitingConsumer = current;
+    }
+    try {
+      // We never park longer than a short interval: a wake-up can be missed when the other side
+      // published just before we registered ourselves.
+      //
+      LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+    } finally {
+      if (producer) {
+        waitingProducer = null;
+      } else {
+        waitingConsumer = null;
+      }
+    }
+    return current.isInterrupted();
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+
+    // Wake up a waiting consumer so it sees the done flag right away
+    //
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  @Override
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity));
+  }
+
+  /** @return The maximum number of rows this row set can hold */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public boolean isLockFree() {
+    return true;
+  }
+
+  /**
+   * Clear this rowset: remove all rows and remove the "done" flag. This is only safe when neither
+   * the producer nor the consumer is active.
+   */
+  @Override
+  public void clear() {
+    long position = head.get();
+    long end = tail.get();
+    while (position < end) {
+      buffer[(int) position & mask] = null;
+      position++;
+    }
+    head.set(end);
+    cachedHead = end;
+    cachedTail = end;
+    done.set(false);
+  }
+
+  /** A sequence padded to keep the head and tail values on different cache lines. */
+  @SuppressWarnings("unused")
+  private static final class PaddedSequence extends AtomicLong {
+    private long p1, p2, p3, p4, p5, p6, p7;
+
+    PaddedSequence() {
+      super(0L);
+    }
+
+    /** Only here to keep the padding fields from being optimized away. */
+    long sumPaddingToPreventOptimisation() {
+      return p1 + p2 + p3 + p4 + p5 + p6 + p7;
+    }
+  }
+}
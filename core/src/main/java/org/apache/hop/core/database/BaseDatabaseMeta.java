@@ -87,6 +87,82 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
    */
   public static final String ATTRIBUTE_PRESERVE_RESERVED_WORD_CASE = "PRESERVE_RESERVED_WORD_CASE";
 
+  /** A flag to determine if connections are taken from a shared connection pool */
+  public static final String ATTRIBUTE_USE_POOLING = "USE_POOLING";
+
+  /** The maximum number of connections in the connection pool */
+  public static final String ATTRIBUTE_MAX_POOL_SIZE = "MAXIMUM_POOLSIZE";
+
+  /** The number of connections to open when the connection pool is created */
+  public static final String ATTRIBUTE_INITIAL_POOL_SIZE = "INITIAL_POOLSIZE";
+
+  /** The prefix for all the connection pooling parameter attributes */
+  public static final String ATTRIBUTE_POOLING_PARAMETER_PREFIX = "POOLING_";
+
+  public static final int DEFAULT_MAX_POOL_SIZE = 10;
+  public static final int DEFAULT_INITIAL_POOL_SIZE = 0;
+
+  /** The connection pooling parameters that can be set, with their default values */
+  public static final DatabaseConnectionPoolParameter[] poolingParameters =
+      new DatabaseConnectionPoolParameter[] {
+        new DatabaseConnectionPoolParameter(
+            "validationQuery",
+            null,
+            "The SQL query that will be used to validate connections from this pool before "
+                + "returning them to the caller. When empty, the JDBC driver is asked to validate "
+                + "the connection (Connection.isValid())."),
+        new DatabaseConnectionPoolParameter(
+            "validationQueryTimeout",
+            "5",
+            "The timeout in seconds when validating a connection."),
+        new DatabaseConnectionPoolParameter(
+            "testOnBorrow",
+            "true",
+            "Indicates whether connections will be validated before being borrowed from the "
+                + "pool. If a connection fails to validate, it will be dropped from the pool and "
+                + "another one will be borrowed."),
+        new DatabaseConnectionPoolParameter(
+            "testOnReturn",
+            "false",
+            "Indicates whether connections will be validated before being returned to the pool."),
+        new DatabaseConnectionPoolParameter(
+            "testWhileIdle",
+            "false",
+            "Indicates whether idle connections will be validated by the idle connection "
+                + "evictor. If a connection fails to validate, it will be dropped from the pool."),
+        new DatabaseConnectionPoolParameter(
+            "maxWait",
+            "30000",
+            "The maximum number of milliseconds that the pool will wait (when there are no "
+                + "available connections) for a connection to be returned before throwing an "
+                + "exception, or <= 0 to wait indefinitely."),
+        new DatabaseConnectionPoolParameter(
+            "maxIdle",
+            null,
+            "The maximum number of connections that can remain idle in the pool, without extra "
+                + "ones being released. Defaults to the maximum pool size."),
+        new DatabaseConnectionPoolParameter(
+            "minIdle",
+            "0",
+            "The minimum number of connections that can remain idle in the pool, without extra "
+                + "ones being created, or zero to create none."),
+        new DatabaseConnectionPoolParameter(
+            "timeBetweenEvictionRunsMillis",
+            "60000",
+            "The number of milliseconds to sleep between runs of the idle connection evictor "
+                + "thread. When non-positive, no idle connection evictor thread will be run."),
+        new DatabaseConnectionPoolParameter(
+            "minEvictableIdleTimeMillis",
+            "300000",
+            "The minimum amount of time a connection may sit idle in the pool before it is "
+                + "eligible for eviction by the idle connection evictor (if any)."),
+        new DatabaseConnectionPoolParameter(
+            "numTestsPerEvictionRun",
+            "3",
+            "The number of connections to examine during each run of the idle connection evictor "
+                + "thread (if any)."),
+      };
+
   public static final String SEQUENCE_FOR_BATCH_ID = "SEQUENCE_FOR_BATCH_ID";
   public static final String AUTOINCREMENT_SQL_FOR_BATCH_ID = "AUTOINCREMENT_SQL_FOR_BATCH_ID";
 
@@ -804,6 +880,69 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
     attributes.put(ATTRIBUTE_PRESERVE_RESERVED_WORD_CASE, b ? "Y" : "N");
   }
 
+  /** @return true if connections are taken from a shared connection pool */
+  @Override
+  public boolean isUsingConnectionPool() {
+    String usePool = getAttributeProperty(ATTRIBUTE_USE_POOLING, "N");
+    return "Y".equalsIgnoreCase(usePool);
+  }
+
+  /** @param usePool true if connections should be taken from a shared connection pool */
+  @Override
+  public void setUsingConnectionPool(boolean usePool) {
+    attributes.put(ATTRIBUTE_USE_POOLING, usePool ? "Y" : "N");
+  }
+
+  /** @return the maximum pool size, possibly containing variables */
+  @Override
+  public String getMaximumPoolSizeString() {
+    return getAttributeProperty(ATTRIBUTE_MAX_POOL_SIZE, Integer.toString(DEFAULT_MAX_POOL_SIZE));
+  }
+
+  /** @param maximumPoolSize the maximum pool size, possibly containing variables */
+  @Override
+  public void setMaximumPoolSizeString(String maximumPoolSize) {
+    attributes.put(ATTRIBUTE_MAX_POOL_SIZE, Const.NVL(maximumPoolSize, ""));
+  }
+
+  /** @return the initial pool size, possibly containing variables */
+  @Override
+  public String getInitialPoolSizeString() {
+    return getAttributeProperty(
+        ATTRIBUTE_INITIAL_POOL_SIZE, Integer.toString(DEFAULT_INITIAL_POOL_SIZE));
+  }
+
+  /** @param initialPoolSize the initial pool size, possibly containing variables */
+  @Override
+  public void setInitialPoolSizeString(String initialPoolSize) {
+    attributes.put(ATTRIBUTE_INITIAL_POOL_SIZE, Const.NVL(initialPoolSize, ""));
+  }
+
+  /** @return the connection pooling parameters that were set explicitly */
+  @Override
+  public Properties getConnectionPoolingProperties() {
+    Properties properties = new Properties();
+    for (String attribute : attributes.keySet()) {
+      if (attribute.startsWith(ATTRIBUTE_POOLING_PARAMETER_PREFIX)) {
+        String value = getAttributeProperty(attribute, "");
+        properties.put(attribute.substring(ATTRIBUTE_POOLING_PARAMETER_PREFIX.length()), value);
+      }
+    }
+    return properties;
+  }
+
+  /** @param properties the connection pooling parameters to set, replacing the existing ones */
+  @Override
+  public void setConnectionPoolingProperties(Properties properties) {
+    attributes
+        .keySet()
+        .removeIf(attribute -> attribute.startsWith(ATTRIBUTE_POOLING_PARAMETER_PREFIX));
+    for (String parameter : properties.stringPropertyNames()) {
+      attributes.put(
+          ATTRIBUTE_POOLING_PARAMETER_PREFIX + parameter, properties.getProperty(parameter));
+    }
+  }
+
   /**
    * @return true if the database defaults to naming tables and fields in uppercase. True for most
    *     databases except for stuborn stuff like Postgres ;-)
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.commons.dbcp.ConnectionFactory;
+import org.apache.commons.dbcp.DriverManagerConnectionFactory;
+import org.apache.commons.dbcp.PoolableConnectionFactory;
+import org.apache.commons.dbcp.PoolingDataSource;
+import org.apache.commons.pool.impl.GenericObjectPool;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.i18n.BaseMessages;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the shared JDBC connection pools of the database connections that have pooling enabled.
+ * A pool is shared by all the Database objects connecting with the same resolved URL, connection
+ * properties (user and password included) and pool settings.
+ */
+public class ConnectionPoolUtil {
+  private static final Class<?> PKG = Database.class; // For Translator
+
+  private static final Map<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+
+  private ConnectionPoolUtil() {}
+
+  /**
+   * Borrow a connection from the pool for the given database connection, creating the pool if
+   * needed. Closing the returned connection hands it back to the pool.
+   *
+   * @param log the log channel to report pool creation on
+   * @param databaseMeta the database connection metadata with the pool settings
+   * @param variables the variables to resolve the pool settings with
+   * @param url the resolved JDBC URL
+   * @param properties the connection properties, including user and password
+   * @return a pooled connection
+   * @throws HopDatabaseException in case the pool can't be created or no connection is available
+   */
+  public static Connection getConnection(
+      ILogChannel log,
+      DatabaseMeta databaseMeta,
+      IVariables variables,
+      String url,
+      Properties properties)
+      throws HopDatabaseException {
+    Properties poolProperties = getPoolProperties(databaseMeta, variables);
+    String key = getPoolKey(url, properties, poolProperties);
+
+    ConnectionPool pool = pools.get(key);
+    if (pool == null) {
+      synchronized (pools) {
+        pool = pools.get(key);
+        if (pool == null) {
+          pool = createPool(log, databaseMeta.getName(), url, properties, poolProperties);
+          pools.put(key, pool);
+        }
+      }
+    }
+
+    try {
+      return pool.dataSource.getConnection();
+    } catch (SQLException e) {
+      throw new HopDatabaseException(
+          "Unable to get a connection from the connection pool of database connection '"
+              + databaseMeta.getName()
+              + "'",
+          e);
+    }
+  }
+
+  /** @return the number of connection pools currently open */
+  public static int getPoolCount() {
+    return pools.size();
+  }
+
+  /** Close all connection pools and the idle connections in them. */
+  public static void closeAllPools() {
+    synchronized (pools) {
+      for (ConnectionPool pool : pools.values()) {
+        try {
+          pool.objectPool.close();
+        } catch (Exception e) {
+          // Ignore: we're shutting the pool down anyway
+        }
+      }
+      pools.clear();
+    }
+  }
+
+  /**
+   * Resolve the pool size and the pooling parameters of the database connection. Parameters that
+   * were not set explicitly get their default value.
+   */
+  static Properties getPoolProperties(DatabaseMeta databaseMeta, IVariables variables) {
+    Properties poolProperties = new Properties();
+    for (DatabaseConnectionPoolParameter parameter : BaseDatabaseMeta.poolingParameters) {
+      if (parameter.getDefaultValue() != null) {
+        poolProperties.setProperty(parameter.getParameter(), parameter.getDefaultValue());
+      }
+    }
+    Properties explicitProperties = databaseMeta.getConnectionPoolingProperties();
+    for (String parameter : explicitProperties.stringPropertyNames()) {
+      String value = variables.resolve(explicitProperties.getProperty(parameter));
+      if (!Utils.isEmpty(value)) {
+        poolProperties.setProperty(parameter, value);
+      }
+    }
+
+    int maxSize =
+        Const.toInt(
+            variables.resolve(databaseMeta.getMaximumPoolSizeString()),
+            BaseDatabaseMeta.DEFAULT_MAX_POOL_SIZE);
+    int initialSize =
+        Const.toInt(
+            variables.resolve(databaseMeta.getInitialPoolSizeString()),
+            BaseDatabaseMeta.DEFAULT_INITIAL_POOL_SIZE);
+    poolProperties.setProperty(BaseDatabaseMeta.ATTRIBUTE_MAX_POOL_SIZE, Integer.toString(maxSize));
+    poolProperties.setProperty(
+        BaseDatabaseMeta.ATTRIBUTE_INITIAL_POOL_SIZE,
+        Integer.toString(Math.min(initialSize, maxSize)));
+    return poolProperties;
+  }
+
+  /**
+   * The key of a pool contains the password so it must never be logged. The properties are sorted
+   * to get the same key regardless of the order they were added in.
+   */
+  static String getPoolKey(String url, Properties properties, Properties poolProperties) {
+    StringBuilder key = new StringBuilder(url);
+    for (Properties props : new Properties[] {properties, poolProperties}) {
+      key.append('\u0000');
+      Map<String, String> sorted = new TreeMap<>();
+      for (String name : props.stringPropertyNames()) {
+        sorted.put(name, props.getProperty(name));
+      }
+      for (Map.Entry<String, String> entry : sorted.entrySet()) {
+        key.append(entry.getKey()).append('=').append(entry.getValue()).append('\u0001');
+      }
+    }
+    return key.toString();
+  }
+
+  private static ConnectionPool createPool(
+      ILogChannel log,
+      String connectionName,
+      String url,
+      Properties properties,
+      Properties poolProperties)
+      throws HopDatabaseException {
+    if (log.isBasic()) {
+      log.logBasic(BaseMessages.getString(PKG, "Database.CreatingConnectionPool", connectionName));
+    }
+
+    int maxSize = getInt(poolProperties, BaseDatabaseMeta.ATTRIBUTE_MAX_POOL_SIZE, 0);
+    int initialSize = getInt(poolProperties, BaseDatabaseMeta.ATTRIBUTE_INITIAL_POOL_SIZE, 0);
+
+    GenericObjectPool objectPool = new GenericObjectPool(null);
+    objectPool.setMaxActive(maxSize);
+    objectPool.setMaxIdle(getInt(poolProperties, "maxIdle", maxSize));
+    objectPool.setMinIdle(getInt(poolProperties, "minIdle", 0));
+    objectPool.setMaxWait(getLong(poolProperties, "maxWait", -1L));
+    objectPool.setWhenExhaustedAction(GenericObjectPool.WHEN_EXHAUSTED_BLOCK);
+    objectPool.setTestOnBorrow(getBoolean(poolProperties, "testOnBorrow"));
+    objectPool.setTestOnReturn(getBoolean(poolProperties, "testOnReturn"));
+    objectPool.setTestWhileIdle(getBoolean(poolProperties, "testWhileIdle"));
+    objectPool.setTimeBetweenEvictionRunsMillis(
+        getLong(poolProperties, "timeBetweenEvictionRunsMillis", -1L));
+    objectPool.setMinEvictableIdleTimeMillis(
+        getLong(poolProperties, "minEvictableIdleTimeMillis", 300000L));
+    objectPool.setNumTestsPerEvictionRun(getInt(poolProperties, "numTestsPerEvictionRun", 3));
+
+    // Registers itself as the factory of the object pool
+    //
+    new ValidatingConnectionFactory(
+        new DriverManagerConnectionFactory(url, properties),
+        objectPool,
+        poolProperties.getProperty("validationQuery"),
+        getInt(poolProperties, "validationQueryTimeout", 5));
+
+    try {
+      for (int i = 0; i < initialSize; i++) {
+        objectPool.addObject();
+      }
+    } catch (Exception e) {
+      try {
+        objectPool.close();
+      } catch (Exception ce) {
+        // Ignore, we're reporting the original problem
+      }
+      throw new HopDatabaseException(
+          BaseMessages.getString(
+              PKG, "Database.UnableToPreLoadConnectionToConnectionPool.Exception"),
+          e);
+    }
+
+    if (log.isBasic()) {
+      log.logBasic(BaseMessages.getString(PKG, "Database.CreatedConnectionPool", connectionName));
+    }
+    return new ConnectionPool(objectPool, new PoolingDataSource(objectPool));
+  }
+
+  private static int getInt(Properties properties, String name, int defaultValue) {
+    return Const.toInt(properties.getProperty(name), defaultValue);
+  }
+
+  private static long getLong(Properties properties, String name, long defaultValue) {
+    return Const.toLong(properties.getProperty(name), defaultValue);
+  }
+
+  private static boolean getBoolean(Properties properties, String name) {
+    return "true".equalsIgnoreCase(properties.getProperty(name))
+        || "Y".equalsIgnoreCase(properties.getProperty(name));
+  }
+
+  private static final class ConnectionPool {
+    private final GenericObjectPool objectPool;
+    private final PoolingDataSource dataSource;
+
+    private ConnectionPool(GenericObjectPool objectPool, PoolingDataSource dataSource) {
+      this.objectPool = objectPool;
+      this.dataSource = dataSource;
+    }
+  }
+
+  /**
+   * Validates connections with the validation query if there is one, otherwise asks the JDBC
+   * driver if the connection is still valid.
+   */
+  private static final class ValidatingConnectionFactory extends PoolableConnectionFactory {
+    private final String validationQuery;
+    private final int validationTimeout;
+
+    private ValidatingConnectionFactory(
+        ConnectionFactory connectionFactory,
+        GenericObjectPool objectPool,
+        String validationQuery,
+        int validationTimeout) {
+      super(
+          connectionFactory,
+          objectPool,
+          null,
+          Utils.isEmpty(validationQuery) ? null : validationQuery,
+          false,
+          true);
+      this.validationQuery = validationQuery;
+      this.validationTimeout = validationTimeout;
+    }
+
+    @Override
+    public void validateConnection(Connection connection) throws SQLException {
+      if (!Utils.isEmpty(validationQuery)) {
+        super.validateConnection(connection);
+        return;
+      }
+      if (connection.isClosed()) {
+        throw new SQLException("validateConnection: connection closed");
+      }
+      if (!connection.isValid(validationTimeout)) {
+        throw new SQLException("validateConnection: connection is no longer valid");
+      }
+    }
+  }
+}
@@ -50,6 +50,7 @@ import java.io.InputStreamReader;
 import java.sql.*;
 import java.util.Date;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Database handles the process of connecting to, reading from, writing to and updating databases.
@@ -59,6 +60,7 @@ public class Database implements IVariables, ILoggingObject {
   private static final Class<?> PKG = Database.class; // For Translator
 
   private static final Map<String, Set<String>> registeredDrivers = new HashMap<>();
+  private static final Set<String> loadedDrivers = ConcurrentHashMap.newKeySet();
 
   private final DatabaseMeta databaseMeta;
 
@@ -336,29 +338,12 @@ public class Database implements IVariables, ILoggingObject {
             .getPlugin(DatabasePluginType.class, databaseMeta.getIDatabase());
 
     try {
-      synchronized (DriverManager.class) {
-        ClassLoader classLoader = PluginRegistry.getInstance().getClassLoader(plugin);
-        Class<?> driverClass = classLoader.loadClass(classname);
-
-        // Only need DelegatingDriver for drivers not from our classloader
-        if (driverClass.getClassLoader() != this.getClass().getClassLoader()) {
-          String pluginId =
-              PluginRegistry.getInstance()
-                  .getPluginId(DatabasePluginType.class, databaseMeta.getIDatabase());
-          Set<String> registeredDriversFromPlugin = registeredDrivers.get(pluginId);
-          if (registeredDriversFromPlugin == null) {
-            registeredDriversFromPlugin = new HashSet<>();
-            registeredDrivers.put(pluginId, registeredDriversFromPlugin);
-          }
-          // Prevent registering multiple delegating drivers for same class, plugin
-          if (!registeredDriversFromPlugin.contains(driverClass.getCanonicalName())) {
-            DriverManager.registerDriver(new DelegatingDriver((Driver) driverClass.newInstance()));
-            registeredDriversFromPlugin.add(driverClass.getCanonicalName());
-          }
-        } else {
-          // Trigger static register block in driver class
-          Class.forName(classname);
-        }
+      // A driver only needs to be loaded once per plugin: skip the lock on DriverManager after that
+      //
+      String loadedDriverKey = plugin.getIds()[0] + "|" + classname;
+      if (!loadedDrivers.contains(loadedDriverKey)) {
+        loadDriver(plugin, classname);
+        loadedDrivers.add(loadedDriverKey);
       }
     } catch (NoClassDefFoundError | ClassNotFoundException e) {
       throw new HopDatabaseException(
@@ -396,11 +381,8 @@ public class Database implements IVariables, ILoggingObject {
               url += ";instanceName=" + instance;
             }
           }
-          connection = DriverManager.getConnection(url, properties);
-        } else {
-          // Perhaps the username is in the URL or no username is required...
-          connection = DriverManager.getConnection(url, properties);
         }
+        // Otherwise, perhaps the username is in the URL or no username is required...
       } else {
         if (!Utils.isEmpty(username)) {
           properties.put("user", username);
@@ -408,7 +390,11 @@ public class Database implements IVariables, ILoggingObject {
         if (!Utils.isEmpty(password)) {
           properties.put("password", password);
         }
+      }
 
+      if (databaseMeta.isUsingConnectionPool()) {
+        connection = ConnectionPoolUtil.getConnection(log, databaseMeta, this, url, properties);
+      } else {
         connection = DriverManager.getConnection(url, properties);
       }
     } catch (Exception e) {
@@ -417,6 +403,33 @@ public class Database implements IVariables, ILoggingObject {
     }
   }
 
+  private void loadDriver(IPlugin plugin, String classname) throws Exception {
+    synchronized (DriverManager.class) {
+      ClassLoader classLoader = PluginRegistry.getInstance().getClassLoader(plugin);
+      Class<?> driverClass = classLoader.loadClass(classname);
+
+      // Only need DelegatingDriver for drivers not from our classloader
+      if (driverClass.getClassLoader() != this.getClass().getClassLoader()) {
+        String pluginId =
+            PluginRegistry.getInstance()
+                .getPluginId(DatabasePluginType.class, databaseMeta.getIDatabase());
+        Set<String> registeredDriversFromPlugin = registeredDrivers.get(pluginId);
+        if (registeredDriversFromPlugin == null) {
+          registeredDriversFromPlugin = new HashSet<>();
+          registeredDrivers.put(pluginId, registeredDriversFromPlugin);
+        }
+        // Prevent registering multiple delegating drivers for same class, plugin
+        if (!registeredDriversFromPlugin.contains(driverClass.getCanonicalName())) {
+          DriverManager.registerDriver(new DelegatingDriver((Driver) driverClass.newInstance()));
+          registeredDriversFromPlugin.add(driverClass.getCanonicalName());
+        }
+      } else {
+        // Trigger static register block in driver class
+        Class.forName(classname);
+      }
+    }
+  }
+
   /** Disconnect from the database and close all open prepared statements. */
   public synchronized void disconnect() {
     if (connection == null) {
@@ -978,7 +991,22 @@ public class Database implements IVariables, ILoggingObject {
   }
 
   public String getInsertStatement(String schemaName, String tableName, IRowMeta fields) {
-    StringBuilder ins = new StringBuilder(128);
+    return getInsertStatement(schemaName, tableName, fields, 1);
+  }
+
+  /**
+   * Get an insert statement with a VALUES list for several rows. Only use this with databases which
+   * support multi-row inserts, see {@link IDatabase#supportsMultiRowInsert()}.
+   *
+   * @param schemaName The schema of the table
+   * @param tableName The table to insert into
+   * @param fields The fields of a row
+   * @param nrRows The number of rows inserted by the statement
+   * @return The insert statement with one placeholder per field and row
+   */
+  public String getInsertStatement(
+      String schemaName, String tableName, IRowMeta fields, int nrRows) {
+    StringBuilder ins = new StringBuilder(128 + nrRows * fields.size() * 4);
 
     String schemaTable = databaseMeta.getQuotedSchemaTableCombination(this, schemaName, tableName);
     ins.append("INSERT INTO ").append(schemaTable).append(" (");
@@ -991,16 +1019,22 @@ public class Database implements IVariables, ILoggingObject {
       String name = fields.getValueMeta(i).getName();
       ins.append(databaseMeta.quoteField(name));
     }
-    ins.append(") VALUES (");
+    ins.append(") VALUES ");
 
     // Add placeholders...
-    for (int i = 0; i < fields.size(); i++) {
-      if (i > 0) {
+    for (int r = 0; r < nrRows; r++) {
+      if (r > 0) {
         ins.append(", ");
       }
-      ins.append(" ?");
+      ins.append('(');
+      for (int i = 0; i < fields.size(); i++) {
+        if (i > 0) {
+          ins.append(", ");
+        }
+        ins.append(" ?");
+      }
+      ins.append(')');
     }
-    ins.append(')');
 
     return ins.toString();
   }
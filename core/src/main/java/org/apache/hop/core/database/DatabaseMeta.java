@@ -1863,6 +1863,46 @@ public class DatabaseMeta extends HopMetadataBase implements Cloneable, IHopMeta
     iDatabase.setStreamingResults(useStreaming);
   }
 
+  /** @return true if connections are taken from a shared connection pool */
+  public boolean isUsingConnectionPool() {
+    return iDatabase.isUsingConnectionPool();
+  }
+
+  /** @param usePool true if connections should be taken from a shared connection pool */
+  public void setUsingConnectionPool(boolean usePool) {
+    iDatabase.setUsingConnectionPool(usePool);
+  }
+
+  /** @return the maximum pool size, possibly containing variables */
+  public String getMaximumPoolSizeString() {
+    return iDatabase.getMaximumPoolSizeString();
+  }
+
+  /** @param maximumPoolSize the maximum pool size, possibly containing variables */
+  public void setMaximumPoolSizeString(String maximumPoolSize) {
+    iDatabase.setMaximumPoolSizeString(maximumPoolSize);
+  }
+
+  /** @return the initial pool size, possibly containing variables */
+  public String getInitialPoolSizeString() {
+    return iDatabase.getInitialPoolSizeString();
+  }
+
+  /** @param initialPoolSize the initial pool size, possibly containing variables */
+  public void setInitialPoolSizeString(String initialPoolSize) {
+    iDatabase.setInitialPoolSizeString(initialPoolSize);
+  }
+
+  /** @return the connection pooling parameters that were set explicitly */
+  public Properties getConnectionPoolingProperties() {
+    return iDatabase.getConnectionPoolingProperties();
+  }
+
+  /** @param properties the connection pooling parameters to set, replacing the existing ones */
+  public void setConnectionPoolingProperties(Properties properties) {
+    iDatabase.setConnectionPoolingProperties(properties);
+  }
+
   /** @return true if all fields should always be quoted in db */
   public boolean isQuoteAllFields() {
     return iDatabase.isQuoteAllFields();
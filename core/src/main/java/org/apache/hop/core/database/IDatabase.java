@@ -29,6 +29,7 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 /**
  * This interface describes the methods that a database connection needs to have in order to
@@ -564,6 +565,30 @@ public interface IDatabase extends Cloneable {
    */
   public void setStreamingResults(boolean useStreaming);
 
+  /** @return true if connections are taken from a shared connection pool */
+  public boolean isUsingConnectionPool();
+
+  /** @param usePool true if connections should be taken from a shared connection pool */
+  public void setUsingConnectionPool(boolean usePool);
+
+  /** @return the maximum pool size, possibly containing variables */
+  public String getMaximumPoolSizeString();
+
+  /** @param maximumPoolSize the maximum pool size, possibly containing variables */
+  public void setMaximumPoolSizeString(String maximumPoolSize);
+
+  /** @return the initial pool size, possibly containing variables */
+  public String getInitialPoolSizeString();
+
+  /** @param initialPoolSize the initial pool size, possibly containing variables */
+  public void setInitialPoolSizeString(String initialPoolSize);
+
+  /** @return the connection pooling parameters that were set explicitly */
+  public Properties getConnectionPoolingProperties();
+
+  /** @param properties the connection pooling parameters to set, replacing the existing ones */
+  public void setConnectionPoolingProperties(Properties properties);
+
   /** @return true if all fields should always be quoted in db */
   public boolean isQuoteAllFields();
 
@@ -929,6 +954,14 @@ public interface IDatabase extends Cloneable {
     return new SqlScriptParser(true);
   }
 
+  /**
+   * @return true if the database accepts an INSERT statement with a VALUES list of several rows:
+   *     INSERT INTO table (a, b) VALUES (?, ?), (?, ?)
+   */
+  default boolean supportsMultiRowInsert() {
+    return false;
+  }
+
   /** @return true if database supports the standard table output transform */
   default boolean supportsStandardTableOutput() {
     return true;
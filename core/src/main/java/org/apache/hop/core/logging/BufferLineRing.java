@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.logging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The lines of a {@link LoggingBuffer} in the order they were added. Adding a line to a full ring
+ * drops the oldest line. Next to the ring the lines are indexed per log channel so that the lines
+ * of a single channel can be found without looking at the others.
+ *
+ * <p>The line numbers only go up so both the ring and the channel lists are sorted by line number.
+ * This class is not thread safe, the logging buffer takes care of the locking.
+ */
+class BufferLineRing {
+  private static final int INITIAL_UNLIMITED_SIZE = 1024;
+
+  private final Predicate<String> generalChannel;
+
+  private BufferLine[] ring;
+  private int head;
+  private int count;
+  private int maxSize;
+
+  private final Map<String, ChannelLines> channels = new HashMap<>();
+
+  /**
+   * @param maxSize the maximum number of lines to keep, 0 or lower means: no limit
+   * @param generalChannel tells whether a log channel ID belongs to a general logging object
+   */
+  BufferLineRing(int maxSize, Predicate<String> generalChannel) {
+    this.generalChannel = generalChannel;
+    this.maxSize = maxSize;
+    this.ring = new BufferLine[maxSize > 0 ? maxSize : INITIAL_UNLIMITED_SIZE];
+  }
+
+  void add(BufferLine line) {
+    if (count == ring.length) {
+      if (maxSize > 0) {
+        removeOldest();
+      } else {
+        resize(ring.length * 2);
+      }
+    }
+    ring[(head + count) % ring.length] = line;
+    count++;
+
+    String channelId = getLogChannelId(line);
+    ChannelLines channelLines = channels.get(channelId);
+    if (channelLines == null) {
+      channelLines = new ChannelLines(channelId != null && generalChannel.test(channelId));
+      channels.put(channelId, channelLines);
+    }
+    channelLines.add(line);
+  }
+
+  BufferLine removeOldest() {
+    if (count == 0) {
+      return null;
+    }
+    BufferLine line = ring[head];
+    ring[head] = null;
+    head = (head + 1) % ring.length;
+    count--;
+
+    // The oldest line of the ring is also the oldest line of its channel
+    //
+    String channelId = getLogChannelId(line);
+    ChannelLines channelLines = channels.get(channelId);
+    if (channelLines != null) {
+      channelLines.removeFirst();
+      if (channelLines.size() == 0) {
+        channels.remove(channelId);
+      }
+    }
+    return line;
+  }
+
+  BufferLine getOldest() {
+    return count == 0 ? null : ring[head];
+  }
+
+  BufferLine getNewest() {
+    return count == 0 ? null : get(count - 1);
+  }
+
+  int size() {
+    return count;
+  }
+
+  /** @return The lines with a number in the range ]from, to] */
+  List<BufferLine> getLines(int from, int to) {
+    List<BufferLine> lines = new ArrayList<>();
+    for (int i = firstAfter(from); i < count; i++) {
+      BufferLine line = get(i);
+      if (line.getNr() > to) {
+        break;
+      }
+      lines.add(line);
+    }
+    return lines;
+  }
+
+  /** @return The lines of a log channel with a number in the range ]from, to] */
+  List<BufferLine> getLines(String channelId, int from, int to) {
+    ChannelLines channelLines = channels.get(channelId);
+    if (channelLines == null) {
+      return new ArrayList<>();
+    }
+    return channelLines.getLines(from, to);
+  }
+
+  /** @return The IDs of the channels with lines in the ring */
+  Set<String> getChannelIds() {
+    return channels.keySet();
+  }
+
+  /** @return true if the channel has lines in the ring and belongs to a general logging object */
+  boolean isGeneralChannel(String channelId) {
+    ChannelLines channelLines = channels.get(channelId);
+    return channelLines != null && channelLines.general;
+  }
+
+  void removeChannel(String channelId) {
+    if (channels.containsKey(channelId)) {
+      removeIf(line -> channelIdEquals(channelId, getLogChannelId(line)));
+    }
+  }
+
+  /** Removes the matching lines. This needs to look at all the lines so don't do it often. */
+  void removeIf(Predicate<BufferLine> predicate) {
+    List<BufferLine> keep = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      BufferLine line = get(i);
+      if (!predicate.test(line)) {
+        keep.add(line);
+      }
+    }
+    if (keep.size() == count) {
+      return;
+    }
+    clear();
+    for (BufferLine line : keep) {
+      add(line);
+    }
+  }
+
+  void clear() {
+    ring = new BufferLine[maxSize > 0 ? maxSize : INITIAL_UNLIMITED_SIZE];
+    head = 0;
+    count = 0;
+    channels.clear();
+  }
+
+  /** @param maxSize the new maximum number of lines, the oldest lines are dropped if needed */
+  void setMaxSize(int maxSize) {
+    if (maxSize == this.maxSize) {
+      return;
+    }
+    this.maxSize = maxSize;
+    if (maxSize > 0) {
+      while (count > maxSize) {
+        removeOldest();
+      }
+      resize(maxSize);
+    } else if (count == ring.length) {
+      resize(ring.length * 2);
+    }
+  }
+
+  private void resize(int size) {
+    BufferLine[] resized = new BufferLine[size];
+    for (int i = 0; i < count; i++) {
+      resized[i] = get(i);
+    }
+    ring = resized;
+    head = 0;
+  }
+
+  private BufferLine get(int index) {
+    return ring[(head + index) % ring.length];
+  }
+
+  /** @return The index in the ring of the first line with a number after the given one */
+  private int firstAfter(int nr) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (get(middle).getNr() <= nr) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static boolean channelIdEquals(String one, String other) {
+    return one == null ? other == null : one.equals(other);
+  }
+
+  static String getLogChannelId(BufferLine line) {
+    return ((LogMessage) line.getEvent().getMessage()).getLogChannelId();
+  }
+
+  /** The lines of one log channel, oldest first */
+  private static final class ChannelLines {
+    private final boolean general;
+    private final List<BufferLine> lines = new ArrayList<>();
+    private int start;
+
+    private ChannelLines(boolean general) {
+      this.general = general;
+    }
+
+    private void add(BufferLine line) {
+      lines.add(line);
+    }
+
+    private void removeFirst() {
+      lines.set(start++, null);
+
+      // Compact once the removed lines take up half of the list
+      //
+      if (start >= 16 && start * 2 >= lines.size()) {
+        lines.subList(0, start).clear();
+        start = 0;
+      }
+    }
+
+    private int size() {
+      return lines.size() - start;
+    }
+
+    private List<BufferLine> getLines(int from, int to) {
+      int low = start;
+      int high = lines.size();
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (lines.get(middle).getNr() <= from) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      List<BufferLine> result = new ArrayList<>();
+      for (int i = low; i < lines.size(); i++) {
+        BufferLine line = lines.get(i);
+        if (line.getNr() > to) {
+          break;
+        }
+        result.add(line);
+      }
+      return result;
+    }
+  }
+}
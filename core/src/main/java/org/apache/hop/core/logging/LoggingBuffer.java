@@ -20,20 +20,23 @@ package org.apache.hop.core.logging;
 import org.apache.hop.core.Const;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-/** This class keeps the last N lines in a buffer */
+/**
+ * This class keeps the last N lines in a buffer. The lines are kept in a ring so adding a line
+ * doesn't need to move the others. They're also indexed per log channel so the lines of a single
+ * pipeline or workflow can be found without going over the whole buffer.
+ */
 public class LoggingBuffer {
   private String name;
 
-  private List<BufferLine> buffer;
+  private BufferLineRing buffer;
   private ReadWriteLock lock = new ReentrantReadWriteLock();
 
   private int bufferSize;
@@ -46,10 +49,7 @@ public class LoggingBuffer {
 
   public LoggingBuffer(int bufferSize) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>((int) (bufferSize * 1.1));
+    buffer = new BufferLineRing(bufferSize, this::isGeneral);
     layout = new HopLogLayout(true);
     eventListeners = new CopyOnWriteArrayList<>();
   }
@@ -61,11 +61,8 @@ public class LoggingBuffer {
   public int getLastBufferLineNr() {
     lock.readLock().lock();
     try {
-      if (buffer.size() > 0) {
-        return buffer.get(buffer.size() - 1).getNr();
-      } else {
-        return 0;
-      }
+      BufferLine newest = buffer.getNewest();
+      return newest == null ? 0 : newest.getNr();
     } finally {
       lock.readLock().unlock();
     }
@@ -80,24 +77,44 @@ public class LoggingBuffer {
    */
   public List<HopLoggingEvent> getLogBufferFromTo(
       List<String> channelId, boolean includeGeneral, int from, int to) {
+    List<BufferLine> lines;
     lock.readLock().lock();
     try {
-      Stream<BufferLine> bufferStream =
-          buffer.stream().filter(line -> line.getNr() > from && line.getNr() <= to);
-      if (channelId != null) {
-        bufferStream =
-            bufferStream.filter(
-                line -> {
-                  String logChannelId = getLogChId(line);
-                  return includeGeneral
-                      ? isGeneral(logChannelId) || channelId.contains(logChannelId)
-                      : channelId.contains(logChannelId);
-                });
+      if (channelId == null) {
+        lines = buffer.getLines(from, to);
+      } else {
+        // Only look at the lines of the requested channels
+        //
+        Set<String> channelIds = new LinkedHashSet<>(channelId);
+        if (includeGeneral) {
+          for (String bufferChannelId : buffer.getChannelIds()) {
+            if (buffer.isGeneralChannel(bufferChannelId)) {
+              channelIds.add(bufferChannelId);
+            }
+          }
+        }
+        lines = new ArrayList<>();
+        int channelsWithLines = 0;
+        for (String id : channelIds) {
+          List<BufferLine> channelLines = buffer.getLines(id, from, to);
+          if (!channelLines.isEmpty()) {
+            lines.addAll(channelLines);
+            channelsWithLines++;
+          }
+        }
+        if (channelsWithLines > 1) {
+          lines.sort(Comparator.comparingInt(BufferLine::getNr));
+        }
       }
-      return bufferStream.map(BufferLine::getEvent).collect(Collectors.toList());
     } finally {
       lock.readLock().unlock();
     }
+
+    List<HopLoggingEvent> events = new ArrayList<>(lines.size());
+    for (BufferLine line : lines) {
+      events.add(line.getEvent());
+    }
+    return events;
   }
 
   /**
@@ -152,9 +169,6 @@ public class LoggingBuffer {
       lock.writeLock().lock();
       try {
         buffer.add(new BufferLine(event));
-        while (bufferSize > 0 && buffer.size() > bufferSize) {
-          buffer.remove(0);
-        }
       } finally {
         lock.writeLock().unlock();
       }
@@ -200,12 +214,18 @@ public class LoggingBuffer {
    *     means: no limit
    */
   public void setMaxNrLines(int maxNrLines) {
-    this.bufferSize = maxNrLines;
+    lock.writeLock().lock();
+    try {
+      this.bufferSize = maxNrLines;
+      buffer.setMaxSize(maxNrLines);
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /** @return the nrLines */
   public int getNrLines() {
-    return buffer.size();
+    return size();
   }
 
   /**
@@ -216,43 +236,40 @@ public class LoggingBuffer {
   public void removeChannelFromBuffer(String id) {
     lock.writeLock().lock();
     try {
-      buffer.removeIf(line -> id.equals(getLogChId(line)));
+      buffer.removeChannel(id);
     } finally {
       lock.writeLock().unlock();
     }
   }
 
   public int size() {
-    return buffer.size();
+    lock.readLock().lock();
+    try {
+      return buffer.size();
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
   public void removeGeneralMessages() {
     lock.writeLock().lock();
     try {
-      buffer.removeIf(line -> isGeneral(getLogChId(line)));
+      buffer.removeIf(line -> buffer.isGeneralChannel(BufferLineRing.getLogChannelId(line)));
     } finally {
       lock.writeLock().unlock();
     }
   }
 
   public void removeBufferLinesBefore(long minTimeBoundary) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
     lock.writeLock().lock();
     try {
-      for (BufferLine bufferLine : buffer) {
-        if (bufferLine.getEvent().timeStamp < minTimeBoundary) {
-          linesToRemove.add(bufferLine);
-        } else {
-          break;
-        }
+      // The oldest lines are at the start of the buffer
+      //
+      BufferLine oldest = buffer.getOldest();
+      while (oldest != null && oldest.getEvent().timeStamp < minTimeBoundary) {
+        buffer.removeOldest();
+        oldest = buffer.getOldest();
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the
-      // ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll(linesToRemove);
     } finally {
       lock.writeLock().unlock();
     }
@@ -275,8 +292,4 @@ public class LoggingBuffer {
     ILoggingObject loggingObject = loggingRegistry.getLoggingObject(logChannelId);
     return loggingObject != null && LoggingObjectType.GENERAL.equals(loggingObject.getObjectType());
   }
-
-  private static String getLogChId(BufferLine bufferLine) {
-    return ((LogMessage) bufferLine.getEvent().getMessage()).getLogChannelId();
-  }
 }
@@ -41,6 +41,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
 import java.lang.annotation.Annotation;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -65,6 +66,9 @@ public abstract class BasePluginType<T extends Annotation> implements IPluginTyp
 
   private List<String> extraLibraryFolders;
 
+  /** The plugins found while scanning the plugin folders, null when not scanning */
+  private List<PluginRegistryCache.CachedPlugin> scannedPlugins;
+
   public BasePluginType(Class<T> pluginClazz) {
     this.log = new LogChannel("Plugin type");
 
@@ -532,11 +536,28 @@ public abstract class BasePluginType<T extends Annotation> implements IPluginTyp
 
   protected void registerPluginJars() throws HopPluginException {
 
+    // Nothing changed in the plugin folders since the last scan? Then we don't need to scan.
+    //
+    PluginRegistryCache registryCache = PluginRegistryCache.getInstance();
+    String cacheKey = getPluginCacheKey();
+    if (registerCachedPlugins(registryCache.getPlugins(cacheKey))) {
+      return;
+    }
+
     List<PluginClassFile> pluginClassFiles = findAnnotatedClassFiles(pluginClass.getName());
+
+    // The plugins in the same jar file can share a class loader to read the annotations
+    //
+    Map<URL, URLClassLoader> classLoaders = new HashMap<>();
+
+    boolean scanErrors = false;
+    scannedPlugins = new ArrayList<>();
     for (PluginClassFile pluginClassFile : pluginClassFiles) {
 
       URLClassLoader urlClassLoader =
-          createUrlClassLoader(pluginClassFile.getJarFile(), getClass().getClassLoader());
+          classLoaders.computeIfAbsent(
+              pluginClassFile.getJarFile(),
+              jarFile -> createUrlClassLoader(jarFile, getClass().getClassLoader()));
 
       try {
         Class<?> clazz = urlClassLoader.loadClass(pluginClassFile.getClassName());
@@ -552,8 +573,67 @@ public abstract class BasePluginType<T extends Annotation> implements IPluginTyp
         // Ignore for now, don't know if it's even possible.
         LogChannel.GENERAL.logError(
             "Unexpected error registering jar plugin file: " + pluginClassFile.getJarFile(), e);
+        scanErrors = true;
       }
     }
+
+    // Don't cache an incomplete list of plugins, we'll try again next time
+    //
+    if (!scanErrors) {
+      registryCache.putPlugins(cacheKey, scannedPlugins);
+    }
+    scannedPlugins = null;
+  }
+
+  /**
+   * The plugins of a type depend on the plugin type and on the jar files in the extra library
+   * folders.
+   *
+   * @return The key of this plugin type in the plugin registry cache
+   */
+  protected String getPluginCacheKey() {
+    return getClass().getName() + "|" + String.join(",", addExtraJarFiles());
+  }
+
+  /**
+   * Register the plugins found in the plugin folders during a previous run.
+   *
+   * @param cachedPlugins The cached plugins or null if there are none
+   * @return true if the plugins were registered, false if the plugin folders need to be scanned
+   */
+  private boolean registerCachedPlugins(List<PluginRegistryCache.CachedPlugin> cachedPlugins)
+      throws HopPluginException {
+    if (cachedPlugins == null) {
+      return false;
+    }
+
+    // Create all the plugins first: if a type can't be found we scan again
+    //
+    List<IPlugin> plugins = new ArrayList<>();
+    for (PluginRegistryCache.CachedPlugin cachedPlugin : cachedPlugins) {
+      try {
+        plugins.add(cachedPlugin.createPlugin(getClass(), getClass().getClassLoader()));
+      } catch (ClassNotFoundException | MalformedURLException e) {
+        log.logDetailed(
+            "Unable to use the plugin cache for "
+                + pluginClass.getSimpleName()
+                + " : "
+                + e.getMessage());
+        return false;
+      }
+    }
+    for (int i = 0; i < plugins.size(); i++) {
+      registerPlugin(plugins.get(i), cachedPlugins.get(i).getParentFirstPatterns());
+    }
+    return true;
+  }
+
+  private void registerPlugin(IPlugin plugin, String[] parentFirstPatterns)
+      throws HopPluginException {
+    if (parentFirstPatterns != null) {
+      registry.addParentClassLoaderPatterns(plugin, parentFirstPatterns);
+    }
+    registry.registerPlugin(this.getClass(), plugin);
   }
 
   /**
@@ -651,10 +731,13 @@ public abstract class BasePluginType<T extends Annotation> implements IPluginTyp
             suggestion);
 
     ParentFirst parentFirstAnnotation = clazz.getAnnotation(ParentFirst.class);
-    if (parentFirstAnnotation != null) {
-      registry.addParentClassLoaderPatterns(plugin, parentFirstAnnotation.patterns());
+    String[] parentFirstPatterns =
+        parentFirstAnnotation == null ? null : parentFirstAnnotation.patterns();
+    registerPlugin(plugin, parentFirstPatterns);
+
+    if (scannedPlugins != null && !nativePluginType) {
+      scannedPlugins.add(new PluginRegistryCache.CachedPlugin(plugin, parentFirstPatterns));
     }
-    registry.registerPlugin(this.getClass(), plugin);
 
     if (libraries != null && !libraries.isEmpty()) {
       LogChannel.GENERAL.logDetailed(
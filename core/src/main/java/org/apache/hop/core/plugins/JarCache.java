@@ -31,6 +31,8 @@ import java.io.InputStream;
 import java.net.URL;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -41,6 +43,7 @@ public class JarCache {
   private static JarCache instance;
 
   private final Map<File, Index> indexCache;
+  private final Set<File> jarsWithoutIndex;
   private final Map<File, Set<File>> jarFiles;
   private final Set<File> nativeFiles;
   private final Set<File> pluginFiles;
@@ -49,7 +52,8 @@ public class JarCache {
     nativeFiles = new HashSet<>();
     pluginFiles = new HashSet<>();
     jarFiles = new HashMap<>();
-    indexCache = new HashMap<>();
+    indexCache = new ConcurrentHashMap<>();
+    jarsWithoutIndex = ConcurrentHashMap.newKeySet();
   }
 
   public static JarCache getInstance() {
@@ -132,26 +136,47 @@ public class JarCache {
     //
     if (pluginFiles.isEmpty()) {
 
+      List<File> files = new ArrayList<>();
       for (String pluginFolder : getPluginFolders()) {
+        files.addAll(this.findJarFiles(new File(pluginFolder)));
+      }
 
-        for (File file : this.findJarFiles(new File(pluginFolder))) {
-          Index index = this.getIndex(file);
-          if (index != null) {
-            pluginFiles.add(file);
-          }
+      // Reading the annotation indexes is most of the work, do it in parallel
+      //
+      readIndexes(files);
+
+      for (File file : files) {
+        if (indexCache.containsKey(file)) {
+          pluginFiles.add(file);
         }
       }
     }
     return pluginFiles;
   }
 
+  private void readIndexes(List<File> files) throws HopFileException {
+    AtomicReference<HopFileException> error = new AtomicReference<>();
+    files.parallelStream()
+        .forEach(
+            file -> {
+              try {
+                getIndex(file);
+              } catch (HopFileException e) {
+                error.compareAndSet(null, e);
+              }
+            });
+    if (error.get() != null) {
+      throw error.get();
+    }
+  }
+
   public Index getIndex(File jarFile) throws HopFileException {
 
     // Search annotation index from cache
     //
     Index index = indexCache.get(jarFile);
 
-    if (index == null) {
+    if (index == null && !jarsWithoutIndex.contains(jarFile)) {
 
       try (JarFile jar = new JarFile(jarFile)) {
         ZipEntry entry = jar.getEntry(ANNOTATION_INDEX_LOCATION);
@@ -159,7 +184,6 @@ public class JarCache {
           try (InputStream stream = jar.getInputStream(entry)) {
             IndexReader reader = new IndexReader(stream);
             index = reader.read();
-            indexCache.put(jarFile, index);
           }
         }
       } catch (IOException e) {
@@ -169,7 +193,11 @@ public class JarCache {
 
       // Cache annotation index of jars
       //
-      indexCache.put(jarFile, index);
+      if (index != null) {
+        indexCache.put(jarFile, index);
+      } else {
+        jarsWithoutIndex.add(jarFile);
+      }
     }
 
     return index;
@@ -179,6 +207,7 @@ public class JarCache {
     nativeFiles.clear();
     pluginFiles.clear();
     indexCache.clear();
+    jarsWithoutIndex.clear();
     jarFiles.clear();
   }
 
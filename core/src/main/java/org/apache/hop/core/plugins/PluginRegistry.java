@@ -507,10 +507,15 @@ public class PluginRegistry {
       registry.registerType(pluginType);
     }
 
+    // Keep the plugins found in the plugin folders for the next run
+    //
+    PluginRegistryCache.getInstance().save();
+
     // Clear the jar file cache so that we don't waste memory...
     //
     if (!keepCache) {
       JarCache.getInstance().clear();
+      PluginRegistryCache.getInstance().clear();
     }
   }
 
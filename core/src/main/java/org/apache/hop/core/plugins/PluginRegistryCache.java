@@ -0,0 +1,519 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.plugins;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.i18n.GlobalMessageUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps the plugins found in the plugin folders in a file between runs. Scanning the plugin folders
+ * means reading the annotation index of every jar file and loading every plugin class in a class
+ * loader of its own. As long as nothing changed in the plugin folders the plugins are registered
+ * from this cache instead and their class loaders are only created once a plugin is used.
+ *
+ * <p>The cache is only used for the same plugin folders, Hop core jar and locale. The jar and xml
+ * files in the plugin folders are recognized by their path, size and modification time.
+ */
+public class PluginRegistryCache {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static PluginRegistryCache instance;
+
+  private final File cacheFile;
+  private final List<String> pluginFolders;
+
+  private boolean loaded;
+  private String fingerprint;
+  private Map<String, List<CachedPlugin>> cachedTypes;
+  private final Map<String, List<CachedPlugin>> scannedTypes = new LinkedHashMap<>();
+
+  /**
+   * @param cacheFile The file to keep the plugins in, null to disable the cache
+   * @param pluginFolders The plugin folders which are scanned for plugins
+   */
+  PluginRegistryCache(File cacheFile, List<String> pluginFolders) {
+    this.cacheFile = cacheFile;
+    this.pluginFolders = pluginFolders;
+  }
+
+  public static synchronized PluginRegistryCache getInstance() {
+    if (instance == null) {
+      instance =
+          new PluginRegistryCache(getDefaultCacheFile(), JarCache.getInstance().getPluginFolders());
+    }
+    return instance;
+  }
+
+  /**
+   * The cache file is configured with variable HOP_PLUGIN_CACHE_FILE. By default it's kept in the
+   * configuration folder.
+   */
+  private static File getDefaultCacheFile() {
+    String filename =
+        Variables.getADefaultVariableSpace().getVariable(Const.HOP_PLUGIN_CACHE_FILE);
+    if (filename == null) {
+      filename = EnvUtil.getSystemProperty(Const.HOP_PLUGIN_CACHE_FILE);
+    }
+    return getCacheFile(filename);
+  }
+
+  /**
+   * @param filename The value of HOP_PLUGIN_CACHE_FILE or null if it isn't set
+   * @return The cache file or null if the value is empty or NONE to disable the cache
+   */
+  static File getCacheFile(String filename) {
+    if (filename == null) {
+      return new File(Const.HOP_CONFIG_FOLDER, Const.DEFAULT_PLUGIN_CACHE_FILENAME);
+    }
+    filename = filename.trim();
+    if (filename.isEmpty() || Const.HOP_PLUGIN_CACHE_FILE_NONE.equalsIgnoreCase(filename)) {
+      return null;
+    }
+    return new File(filename);
+  }
+
+  /**
+   * Get the cached plugins of a plugin type.
+   *
+   * @param typeKey The key of the plugin type, see {@link BasePluginType#getPluginCacheKey()}
+   * @return The cached plugins or null if the plugin folders need to be scanned for this type
+   */
+  public synchronized List<CachedPlugin> getPlugins(String typeKey) {
+    if (!load()) {
+      return null;
+    }
+    return cachedTypes.get(typeKey);
+  }
+
+  /**
+   * Keep the plugins which were found by scanning the plugin folders. They are written to the cache
+   * file with {@link #save()}.
+   *
+   * @param typeKey The key of the plugin type
+   * @param plugins The plugins found in the plugin folders
+   */
+  public synchronized void putPlugins(String typeKey, List<CachedPlugin> plugins) {
+    if (load()) {
+      scannedTypes.put(typeKey, plugins);
+    }
+  }
+
+  /** Write the cache file if plugin types were scanned. Problems are logged, not thrown. */
+  public synchronized void save() {
+    if (scannedTypes.isEmpty() || !load()) {
+      return;
+    }
+    Map<String, List<CachedPlugin>> types = new LinkedHashMap<>(cachedTypes);
+    types.putAll(scannedTypes);
+    scannedTypes.clear();
+    cachedTypes = types;
+
+    // Write to a temporary file first: other Hop processes might be reading the cache
+    //
+    File tempFile = null;
+    try {
+      File folder = cacheFile.getAbsoluteFile().getParentFile();
+      if (folder != null && !folder.exists()) {
+        folder.mkdirs();
+      }
+      tempFile = File.createTempFile(cacheFile.getName(), ".tmp", folder);
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        write(out, fingerprint, types);
+      }
+      try {
+        Files.move(
+            tempFile.toPath(),
+            cacheFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (Exception e) {
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+      if (HopLogStore.isInitialized()) {
+        LogChannel.GENERAL.logError("Unable to write plugin cache file '" + cacheFile + "'", e);
+      }
+    }
+  }
+
+  /** Forget what was read and scanned, the plugin folders are checked again on next use. */
+  public synchronized void clear() {
+    loaded = false;
+    fingerprint = null;
+    cachedTypes = null;
+    scannedTypes.clear();
+  }
+
+  /** @return true if the cache can be used: it is enabled and there are files in plugin folders */
+  private boolean load() {
+    if (cacheFile == null) {
+      return false;
+    }
+    if (!loaded) {
+      loaded = true;
+      cachedTypes = new HashMap<>();
+      fingerprint = calculateFingerprint();
+      if (fingerprint != null && cacheFile.exists()) {
+        try (DataInputStream in =
+            new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+          cachedTypes = read(in, fingerprint);
+        } catch (Exception e) {
+          // A damaged cache file simply means we scan again
+          //
+          cachedTypes = new HashMap<>();
+          if (HopLogStore.isInitialized() && LogChannel.GENERAL.isDetailed()) {
+            LogChannel.GENERAL.logDetailed(
+                "Unable to read plugin cache file '" + cacheFile + "' : " + e.getMessage());
+          }
+        }
+      }
+    }
+    return fingerprint != null;
+  }
+
+  /**
+   * Calculate a hash of everything the cached plugins depend on.
+   *
+   * @return The hash or null if there are no files in the plugin folders
+   */
+  String calculateFingerprint() {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      StringBuilder text = new StringBuilder();
+      text.append(FORMAT_VERSION).append('\n');
+
+      // The translated names and descriptions depend on the locale
+      //
+      for (Locale locale : GlobalMessageUtil.getActiveLocales()) {
+        text.append(locale).append(',');
+      }
+      text.append('\n');
+
+      // A new version of Hop can handle plugins differently
+      //
+      CodeSource codeSource = PluginRegistryCache.class.getProtectionDomain().getCodeSource();
+      if (codeSource != null && codeSource.getLocation() != null) {
+        appendFile(text, new File(codeSource.getLocation().getFile()));
+      }
+
+      int nrFiles = 0;
+      for (String pluginFolder : pluginFolders) {
+        File folder = new File(pluginFolder).getAbsoluteFile();
+        text.append(folder).append('\n');
+        nrFiles += appendFolder(text, folder);
+      }
+      if (nrFiles == 0) {
+        return null;
+      }
+
+      byte[] hash = digest.digest(text.toString().getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  private static int appendFolder(StringBuilder text, File folder) {
+    File[] children = folder.listFiles();
+    if (children == null) {
+      return 0;
+    }
+    Arrays.sort(children);
+    int nrFiles = 0;
+    for (File child : children) {
+      if (child.isDirectory()) {
+        nrFiles += appendFolder(text, child);
+      } else {
+        String name = child.getName().toLowerCase();
+        if (name.endsWith(".jar") || name.endsWith(".xml")) {
+          appendFile(text, child);
+          nrFiles++;
+        }
+      }
+    }
+    return nrFiles;
+  }
+
+  private static void appendFile(StringBuilder text, File file) {
+    text.append(file.getPath())
+        .append('|')
+        .append(file.length())
+        .append('|')
+        .append(file.lastModified())
+        .append('\n');
+  }
+
+  static void write(DataOutputStream out, String fingerprint, Map<String, List<CachedPlugin>> types)
+      throws IOException {
+    out.writeInt(FORMAT_VERSION);
+    out.writeUTF(fingerprint);
+    out.writeInt(types.size());
+    for (Map.Entry<String, List<CachedPlugin>> entry : types.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeInt(entry.getValue().size());
+      for (CachedPlugin plugin : entry.getValue()) {
+        plugin.write(out);
+      }
+    }
+  }
+
+  /** @return The cached plugin types or an empty map if the cache is for other plugin files */
+  static Map<String, List<CachedPlugin>> read(DataInputStream in, String fingerprint)
+      throws IOException {
+    Map<String, List<CachedPlugin>> types = new HashMap<>();
+    if (in.readInt() != FORMAT_VERSION || !fingerprint.equals(in.readUTF())) {
+      return types;
+    }
+    int nrTypes = in.readInt();
+    for (int t = 0; t < nrTypes; t++) {
+      String typeKey = in.readUTF();
+      int nrPlugins = in.readInt();
+      List<CachedPlugin> plugins = new ArrayList<>(nrPlugins);
+      for (int p = 0; p < nrPlugins; p++) {
+        plugins.add(CachedPlugin.read(in));
+      }
+      types.put(typeKey, plugins);
+    }
+    return types;
+  }
+
+  /** What the plugin registry needs to know about a plugin, without loading any of its classes. */
+  public static class CachedPlugin {
+    private String[] ids;
+    private String mainType;
+    private String category;
+    private String name;
+    private String description;
+    private String imageFile;
+    private boolean separateClassLoaderNeeded;
+    private String classLoaderGroup;
+    private Map<String, String> classMap;
+    private List<String> libraries;
+    private String errorHelpFile;
+    private String[] keywords;
+    private String pluginFolder;
+    private boolean usingLibrariesOutsidePluginFolder;
+    private String documentationUrl;
+    private String casesUrl;
+    private String forumUrl;
+    private String suggestion;
+    private String[] parentFirstPatterns;
+
+    private CachedPlugin() {}
+
+    /**
+     * @param plugin The plugin to cache
+     * @param parentFirstPatterns The patterns of the classes to load with the parent class loader
+     *     first or null
+     */
+    public CachedPlugin(IPlugin plugin, String[] parentFirstPatterns) {
+      ids = plugin.getIds();
+      mainType = plugin.getMainType().getName();
+      category = plugin.getCategory();
+      name = plugin.getName();
+      description = plugin.getDescription();
+      imageFile = plugin.getImageFile();
+      separateClassLoaderNeeded = plugin.isSeparateClassLoaderNeeded();
+      classLoaderGroup = plugin.getClassLoaderGroup();
+      classMap = new LinkedHashMap<>();
+      for (Map.Entry<Class<?>, String> entry : plugin.getClassMap().entrySet()) {
+        classMap.put(entry.getKey().getName(), entry.getValue());
+      }
+      libraries = plugin.getLibraries() == null ? new ArrayList<>() : plugin.getLibraries();
+      errorHelpFile = plugin.getErrorHelpFile();
+      keywords = plugin.getKeywords();
+      pluginFolder =
+          plugin.getPluginDirectory() == null ? null : plugin.getPluginDirectory().toString();
+      usingLibrariesOutsidePluginFolder = plugin.isUsingLibrariesOutsidePluginFolder();
+      documentationUrl = plugin.getDocumentationUrl();
+      casesUrl = plugin.getCasesUrl();
+      forumUrl = plugin.getForumUrl();
+      suggestion = plugin.getSuggestion();
+      this.parentFirstPatterns = parentFirstPatterns;
+    }
+
+    /**
+     * Create the plugin again. Only the main type and the classes of the class map are loaded, not
+     * the plugin classes themselves.
+     *
+     * @param pluginType The plugin type
+     * @param classLoader The class loader to load the main type and class map types with
+     * @return The plugin
+     * @throws ClassNotFoundException if the main type or a class map type no longer exists
+     * @throws MalformedURLException if the plugin folder can't be parsed
+     */
+    public IPlugin createPlugin(Class<? extends IPluginType> pluginType, ClassLoader classLoader)
+        throws ClassNotFoundException, MalformedURLException {
+      Map<Class<?>, String> pluginClassMap = new HashMap<>();
+      for (Map.Entry<String, String> entry : classMap.entrySet()) {
+        pluginClassMap.put(Class.forName(entry.getKey(), false, classLoader), entry.getValue());
+      }
+      return new Plugin(
+          ids,
+          pluginType,
+          Class.forName(mainType, false, classLoader),
+          category,
+          name,
+          description,
+          imageFile,
+          separateClassLoaderNeeded,
+          classLoaderGroup,
+          false,
+          pluginClassMap,
+          new ArrayList<>(libraries),
+          errorHelpFile,
+          keywords,
+          pluginFolder == null ? null : new URL(pluginFolder),
+          usingLibrariesOutsidePluginFolder,
+          documentationUrl,
+          casesUrl,
+          forumUrl,
+          suggestion);
+    }
+
+    /** @return The patterns of the classes to load with the parent class loader first or null */
+    public String[] getParentFirstPatterns() {
+      return parentFirstPatterns;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      writeStrings(out, ids);
+      out.writeUTF(mainType);
+      writeString(out, category);
+      writeString(out, name);
+      writeString(out, description);
+      writeString(out, imageFile);
+      out.writeBoolean(separateClassLoaderNeeded);
+      writeString(out, classLoaderGroup);
+      out.writeInt(classMap.size());
+      for (Map.Entry<String, String> entry : classMap.entrySet()) {
+        out.writeUTF(entry.getKey());
+        writeString(out, entry.getValue());
+      }
+      writeStrings(out, libraries.toArray(new String[0]));
+      writeString(out, errorHelpFile);
+      writeStrings(out, keywords);
+      writeString(out, pluginFolder);
+      out.writeBoolean(usingLibrariesOutsidePluginFolder);
+      writeString(out, documentationUrl);
+      writeString(out, casesUrl);
+      writeString(out, forumUrl);
+      writeString(out, suggestion);
+      writeStrings(out, parentFirstPatterns);
+    }
+
+    static CachedPlugin read(DataInputStream in) throws IOException {
+      CachedPlugin plugin = new CachedPlugin();
+      plugin.ids = readStrings(in);
+      plugin.mainType = in.readUTF();
+      plugin.category = readString(in);
+      plugin.name = readString(in);
+      plugin.description = readString(in);
+      plugin.imageFile = readString(in);
+      plugin.separateClassLoaderNeeded = in.readBoolean();
+      plugin.classLoaderGroup = readString(in);
+      int classMapSize = in.readInt();
+      plugin.classMap = new LinkedHashMap<>();
+      for (int i = 0; i < classMapSize; i++) {
+        plugin.classMap.put(in.readUTF(), readString(in));
+      }
+      String[] libraries = readStrings(in);
+      plugin.libraries = libraries == null ? new ArrayList<>() : Arrays.asList(libraries);
+      plugin.errorHelpFile = readString(in);
+      plugin.keywords = readStrings(in);
+      plugin.pluginFolder = readString(in);
+      plugin.usingLibrariesOutsidePluginFolder = in.readBoolean();
+      plugin.documentationUrl = readString(in);
+      plugin.casesUrl = readString(in);
+      plugin.forumUrl = readString(in);
+      plugin.suggestion = readString(in);
+      plugin.parentFirstPatterns = readStrings(in);
+      return plugin;
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+      out.writeBoolean(string != null);
+      if (string != null) {
+        out.writeUTF(string);
+      }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+      return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] strings) throws IOException {
+      out.writeInt(strings == null ? -1 : strings.length);
+      if (strings != null) {
+        for (String string : strings) {
+          writeString(out, string);
+        }
+      }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+      int length = in.readInt();
+      if (length < 0) {
+        return null;
+      }
+      String[] strings = new String[length];
+      for (int i = 0; i < length; i++) {
+        strings[i] = readString(in);
+      }
+      return strings;
+    }
+  }
+}
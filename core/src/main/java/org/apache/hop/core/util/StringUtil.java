@@ -20,6 +20,7 @@ package org.apache.hop.core.util;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.variables.VariableTemplate;
 
 import java.text.DateFormat;
 import java.text.DateFormatSymbols;
@@ -28,7 +29,6 @@ import java.text.DecimalFormatSymbols;
 import java.text.Normalizer;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -250,24 +250,20 @@ public class StringUtil {
 
   /**
    * Substitutes variables in <code>aString</code> with the environment values in the system
-   * properties
+   * properties. The parsed form of the string is cached so repeated substitutions of the same
+   * string are cheap. No lock is taken: pass a map which is safe to read concurrently.
    *
    * @param aString the string on which to apply the substitution.
    * @param systemProperties the system properties to use
    *
    * @return the string with the substitution applied.
    */
-  public static final synchronized String environmentSubstitute(
+  public static final String environmentSubstitute(
       String aString, Map<String, String> systemProperties) {
-    Map<String, String> sysMap = new HashMap<>();
-    synchronized (sysMap) {
-      sysMap.putAll(Collections.synchronizedMap(systemProperties));
-
-      aString = substituteWindows(aString, sysMap);
-      aString = substituteUnix(aString, sysMap);
-      aString = substituteHex(aString);
-      return aString;
+    if (aString == null) {
+      return null;
     }
+    return VariableTemplate.resolve(aString, systemProperties);
   }
 
   /**
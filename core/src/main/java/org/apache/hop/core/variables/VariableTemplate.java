@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.variables;
+
+import org.apache.hop.core.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A string containing variable expressions like ${var}, %%var%% or $[hex], parsed once and cached.
+ * Resolving a parsed template gives exactly the same result as {@link
+ * StringUtil#environmentSubstitute(String, Map)}: first the %%var%% variables are replaced, then
+ * the ${var} variables and finally the $[hex] values.
+ *
+ * <p>Most strings don't contain any variables at all. They are returned as-is. Strings with only
+ * ${var} expressions are split into literals and variable names up front so resolving them is
+ * little more than a hash lookup per variable. Anything else falls back to the classic
+ * substitution.
+ */
+public final class VariableTemplate {
+
+  /** The maximum number of parsed templates to keep around. */
+  private static final int MAX_CACHE_SIZE = 10000;
+
+  private static final Map<String, VariableTemplate> cache = new ConcurrentHashMap<>();
+
+  private final String template;
+
+  /** true if there is nothing to substitute in the template */
+  private final boolean constant;
+
+  /** The literal parts of the template, one more than the number of variables */
+  private final String[] literals;
+
+  /** The names of the ${var} variables or null if the classic substitution is needed */
+  private final String[] variableNames;
+
+  private VariableTemplate(String template) {
+    this.template = template;
+
+    boolean windows = template.contains(StringUtil.WINDOWS_OPEN);
+    boolean unix = template.contains(StringUtil.UNIX_OPEN);
+    boolean hex = template.contains(StringUtil.HEX_OPEN);
+    this.constant = !windows && !unix && !hex;
+
+    if (constant || windows) {
+      // Nothing to parse or the result of the %%var%% pass determines what's left to do.
+      //
+      this.literals = null;
+      this.variableNames = null;
+    } else {
+      // Split the string up in the same way as StringUtil.substitute() scans it.
+      //
+      List<String> literalList = new ArrayList<>();
+      List<String> nameList = new ArrayList<>();
+      String open = StringUtil.UNIX_OPEN;
+      String close = StringUtil.UNIX_CLOSE;
+      int start = 0;
+      int i = template.indexOf(open);
+      while (i > -1) {
+        int j = template.indexOf(close, i + open.length());
+        if (j < 0) {
+          break;
+        }
+        literalList.add(template.substring(start, i));
+        nameList.add(template.substring(i + open.length(), j));
+        start = j + close.length();
+        i = template.indexOf(open, start);
+      }
+      literalList.add(template.substring(start));
+
+      this.literals = literalList.toArray(new String[0]);
+      this.variableNames = nameList.toArray(new String[0]);
+    }
+  }
+
+  /**
+   * Get the parsed template for a string. Templates are cached so parsing happens only once for
+   * strings which are resolved over and over.
+   *
+   * @param template The string to parse
+   * @return The parsed template
+   */
+  public static VariableTemplate compile(String template) {
+    VariableTemplate variableTemplate = cache.get(template);
+    if (variableTemplate == null) {
+      variableTemplate = new VariableTemplate(template);
+      if (cache.size() >= MAX_CACHE_SIZE) {
+        // Strings built on the fly can be different every time. Don't let those fill up the heap.
+        //
+        cache.clear();
+      }
+      cache.put(template, variableTemplate);
+    }
+    return variableTemplate;
+  }
+
+  /**
+   * Substitute the variables in a string, using the cached template for the string.
+   *
+   * @param aString The string to substitute the variables in
+   * @param variables The variable values to use
+   * @return The string with the variables substituted
+   */
+  public static String resolve(String aString, Map<String, String> variables) {
+    if (aString == null || aString.length() == 0) {
+      return aString;
+    }
+    return compile(aString).resolve(variables);
+  }
+
+  /**
+   * Substitute the variables in this template.
+   *
+   * @param variables The variable values to use
+   * @return The string with the variables substituted
+   */
+  public String resolve(Map<String, String> variables) {
+    if (constant) {
+      return template;
+    }
+    if (variableNames == null) {
+      String result = StringUtil.substituteWindows(template, variables);
+      result = StringUtil.substituteUnix(result, variables);
+      return StringUtil.substituteHex(result);
+    }
+
+    StringBuilder buffer = new StringBuilder(template.length() + 16 * variableNames.length);
+    int recursion = 0;
+    for (int i = 0; i < variableNames.length; i++) {
+      buffer.append(literals[i]);
+      String name = variableNames[i];
+      String value = variables.get(name);
+      if (value == null) {
+        buffer.append(StringUtil.UNIX_OPEN).append(name).append(StringUtil.UNIX_CLOSE);
+      } else if (value.contains(StringUtil.UNIX_OPEN)) {
+        // A variable referencing another variable
+        //
+        if (recursion > 50) {
+          throw new RuntimeException(
+              "Endless loop detected for substitution of variable: " + value);
+        }
+        buffer.append(
+            StringUtil.substitute(
+                value, variables, StringUtil.UNIX_OPEN, StringUtil.UNIX_CLOSE, ++recursion));
+      } else {
+        buffer.append(value);
+      }
+    }
+    buffer.append(literals[variableNames.length]);
+
+    String result = buffer.toString();
+    if (result.contains(StringUtil.HEX_OPEN)) {
+      result = StringUtil.substituteHex(result);
+    }
+    return result;
+  }
+
+  /** @return true if there is nothing to substitute in this template */
+  public boolean isConstant() {
+    return constant;
+  }
+
+  /** @return The original string */
+  public String getTemplate() {
+    return template;
+  }
+
+  /** Remove all parsed templates from the cache. */
+  public static void clearCache() {
+    cache.clear();
+  }
+}
@@ -27,11 +27,21 @@ import org.apache.hop.core.util.StringUtil;
 import org.apache.hop.core.util.Utils;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /** This class is an implementation of IVariables */
 public class Variables implements IVariables {
   private Map<String, String> properties;
 
+  private static final AtomicLongFieldUpdater<Variables> VERSION_UPDATER =
+      AtomicLongFieldUpdater.newUpdater(Variables.class, "version");
+
+  /** Incremented after every change to the properties */
+  private volatile long version;
+
+  /** A read-only copy of the properties used to resolve variables without locking */
+  private volatile Snapshot snapshot;
+
   private IVariables parent;
 
   private Map<String, String> injection;
@@ -54,6 +64,7 @@ public class Variables implements IVariables {
       for (int idx = 0; idx < variableNames.length; idx++) {
         properties.put(variableNames[idx], variables.getVariable(variableNames[idx]));
       }
+      propertiesChanged();
     }
   }
 
@@ -116,6 +127,7 @@ public class Variables implements IVariables {
       getProperties().putAll(injection);
       injection = null;
     }
+    propertiesChanged();
     initialized = true;
   }
 
@@ -132,15 +144,39 @@ public class Variables implements IVariables {
     } else {
       properties.remove(variableName);
     }
+    propertiesChanged();
   }
 
+  /**
+   * Resolves the variables in the given string. This doesn't take a lock: the parsed form of the
+   * string is cached and the values are looked up in a read-only copy of the variables which is
+   * only taken again after a variable changed.
+   */
   @Override
-  public synchronized String resolve(String aString) {
+  public String resolve(String aString) {
     if (aString == null || aString.length() == 0) {
       return aString;
     }
 
-    return StringUtil.environmentSubstitute(aString, properties);
+    return VariableTemplate.resolve(aString, getSnapshot());
+  }
+
+  private Map<String, String> getSnapshot() {
+    Snapshot current = snapshot;
+    long currentVersion = version;
+    if (current == null || current.version != currentVersion) {
+      Map<String, String> copy;
+      synchronized (properties) {
+        copy = new HashMap<>(properties);
+      }
+      current = new Snapshot(currentVersion, copy);
+      snapshot = current;
+    }
+    return current.variables;
+  }
+
+  private void propertiesChanged() {
+    VERSION_UPDATER.incrementAndGet(this);
   }
 
   /**
@@ -190,6 +226,7 @@ public class Variables implements IVariables {
             properties.put(key, Const.NVL(value, ""));
           }
         }
+        propertiesChanged();
         injection = null;
       }
     } else {
@@ -222,4 +259,15 @@ public class Variables implements IVariables {
   Map<String, String> getProperties() {
     return properties;
   }
+
+  /** An immutable copy of the variables at a certain version */
+  private static final class Snapshot {
+    private final long version;
+    private final Map<String, String> variables;
+
+    private Snapshot(long version, Map<String, String> variables) {
+      this.version = version;
+      this.variables = variables;
+    }
+  }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.metadata.serializer.json;
+
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the JSON metadata files which were read recently as parsed tokens. The cache is shared by
+ * all JSON metadata providers in the JVM since these are often created for a single lookup (Hop
+ * Server web services for example). An entry is only used as long as the last modification time
+ * and size of the file didn't change.
+ *
+ * <p>We keep the parsed tokens and not the metadata objects themselves: those are mutable and are
+ * initialized with the variables of the provider which loads them, so every load gets its own copy.
+ */
+public class JsonMetadataCache {
+
+  /** The maximum number of files to keep, the least recently used ones are dropped first */
+  public static final int MAX_ENTRIES = 5000;
+
+  private static final JsonMetadataCache instance = new JsonMetadataCache(MAX_ENTRIES);
+
+  private final Map<String, Entry> entries;
+
+  public JsonMetadataCache(int maxEntries) {
+    this.entries =
+        new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  public static JsonMetadataCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Get the parsed tokens of a file if they are still current
+   *
+   * @param filename The URI of the file
+   * @param lastModified The current last modification time of the file
+   * @param size The current size of the file
+   * @return The tokens or null if the file isn't cached or has changed since it was read
+   */
+  public synchronized TokenBuffer get(String filename, long lastModified, long size) {
+    Entry entry = entries.get(filename);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.lastModified != lastModified || entry.size != size) {
+      entries.remove(filename);
+      return null;
+    }
+    return entry.tokens;
+  }
+
+  /**
+   * Remember the parsed tokens of a file
+   *
+   * @param filename The URI of the file
+   * @param lastModified The last modification time of the file when it was read
+   * @param size The size of the file when it was read
+   * @param tokens The tokens of the JSON object in the file
+   */
+  public synchronized void put(String filename, long lastModified, long size, TokenBuffer tokens) {
+    entries.put(filename, new Entry(lastModified, size, tokens));
+  }
+
+  /**
+   * Forget about a file, for example after it was written or deleted.
+   *
+   * @param filename The URI of the file
+   */
+  public synchronized void invalidate(String filename) {
+    entries.remove(filename);
+  }
+
+  /** Forget about all files */
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /** @return The number of files in the cache */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static final class Entry {
+    private final long lastModified;
+    private final long size;
+    private final TokenBuffer tokens;
+
+    private Entry(long lastModified, long size, TokenBuffer tokens) {
+      this.lastModified = lastModified;
+      this.size = size;
+      this.tokens = tokens;
+    }
+  }
+}
@@ -18,14 +18,17 @@
 package org.apache.hop.metadata.serializer.json;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.metadata.api.HopMetadata;
@@ -45,6 +48,8 @@ import java.util.List;
 /** @param <T> */
 public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetadataSerializer<T> {
 
+  private static final JsonFactory jsonFactory = new JsonFactory();
+
   protected IHopMetadataProvider metadataProvider;
   protected String baseFolder;
   protected Class<T> managedClass;
@@ -99,22 +104,16 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
 
     try {
       // Load the JSON in a streaming fashion so we can parse the properties one by one...
+      // The tokens of the file are cached as long as the file doesn't change.
       //
-      InputStream fileInputStream = null;
-      try {
-        fileInputStream = HopVfs.getInputStream(filename);
-        JsonFactory jsonFactory = new JsonFactory();
-        com.fasterxml.jackson.core.JsonParser jsonParser =
-            jsonFactory.createParser(fileInputStream);
-
+      TokenBuffer tokens = getTokens(HopVfs.getFileObject(filename));
+      try (com.fasterxml.jackson.core.JsonParser jsonParser = tokens.asParser()) {
         jsonParser.nextToken(); // skip {
 
         T t = parser.loadJsonObject(managedClass, jsonParser);
         inheritVariables(t);
         t.setMetadataProviderName(metadataProvider.getDescription());
         return t;
-      } finally {
-        fileInputStream.close();
       }
     } catch (Exception e) {
       throw new HopException(
@@ -122,6 +121,57 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
     }
   }
 
+  /**
+   * Get the parsed tokens of the JSON object in a file from the cache or read them from the file.
+   *
+   * @param file The file to read
+   * @return The tokens of the JSON object in the file
+   */
+  private TokenBuffer getTokens(FileObject file) throws Exception {
+    String uri = file.getName().getURI();
+    long lastModified;
+    long size;
+    try {
+      FileContent content = file.getContent();
+      lastModified = content.getLastModifiedTime();
+      size = content.getSize();
+    } catch (FileSystemException e) {
+      // The file system can't tell us if the file changed so we can't cache it
+      //
+      return readTokens(file);
+    }
+
+    JsonMetadataCache cache = JsonMetadataCache.getInstance();
+    TokenBuffer tokens = cache.get(uri, lastModified, size);
+    if (tokens == null) {
+      tokens = readTokens(file);
+      cache.put(uri, lastModified, size, tokens);
+    }
+    return tokens;
+  }
+
+  private TokenBuffer readTokens(FileObject file) throws Exception {
+    try (InputStream inputStream = HopVfs.getInputStream(file);
+        com.fasterxml.jackson.core.JsonParser jsonParser =
+            jsonFactory.createParser(inputStream)) {
+      if (jsonParser.nextToken() == null) {
+        throw new HopException("No JSON object found in file '" + file.getName().getURI() + "'");
+      }
+      TokenBuffer tokens = new TokenBuffer(jsonParser);
+      tokens.copyCurrentStructure(jsonParser);
+      return tokens;
+    }
+  }
+
+  private void invalidateCache(String filename) {
+    try {
+      JsonMetadataCache.getInstance()
+          .invalidate(HopVfs.getFileObject(filename).getName().getURI());
+    } catch (HopFileException e) {
+      // Not a valid file name: nothing was cached for it either
+    }
+  }
+
   /**
    * If the loaded object implements variables we can inherit from it.
    *
@@ -153,6 +203,7 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
         String formattedJson = gson.toJson(je);
         outputStream.write(formattedJson.getBytes(StandardCharsets.UTF_8));
         outputStream.flush();
+        invalidateCache(filename);
 
         // Remember where we saved this...
         //
@@ -183,6 +234,7 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
     String filename = calculateFilename(name);
     try {
       boolean deleted = HopVfs.getFileObject(filename).delete();
+      invalidateCache(filename);
       if (!deleted) {
         throw new HopException(
             "Error: Object '" + name + "' could not be deleted, filename : " + filename);
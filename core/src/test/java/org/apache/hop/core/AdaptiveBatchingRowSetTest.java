@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveBatchingRowSetTest {
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setup() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("ROWNR"));
+  }
+
+  @Test
+  public void testBasicCreation() {
+    AdaptiveBatchingRowSet set = new AdaptiveBatchingRowSet(10000);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertEquals(AdaptiveBatchingRowSet.DEFAULT_MAX_BATCH_SIZE, set.getMaxBatchSize());
+    assertNull(set.getRowImmediate());
+  }
+
+  /** A few rows which don't fill a batch should never stall. */
+  @Test
+  public void testPartialBatchIsFlushed() {
+    AdaptiveBatchingRowSet set = new AdaptiveBatchingRowSet(10000, 1000, 1);
+
+    for (long i = 0; i < 3; i++) {
+      assertTrue(set.putRow(rowMeta, new Object[] {i}));
+    }
+    assertEquals(3, set.size());
+
+    // The consumer takes over the partial batch after the flush interval
+    //
+    Object[] row = set.getRowWait(100, TimeUnit.MILLISECONDS);
+    assertNotNull(row);
+    assertEquals(0L, row[0]);
+    assertEquals(1L, set.getRowImmediate()[0]);
+    assertEquals(2L, set.getRowImmediate()[0]);
+    assertNull(set.getRowImmediate());
+
+    // The producer starts a new batch after the take-over
+    //
+    assertTrue(set.putRow(rowMeta, new Object[] {3L}));
+    set.setDone();
+    assertEquals(3L, set.getRowImmediate()[0]);
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testGetRows() {
+    AdaptiveBatchingRowSet set = new AdaptiveBatchingRowSet(100, 10, 0);
+    for (long i = 0; i < 25; i++) {
+      assertTrue(set.putRow(rowMeta, new Object[] {i}));
+    }
+    set.setDone();
+
+    List<Object[]> rows = set.getRows(20);
+    assertEquals(20, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals((long) i, rows.get(i)[0]);
+    }
+    rows = set.getRows(20);
+    assertEquals(5, rows.size());
+    assertEquals(20L, rows.get(0)[0]);
+    assertTrue(set.getRows(20).isEmpty());
+  }
+
+  @Test
+  public void testFullRowSetRejectsRows() {
+    AdaptiveBatchingRowSet set = new AdaptiveBatchingRowSet(8, 2, 1000);
+    int accepted = 0;
+    while (set.putRowWait(rowMeta, new Object[] {(long) accepted}, 1, TimeUnit.MILLISECONDS)) {
+      accepted++;
+      assertTrue("The row set should fill up", accepted < 100);
+    }
+    assertTrue(accepted >= 8);
+
+    // Reading a batch makes room again
+    //
+    assertEquals(0L, set.getRowImmediate()[0]);
+    assertTrue(set.putRowWait(rowMeta, new Object[] {-1L}, 100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testProducerConsumer() throws Exception {
+    final int nrRows = 200000;
+    final AdaptiveBatchingRowSet set = new AdaptiveBatchingRowSet(1000);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rowMeta, row)) {
+                  // Keep trying until there's room in the buffer
+                }
+              }
+              set.setDone();
+            });
+
+    Thread consumer =
+        new Thread(
+            () -> {
+              try {
+                long expected = 0;
+                while (true) {
+                  Object[] row = set.getRowWait(1, TimeUnit.MILLISECONDS);
+                  if (row == null) {
+                    if (set.isDone()) {
+                      row = set.getRowWait(1, TimeUnit.MILLISECONDS);
+                      if (row == null) {
+                        break;
+                      }
+                    } else {
+                      continue;
+                    }
+                  }
+                  assertEquals(expected++, row[0]);
+                  for (Object[] more : set.getRows(100)) {
+                    assertEquals(expected++, more[0]);
+                  }
+                }
+                assertEquals(nrRows, expected);
+              } catch (Throwable t) {
+                error.set(t);
+              }
+            });
+
+    producer.start();
+    consumer.start();
+    producer.join(60000);
+    consumer.join(60000);
+
+    if (error.get() != null) {
+      throw new AssertionError(error.get());
+    }
+    assertFalse(consumer.isAlive());
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledConditionTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private static final Object[][] ROWS =
+      new Object[][] {
+        {"abc", 1L, 1.0, "a.c", "abc;def"},
+        {"abcdef", 5L, 2.5, "abc%", "xyz"},
+        {"xyz", -3L, -3.0, "x?z", "x\\yz;xyz"},
+        {null, null, null, null, null},
+        {"", 0L, 0.0, "", ""},
+      };
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaString("pattern"));
+    rowMeta.addValueMeta(new ValueMetaString("list"));
+    return rowMeta;
+  }
+
+  /** The compiled condition must give the same result as the condition itself for every row */
+  private static void assertSameResults(Condition condition) {
+    IRowMeta rowMeta = createRowMeta();
+    CompiledCondition compiled = condition.compile(rowMeta);
+    for (Object[] row : ROWS) {
+      boolean expected;
+      try {
+        expected = condition.evaluate(rowMeta, row);
+      } catch (RuntimeException e) {
+        // Both need to fail in that case
+        try {
+          compiled.evaluate(row);
+        } catch (RuntimeException ce) {
+          continue;
+        }
+        throw new AssertionError("Compiled condition didn't fail for " + condition, e);
+      }
+      assertEquals(condition.toString(), expected, compiled.evaluate(row));
+    }
+  }
+
+  @Test
+  public void testConstantRightValues() throws Exception {
+    ValueMetaAndData string = new ValueMetaAndData(new ValueMetaString("c"), "abc");
+    ValueMetaAndData integer = new ValueMetaAndData(new ValueMetaInteger("c"), 1L);
+    ValueMetaAndData stringNumber = new ValueMetaAndData(new ValueMetaString("c"), "1");
+    ValueMetaAndData regex = new ValueMetaAndData(new ValueMetaString("c"), "a.*");
+    ValueMetaAndData like = new ValueMetaAndData(new ValueMetaString("c"), "ab%");
+    ValueMetaAndData list = new ValueMetaAndData(new ValueMetaString("c"), "xyz;abc;a\\;b");
+
+    for (int function = 0; function < Condition.functions.length; function++) {
+      for (boolean negate : new boolean[] {false, true}) {
+        assertSameResults(new Condition(negate, "str", function, null, string));
+        assertSameResults(new Condition(negate, "int", function, null, integer));
+        assertSameResults(new Condition(negate, "int", function, null, stringNumber));
+        assertSameResults(new Condition(negate, "num", function, null, integer));
+        assertSameResults(new Condition(negate, "str", function, null, regex));
+        assertSameResults(new Condition(negate, "str", function, null, like));
+        assertSameResults(new Condition(negate, "str", function, null, list));
+      }
+    }
+  }
+
+  @Test
+  public void testFieldRightValues() throws Exception {
+    for (int function = 0; function < Condition.functions.length; function++) {
+      for (boolean negate : new boolean[] {false, true}) {
+        assertSameResults(new Condition(negate, "str", function, "pattern", null));
+        assertSameResults(new Condition(negate, "str", function, "list", null));
+        assertSameResults(new Condition(negate, "int", function, "num", null));
+        assertSameResults(new Condition(negate, "num", function, "int", null));
+      }
+    }
+  }
+
+  @Test
+  public void testMissingField() throws Exception {
+    ValueMetaAndData string = new ValueMetaAndData(new ValueMetaString("c"), "abc");
+    Condition condition = new Condition(true, "unknown", Condition.FUNC_EQUAL, null, string);
+    assertFalse(condition.compile(createRowMeta()).evaluate(ROWS[0]));
+    assertSameResults(condition);
+  }
+
+  @Test
+  public void testComposite() throws Exception {
+    ValueMetaAndData one = new ValueMetaAndData(new ValueMetaInteger("c"), 1L);
+    ValueMetaAndData abc = new ValueMetaAndData(new ValueMetaString("c"), "abc");
+
+    for (int operator = 1; operator < Condition.operators.length; operator++) {
+      Condition condition = new Condition();
+      condition.addCondition(new Condition("int", Condition.FUNC_LARGER_EQUAL, null, one));
+      condition.addCondition(
+          new Condition(operator, "str", Condition.FUNC_STARTS_WITH, null, abc));
+      condition.addCondition(
+          new Condition(Condition.OPERATOR_OR, "num", Condition.FUNC_SMALLER, "int", null));
+      assertSameResults(condition);
+
+      condition.setNegated(true);
+      assertSameResults(condition);
+    }
+  }
+
+  @Test
+  public void testCompiledConditionIgnoresLaterChanges() throws Exception {
+    ValueMetaAndData abc = new ValueMetaAndData(new ValueMetaString("c"), "abc");
+    Condition condition = new Condition("str", Condition.FUNC_EQUAL, null, abc);
+    CompiledCondition compiled = condition.compile(createRowMeta());
+
+    condition.setNegated(true);
+    assertTrue(compiled.evaluate(ROWS[0]));
+    assertFalse(condition.evaluate(createRowMeta(), ROWS[0]));
+  }
+}
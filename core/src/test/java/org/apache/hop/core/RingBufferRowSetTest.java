@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferRowSetTest {
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setup() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("ROWNR"));
+  }
+
+  @Test
+  public void testBasicCreation() {
+    IRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertTrue(set.isLockFree());
+  }
+
+  @Test
+  public void testPutAndGetInOrder() {
+    RingBufferRowSet set = new RingBufferRowSet(3);
+    assertEquals(3, set.getCapacity());
+
+    Object[] row1 = new Object[] {1L};
+    Object[] row2 = new Object[] {2L};
+    Object[] row3 = new Object[] {3L};
+
+    assertNull(set.getRowImmediate());
+    assertTrue(set.putRow(rowMeta, row1));
+    assertTrue(set.putRow(rowMeta, row2));
+    assertTrue(set.putRow(rowMeta, row3));
+    assertEquals(3, set.size());
+    assertSame(rowMeta, set.getRowMeta());
+
+    // The buffer is full, even though the ring buffer itself has 4 slots
+    //
+    assertFalse(set.putRowWait(rowMeta, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+
+    assertSame(row1, set.getRowImmediate());
+    assertSame(row2, set.getRow());
+    assertSame(row3, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testWrapAround() {
+    RingBufferRowSet set = new RingBufferRowSet(4);
+    for (long i = 0; i < 100; i++) {
+      assertTrue(set.putRow(rowMeta, new Object[] {i}));
+      assertTrue(set.putRow(rowMeta, new Object[] {i + 1000}));
+      assertEquals(i, set.getRowImmediate()[0]);
+      assertEquals(i + 1000, set.getRowImmediate()[0]);
+    }
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testClear() {
+    RingBufferRowSet set = new RingBufferRowSet(10);
+    set.putRow(rowMeta, new Object[] {1L});
+    set.putRow(rowMeta, new Object[] {2L});
+    set.setDone();
+    assertTrue(set.isDone());
+
+    set.clear();
+    assertEquals(0, set.size());
+    assertFalse(set.isDone());
+    assertNull(set.getRowImmediate());
+
+    set.putRow(rowMeta, new Object[] {3L});
+    assertEquals(3L, set.getRowImmediate()[0]);
+  }
+
+  @Test
+  public void testInterruptIsKept() {
+    RingBufferRowSet set = new RingBufferRowSet(1);
+    assertTrue(set.putRow(rowMeta, new Object[] {1L}));
+
+    Thread.currentThread().interrupt();
+    try {
+      // Both sides stop waiting but the thread has to stay interrupted
+      //
+      assertFalse(set.putRowWait(rowMeta, new Object[] {2L}, 1, TimeUnit.MINUTES));
+      assertTrue(Thread.currentThread().isInterrupted());
+
+      assertEquals(1L, set.getRowImmediate()[0]);
+      assertNull(set.getRowWait(1, TimeUnit.MINUTES));
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  public void testProducerConsumer() throws Exception {
+    final int nrRows = 200000;
+    final RingBufferRowSet set = new RingBufferRowSet(100);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rowMeta, row)) {
+                  // Keep trying until there's room in the buffer
+                }
+              }
+              set.setDone();
+            });
+
+    Thread consumer =
+        new Thread(
+            () -> {
+              try {
+                long expected = 0;
+                while (true) {
+                  Object[] row = set.getRowWait(1, TimeUnit.MILLISECONDS);
+                  if (row == null) {
+                    if (set.isDone() && set.size() == 0) {
+                      break;
+                    }
+                    continue;
+                  }
+                  assertEquals(expected++, row[0]);
+                }
+                assertEquals(nrRows, expected);
+              } catch (Throwable t) {
+                error.set(t);
+              }
+            });
+
+    producer.start();
+    consumer.start();
+    producer.join(60000);
+    consumer.join(60000);
+
+    if (error.get() != null) {
+      throw new AssertionError(error.get());
+    }
+    assertFalse(consumer.isAlive());
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Passes rows from one producer thread to one consumer thread through the row set implementations
+ * and compares their throughput. The timings depend on the machine so this is not run with the
+ * build: remove the @Ignore to run it by hand.
+ */
+@Ignore("Throughput benchmark, run by hand")
+public class RowSetThroughputTest {
+  private static final long NR_ROWS = 5000000L;
+  private static final int NR_RUNS = 5;
+
+  private final IRowMeta rowMeta;
+  private final Object[] row;
+
+  public RowSetThroughputTest() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    row = new Object[] {1L};
+  }
+
+  @Test
+  public void testRingBufferFasterThanBlockingRowSet() throws Exception {
+    long blocking = bestTime(BlockingRowSet::new);
+    long ringBuffer = bestTime(RingBufferRowSet::new);
+
+    assertTrue(
+        "RingBufferRowSet took " + ringBuffer + "ns, BlockingRowSet " + blocking + "ns",
+        ringBuffer < blocking);
+  }
+
+  @Test
+  public void testRingBufferFasterThanBlockingBatchingRowSet() throws Exception {
+    long blockingBatching = bestTime(BlockingBatchingRowSet::new);
+    long ringBuffer = bestTime(RingBufferRowSet::new);
+
+    assertTrue(
+        "RingBufferRowSet took "
+            + ringBuffer
+            + "ns, BlockingBatchingRowSet "
+            + blockingBatching
+            + "ns",
+        ringBuffer < blockingBatching);
+  }
+
+  /** @return The best time in nanoseconds to pass the rows through a new row set */
+  private long bestTime(IntFunction<IRowSet> factory) throws InterruptedException {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < NR_RUNS; i++) {
+      best = Math.min(best, run(factory.apply(Const.ROWS_IN_ROWSET)));
+    }
+    return best;
+  }
+
+  /** @return The time in nanoseconds to pass the rows through the row set */
+  private long run(IRowSet rowSet) throws InterruptedException {
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < NR_ROWS; i++) {
+                while (!rowSet.putRow(rowMeta, row)) {
+                  // The buffer is full, keep trying
+                }
+              }
+              rowSet.setDone();
+            },
+            "producer");
+
+    AtomicLong received = new AtomicLong();
+    Thread consumer =
+        new Thread(
+            () -> {
+              while (true) {
+                Object[] r = rowSet.getRowWait(1, TimeUnit.MILLISECONDS);
+                if (r == null && rowSet.isDone()) {
+                  // Same as in BaseTransform: try once more after the done flag was seen
+                  //
+                  r = rowSet.getRowWait(1, TimeUnit.MILLISECONDS);
+                  if (r == null) {
+                    break;
+                  }
+                }
+                if (r != null) {
+                  received.incrementAndGet();
+                }
+              }
+            },
+            "consumer");
+
+    long start = System.nanoTime();
+    consumer.start();
+    producer.start();
+    producer.join();
+    consumer.join();
+    long elapsed = System.nanoTime() - start;
+
+    assertEquals("Rows received from " + rowSet, NR_ROWS, received.get());
+    return elapsed;
+  }
+}
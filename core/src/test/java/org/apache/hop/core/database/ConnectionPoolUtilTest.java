@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectionPoolUtilTest {
+
+  private DatabaseMeta databaseMeta;
+  private IVariables variables;
+
+  @BeforeClass
+  public static void setUpOnce() throws Exception {
+    DatabasePluginType.getInstance().searchPlugins();
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    databaseMeta = new DatabaseMeta();
+    databaseMeta.setIDatabase(new ConcreteBaseDatabaseMeta());
+    variables = new Variables();
+  }
+
+  @After
+  public void tearDown() {
+    ConnectionPoolUtil.closeAllPools();
+  }
+
+  @Test
+  public void testBorrowAndReturnConnection() throws Exception {
+    // An in-memory H2 database only lives as long as a connection to it is open
+    //
+    String url = "jdbc:h2:mem:pooltest";
+    Properties properties = new Properties();
+    properties.setProperty("user", "sa");
+    properties.setProperty("password", "");
+    databaseMeta.setName("pooltest");
+    databaseMeta.setMaximumPoolSizeString("1");
+    ILogChannel log = new LogChannel("ConnectionPoolUtilTest");
+
+    Connection connection =
+        ConnectionPoolUtil.getConnection(log, databaseMeta, variables, url, properties);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE pooled (id INT)");
+      statement.execute("INSERT INTO pooled VALUES (1)");
+    }
+    // Closing hands the connection back to the pool which keeps it open
+    //
+    connection.close();
+    assertEquals(1, ConnectionPoolUtil.getPoolCount());
+
+    connection = ConnectionPoolUtil.getConnection(log, databaseMeta, variables, url, properties);
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM pooled")) {
+      assertTrue(resultSet.next());
+      assertEquals(1, resultSet.getInt(1));
+    }
+    connection.close();
+    assertEquals(1, ConnectionPoolUtil.getPoolCount());
+
+    // Closing the pools closes the idle connection and with it the in-memory database
+    //
+    ConnectionPoolUtil.closeAllPools();
+    assertEquals(0, ConnectionPoolUtil.getPoolCount());
+    try (Connection direct = DriverManager.getConnection(url, properties);
+        Statement statement = direct.createStatement()) {
+      statement.executeQuery("SELECT COUNT(*) FROM pooled");
+      fail("The table should be gone after the pooled connection was closed");
+    } catch (SQLException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testPoolingAttributes() {
+    assertFalse(databaseMeta.isUsingConnectionPool());
+    assertEquals("10", databaseMeta.getMaximumPoolSizeString());
+    assertEquals("0", databaseMeta.getInitialPoolSizeString());
+    assertTrue(databaseMeta.getConnectionPoolingProperties().isEmpty());
+
+    databaseMeta.setUsingConnectionPool(true);
+    Properties properties = new Properties();
+    properties.setProperty("maxWait", "1000");
+    properties.setProperty("validationQuery", "SELECT 1");
+    databaseMeta.setConnectionPoolingProperties(properties);
+
+    assertTrue(databaseMeta.isUsingConnectionPool());
+    assertEquals("Y", databaseMeta.getAttributes().get(BaseDatabaseMeta.ATTRIBUTE_USE_POOLING));
+    assertEquals(properties, databaseMeta.getConnectionPoolingProperties());
+
+    // Setting the parameters again replaces the old ones
+    //
+    properties = new Properties();
+    properties.setProperty("testWhileIdle", "true");
+    databaseMeta.setConnectionPoolingProperties(properties);
+    assertEquals(properties, databaseMeta.getConnectionPoolingProperties());
+  }
+
+  @Test
+  public void testPoolPropertiesDefaults() {
+    Properties poolProperties = ConnectionPoolUtil.getPoolProperties(databaseMeta, variables);
+
+    assertEquals("30000", poolProperties.getProperty("maxWait"));
+    assertEquals("true", poolProperties.getProperty("testOnBorrow"));
+    assertNull(poolProperties.getProperty("validationQuery"));
+    assertEquals("10", poolProperties.getProperty(BaseDatabaseMeta.ATTRIBUTE_MAX_POOL_SIZE));
+    assertEquals("0", poolProperties.getProperty(BaseDatabaseMeta.ATTRIBUTE_INITIAL_POOL_SIZE));
+  }
+
+  @Test
+  public void testPoolPropertiesResolved() {
+    variables.setVariable("POOL_SIZE", "4");
+    variables.setVariable("MAX_WAIT", "500");
+    databaseMeta.setMaximumPoolSizeString("${POOL_SIZE}");
+    databaseMeta.setInitialPoolSizeString("8");
+    Properties properties = new Properties();
+    properties.setProperty("maxWait", "${MAX_WAIT}");
+    properties.setProperty("minIdle", "");
+    databaseMeta.setConnectionPoolingProperties(properties);
+
+    Properties poolProperties = ConnectionPoolUtil.getPoolProperties(databaseMeta, variables);
+
+    assertEquals("500", poolProperties.getProperty("maxWait"));
+    assertEquals("0", poolProperties.getProperty("minIdle"));
+    assertEquals("4", poolProperties.getProperty(BaseDatabaseMeta.ATTRIBUTE_MAX_POOL_SIZE));
+    // The initial size can't exceed the maximum
+    assertEquals("4", poolProperties.getProperty(BaseDatabaseMeta.ATTRIBUTE_INITIAL_POOL_SIZE));
+  }
+
+  @Test
+  public void testPoolKey() {
+    Properties poolProperties = ConnectionPoolUtil.getPoolProperties(databaseMeta, variables);
+
+    Properties first = new Properties();
+    first.setProperty("user", "hop");
+    first.setProperty("password", "secret");
+    Properties second = new Properties();
+    second.setProperty("password", "secret");
+    second.setProperty("user", "hop");
+    Properties other = new Properties();
+    other.setProperty("user", "other");
+    other.setProperty("password", "secret");
+
+    String key = ConnectionPoolUtil.getPoolKey("jdbc:test://host/db", first, poolProperties);
+    assertEquals(
+        key, ConnectionPoolUtil.getPoolKey("jdbc:test://host/db", second, poolProperties));
+    assertNotEquals(
+        key, ConnectionPoolUtil.getPoolKey("jdbc:test://host/db", other, poolProperties));
+    assertNotEquals(
+        key, ConnectionPoolUtil.getPoolKey("jdbc:test://host/other", first, poolProperties));
+
+    databaseMeta.setMaximumPoolSizeString("20");
+    Properties biggerPool = ConnectionPoolUtil.getPoolProperties(databaseMeta, variables);
+    assertNotEquals(key, ConnectionPoolUtil.getPoolKey("jdbc:test://host/db", first, biggerPool));
+  }
+}
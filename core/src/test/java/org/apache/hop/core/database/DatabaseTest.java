@@ -24,6 +24,7 @@ import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.logging.LogLevel;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
@@ -161,6 +162,24 @@ public class DatabaseTest {
     verify(rsMetaData, times(1)).getColumnCount();
   }
 
+  @Test
+  public void testGetInsertStatementMultiRow() {
+    when(meta.getQuotedSchemaTableCombination(any(IVariables.class), anyString(), anyString()))
+        .thenReturn("schema.table");
+    when(meta.quoteField(anyString())).thenAnswer(invocation -> invocation.getArguments()[0]);
+    IRowMeta fields = new RowMeta();
+    fields.addValueMeta(new ValueMetaNumber("a"));
+    fields.addValueMeta(new ValueMetaNumber("b"));
+
+    Database db = new Database(log, variables, meta);
+    assertEquals(
+        "INSERT INTO schema.table (a, b) VALUES ( ?,  ?)",
+        db.getInsertStatement("schema", "table", fields));
+    assertEquals(
+        "INSERT INTO schema.table (a, b) VALUES ( ?,  ?), ( ?,  ?), ( ?,  ?)",
+        db.getInsertStatement("schema", "table", fields, 3));
+  }
+
   @Test
   public void testCreateHopDatabaseBatchExceptionNullUpdatesWhenSqlException() {
     assertNull(Database.createHopDatabaseBatchException("", new SQLException()).getUpdateCounts());
@@ -20,6 +20,8 @@ package org.apache.hop.core.logging;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -127,4 +129,48 @@ public class LoggingBufferTest {
     loggingBuffer.removeChannelFromBuffer(logChannelId);
     Assert.assertEquals(10, loggingBuffer.size());
   }
+
+  @Test
+  public void testOverflowKeepsLastLines() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(10);
+    for (int i = 0; i < 25; i++) {
+      HopLoggingEvent event = new HopLoggingEvent();
+      event.setMessage(new LogMessage("line " + i, "1", LogLevel.BASIC));
+      loggingBuffer.addLogggingEvent(event);
+    }
+    Assert.assertEquals(10, loggingBuffer.size());
+
+    List<HopLoggingEvent> events =
+        loggingBuffer.getLogBufferFromTo(
+            (List<String>) null, true, 0, loggingBuffer.getLastBufferLineNr());
+    Assert.assertEquals(10, events.size());
+    Assert.assertEquals("line 15", ((LogMessage) events.get(0).getMessage()).getMessage());
+    Assert.assertEquals("line 24", ((LogMessage) events.get(9).getMessage()).getMessage());
+
+    loggingBuffer.setMaxNrLines(5);
+    Assert.assertEquals(5, loggingBuffer.size());
+  }
+
+  @Test
+  public void testGetLogBufferFromToForChannels() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(100);
+    int first = loggingBuffer.getLastBufferLineNr();
+    for (int i = 0; i < 30; i++) {
+      HopLoggingEvent event = new HopLoggingEvent();
+      event.setMessage(new LogMessage("line " + i, Integer.toString(i % 3), LogLevel.BASIC));
+      loggingBuffer.addLogggingEvent(event);
+    }
+    int last = loggingBuffer.getLastBufferLineNr();
+
+    List<HopLoggingEvent> events =
+        loggingBuffer.getLogBufferFromTo(Arrays.asList("0", "2"), false, first, last);
+    Assert.assertEquals(20, events.size());
+    Assert.assertEquals("line 0", ((LogMessage) events.get(0).getMessage()).getMessage());
+    Assert.assertEquals("line 2", ((LogMessage) events.get(1).getMessage()).getMessage());
+    Assert.assertEquals("line 3", ((LogMessage) events.get(2).getMessage()).getMessage());
+
+    events = loggingBuffer.getLogBufferFromTo(Arrays.asList("1"), false, last - 6, last);
+    Assert.assertEquals(2, events.size());
+    Assert.assertEquals("line 25", ((LogMessage) events.get(0).getMessage()).getMessage());
+  }
 }
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.plugins;
+
+import org.apache.hop.core.Const;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PluginRegistryCacheTest {
+
+  private static final String TYPE_KEY = BasePluginType.class.getName() + "|";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private IPlugin createPlugin(URL folder) {
+    Map<Class<?>, String> classMap = new HashMap<>();
+    classMap.put(IPluginType.class, "org.example.ExamplePlugin");
+    return new Plugin(
+        new String[] {"example", "example2"},
+        BasePluginType.class,
+        String.class,
+        "Category",
+        "Example plugin",
+        null,
+        "example.svg",
+        false,
+        "group",
+        false,
+        classMap,
+        new ArrayList<>(Arrays.asList("/plugins/example/lib/dependency.jar")),
+        null,
+        new String[] {"one", "two"},
+        folder,
+        false,
+        "https://example.org/doc",
+        null,
+        null,
+        "suggestion");
+  }
+
+  private File createPluginFolder() throws IOException {
+    File pluginFolder = temporaryFolder.newFolder("plugins");
+    File exampleFolder = new File(pluginFolder, "example");
+    exampleFolder.mkdirs();
+    writeFile(new File(exampleFolder, "example.jar"), 10);
+    return pluginFolder;
+  }
+
+  private static void writeFile(File file, int size) throws IOException {
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(new byte[size]);
+    }
+  }
+
+  private PluginRegistryCache createCache(File pluginFolder) {
+    return new PluginRegistryCache(
+        new File(temporaryFolder.getRoot(), "plugin-cache.bin"),
+        Collections.singletonList(pluginFolder.getPath()));
+  }
+
+  @Test
+  public void testCachedPluginIsRestored() throws Exception {
+    File pluginFolder = createPluginFolder();
+    URL folderUrl = new File(pluginFolder, "example").toURI().toURL();
+    IPlugin plugin = createPlugin(folderUrl);
+
+    PluginRegistryCache cache = createCache(pluginFolder);
+    assertNull(cache.getPlugins(TYPE_KEY));
+    cache.putPlugins(
+        TYPE_KEY,
+        Collections.singletonList(
+            new PluginRegistryCache.CachedPlugin(plugin, new String[] {"org.example.*"})));
+    cache.save();
+
+    List<PluginRegistryCache.CachedPlugin> cachedPlugins =
+        createCache(pluginFolder).getPlugins(TYPE_KEY);
+    assertNotNull(cachedPlugins);
+    assertEquals(1, cachedPlugins.size());
+    assertArrayEquals(
+        new String[] {"org.example.*"}, cachedPlugins.get(0).getParentFirstPatterns());
+
+    IPlugin restored =
+        cachedPlugins.get(0).createPlugin(BasePluginType.class, getClass().getClassLoader());
+    assertArrayEquals(plugin.getIds(), restored.getIds());
+    assertEquals(String.class, restored.getMainType());
+    assertEquals("Category", restored.getCategory());
+    assertEquals("Example plugin", restored.getName());
+    assertNull(restored.getDescription());
+    assertEquals("example.svg", restored.getImageFile());
+    assertEquals("group", restored.getClassLoaderGroup());
+    assertFalse(restored.isNativePlugin());
+    assertEquals("org.example.ExamplePlugin", restored.getClassMap().get(IPluginType.class));
+    assertEquals(plugin.getLibraries(), restored.getLibraries());
+    assertArrayEquals(plugin.getKeywords(), restored.getKeywords());
+    assertEquals(folderUrl, restored.getPluginDirectory());
+    assertEquals("https://example.org/doc", restored.getDocumentationUrl());
+    assertEquals("suggestion", restored.getSuggestion());
+  }
+
+  @Test
+  public void testChangedJarInvalidatesCache() throws Exception {
+    File pluginFolder = createPluginFolder();
+    PluginRegistryCache cache = createCache(pluginFolder);
+    assertNull(cache.getPlugins(TYPE_KEY));
+    cache.putPlugins(TYPE_KEY, new ArrayList<>());
+    cache.save();
+    assertNotNull(createCache(pluginFolder).getPlugins(TYPE_KEY));
+
+    // A jar file with a different size
+    //
+    writeFile(new File(pluginFolder, "example/example.jar"), 20);
+    assertNull(createCache(pluginFolder).getPlugins(TYPE_KEY));
+  }
+
+  @Test
+  public void testNewJarInvalidatesCache() throws Exception {
+    File pluginFolder = createPluginFolder();
+    PluginRegistryCache cache = createCache(pluginFolder);
+    cache.putPlugins(TYPE_KEY, new ArrayList<>());
+    cache.save();
+
+    File libFolder = new File(pluginFolder, "example/lib");
+    libFolder.mkdirs();
+    writeFile(new File(libFolder, "dependency.jar"), 10);
+    assertNull(createCache(pluginFolder).getPlugins(TYPE_KEY));
+  }
+
+  @Test
+  public void testNoCacheWithoutPluginFiles() throws Exception {
+    File pluginFolder = temporaryFolder.newFolder("empty");
+    PluginRegistryCache cache = createCache(pluginFolder);
+    cache.putPlugins(TYPE_KEY, new ArrayList<>());
+    cache.save();
+
+    assertNull(createCache(pluginFolder).getPlugins(TYPE_KEY));
+    assertFalse(new File(temporaryFolder.getRoot(), "plugin-cache.bin").exists());
+  }
+
+  @Test
+  public void testDamagedCacheFileIsIgnored() throws Exception {
+    File pluginFolder = createPluginFolder();
+    writeFile(new File(temporaryFolder.getRoot(), "plugin-cache.bin"), 3);
+
+    PluginRegistryCache cache = createCache(pluginFolder);
+    assertNull(cache.getPlugins(TYPE_KEY));
+    cache.putPlugins(TYPE_KEY, new ArrayList<>());
+    cache.save();
+    assertTrue(createCache(pluginFolder).getPlugins(TYPE_KEY).isEmpty());
+  }
+
+  @Test
+  public void testCacheFileVariable() {
+    assertEquals(
+        new File(Const.HOP_CONFIG_FOLDER, Const.DEFAULT_PLUGIN_CACHE_FILENAME),
+        PluginRegistryCache.getCacheFile(null));
+    assertEquals(
+        new File("/tmp/plugins.bin"), PluginRegistryCache.getCacheFile(" /tmp/plugins.bin "));
+    assertNull(PluginRegistryCache.getCacheFile(""));
+    assertNull(PluginRegistryCache.getCacheFile("none"));
+    assertNull(PluginRegistryCache.getCacheFile(Const.HOP_PLUGIN_CACHE_FILE_NONE));
+  }
+}
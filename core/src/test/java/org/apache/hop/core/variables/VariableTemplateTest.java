@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.variables;
+
+import org.apache.hop.core.util.StringUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VariableTemplateTest {
+
+  private Map<String, String> variables;
+
+  @Before
+  public void setUp() {
+    variables = new HashMap<>();
+    variables.put("one", "1");
+    variables.put("two", "2");
+    variables.put("empty", "");
+    variables.put("nested", "n${one}n");
+    variables.put("deeper", "d${nested}d");
+    variables.put("windows", "w${two}w");
+    variables.put("hex", "$[41]");
+    variables.put("dollar", "$");
+  }
+
+  /** The result has to be the same as the classic 3-pass substitution. */
+  private String classic(String string) {
+    String result = StringUtil.substituteWindows(string, variables);
+    result = StringUtil.substituteUnix(result, variables);
+    return StringUtil.substituteHex(result);
+  }
+
+  @Test
+  public void testSameAsClassicSubstitution() {
+    String[] strings = {
+      "",
+      "no variables here",
+      "${one}",
+      "${one}${two}",
+      "a${one}b${two}c",
+      "${unknown}",
+      "a${unknown}b${one}",
+      "${empty}x",
+      "${nested}",
+      "${deeper}-${nested}",
+      "${one",
+      "${one}${",
+      "}${one}{",
+      "%%one%%",
+      "%%windows%%",
+      "%%one%% and ${two}",
+      "%%unknown%% ${one}",
+      "$[31,32]",
+      "${hex}",
+      "${dollar}[42]",
+      "${one}$[4A]${two}",
+      "$[zz]${one}",
+      "${${one}}",
+    };
+    for (String string : strings) {
+      assertEquals(string, classic(string), VariableTemplate.resolve(string, variables));
+    }
+  }
+
+  @Test
+  public void testConstantTemplate() {
+    String string = "Nothing to see here";
+    VariableTemplate template = VariableTemplate.compile(string);
+    assertTrue(template.isConstant());
+    assertSame(string, template.resolve(variables));
+    assertFalse(VariableTemplate.compile("${one}").isConstant());
+  }
+
+  @Test
+  public void testTemplateIsCached() {
+    assertSame(VariableTemplate.compile("a${one}b"), VariableTemplate.compile("a${one}b"));
+  }
+
+  @Test
+  public void testValuesAreLookedUpEveryTime() {
+    VariableTemplate template = VariableTemplate.compile("x${one}x");
+    assertEquals("x1x", template.resolve(variables));
+    variables.put("one", "changed");
+    assertEquals("xchangedx", template.resolve(variables));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testEndlessRecursion() {
+    variables.put("loop", "${loop}");
+    VariableTemplate.resolve("${loop}", variables);
+  }
+}
@@ -147,6 +147,13 @@ public class VariablesTest {
     assertEquals("DataTwo", vars.resolve("${VarTwo}"));
     assertEquals("DataTwoEnd", vars.resolve("${VarTwo}End"));
 
+    // Changed variables are picked up right away
+    //
+    vars.setVariable("VarTwo", "Changed");
+    assertEquals("ChangedEnd", vars.resolve("${VarTwo}End"));
+    vars.setVariable("VarTwo", null);
+    assertEquals("${VarTwo}End", vars.resolve("${VarTwo}End"));
+
     assertEquals(0, vars.resolve(new String[0]).length);
     assertArrayEquals(
         new String[] {"DataOne", "TheDataOne"},
@@ -32,6 +32,9 @@ import org.apache.hop.metadata.serializer.json.person.interest.Music;
 import org.apache.hop.metadata.serializer.json.person.interest.Running;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -92,4 +95,36 @@ public class JsonMetadataSerializerTest extends TestCase {
 
     assertEquals(person, anotherPerson);
   }
+
+  @Test
+  public void testLoadFromCacheAndReloadChangedFile() throws Exception {
+    IHopMetadataSerializer<Occupation> serializer =
+        metadataProvider.getSerializer(Occupation.class);
+    serializer.save(new Occupation("Cached", "First description", 2001));
+
+    // Every load returns a new object, even if it comes from the cache
+    //
+    Occupation first = serializer.load("Cached");
+    Occupation second = serializer.load("Cached");
+    assertNotSame(first, second);
+    assertEquals("First description", second.getDescription());
+    first.setDescription("Changed in memory");
+    assertEquals("First description", serializer.load("Cached").getDescription());
+
+    // Saving updates the object
+    //
+    serializer.save(new Occupation("Cached", "Second description", 2002));
+    assertEquals("Second description", serializer.load("Cached").getDescription());
+
+    // Changing the file outside of the serializer updates it as well
+    //
+    String filename = ((JsonMetadataSerializer<Occupation>) serializer).calculateFilename("Cached");
+    Files.write(
+        Paths.get(filename),
+        "{ \"name\" : \"Cached\", \"description\" : \"Changed on disk\", \"startYear\" : 3 }"
+            .getBytes(StandardCharsets.UTF_8));
+    Occupation changed = serializer.load("Cached");
+    assertEquals("Changed on disk", changed.getDescription());
+    assertEquals(3, changed.getStartYear());
+  }
 }
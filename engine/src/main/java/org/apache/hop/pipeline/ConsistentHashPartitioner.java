@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.annotations.PartitionerPlugin;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.variables.IVariables;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hashes one or more fields onto a ring of partitions. Every partition takes a number of points on
+ * the ring based on its partition ID and a row goes to the partition of the first point after the
+ * hash of its fields. When a partition is added to or removed from the partition schema only the
+ * rows of about one partition move, where a plain hash moves most of them.
+ */
+@PartitionerPlugin(
+    id = "ConsistentHashPartitioner",
+    name = "Consistent hash of fields",
+    description = "Consistent hash of one or more fields")
+public class ConsistentHashPartitioner extends HashPartitioner {
+
+  /** The number of points every partition takes on the ring */
+  public static final int POINTS_PER_PARTITION = 160;
+
+  private int[] ringHashes;
+  private int[] ringPartitions;
+
+  public ConsistentHashPartitioner() {
+    super();
+  }
+
+  @Override
+  public IPartitioner getInstance() {
+    IPartitioner partitioner = new ConsistentHashPartitioner();
+    partitioner.setId(getId());
+    partitioner.setDescription(getDescription());
+    return partitioner;
+  }
+
+  @Override
+  public ConsistentHashPartitioner clone() {
+    return (ConsistentHashPartitioner) super.clone();
+  }
+
+  @Override
+  public void init(IVariables variables, IRowMeta rowMeta) throws HopException {
+    if (ringHashes == null) {
+      List<String> partitionIds = meta.getPartitionSchema().calculatePartitionIds(variables);
+      buildRing(partitionIds);
+      nrPartitions = partitionIds.size();
+    }
+  }
+
+  /**
+   * Places the partitions on the ring.
+   *
+   * @param partitionIds the IDs of the partitions, the index in the list is the partition number
+   */
+  protected void buildRing(List<String> partitionIds) {
+    long[] points = new long[partitionIds.size() * POINTS_PER_PARTITION];
+    int nrPoints = 0;
+    for (int partitionNr = 0; partitionNr < partitionIds.size(); partitionNr++) {
+      String partitionId = partitionIds.get(partitionNr);
+      for (int i = 0; i < POINTS_PER_PARTITION; i++) {
+        int hash = mix((partitionId + "#" + i).hashCode());
+        // Sort on the hash and keep the partition number in the low bits
+        //
+        points[nrPoints++] = ((long) hash << 32) | partitionNr;
+      }
+    }
+    Arrays.sort(points);
+
+    ringHashes = new int[nrPoints];
+    ringPartitions = new int[nrPoints];
+    for (int i = 0; i < nrPoints; i++) {
+      ringHashes[i] = (int) (points[i] >> 32);
+      ringPartitions[i] = (int) points[i];
+    }
+  }
+
+  @Override
+  protected int getPartition(int hashCode) {
+    if (ringHashes.length == 0) {
+      return 0;
+    }
+    int hash = mix(hashCode);
+    int index = Arrays.binarySearch(ringHashes, hash);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    if (index >= ringHashes.length) {
+      // Wrap around the ring
+      //
+      index = 0;
+    }
+    return ringPartitions[index];
+  }
+
+  /** The finalization step of MurmurHash3, spreads the bits of a hash code over the whole int */
+  private static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  @Override
+  public String getDescription() {
+    String description = "Consistent hash partitioner";
+    if (getFieldNames() != null && getFieldNames().length > 0) {
+      description += "(" + getFieldList() + ")";
+    }
+    return description;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.annotations.PartitionerPlugin;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopXmlException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.xml.XmlHandler;
+import org.w3c.dom.Node;
+
+/**
+ * Sends rows with the same values in one or more fields to the same partition. Any data type can
+ * be used since the hash code of the values is calculated by their value metadata.
+ */
+@PartitionerPlugin(
+    id = "HashPartitioner",
+    name = "Hash of fields",
+    description = "Hash of one or more fields")
+public class HashPartitioner extends BasePartitioner {
+
+  private String[] fieldNames;
+  protected int[] partitionColumnIndexes;
+
+  public HashPartitioner() {
+    super();
+    fieldNames = new String[0];
+  }
+
+  @Override
+  public IPartitioner getInstance() {
+    IPartitioner partitioner = new HashPartitioner();
+    partitioner.setId(getId());
+    partitioner.setDescription(getDescription());
+    return partitioner;
+  }
+
+  @Override
+  public HashPartitioner clone() {
+    HashPartitioner hashPartitioner = (HashPartitioner) super.clone();
+    hashPartitioner.fieldNames = fieldNames == null ? null : fieldNames.clone();
+
+    return hashPartitioner;
+  }
+
+  @Override
+  public String getDialogClassName() {
+    return "org.apache.hop.ui.pipeline.dialog.HashPartitionerDialog";
+  }
+
+  @Override
+  public int getPartition(IVariables variables, IRowMeta rowMeta, Object[] row)
+      throws HopException {
+
+    if (rowMeta == null) {
+      throw new HopException(
+          "No row metadata was provided and so a partition can't be calculated on fields "
+              + getFieldList()
+              + " using a hash partitioner");
+    }
+
+    init(variables, rowMeta);
+
+    return getPartition(hashRow(rowMeta, row));
+  }
+
+  /**
+   * Picks the partition for the hash code of the partitioning fields.
+   *
+   * @param hashCode the combined hash code of the partitioning fields
+   * @return the partition number between 0 and nrPartitions-1
+   */
+  protected int getPartition(int hashCode) {
+    // Spread the high bits since the hash codes of small numbers only differ in the low bits
+    //
+    return Math.floorMod(hashCode ^ (hashCode >>> 16), nrPartitions);
+  }
+
+  /**
+   * Combines the hash codes of the partitioning fields of a row.
+   *
+   * @param rowMeta the row metadata
+   * @param row the row data
+   * @return the hash code of the partitioning fields
+   * @throws HopException in case a partitioning field can't be found or hashed
+   */
+  protected int hashRow(IRowMeta rowMeta, Object[] row) throws HopException {
+    if (partitionColumnIndexes == null) {
+      if (fieldNames == null || fieldNames.length == 0) {
+        throw new HopTransformException("No fields were specified to calculate the hash on");
+      }
+      int[] indexes = new int[fieldNames.length];
+      for (int i = 0; i < fieldNames.length; i++) {
+        indexes[i] = rowMeta.indexOfValue(fieldNames[i]);
+        if (indexes[i] < 0) {
+          throw new HopTransformException(
+              "Unable to find partitioning field name ["
+                  + fieldNames[i]
+                  + "] in the output row..."
+                  + rowMeta);
+        }
+      }
+      partitionColumnIndexes = indexes;
+    }
+
+    int hashCode = 1;
+    for (int index : partitionColumnIndexes) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(index);
+      hashCode = 31 * hashCode + valueMeta.hashCode(row[index]);
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String getDescription() {
+    String description = "Hash partitioner";
+    if (fieldNames != null && fieldNames.length > 0) {
+      description += "(" + getFieldList() + ")";
+    }
+    return description;
+  }
+
+  protected String getFieldList() {
+    return fieldNames == null ? "" : String.join(", ", fieldNames);
+  }
+
+  @Override
+  public String getXml() {
+    StringBuilder xml = new StringBuilder(150);
+    xml.append("           ").append(XmlHandler.openTag("fields"));
+    if (fieldNames != null) {
+      for (String fieldName : fieldNames) {
+        xml.append(XmlHandler.addTagValue("field_name", fieldName, false));
+      }
+    }
+    xml.append(XmlHandler.closeTag("fields"));
+    return xml.toString();
+  }
+
+  @Override
+  public void loadXml(Node partitioningMethodNode) throws HopXmlException {
+    Node fieldsNode = XmlHandler.getSubNode(partitioningMethodNode, "fields");
+    int nrFields = XmlHandler.countNodes(fieldsNode, "field_name");
+    fieldNames = new String[nrFields];
+    for (int i = 0; i < nrFields; i++) {
+      fieldNames[i] =
+          XmlHandler.getNodeValue(XmlHandler.getSubNodeByNr(fieldsNode, "field_name", i));
+    }
+    partitionColumnIndexes = null;
+  }
+
+  public String[] getFieldNames() {
+    return fieldNames;
+  }
+
+  public void setFieldNames(String[] fieldNames) {
+    this.fieldNames = fieldNames;
+    this.partitionColumnIndexes = null;
+  }
+}
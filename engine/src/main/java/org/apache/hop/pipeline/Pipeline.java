@@ -301,6 +301,12 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** Whether lock-free row sets are used for 1:1 and N:N hops, off by default. */
+  protected boolean lockFreeRowSetsEnabled;
+
+  /** Whether rows are passed in batches between transform copies. */
+  protected boolean batchingRowSetsEnabled;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -633,16 +639,21 @@ public abstract class Pipeline
             IRowSet rowSet;
             switch (pipelineMeta.getPipelineType()) {
               case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
+                // The batching row set hands rows over in batches and flushes partial batches
+                // after a short interval so it doesn't stall on small amounts of rows.
                 //
                 Boolean batchingRowSet =
                     ValueMetaString.convertStringToBoolean(
                         System.getProperty(Const.HOP_BATCHING_ROWSET));
-                if (batchingRowSet != null && batchingRowSet.booleanValue()) {
-                  rowSet = new BlockingBatchingRowSet(rowSetSize);
+                if (batchingRowSetsEnabled
+                    || (batchingRowSet != null && batchingRowSet.booleanValue())) {
+                  rowSet = new AdaptiveBatchingRowSet(rowSetSize);
+                } else if (lockFreeRowSetsEnabled
+                    && (dispatchType == TYPE_DISP_1_1 || dispatchType == TYPE_DISP_N_N)) {
+                  // Exactly one source copy writes to exactly one target copy.
+                  // No need to lock anything in that case.
+                  //
+                  rowSet = new RingBufferRowSet(rowSetSize);
                 } else {
                   rowSet = new BlockingRowSet(rowSetSize);
                 }
@@ -3413,6 +3424,34 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets lockFreeRowSetsEnabled
+   *
+   * @return value of lockFreeRowSetsEnabled
+   */
+  public boolean isLockFreeRowSetsEnabled() {
+    return lockFreeRowSetsEnabled;
+  }
+
+  /** @param lockFreeRowSetsEnabled The lockFreeRowSetsEnabled to set */
+  public void setLockFreeRowSetsEnabled(boolean lockFreeRowSetsEnabled) {
+    this.lockFreeRowSetsEnabled = lockFreeRowSetsEnabled;
+  }
+
+  /**
+   * Gets batchingRowSetsEnabled
+   *
+   * @return value of batchingRowSetsEnabled
+   */
+  public boolean isBatchingRowSetsEnabled() {
+    return batchingRowSetsEnabled;
+  }
+
+  /** @param batchingRowSetsEnabled The batchingRowSetsEnabled to set */
+  public void setBatchingRowSetsEnabled(boolean batchingRowSetsEnabled) {
+    this.batchingRowSetsEnabled = batchingRowSetsEnabled;
+  }
+
   /**
    * Gets feedbackShown
    *
@@ -103,6 +103,8 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
     setGatheringMetrics(config.isGatheringMetrics());
     setFeedbackShown(config.isFeedbackShown());
     setFeedbackSize(Const.toInt(resolve(config.getFeedbackSize()), Const.ROWS_UPDATE));
+    setLockFreeRowSetsEnabled(config.isLockFreeRowSetsEnabled());
+    setBatchingRowSetsEnabled(config.isBatchingRowSetsEnabled());
 
     // See if we need to enable transactions...
     //
@@ -132,6 +132,30 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "transactional")
   protected boolean transactional;
 
+  @GuiWidgetElement(
+      id = "lockFreeRowSetsEnabled",
+      order = "100",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.LockFreeRowSetsEnabled.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.LockFreeRowSetsEnabled.ToolTip")
+  @HopMetadataProperty(key = "lock_free_rowsets")
+  protected boolean lockFreeRowSetsEnabled;
+
+  @GuiWidgetElement(
+      id = "batchingRowSetsEnabled",
+      order = "110",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.BatchingRowSetsEnabled.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.BatchingRowSetsEnabled.ToolTip")
+  @HopMetadataProperty(key = "batching_rowsets")
+  protected boolean batchingRowSetsEnabled;
+
   public enum SampleType {
     None,
     First,
@@ -160,6 +184,8 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sampleTypeInGui = config.sampleTypeInGui;
     this.sampleSize = config.sampleSize;
     this.transactional = config.transactional;
+    this.lockFreeRowSetsEnabled = config.lockFreeRowSetsEnabled;
+    this.batchingRowSetsEnabled = config.batchingRowSetsEnabled;
   }
 
   @Override
@@ -299,4 +325,32 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public void setTransactional(boolean transactional) {
     this.transactional = transactional;
   }
+
+  /**
+   * Gets lockFreeRowSetsEnabled
+   *
+   * @return value of lockFreeRowSetsEnabled
+   */
+  public boolean isLockFreeRowSetsEnabled() {
+    return lockFreeRowSetsEnabled;
+  }
+
+  /** @param lockFreeRowSetsEnabled The lockFreeRowSetsEnabled to set */
+  public void setLockFreeRowSetsEnabled(boolean lockFreeRowSetsEnabled) {
+    this.lockFreeRowSetsEnabled = lockFreeRowSetsEnabled;
+  }
+
+  /**
+   * Gets batchingRowSetsEnabled
+   *
+   * @return value of batchingRowSetsEnabled
+   */
+  public boolean isBatchingRowSetsEnabled() {
+    return batchingRowSetsEnabled;
+  }
+
+  /** @param batchingRowSetsEnabled The batchingRowSetsEnabled to set */
+  public void setBatchingRowSetsEnabled(boolean batchingRowSetsEnabled) {
+    this.batchingRowSetsEnabled = batchingRowSetsEnabled;
+  }
 }
@@ -625,6 +625,19 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * Increments the number of lines read from previous transforms by a number of rows
+   *
+   * @param nrLines the number of lines to add
+   * @return Returns the new value
+   */
+  public long incrementLinesRead(long nrLines) {
+    synchronized (statusCountersLock) {
+      linesRead += nrLines;
+      return linesRead;
+    }
+  }
+
   /**
    * Decrements the number of lines read from previous transforms by one
    *
@@ -1172,7 +1185,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
 
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
+        if (!rs.isLockFree()
+            && !rs.isDone()
+            && rs.size() >= upperBufferBoundary
+            && !isStopped()) {
           try {
             Thread.sleep(0, 1);
           } catch (InterruptedException e) {
@@ -1208,7 +1224,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
 
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
+        if (!rs.isLockFree()
+            && !rs.isDone()
+            && rs.size() >= upperBufferBoundary
+            && !isStopped()) {
           try {
             Thread.sleep(0, 1);
           } catch (InterruptedException e) {
@@ -1504,6 +1523,52 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return row;
   }
 
+  /**
+   * Get a batch of rows from the previous transforms. This works like {@link #getRow()} for the
+   * first row, including waiting for it to arrive. The rows which are available right after that
+   * are read in one go, up to max rows. That way a transform can take the locking and wake-up cost
+   * per batch of rows instead of per row.
+   *
+   * <p>When reading in batches is not possible (several input row sets, row listeners, safe mode,
+   * a custom row handler) the returned list contains a single row.
+   *
+   * @param max the maximum number of rows to return
+   * @return A list of rows or an empty list if there are no more rows to process.
+   * @throws HopException in case something goes wrong
+   */
+  public List<Object[]> getRows(int max) throws HopException {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row = getRow();
+    if (row == null) {
+      return rows;
+    }
+    rows.add(row);
+    if (max <= 1
+        || !(getRowHandler() instanceof DefaultRowHandler)
+        || !rowListeners.isEmpty()
+        || pipeline.isSafeModeEnabled()
+        || prevTransforms.length > 1) {
+      return rows;
+    }
+
+    inputRowSetsLock.readLock().lock();
+    try {
+      if (inputRowSets.size() != 1 || paused.get() || stopped.get()) {
+        return rows;
+      }
+      List<Object[]> more = inputRowSets.get(0).getRows(max - 1);
+      if (!more.isEmpty()) {
+        rows.addAll(more);
+        incrementLinesRead(more.size());
+        blockPointer += more.size();
+      }
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+
+    return rows;
+  }
+
   private Object[] handleGetRow() throws HopException {
 
     // Are we pausing the transform? If so, stall forever...
@@ -1564,7 +1629,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       // The buffer to grow beyond "a few" entries.
       // We'll only do that if the previous transform has not ended...
 
-      if (!inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped()) {
+      if (!inputRowSet.isLockFree()
+          && !inputRowSet.isDone()
+          && inputRowSet.size() <= lowerBufferBoundary
+          && !isStopped()) {
         try {
           Thread.sleep(0, 1);
         } catch (InterruptedException e) {
@@ -1856,7 +1924,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     // The buffer to grow beyond "a few" entries.
     // We'll only do that if the previous transform has not ended...
 
-    if (!rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped()) {
+    if (!rowSet.isLockFree()
+        && !rowSet.isDone()
+        && rowSet.size() <= lowerBufferBoundary
+        && !isStopped()) {
       try {
         Thread.sleep(0, 1);
       } catch (InterruptedException e) {
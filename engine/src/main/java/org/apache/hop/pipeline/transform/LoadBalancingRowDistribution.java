@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.svg.SvgFile;
+import org.apache.hop.laf.BasePropertyHandler;
+
+import java.util.List;
+
+/**
+ * Sends every row to the output row set with the fewest rows waiting in it. Target transform
+ * copies which process rows faster get more of them so that a slow copy doesn't hold up the
+ * others, like it does with round robin distribution.
+ */
+@RowDistributionPlugin(
+    code = "LoadBalancing",
+    name = "Load balancing",
+    description = "Send rows to the least busy target transform copy")
+public class LoadBalancingRowDistribution implements IRowDistribution {
+
+  @Override
+  public String getCode() {
+    return "LoadBalancing";
+  }
+
+  @Override
+  public String getDescription() {
+    return "Load balancing";
+  }
+
+  @Override
+  public void distributeRow(IRowMeta rowMeta, Object[] row, ITransform transform)
+      throws HopTransformException {
+    List<IRowSet> rowSets = transform.getOutputRowSets();
+    int nrRowSets = rowSets.size();
+    if (nrRowSets == 0) {
+      return;
+    }
+
+    // Start looking at another row set for every row so that row sets which are equally busy
+    // take turns.
+    //
+    int start = (int) (transform.getLinesWritten() % nrRowSets);
+
+    while (true) {
+      IRowSet target = rowSets.get(start);
+      int smallest = target.size();
+      for (int i = 1; i < nrRowSets && smallest > 0; i++) {
+        IRowSet rowSet = rowSets.get((start + i) % nrRowSets);
+        int size = rowSet.size();
+        if (size < smallest) {
+          target = rowSet;
+          smallest = size;
+        }
+      }
+
+      IRowMeta targetRowMeta = target.getRowMeta();
+      if (targetRowMeta == null) {
+        // The row set is not initialised so far
+        targetRowMeta = rowMeta.clone();
+      }
+
+      // When the row set is full after waiting a bit, look again for the least busy one
+      //
+      if (target.putRow(targetRowMeta, row)) {
+        return;
+      }
+      if (transform.isStopped() && !transform.isSafeStopped()) {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public SvgFile getDistributionImage() {
+    return new SvgFile(
+        BasePropertyHandler.getProperty("LoadBalance_image"), this.getClass().getClassLoader());
+  }
+}
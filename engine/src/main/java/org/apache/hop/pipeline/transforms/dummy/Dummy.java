@@ -25,12 +25,17 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
+import java.util.List;
+
 /** Do nothing. Pass all input data to the next transforms. */
 public class Dummy extends BaseTransform<DummyMeta, DummyData>
     implements ITransform<DummyMeta, DummyData> {
 
   private static final Class<?> PKG = DummyMeta.class; // For Translator
 
+  /** The maximum number of rows read from the input at once */
+  static final int ROWS_PER_BATCH = 100;
+
   public Dummy(
       TransformMeta transformMeta,
       DummyMeta meta,
@@ -43,18 +48,24 @@ public class Dummy extends BaseTransform<DummyMeta, DummyData>
 
   @Override
   public boolean processRow() throws HopException {
-    Object[] r = getRow(); // get row, set busy!
+    // Take the rows which are waiting in one go, we don't do anything else with them
+    //
+    List<Object[]> rows = getRows(ROWS_PER_BATCH); // get rows, set busy!
     // no more input to be expected...
-    if (r == null) {
+    if (rows.isEmpty()) {
       setOutputDone();
       return false;
     }
 
-    putRow(getInputRowMeta(), r); // copy row to possible alternate rowset(s).
+    long lineNr = getLinesRead() - rows.size();
+    for (Object[] r : rows) {
+      putRow(getInputRowMeta(), r); // copy row to possible alternate rowset(s).
 
-    if (checkFeedback(getLinesRead())) {
-      if (log.isBasic()) {
-        logBasic(BaseMessages.getString(PKG, "Dummy.Log.LineNumber") + getLinesRead());
+      lineNr++;
+      if (checkFeedback(lineNr)) {
+        if (log.isBasic()) {
+          logBasic(BaseMessages.getString(PKG, "Dummy.Log.LineNumber") + lineNr);
+        }
       }
     }
 
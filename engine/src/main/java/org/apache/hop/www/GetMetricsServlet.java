@@ -0,0 +1,511 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.annotations.HopServerServlet;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.engine.IWorkflowEngine;
+import org.apache.hop.www.metrics.OpenMetricsWriter;
+import org.apache.hop.www.metrics.TransformRateSampler;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Exposes the metrics of the pipelines, transforms and workflows on the server as well as those of
+ * the JVM in the OpenMetrics format so that they can be scraped by Prometheus. The transform
+ * counters are only read when the metrics are requested.
+ */
+@HopServerServlet(id = "metrics", name = "Get the server metrics in OpenMetrics format")
+public class GetMetricsServlet extends BaseHttpServlet implements IHopServerPlugin {
+  private static final Class<?> PKG = GetMetricsServlet.class; // For Translator
+
+  private static final long serialVersionUID = -4853521349016302346L;
+
+  public static final String CONTEXT_PATH = "/hop/metrics";
+
+  private final transient TransformRateSampler rateSampler = new TransformRateSampler();
+
+  public GetMetricsServlet() {}
+
+  public GetMetricsServlet(PipelineMap pipelineMap, WorkflowMap workflowMap) {
+    super(pipelineMap, workflowMap);
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    if (isJettyMode() && !request.getContextPath().startsWith(CONTEXT_PATH)) {
+      return;
+    }
+
+    if (log.isDebug()) {
+      logDebug(BaseMessages.getString(PKG, "GetMetricsServlet.MetricsRequested"));
+    }
+
+    OpenMetricsWriter writer =
+        new OpenMetricsWriter(OpenMetricsWriter.acceptsOpenMetrics(request.getHeader("Accept")));
+    writeMetrics(writer, System.currentTimeMillis());
+
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(writer.getContentType());
+    PrintWriter out = response.getWriter();
+    out.print(writer.getText());
+    out.flush();
+  }
+
+  /**
+   * Write all the metrics of the server
+   *
+   * @param writer The writer to write the metrics with
+   * @param now The current time in ms
+   */
+  public void writeMetrics(OpenMetricsWriter writer, long now) {
+    List<PipelineSample> pipelines = samplePipelines(now);
+    writePipelineMetrics(writer, pipelines);
+    writeTransformMetrics(writer, pipelines);
+    writeWorkflowMetrics(writer, now);
+    writeJvmMetrics(writer);
+  }
+
+  private List<PipelineSample> samplePipelines(long now) {
+    List<PipelineSample> pipelines = new ArrayList<>();
+    Set<String> sampledKeys = new HashSet<>();
+
+    for (HopServerObjectEntry entry : getPipelineMap().getPipelineObjects()) {
+      IPipelineEngine<PipelineMeta> pipeline = getPipelineMap().getPipeline(entry);
+      if (pipeline == null) {
+        continue;
+      }
+      PipelineSample pipelineSample = new PipelineSample(entry, pipeline, now);
+      int rowSetSize = pipeline instanceof Pipeline ? ((Pipeline) pipeline).getRowSetSize() : 0;
+
+      List<IEngineComponent> components = pipeline.getComponents();
+      if (components != null) {
+        for (IEngineComponent component : components) {
+          TransformSample transformSample = new TransformSample(component, rowSetSize);
+          String key = entry.getId() + "/" + component.getName() + "." + component.getCopyNr();
+          double[] rates =
+              rateSampler.sample(
+                  key,
+                  transformSample.linesRead,
+                  transformSample.linesWritten,
+                  transformSample.duration,
+                  now);
+          transformSample.readRate = rates[0];
+          transformSample.writtenRate = rates[1];
+          sampledKeys.add(key);
+          pipelineSample.transforms.add(transformSample);
+        }
+      }
+      pipelines.add(pipelineSample);
+    }
+
+    rateSampler.retain(sampledKeys);
+    return pipelines;
+  }
+
+  private void writePipelineMetrics(OpenMetricsWriter writer, List<PipelineSample> pipelines) {
+    Map<String, Integer> statusCounts = new TreeMap<>();
+    for (PipelineSample pipeline : pipelines) {
+      statusCounts.merge(pipeline.status, 1, Integer::sum);
+    }
+
+    writer.family(
+        "hop_server_pipelines", OpenMetricsWriter.TYPE_GAUGE, "Number of pipelines by status");
+    for (Map.Entry<String, Integer> statusCount : statusCounts.entrySet()) {
+      writer.sample(statusCount.getValue(), "status", statusCount.getKey());
+    }
+
+    writer.family(
+        "hop_pipeline_running",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "1 if the pipeline is running, 0 otherwise");
+    for (PipelineSample pipeline : pipelines) {
+      writer.sample(pipeline.running ? 1 : 0, pipeline.labels());
+    }
+
+    writer.family(
+        "hop_pipeline_duration_seconds",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "Time the pipeline has been running or ran");
+    for (PipelineSample pipeline : pipelines) {
+      writer.sample(pipeline.duration / 1000.0, pipeline.labels());
+    }
+
+    writer.family(
+        "hop_pipeline_errors", OpenMetricsWriter.TYPE_GAUGE, "Number of errors in the pipeline");
+    for (PipelineSample pipeline : pipelines) {
+      writer.sample(pipeline.errors, pipeline.labels());
+    }
+  }
+
+  private void writeTransformMetrics(OpenMetricsWriter writer, List<PipelineSample> pipelines) {
+    writeTransformCounter(
+        writer, pipelines, "hop_transform_lines_read", "Rows read from previous transforms", 0);
+    writeTransformCounter(
+        writer, pipelines, "hop_transform_lines_written", "Rows written to next transforms", 1);
+    writeTransformCounter(
+        writer, pipelines, "hop_transform_lines_input", "Rows read from a file or database", 2);
+    writeTransformCounter(
+        writer, pipelines, "hop_transform_lines_output", "Rows written to a file or database", 3);
+    writeTransformCounter(
+        writer, pipelines, "hop_transform_lines_updated", "Rows updated in a database", 4);
+    writeTransformCounter(
+        writer, pipelines, "hop_transform_lines_rejected", "Rows sent to error handling", 5);
+    writeTransformCounter(writer, pipelines, "hop_transform_errors", "Errors in the transform", 6);
+
+    writer.family(
+        "hop_transform_rows_per_second",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "Rows read or written per second since the previous scrape");
+    for (PipelineSample pipeline : pipelines) {
+      for (TransformSample transform : pipeline.transforms) {
+        writer.sample(transform.readRate, pipeline.labels(transform, "direction", "read"));
+        writer.sample(transform.writtenRate, pipeline.labels(transform, "direction", "written"));
+      }
+    }
+
+    writer.family(
+        "hop_transform_buffer_rows",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "Rows waiting in the input and output row sets of the transform");
+    for (PipelineSample pipeline : pipelines) {
+      for (TransformSample transform : pipeline.transforms) {
+        writer.sample(transform.inputBuffer, pipeline.labels(transform, "buffer", "input"));
+        writer.sample(transform.outputBuffer, pipeline.labels(transform, "buffer", "output"));
+      }
+    }
+
+    writer.family(
+        "hop_transform_buffer_capacity_rows",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "Rows the input and output row sets of the transform can hold");
+    for (PipelineSample pipeline : pipelines) {
+      for (TransformSample transform : pipeline.transforms) {
+        if (transform.inputCapacity > 0) {
+          writer.sample(transform.inputCapacity, pipeline.labels(transform, "buffer", "input"));
+        }
+        if (transform.outputCapacity > 0) {
+          writer.sample(transform.outputCapacity, pipeline.labels(transform, "buffer", "output"));
+        }
+      }
+    }
+
+    writer.family(
+        "hop_transform_buffer_fill_ratio",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "Fill level of the row sets between 0 and 1, a full output buffer means backpressure");
+    for (PipelineSample pipeline : pipelines) {
+      for (TransformSample transform : pipeline.transforms) {
+        if (transform.inputCapacity > 0) {
+          writer.sample(
+              (double) transform.inputBuffer / transform.inputCapacity,
+              pipeline.labels(transform, "buffer", "input"));
+        }
+        if (transform.outputCapacity > 0) {
+          writer.sample(
+              (double) transform.outputBuffer / transform.outputCapacity,
+              pipeline.labels(transform, "buffer", "output"));
+        }
+      }
+    }
+
+    writer.family(
+        "hop_transform_duration_seconds",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "Time the transform has been running or ran");
+    for (PipelineSample pipeline : pipelines) {
+      for (TransformSample transform : pipeline.transforms) {
+        writer.sample(transform.duration / 1000.0, pipeline.labels(transform));
+      }
+    }
+  }
+
+  private void writeTransformCounter(
+      OpenMetricsWriter writer,
+      List<PipelineSample> pipelines,
+      String name,
+      String help,
+      int counter) {
+    writer.family(name, OpenMetricsWriter.TYPE_COUNTER, help);
+    for (PipelineSample pipeline : pipelines) {
+      for (TransformSample transform : pipeline.transforms) {
+        writer.sample(transform.counters[counter], pipeline.labels(transform));
+      }
+    }
+  }
+
+  private void writeWorkflowMetrics(OpenMetricsWriter writer, long now) {
+    Map<String, Integer> statusCounts = new TreeMap<>();
+    List<String[]> labels = new ArrayList<>();
+    List<Long> durations = new ArrayList<>();
+    List<Boolean> active = new ArrayList<>();
+
+    for (HopServerObjectEntry entry : getWorkflowMap().getWorkflowObjects()) {
+      IWorkflowEngine<WorkflowMeta> workflow = getWorkflowMap().getWorkflow(entry);
+      if (workflow == null) {
+        continue;
+      }
+      String status = workflow.getStatusDescription();
+      statusCounts.merge(status, 1, Integer::sum);
+      labels.add(new String[] {"workflow", entry.getName(), "id", entry.getId()});
+      durations.add(
+          getDuration(workflow.getExecutionStartDate(), workflow.getExecutionEndDate(), now));
+      active.add(workflow.isActive());
+    }
+
+    writer.family(
+        "hop_server_workflows", OpenMetricsWriter.TYPE_GAUGE, "Number of workflows by status");
+    for (Map.Entry<String, Integer> statusCount : statusCounts.entrySet()) {
+      writer.sample(statusCount.getValue(), "status", statusCount.getKey());
+    }
+
+    writer.family(
+        "hop_workflow_running",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "1 if the workflow is running, 0 otherwise");
+    for (int i = 0; i < labels.size(); i++) {
+      writer.sample(active.get(i) ? 1 : 0, labels.get(i));
+    }
+
+    writer.family(
+        "hop_workflow_duration_seconds",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "Time the workflow has been running or ran");
+    for (int i = 0; i < labels.size(); i++) {
+      writer.sample(durations.get(i) / 1000.0, labels.get(i));
+    }
+  }
+
+  private void writeJvmMetrics(OpenMetricsWriter writer) {
+    MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    MemoryUsage heap = memoryMXBean.getHeapMemoryUsage();
+    MemoryUsage nonHeap = memoryMXBean.getNonHeapMemoryUsage();
+
+    writer.family("jvm_memory_used_bytes", OpenMetricsWriter.TYPE_GAUGE, "Used JVM memory");
+    writer.sample(heap.getUsed(), "area", "heap");
+    writer.sample(nonHeap.getUsed(), "area", "nonheap");
+
+    writer.family(
+        "jvm_memory_committed_bytes", OpenMetricsWriter.TYPE_GAUGE, "Committed JVM memory");
+    writer.sample(heap.getCommitted(), "area", "heap");
+    writer.sample(nonHeap.getCommitted(), "area", "nonheap");
+
+    writer.family(
+        "jvm_memory_max_bytes", OpenMetricsWriter.TYPE_GAUGE, "Maximum JVM memory, -1 if unknown");
+    writer.sample(heap.getMax(), "area", "heap");
+    writer.sample(nonHeap.getMax(), "area", "nonheap");
+
+    List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    writer.family(
+        "jvm_gc_collections", OpenMetricsWriter.TYPE_COUNTER, "Garbage collections by collector");
+    for (GarbageCollectorMXBean collector : collectors) {
+      writer.sample(Math.max(0L, collector.getCollectionCount()), "gc", collector.getName());
+    }
+    writer.family(
+        "jvm_gc_collection_seconds",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "Time spent in garbage collection by collector");
+    for (GarbageCollectorMXBean collector : collectors) {
+      writer.sample(
+          Math.max(0L, collector.getCollectionTime()) / 1000.0, "gc", collector.getName());
+    }
+
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    writer.family("jvm_threads_current", OpenMetricsWriter.TYPE_GAUGE, "Live JVM threads");
+    writer.sample(threadMXBean.getThreadCount());
+    writer.family("jvm_threads_daemon", OpenMetricsWriter.TYPE_GAUGE, "Live JVM daemon threads");
+    writer.sample(threadMXBean.getDaemonThreadCount());
+
+    writer.family("jvm_uptime_seconds", OpenMetricsWriter.TYPE_GAUGE, "Uptime of the JVM");
+    writer.sample(ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+
+    writer.family(
+        "system_cpu_count", OpenMetricsWriter.TYPE_GAUGE, "Processors available to the JVM");
+    writer.sample(Runtime.getRuntime().availableProcessors());
+
+    double loadAverage = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+    if (loadAverage >= 0) {
+      writer.family(
+          "system_load_average_1m",
+          OpenMetricsWriter.TYPE_GAUGE,
+          "System load average over the last minute");
+      writer.sample(loadAverage);
+    }
+  }
+
+  private static long getDuration(Date start, Date end, long now) {
+    if (start == null) {
+      return 0L;
+    }
+    long stop = end == null ? now : end.getTime();
+    return Math.max(0L, stop - start.getTime());
+  }
+
+  /**
+   * Sum the rows in a list of row sets. The list is copied first since the transform removes row
+   * sets from it while it runs and we don't want to hold up the transform with a lock.
+   */
+  private static long[] getBufferSizes(List<IRowSet> rowSets) {
+    long size = 0L;
+    long count = 0L;
+    if (rowSets != null) {
+      for (Object rowSet : rowSets.toArray()) {
+        if (rowSet != null) {
+          size += ((IRowSet) rowSet).size();
+          count++;
+        }
+      }
+    }
+    return new long[] {size, count};
+  }
+
+  @Override
+  public String toString() {
+    return "Server metrics handler";
+  }
+
+  @Override
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  @Override
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+
+  private static final class PipelineSample {
+    private final String name;
+    private final String id;
+    private final String status;
+    private final boolean running;
+    private final long duration;
+    private final long errors;
+    private final List<TransformSample> transforms = new ArrayList<>();
+
+    private PipelineSample(
+        HopServerObjectEntry entry, IPipelineEngine<PipelineMeta> pipeline, long now) {
+      this.name = entry.getName();
+      this.id = entry.getId();
+      this.status = pipeline.getStatusDescription();
+      this.running = pipeline.isRunning();
+      this.duration =
+          getDuration(pipeline.getExecutionStartDate(), pipeline.getExecutionEndDate(), now);
+      this.errors = pipeline.getErrors();
+    }
+
+    private String[] labels(String... extra) {
+      String[] labels = new String[4 + extra.length];
+      labels[0] = "pipeline";
+      labels[1] = name;
+      labels[2] = "id";
+      labels[3] = id;
+      System.arraycopy(extra, 0, labels, 4, extra.length);
+      return labels;
+    }
+
+    private String[] labels(TransformSample transform, String... extra) {
+      String[] labels = new String[8 + extra.length];
+      labels[0] = "pipeline";
+      labels[1] = name;
+      labels[2] = "id";
+      labels[3] = id;
+      labels[4] = "transform";
+      labels[5] = transform.name;
+      labels[6] = "copy";
+      labels[7] = Integer.toString(transform.copyNr);
+      System.arraycopy(extra, 0, labels, 8, extra.length);
+      return labels;
+    }
+  }
+
+  private static final class TransformSample {
+    private final String name;
+    private final int copyNr;
+    private final long linesRead;
+    private final long linesWritten;
+    private final long[] counters;
+    private final long duration;
+    private final long inputBuffer;
+    private final long outputBuffer;
+    private final long inputCapacity;
+    private final long outputCapacity;
+    private double readRate;
+    private double writtenRate;
+
+    private TransformSample(IEngineComponent component, int rowSetSize) {
+      this.name = component.getName();
+      this.copyNr = component.getCopyNr();
+      this.linesRead = component.getLinesRead();
+      this.linesWritten = component.getLinesWritten();
+      this.counters =
+          new long[] {
+            linesRead,
+            linesWritten,
+            component.getLinesInput(),
+            component.getLinesOutput(),
+            component.getLinesUpdated(),
+            component.getLinesRejected(),
+            component.getErrors()
+          };
+      this.duration = component.getExecutionDuration();
+
+      // With the local engine we can look at all the row sets of a transform. Other engines only
+      // tell us how many rows are buffered.
+      //
+      if (component instanceof ITransform && rowSetSize > 0) {
+        ITransform<?, ?> transform = (ITransform<?, ?>) component;
+        long[] input = getBufferSizes(transform.getInputRowSets());
+        long[] output = getBufferSizes(transform.getOutputRowSets());
+        this.inputBuffer = input[0];
+        this.outputBuffer = output[0];
+        this.inputCapacity = input[1] * rowSetSize;
+        this.outputCapacity = output[1] * rowSetSize;
+      } else {
+        this.inputBuffer = component.getInputBufferSize();
+        this.outputBuffer = component.getOutputBufferSize();
+        this.inputCapacity = 0L;
+        this.outputCapacity = 0L;
+      }
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.hop.pipeline.engine.IEngineComponent;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.www.service.WebService;
+import org.apache.hop.www.service.WebServicePipelinePool;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -45,7 +46,9 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @HopServerServlet(id = "webService", name = "Output the content of a field in a transform")
 public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlugin {
@@ -56,6 +59,9 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
 
   public static final String CONTEXT_PATH = "/hop/webService";
 
+  private final transient Map<String, WebServicePipelinePool> pipelinePools =
+      new ConcurrentHashMap<>();
+
   public WebServiceServlet() {}
 
   public WebServiceServlet(PipelineMap pipelineMap) {
@@ -116,78 +122,97 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
           new SimpleLoggingObject(CONTEXT_PATH, LoggingObjectType.HOP_SERVER, null);
       servletLoggingObject.setContainerObjectId(serverObjectId);
 
-      // Load and start the pipeline
-      // Output the data to the response output stream...
-      //
-      PipelineMeta pipelineMeta = new PipelineMeta(filename, metadataProvider, true, variables);
-      LocalPipelineEngine pipeline =
-          new LocalPipelineEngine(pipelineMeta, variables, servletLoggingObject);
-      pipeline.setContainerId(serverObjectId);
-
-      // Set all the other parameters as variables/parameters...
+      // Borrow a parsed pipeline from the pool of this web service.
+      // This also waits for a turn if the maximum number of concurrent requests is reached.
       //
-      String[] pipelineParameters = pipelineMeta.listParameters();
-      pipeline.copyParametersFromDefinitions(pipelineMeta);
-      for (String requestParameter : request.getParameterMap().keySet()) {
-        if ("service".equals(requestParameter)) {
-          continue;
-        }
-        String requestParameterValue = request.getParameter(requestParameter);
-        if (Const.indexOfString(requestParameter, pipelineParameters) < 0) {
-          pipeline.setVariable(requestParameter, Const.NVL(requestParameterValue, ""));
-        } else {
-          pipeline.setParameterValue(requestParameter, Const.NVL(requestParameterValue, ""));
+      WebServicePipelinePool pool = getPipelinePool(webService, filename, variables);
+      try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+        try {
+          // Start the pipeline
+          // Output the data to the response output stream...
+          //
+          PipelineMeta pipelineMeta = lease.getPipelineMeta();
+          if (webService.isListingStatus()) {
+            // The server status keeps the pipeline after the request so it can't use the pooled one
+            //
+            pipelineMeta = (PipelineMeta) pipelineMeta.realClone(false);
+          }
+          LocalPipelineEngine pipeline =
+              new LocalPipelineEngine(pipelineMeta, variables, servletLoggingObject);
+          pipeline.setContainerId(serverObjectId);
+
+          // Set all the other parameters as variables/parameters...
+          //
+          String[] pipelineParameters = pipelineMeta.listParameters();
+          pipeline.copyParametersFromDefinitions(pipelineMeta);
+          for (String requestParameter : request.getParameterMap().keySet()) {
+            if ("service".equals(requestParameter)) {
+              continue;
+            }
+            String requestParameterValue = request.getParameter(requestParameter);
+            if (Const.indexOfString(requestParameter, pipelineParameters) < 0) {
+              pipeline.setVariable(requestParameter, Const.NVL(requestParameterValue, ""));
+            } else {
+              pipeline.setParameterValue(
+                  requestParameter, Const.NVL(requestParameterValue, ""));
+            }
+          }
+          pipeline.activateParameters(pipeline);
+
+          // See if we need to add this to the status map...
+          //
+          if (webService.isListingStatus()) {
+            PipelineExecutionConfiguration pipelineExecutionConfiguration =
+                new PipelineExecutionConfiguration();
+            PipelineConfiguration pipelineConfiguration =
+                new PipelineConfiguration(
+                    pipelineMeta,
+                    pipelineExecutionConfiguration,
+                    new SerializableMetadataProvider(metadataProvider));
+            getPipelineMap()
+                .addPipeline(
+                    pipelineMeta.getName(), serverObjectId, pipeline, pipelineConfiguration);
+          }
+
+          // Allocate the threads...
+          pipeline.prepareExecution();
+
+          final OutputStream outputStream = response.getOutputStream();
+
+          // Add the row listener to the transform/field...
+          // TODO: add to all copies
+          //
+          IEngineComponent component = pipeline.findComponent(transformName, 0);
+          component.addRowListener(
+              new RowAdapter() {
+                @Override
+                public void rowWrittenEvent(IRowMeta rowMeta, Object[] row)
+                    throws HopTransformException {
+                  try {
+                    String outputString = rowMeta.getString(row, fieldName, "");
+                    outputStream.write(outputString.getBytes(StandardCharsets.UTF_8));
+                    outputStream.flush();
+                  } catch (HopValueException e) {
+                    throw new HopTransformException(
+                        "Error getting output field '"
+                            + fieldName
+                            + " from row: "
+                            + rowMeta.toStringMeta(),
+                        e);
+                  } catch (IOException e) {
+                    throw new HopTransformException(
+                        "Error writing output of '" + fieldName + "'", e);
+                  }
+                }
+              });
+
+          pipeline.startThreads();
+          pipeline.waitUntilFinished();
+        } catch (Exception e) {
+          lease.discard();
+          throw e;
         }
       }
-      pipeline.activateParameters(pipeline);
-
-      // See if we need to add this to the status map...
-      //
-      if (webService.isListingStatus()) {
-        PipelineExecutionConfiguration pipelineExecutionConfiguration =
-            new PipelineExecutionConfiguration();
-        PipelineConfiguration pipelineConfiguration =
-            new PipelineConfiguration(
-                pipelineMeta,
-                pipelineExecutionConfiguration,
-                new SerializableMetadataProvider(metadataProvider));
-        getPipelineMap()
-            .addPipeline(pipelineMeta.getName(), serverObjectId, pipeline, pipelineConfiguration);
-      }
-
-      // Allocate the threads...
-      pipeline.prepareExecution();
-
-      final OutputStream outputStream = response.getOutputStream();
-
-      // Add the row listener to the transform/field...
-      // TODO: add to all copies
-      //
-      IEngineComponent component = pipeline.findComponent(transformName, 0);
-      component.addRowListener(
-          new RowAdapter() {
-            @Override
-            public void rowWrittenEvent(IRowMeta rowMeta, Object[] row)
-                throws HopTransformException {
-              try {
-                String outputString = rowMeta.getString(row, fieldName, "");
-                outputStream.write(outputString.getBytes(StandardCharsets.UTF_8));
-                outputStream.flush();
-              } catch (HopValueException e) {
-                throw new HopTransformException(
-                    "Error getting output field '"
-                        + fieldName
-                        + " from row: "
-                        + rowMeta.toStringMeta(),
-                    e);
-              } catch (IOException e) {
-                throw new HopTransformException("Error writing output of '" + fieldName + "'", e);
-              }
-            }
-          });
-
-      pipeline.startThreads();
-      pipeline.waitUntilFinished();
 
       response.setStatus(HttpServletResponse.SC_OK);
 
@@ -196,6 +221,26 @@ public class WebServiceServlet extends BaseHttpServlet implements IHopServerPlug
     }
   }
 
+  private WebServicePipelinePool getPipelinePool(
+      WebService webService, String filename, IVariables variables) {
+    int maxConcurrency = Const.toInt(variables.resolve(webService.getMaxConcurrency()), 0);
+    long queueTimeout = Const.toLong(variables.resolve(webService.getQueueTimeout()), 0L);
+
+    // Start over with a new pool if the web service configuration changed
+    //
+    return pipelinePools.compute(
+        webService.getName(),
+        (name, pool) -> {
+          if (pool == null
+              || !pool.getFilename().equals(filename)
+              || pool.getMaxConcurrency() != maxConcurrency
+              || pool.getQueueTimeout() != queueTimeout) {
+            return new WebServicePipelinePool(filename, maxConcurrency, queueTimeout);
+          }
+          return pool;
+        });
+  }
+
   public String toString() {
     return "Web Service Servlet";
   }
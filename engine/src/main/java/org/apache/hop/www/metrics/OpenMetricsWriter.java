@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.metrics;
+
+/**
+ * Writes metrics in the OpenMetrics text format or in the older Prometheus text format. The
+ * samples of a metric family have to be written right after the family itself.
+ */
+public class OpenMetricsWriter {
+
+  public static final String CONTENT_TYPE_OPENMETRICS =
+      "application/openmetrics-text; version=1.0.0; charset=utf-8";
+  public static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+  public static final String TYPE_COUNTER = "counter";
+  public static final String TYPE_GAUGE = "gauge";
+
+  private static final String COUNTER_SUFFIX = "_total";
+
+  private final StringBuilder out = new StringBuilder();
+  private final boolean openMetrics;
+
+  private String family;
+  private String type;
+
+  /** @param openMetrics true for the OpenMetrics format, false for the Prometheus text format */
+  public OpenMetricsWriter(boolean openMetrics) {
+    this.openMetrics = openMetrics;
+  }
+
+  /**
+   * Start a new metric family
+   *
+   * @param name The name of the family, without the _total suffix for counters
+   * @param type The type of the metric: counter or gauge
+   * @param help The description of the metric
+   */
+  public void family(String name, String type, String help) {
+    this.family = name;
+    this.type = type;
+
+    // The Prometheus text format names counters after their samples
+    //
+    String typeName = !openMetrics && TYPE_COUNTER.equals(type) ? name + COUNTER_SUFFIX : name;
+    out.append("# TYPE ").append(typeName).append(' ').append(type).append('\n');
+    out.append("# HELP ").append(typeName).append(' ').append(escapeHelp(help)).append('\n');
+  }
+
+  /**
+   * Add a sample to the current family
+   *
+   * @param value The value of the sample
+   * @param labels Label names and values: name1, value1, name2, value2, ...
+   */
+  public void sample(double value, String... labels) {
+    appendName(labels);
+    out.append(' ').append(formatValue(value)).append('\n');
+  }
+
+  /**
+   * Add a sample to the current family
+   *
+   * @param value The value of the sample
+   * @param labels Label names and values: name1, value1, name2, value2, ...
+   */
+  public void sample(long value, String... labels) {
+    appendName(labels);
+    out.append(' ').append(value).append('\n');
+  }
+
+  private void appendName(String[] labels) {
+    if (family == null) {
+      throw new IllegalStateException("No metric family was started");
+    }
+    out.append(family);
+    if (TYPE_COUNTER.equals(type)) {
+      out.append(COUNTER_SUFFIX);
+    }
+    if (labels.length > 0) {
+      out.append('{');
+      for (int i = 0; i + 1 < labels.length; i += 2) {
+        if (i > 0) {
+          out.append(',');
+        }
+        out.append(labels[i]).append("=\"").append(escapeLabelValue(labels[i + 1])).append('"');
+      }
+      out.append('}');
+    }
+  }
+
+  /** @return The metrics written so far, terminated the way the chosen format expects */
+  public String getText() {
+    if (openMetrics) {
+      return out + "# EOF\n";
+    }
+    return out.toString();
+  }
+
+  /** @return The content type to send the metrics with */
+  public String getContentType() {
+    return openMetrics ? CONTENT_TYPE_OPENMETRICS : CONTENT_TYPE_PROMETHEUS;
+  }
+
+  /**
+   * See if a client asks for the OpenMetrics format in its Accept header. Prometheus does this but
+   * other clients, like a browser, get the plain text format.
+   *
+   * @param accept The Accept header of the request, can be null
+   * @return true if OpenMetrics was asked for
+   */
+  public static boolean acceptsOpenMetrics(String accept) {
+    return accept != null && accept.contains("application/openmetrics-text");
+  }
+
+  static String formatValue(double value) {
+    if (Double.isNaN(value)) {
+      return "NaN";
+    }
+    if (Double.isInfinite(value)) {
+      return value > 0 ? "+Inf" : "-Inf";
+    }
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return Double.toString(value);
+  }
+
+  static String escapeLabelValue(String value) {
+    if (value == null) {
+      return "";
+    }
+    StringBuilder escaped = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\':
+          escaped.append("\\\\");
+          break;
+        case '"':
+          escaped.append("\\\"");
+          break;
+        case '\n':
+          escaped.append("\\n");
+          break;
+        default:
+          escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+
+  private static String escapeHelp(String help) {
+    return help.replace("\\", "\\\\").replace("\n", "\\n");
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calculates the rows per second of transforms from the line counters seen during consecutive
+ * scrapes. Nothing runs in the background: the counters are only read when metrics are asked for.
+ * Scrapes that come in faster than the minimum interval get the previously calculated rates so
+ * that several scrapers don't make the rates jump around.
+ */
+public class TransformRateSampler {
+
+  public static final long DEFAULT_MINIMUM_INTERVAL_MS = 1000L;
+
+  private final long minimumInterval;
+  private final Map<String, Sample> samples = new HashMap<>();
+
+  public TransformRateSampler() {
+    this(DEFAULT_MINIMUM_INTERVAL_MS);
+  }
+
+  /** @param minimumInterval The minimum time in ms between two samples of a transform */
+  public TransformRateSampler(long minimumInterval) {
+    this.minimumInterval = minimumInterval;
+  }
+
+  /**
+   * Sample the line counters of a transform copy.
+   *
+   * @param key The unique key of the transform copy
+   * @param linesRead The lines read by the transform so far
+   * @param linesWritten The lines written by the transform so far
+   * @param executionDuration The time in ms the transform has been running
+   * @param now The current time in ms
+   * @return The rows read and written per second: { read, written }
+   */
+  public synchronized double[] sample(
+      String key, long linesRead, long linesWritten, long executionDuration, long now) {
+    Sample previous = samples.get(key);
+
+    // The first time we see a transform (or when its counters went back) we only have the
+    // average speed since it started.
+    //
+    if (previous == null || linesRead < previous.linesRead || linesWritten < previous.linesWritten) {
+      double[] rates = new double[] {0.0, 0.0};
+      if (executionDuration > 0) {
+        rates[0] = linesRead * 1000.0 / executionDuration;
+        rates[1] = linesWritten * 1000.0 / executionDuration;
+      }
+      samples.put(key, new Sample(now, linesRead, linesWritten, rates));
+      return rates;
+    }
+
+    long elapsed = now - previous.time;
+    if (elapsed < minimumInterval || elapsed <= 0) {
+      return previous.rates;
+    }
+
+    double[] rates =
+        new double[] {
+          (linesRead - previous.linesRead) * 1000.0 / elapsed,
+          (linesWritten - previous.linesWritten) * 1000.0 / elapsed
+        };
+    samples.put(key, new Sample(now, linesRead, linesWritten, rates));
+    return rates;
+  }
+
+  /**
+   * Forget about the transforms which are no longer on the server.
+   *
+   * @param keys The keys of the transform copies which were sampled during the last scrape
+   */
+  public synchronized void retain(Set<String> keys) {
+    samples.keySet().retainAll(keys);
+  }
+
+  /** @return The number of transform copies we keep samples for */
+  public synchronized int size() {
+    return samples.size();
+  }
+
+  private static final class Sample {
+    private final long time;
+    private final long linesRead;
+    private final long linesWritten;
+    private final double[] rates;
+
+    private Sample(long time, long linesRead, long linesWritten, double[] rates) {
+      this.time = time;
+      this.linesRead = linesRead;
+      this.linesWritten = linesWritten;
+      this.rates = rates;
+    }
+  }
+}
@@ -38,6 +38,15 @@ public class WebService extends HopMetadataBase implements IHopMetadata {
   @HopMetadataProperty private String contentType;
   @HopMetadataProperty private boolean listingStatus;
 
+  /** The maximum number of requests executed at the same time, empty or 0 for no limit */
+  @HopMetadataProperty private String maxConcurrency;
+
+  /**
+   * The maximum time in milliseconds a request waits for its turn when the maximum concurrency is
+   * reached, empty or 0 to wait indefinitely
+   */
+  @HopMetadataProperty private String queueTimeout;
+
   public WebService() {}
 
   public WebService(
@@ -140,4 +149,32 @@ public class WebService extends HopMetadataBase implements IHopMetadata {
   public void setListingStatus(boolean listingStatus) {
     this.listingStatus = listingStatus;
   }
+
+  /**
+   * Gets maxConcurrency
+   *
+   * @return value of maxConcurrency
+   */
+  public String getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /** @param maxConcurrency The maxConcurrency to set */
+  public void setMaxConcurrency(String maxConcurrency) {
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * Gets queueTimeout
+   *
+   * @return value of queueTimeout
+   */
+  public String getQueueTimeout() {
+    return queueTimeout;
+  }
+
+  /** @param queueTimeout The queueTimeout to set */
+  public void setQueueTimeout(String queueTimeout) {
+    this.queueTimeout = queueTimeout;
+  }
 }
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.service;
+
+import org.apache.commons.vfs2.FileContent;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the parsed pipelines of a web service around so that requests don't need to load the
+ * pipeline file every time. Every request borrows its own pipeline metadata since it can't be
+ * shared by pipelines running at the same time. The parsed pipelines are dropped as soon as the
+ * pipeline file, the metadata provider or the variables they were loaded with change.
+ *
+ * <p>The pool also limits the number of requests running at the same time. Requests above the
+ * limit wait for their turn in the order they arrived.
+ */
+public class WebServicePipelinePool {
+
+  private final String filename;
+  private final int maxConcurrency;
+  private final long queueTimeout;
+  private final Semaphore permits;
+
+  private final Deque<PipelineMeta> idlePipelines = new ArrayDeque<>();
+  private long lastModified = -1L;
+  private IHopMetadataProvider lastMetadataProvider;
+  private Map<String, String> lastVariables;
+  private long generation = 0L;
+
+  /**
+   * @param filename The resolved filename of the pipeline
+   * @param maxConcurrency The maximum number of requests to run at the same time, <= 0 for no limit
+   * @param queueTimeout The maximum time in ms to wait for a turn, <= 0 to wait indefinitely
+   */
+  public WebServicePipelinePool(String filename, int maxConcurrency, long queueTimeout) {
+    this.filename = filename;
+    this.maxConcurrency = maxConcurrency;
+    this.queueTimeout = queueTimeout;
+    this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency, true) : null;
+  }
+
+  /**
+   * Wait for a turn to run and borrow a parsed pipeline. Close the lease when the pipeline
+   * finished to give it back to the pool and to let the next request run.
+   *
+   * @param metadataProvider The metadata provider to load the pipeline with
+   * @param variables The variables to load the pipeline with
+   * @return The lease of the pipeline metadata
+   * @throws HopException In case we time out waiting for a turn or if the pipeline can't be loaded
+   */
+  public Lease borrow(IHopMetadataProvider metadataProvider, IVariables variables)
+      throws HopException {
+    acquirePermit();
+    try {
+      long fileGeneration = checkChanged(metadataProvider, variables);
+      PipelineMeta pipelineMeta;
+      synchronized (this) {
+        pipelineMeta = idlePipelines.pollFirst();
+      }
+      if (pipelineMeta == null) {
+        pipelineMeta = new PipelineMeta(filename, metadataProvider, true, variables);
+      }
+      return new Lease(pipelineMeta, fileGeneration);
+    } catch (Exception e) {
+      releasePermit();
+      throw new HopException("Error loading pipeline '" + filename + "' for web service", e);
+    }
+  }
+
+  private void acquirePermit() throws HopException {
+    if (permits == null) {
+      return;
+    }
+    try {
+      if (queueTimeout > 0) {
+        if (!permits.tryAcquire(queueTimeout, TimeUnit.MILLISECONDS)) {
+          throw new HopException(
+              "Timeout waiting for one of the "
+                  + maxConcurrency
+                  + " running requests of pipeline '"
+                  + filename
+                  + "' to finish");
+        }
+      } else {
+        permits.acquire();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting to run pipeline '" + filename + "'", e);
+    }
+  }
+
+  private void releasePermit() {
+    if (permits != null) {
+      permits.release();
+    }
+  }
+
+  /**
+   * See if the pipeline file, the metadata provider or the variables changed since we last looked.
+   * If so, drop all the parsed pipelines.
+   *
+   * @param metadataProvider The metadata provider to load the pipeline with
+   * @param variables The variables to load the pipeline with
+   * @return The current generation of parsed pipelines
+   */
+  private synchronized long checkChanged(
+      IHopMetadataProvider metadataProvider, IVariables variables) throws Exception {
+    FileContent content = HopVfs.getFileObject(filename).getContent();
+    long modified = content.getLastModifiedTime();
+    Map<String, String> values = new HashMap<>();
+    for (String name : variables.getVariableNames()) {
+      values.put(name, variables.getVariable(name));
+    }
+    if (modified != lastModified
+        || metadataProvider != lastMetadataProvider
+        || !values.equals(lastVariables)) {
+      lastModified = modified;
+      lastMetadataProvider = metadataProvider;
+      lastVariables = values;
+      idlePipelines.clear();
+      generation++;
+    }
+    return generation;
+  }
+
+  private synchronized void giveBack(PipelineMeta pipelineMeta, long pipelineGeneration) {
+    // Pipelines parsed from an older version of the file are thrown away.
+    // We never keep more pipelines than can run at the same time.
+    //
+    if (pipelineGeneration == generation
+        && (maxConcurrency <= 0 || idlePipelines.size() < maxConcurrency)) {
+      idlePipelines.addFirst(pipelineMeta);
+    }
+  }
+
+  /** @return The number of parsed pipelines waiting for a request */
+  public synchronized int getIdleCount() {
+    return idlePipelines.size();
+  }
+
+  /**
+   * Gets filename
+   *
+   * @return value of filename
+   */
+  public String getFilename() {
+    return filename;
+  }
+
+  /**
+   * Gets maxConcurrency
+   *
+   * @return value of maxConcurrency
+   */
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /**
+   * Gets queueTimeout
+   *
+   * @return value of queueTimeout
+   */
+  public long getQueueTimeout() {
+    return queueTimeout;
+  }
+
+  /** A pipeline borrowed from the pool by a single request */
+  public class Lease implements AutoCloseable {
+    private final PipelineMeta pipelineMeta;
+    private final long pipelineGeneration;
+    private boolean closed;
+    private boolean reusable = true;
+
+    private Lease(PipelineMeta pipelineMeta, long pipelineGeneration) {
+      this.pipelineMeta = pipelineMeta;
+      this.pipelineGeneration = pipelineGeneration;
+    }
+
+    /**
+     * Gets pipelineMeta
+     *
+     * @return value of pipelineMeta
+     */
+    public PipelineMeta getPipelineMeta() {
+      return pipelineMeta;
+    }
+
+    /** Don't give the pipeline back to the pool when closing, for example after an error. */
+    public void discard() {
+      reusable = false;
+    }
+
+    /** Give the pipeline back to the pool and let the next request run. */
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (reusable) {
+        giveBack(pipelineMeta, pipelineGeneration);
+      }
+      releasePermit();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConsistentHashPartitionerTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Test
+  public void testSerialization() throws HopException {
+    List<String> attributes = Arrays.asList("FieldNames");
+    PartitionerLoadSaveTester<ConsistentHashPartitioner> tester =
+        new PartitionerLoadSaveTester<>(ConsistentHashPartitioner.class, attributes);
+
+    tester.testSerialization();
+  }
+
+  @Test
+  public void testAddingPartitionOnlyMovesRowsToIt() throws HopException {
+    IVariables variables = new Variables();
+    ConsistentHashPartitioner four = new ConsistentHashPartitioner();
+    four.setFieldNames(new String[] {"id"});
+    four.setMeta(HashPartitionerTest.createMeta("P1", "P2", "P3", "P4"));
+
+    ConsistentHashPartitioner five = new ConsistentHashPartitioner();
+    five.setFieldNames(new String[] {"id"});
+    five.setMeta(HashPartitionerTest.createMeta("P1", "P2", "P3", "P4", "P5"));
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    int nrRows = 10000;
+    int moved = 0;
+    int[] counts = new int[4];
+    for (long i = 0; i < nrRows; i++) {
+      Object[] row = new Object[] {i};
+      int before = four.getPartition(variables, rowMeta, row);
+      int after = five.getPartition(variables, rowMeta, row);
+      counts[before]++;
+      if (before != after) {
+        assertEquals(4, after);
+        moved++;
+      }
+    }
+
+    // About a fifth of the rows move to the new partition
+    //
+    assertTrue(moved > nrRows / 10 && moved < nrRows * 3 / 10);
+    for (int count : counts) {
+      assertTrue(count > nrRows / 8);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.partition.PartitionSchema;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashPartitionerTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Test
+  public void testSerialization() throws HopException {
+    List<String> attributes = Arrays.asList("FieldNames");
+    PartitionerLoadSaveTester<HashPartitioner> tester =
+        new PartitionerLoadSaveTester<>(HashPartitioner.class, attributes);
+
+    tester.testSerialization();
+  }
+
+  @Test
+  public void testGetPartition() throws HopException {
+    IVariables variables = new Variables();
+    HashPartitioner partitioner = new HashPartitioner();
+    partitioner.setFieldNames(new String[] {"name", "date"});
+    partitioner.setMeta(createMeta("P1", "P2", "P3"));
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+
+    int[] counts = new int[3];
+    for (int i = 0; i < 3000; i++) {
+      Object[] row = new Object[] {"id" + i, "name" + i, new Date(i * 1000L)};
+      int partition = partitioner.getPartition(variables, rowMeta, row);
+      assertTrue(partition >= 0 && partition < 3);
+      counts[partition]++;
+
+      // The same values always end up in the same partition
+      //
+      Object[] other = new Object[] {"other", "name" + i, new Date(i * 1000L)};
+      assertEquals(partition, partitioner.getPartition(variables, rowMeta, other));
+    }
+    for (int count : counts) {
+      assertTrue(count > 800);
+    }
+
+    // Null values can be partitioned too
+    //
+    int partition = partitioner.getPartition(variables, rowMeta, new Object[] {"id", null, null});
+    assertTrue(partition >= 0 && partition < 3);
+  }
+
+  static TransformPartitioningMeta createMeta(String... partitionIds) {
+    TransformPartitioningMeta meta = new TransformPartitioningMeta();
+    meta.setPartitionSchema(new PartitionSchema("schema", Arrays.asList(partitionIds)));
+    return meta;
+  }
+}
@@ -24,6 +24,7 @@ import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.hop.pipeline.transform.TransformMeta;
@@ -41,6 +42,7 @@ import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -85,6 +87,13 @@ public class PipelineTest {
     verify(pipelineWithNoTransforms).firePipelineExecutionFinishedListeners();
   }
 
+  /** Lock-free row sets need every transform to write from one thread so they are opt-in */
+  @Test
+  public void testLockFreeRowSetsDisabledByDefault() {
+    assertFalse(new LocalPipelineEngine(new PipelineMeta()).isLockFreeRowSetsEnabled());
+    assertFalse(new LocalPipelineRunConfiguration().isLockFreeRowSetsEnabled());
+  }
+
   /**
    * ConcurrentModificationException when restarting pipeline Test that listeners can be accessed
    * concurrently during pipeline finish
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.dummy;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.pipeline.transform.IRowListener;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DummyTest {
+
+  private TransformMockHelper<DummyMeta, DummyData> transformMockHelper;
+  private Dummy dummy;
+  private IRowSet output;
+
+  @Before
+  public void setUp() {
+    transformMockHelper = new TransformMockHelper<>("Dummy", DummyMeta.class, DummyData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+
+    dummy =
+        new Dummy(
+            transformMockHelper.transformMeta,
+            transformMockHelper.iTransformMeta,
+            transformMockHelper.iTransformData,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+
+    output = new QueueRowSet();
+    dummy.addRowSetToOutputRowSets(output);
+  }
+
+  @After
+  public void tearDown() {
+    transformMockHelper.cleanUp();
+  }
+
+  @Test
+  public void testRowsArePassedOnInBatches() throws Exception {
+    int nrRows = 2 * Dummy.ROWS_PER_BATCH + 50;
+    dummy.addRowSetToInputRowSets(createInput(nrRows));
+
+    int calls = 0;
+    while (dummy.processRow()) {
+      calls++;
+    }
+
+    // Two full batches and one with the remaining rows
+    //
+    assertEquals(3, calls);
+    assertOutput(nrRows);
+    assertEquals(nrRows, dummy.getLinesRead());
+    assertEquals(nrRows, dummy.getLinesWritten());
+  }
+
+  @Test
+  public void testRowsArePassedOnOneByOneWithRowListener() throws Exception {
+    int nrRows = 5;
+    dummy.addRowSetToInputRowSets(createInput(nrRows));
+    dummy.addRowListener(mock(IRowListener.class));
+
+    int calls = 0;
+    while (dummy.processRow()) {
+      calls++;
+    }
+
+    // Row listeners see every row read so the rows can't be taken in bulk
+    //
+    assertEquals(nrRows, calls);
+    assertOutput(nrRows);
+    assertEquals(nrRows, dummy.getLinesRead());
+  }
+
+  @Test
+  public void testNoRows() throws Exception {
+    dummy.addRowSetToInputRowSets(createInput(0));
+
+    assertFalse(dummy.processRow());
+    assertTrue(output.isDone());
+    assertNull(output.getRow());
+  }
+
+  private static IRowSet createInput(int nrRows) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    IRowSet input = new QueueRowSet();
+    input.setRowMeta(rowMeta);
+    for (long i = 0; i < nrRows; i++) {
+      input.putRow(rowMeta, new Object[] {i});
+    }
+    input.setDone();
+    return input;
+  }
+
+  private void assertOutput(int nrRows) {
+    assertTrue(output.isDone());
+    for (long i = 0; i < nrRows; i++) {
+      Object[] row = output.getRow();
+      assertEquals(i, row[0]);
+    }
+    assertNull(output.getRow());
+  }
+}
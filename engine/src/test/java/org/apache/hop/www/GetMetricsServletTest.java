@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.www.metrics.OpenMetricsWriter;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GetMetricsServletTest {
+  private PipelineMap mockPipelineMap;
+  private WorkflowMap mockWorkflowMap;
+  private GetMetricsServlet getMetricsServlet;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    mockPipelineMap = mock(PipelineMap.class);
+    mockWorkflowMap = mock(WorkflowMap.class);
+    getMetricsServlet = new GetMetricsServlet(mockPipelineMap, mockWorkflowMap);
+
+    HopServerObjectEntry entry = new HopServerObjectEntry("my \"pipeline\"", "id-1");
+    IPipelineEngine<PipelineMeta> mockPipeline = mock(IPipelineEngine.class);
+    IEngineComponent mockComponent = mock(IEngineComponent.class);
+
+    when(mockPipelineMap.getPipelineObjects()).thenReturn(Collections.singletonList(entry));
+    when(mockPipelineMap.getPipeline(entry)).thenReturn(mockPipeline);
+    when(mockWorkflowMap.getWorkflowObjects()).thenReturn(Collections.emptyList());
+    when(mockPipeline.getStatusDescription()).thenReturn("Running");
+    when(mockPipeline.isRunning()).thenReturn(true);
+    when(mockPipeline.getErrors()).thenReturn(2);
+    when(mockPipeline.getExecutionStartDate()).thenReturn(new Date(1000L));
+    when(mockPipeline.getComponents()).thenReturn(Collections.singletonList(mockComponent));
+    when(mockComponent.getName()).thenReturn("Sort");
+    when(mockComponent.getCopyNr()).thenReturn(1);
+    when(mockComponent.getLinesRead()).thenReturn(500L);
+    when(mockComponent.getLinesWritten()).thenReturn(250L);
+    when(mockComponent.getExecutionDuration()).thenReturn(5000L);
+    when(mockComponent.getInputBufferSize()).thenReturn(42L);
+  }
+
+  @Test
+  public void testPipelineAndTransformMetrics() {
+    OpenMetricsWriter writer = new OpenMetricsWriter(true);
+    getMetricsServlet.writeMetrics(writer, 6000L);
+    String text = writer.getText();
+
+    String labels = "pipeline=\"my \\\"pipeline\\\"\",id=\"id-1\"";
+    String transformLabels = labels + ",transform=\"Sort\",copy=\"1\"";
+
+    assertTrue(text.contains("hop_server_pipelines{status=\"Running\"} 1\n"));
+    assertTrue(text.contains("hop_pipeline_running{" + labels + "} 1\n"));
+    assertTrue(text.contains("hop_pipeline_duration_seconds{" + labels + "} 5\n"));
+    assertTrue(text.contains("hop_pipeline_errors{" + labels + "} 2\n"));
+    assertTrue(text.contains("# TYPE hop_transform_lines_read counter\n"));
+    assertTrue(text.contains("hop_transform_lines_read_total{" + transformLabels + "} 500\n"));
+    assertTrue(
+        text.contains(
+            "hop_transform_rows_per_second{" + transformLabels + ",direction=\"read\"} 100\n"));
+    assertTrue(
+        text.contains(
+            "hop_transform_buffer_rows{" + transformLabels + ",buffer=\"input\"} 42\n"));
+    assertTrue(text.contains("jvm_memory_used_bytes{area=\"heap\"} "));
+    assertTrue(text.endsWith("# EOF\n"));
+  }
+
+  @Test
+  public void testPrometheusTextFormatByDefault() throws Exception {
+    HttpServletRequest mockHttpServletRequest = mock(HttpServletRequest.class);
+    HttpServletResponse mockHttpServletResponse = mock(HttpServletResponse.class);
+    StringWriter out = new StringWriter();
+
+    when(mockHttpServletRequest.getContextPath()).thenReturn(GetMetricsServlet.CONTEXT_PATH);
+    when(mockHttpServletResponse.getWriter()).thenReturn(new PrintWriter(out));
+
+    getMetricsServlet.doGet(mockHttpServletRequest, mockHttpServletResponse);
+
+    verify(mockHttpServletResponse).setContentType(OpenMetricsWriter.CONTENT_TYPE_PROMETHEUS);
+    assertTrue(out.toString().contains("# TYPE hop_transform_lines_read_total counter\n"));
+    assertTrue(!out.toString().contains("# EOF"));
+  }
+}
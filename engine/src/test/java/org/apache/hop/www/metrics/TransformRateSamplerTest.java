@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.metrics;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class TransformRateSamplerTest {
+
+  @Test
+  public void testFirstSampleUsesAverageSpeed() {
+    TransformRateSampler sampler = new TransformRateSampler(1000L);
+    double[] rates = sampler.sample("t", 1000L, 500L, 2000L, 10000L);
+    assertEquals(500.0, rates[0], 0.0);
+    assertEquals(250.0, rates[1], 0.0);
+  }
+
+  @Test
+  public void testRatesBetweenSamples() {
+    TransformRateSampler sampler = new TransformRateSampler(1000L);
+    sampler.sample("t", 1000L, 1000L, 2000L, 10000L);
+
+    // Too soon: keep the previous rates
+    //
+    double[] rates = sampler.sample("t", 1100L, 1100L, 2500L, 10500L);
+    assertEquals(500.0, rates[0], 0.0);
+
+    rates = sampler.sample("t", 3000L, 1000L, 4000L, 12000L);
+    assertEquals(1000.0, rates[0], 0.0);
+    assertEquals(0.0, rates[1], 0.0);
+  }
+
+  @Test
+  public void testRetain() {
+    TransformRateSampler sampler = new TransformRateSampler(1000L);
+    sampler.sample("a", 1L, 1L, 1L, 1L);
+    sampler.sample("b", 1L, 1L, 1L, 1L);
+    sampler.retain(Collections.singleton("b"));
+    assertEquals(1, sampler.size());
+  }
+
+  @Test
+  public void testWriterEscapesLabelsAndFormatsValues() {
+    assertEquals("a\\\"b\\\\c\\nd", OpenMetricsWriter.escapeLabelValue("a\"b\\c\nd"));
+    assertEquals("NaN", OpenMetricsWriter.formatValue(Double.NaN));
+    assertEquals("+Inf", OpenMetricsWriter.formatValue(Double.POSITIVE_INFINITY));
+    assertEquals("3", OpenMetricsWriter.formatValue(3.0));
+    assertEquals("0.25", OpenMetricsWriter.formatValue(0.25));
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.service;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class WebServicePipelinePoolTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private IVariables variables;
+  private MemoryMetadataProvider metadataProvider;
+  private File pipelineFile;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    variables = new Variables();
+    metadataProvider = new MemoryMetadataProvider();
+    pipelineFile = File.createTempFile("web-service", ".hpl");
+    pipelineFile.deleteOnExit();
+    writePipeline("first");
+  }
+
+  private void writePipeline(String name) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName(name);
+    Files.write(
+        pipelineFile.toPath(), pipelineMeta.getXml(variables).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testPipelineIsReused() throws Exception {
+    WebServicePipelinePool pool =
+        new WebServicePipelinePool(pipelineFile.getAbsolutePath(), 0, 0L);
+
+    PipelineMeta first;
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      first = lease.getPipelineMeta();
+      assertEquals("first", first.getName());
+    }
+    assertEquals(1, pool.getIdleCount());
+
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      assertSame(first, lease.getPipelineMeta());
+
+      // A concurrent request gets its own copy
+      //
+      try (WebServicePipelinePool.Lease other = pool.borrow(metadataProvider, variables)) {
+        assertNotSame(first, other.getPipelineMeta());
+      }
+    }
+    assertEquals(2, pool.getIdleCount());
+  }
+
+  @Test
+  public void testDiscardedPipelineIsNotReused() throws Exception {
+    WebServicePipelinePool pool =
+        new WebServicePipelinePool(pipelineFile.getAbsolutePath(), 0, 0L);
+
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      lease.discard();
+    }
+    assertEquals(0, pool.getIdleCount());
+  }
+
+  @Test
+  public void testChangedFileIsReloaded() throws Exception {
+    WebServicePipelinePool pool =
+        new WebServicePipelinePool(pipelineFile.getAbsolutePath(), 0, 0L);
+
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      assertEquals("first", lease.getPipelineMeta().getName());
+    }
+
+    writePipeline("second");
+    pipelineFile.setLastModified(pipelineFile.lastModified() + 10000L);
+
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      assertEquals("second", lease.getPipelineMeta().getName());
+    }
+    assertEquals(1, pool.getIdleCount());
+  }
+
+  @Test
+  public void testChangedVariablesOrMetadataAreReloaded() throws Exception {
+    WebServicePipelinePool pool =
+        new WebServicePipelinePool(pipelineFile.getAbsolutePath(), 0, 0L);
+
+    PipelineMeta first;
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      first = lease.getPipelineMeta();
+    }
+
+    variables.setVariable("SOME_VARIABLE", "value");
+    PipelineMeta second;
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      second = lease.getPipelineMeta();
+      assertNotSame(first, second);
+    }
+
+    try (WebServicePipelinePool.Lease lease =
+        pool.borrow(new MemoryMetadataProvider(), variables)) {
+      assertNotSame(second, lease.getPipelineMeta());
+    }
+    assertEquals(1, pool.getIdleCount());
+  }
+
+  @Test
+  public void testMaxConcurrency() throws Exception {
+    WebServicePipelinePool pool =
+        new WebServicePipelinePool(pipelineFile.getAbsolutePath(), 1, 100L);
+
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      try {
+        pool.borrow(metadataProvider, variables);
+        fail("The second request should time out waiting for its turn");
+      } catch (HopException e) {
+        // Expected
+      }
+    }
+
+    // After the first request finished the next one can run
+    //
+    try (WebServicePipelinePool.Lease lease = pool.borrow(metadataProvider, variables)) {
+      assertEquals("first", lease.getPipelineMeta().getName());
+    }
+  }
+}
@@ -80,6 +80,12 @@ public class H2DatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     return true;
   }
 
+  /** @return true if the database accepts INSERT statements with a VALUES list of several rows */
+  @Override
+  public boolean supportsMultiRowInsert() {
+    return true;
+  }
+
   /** @return true if the database supports bitmap indexes */
   @Override
   public boolean supportsBitmapIndex() {
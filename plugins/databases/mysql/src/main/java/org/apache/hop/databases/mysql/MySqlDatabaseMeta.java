@@ -192,6 +192,12 @@ public class MySqlDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     return false;
   }
 
+  /** @return true if the database accepts INSERT statements with a VALUES list of several rows */
+  @Override
+  public boolean supportsMultiRowInsert() {
+    return true;
+  }
+
   /** @return true if the database supports bitmap indexes */
   @Override
   public boolean supportsBitmapIndex() {
@@ -83,6 +83,12 @@ public class PostgreSqlDatabaseMeta extends BaseDatabaseMeta implements IDatabas
     return true;
   }
 
+  /** @return true if the database accepts INSERT statements with a VALUES list of several rows */
+  @Override
+  public boolean supportsMultiRowInsert() {
+    return true;
+  }
+
   /** @return true if the database supports bitmap indexes */
   @Override
   public boolean supportsBitmapIndex() {
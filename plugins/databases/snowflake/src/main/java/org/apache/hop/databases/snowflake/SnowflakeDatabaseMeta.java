@@ -339,6 +339,12 @@ public class SnowflakeDatabaseMeta extends BaseDatabaseMeta implements IDatabase
     return false; // The 3.6.9 driver _does_ support conversion, but errors when value is null.
   }
 
+  /** @return true if the database accepts INSERT statements with a VALUES list of several rows */
+  @Override
+  public boolean supportsMultiRowInsert() {
+    return true;
+  }
+
   /** @return true if the database supports bitmap indexes */
   @Override
   public boolean supportsBitmapIndex() {
@@ -97,7 +97,7 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     // Sure
   }
 
-  private void write(ObjectOutputStream out, int objectType, Object object) throws IOException {
+  static void write(DataOutput out, int objectType, Object object) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
         {
@@ -146,7 +146,7 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
       case IValueMeta.TYPE_BINARY:
         {
           byte[] bytes = (byte[]) object;
-          out.write(bytes.length);
+          out.writeInt(bytes.length);
           out.write(bytes);
         }
         break;
@@ -164,7 +164,7 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     }
   }
 
-  private Object read(ObjectInputStream in, int objectType) throws IOException {
+  static Object read(DataInput in, int objectType) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
         {
@@ -207,22 +207,25 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
         }
 
       case IValueMeta.TYPE_BINARY:
-      {
-        return new byte[in.readInt()];
-      }
+        {
+          byte[] bytes = new byte[in.readInt()];
+          in.readFully(bytes);
+          return bytes;
+        }
 
       case IValueMeta.TYPE_INET:
-      {
-        String hostname = (String) read(in, IValueMeta.TYPE_STRING);
-        byte[] addr = new byte[in.readInt() == 1 ? 4 : 16];
-        return InetAddress.getByAddress(hostname, addr);
-      }
+        {
+          String hostname = (String) read(in, IValueMeta.TYPE_STRING);
+          byte[] addr = new byte[in.readInt() == 1 ? 4 : 16];
+          in.readFully(addr);
+          return InetAddress.getByAddress(hostname, addr);
+        }
       default:
         throw new IOException("Data type not supported yet: " + objectType);
     }
   }
 
-  private int getObjectType(Object object) throws CoderException {
+  static int getObjectType(Object object) throws CoderException {
     if (object instanceof String) {
       return IValueMeta.TYPE_STRING;
     }
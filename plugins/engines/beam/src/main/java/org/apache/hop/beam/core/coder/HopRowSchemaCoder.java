@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.beam.core.coder;
+
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.util.VarInt;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * A coder for rows of which the layout is known when the Beam pipeline is built. Instead of
+ * tagging every value with its type like {@link HopRowCoder} does, the row is encoded as the
+ * number of values, a bitmap with 2 bits of state per value and the non-null values in a compact
+ * form for the data type of the field: variable length integers for integers, dates and lengths,
+ * 8 bytes for numbers and the unscaled bytes and scale of big numbers.
+ *
+ * <p>Values which don't match the data type of the field (or values beyond the fields of the row
+ * metadata) are written with a type tag the same way {@link HopRowCoder} does so that any row can
+ * still be encoded.
+ */
+public class HopRowSchemaCoder extends CustomCoder<HopRow> {
+
+  private static final int STATE_NULL = 0;
+  private static final int STATE_TYPED = 1;
+  private static final int STATE_TAGGED = 2;
+
+  private final int[] valueTypes;
+
+  public HopRowSchemaCoder(IRowMeta rowMeta) {
+    valueTypes = new int[rowMeta.size()];
+    for (int i = 0; i < valueTypes.length; i++) {
+      valueTypes[i] = rowMeta.getValueMeta(i).getType();
+    }
+  }
+
+  @Override
+  public void encode(HopRow value, OutputStream outStream) throws IOException {
+    Object[] row = value.getRow();
+    DataOutputStream out = new DataOutputStream(outStream);
+
+    // Length, 0 means a null row
+    //
+    if (row == null) {
+      VarInt.encode(0, out);
+      return;
+    }
+    VarInt.encode(row.length + 1, out);
+
+    // The state of every value: null, typed or tagged
+    //
+    byte[] states = new byte[(row.length + 3) / 4];
+    for (int i = 0; i < row.length; i++) {
+      int state = getState(i, row[i]);
+      states[i / 4] |= (byte) (state << ((i % 4) * 2));
+    }
+    out.write(states);
+
+    // The non-null values
+    //
+    for (int i = 0; i < row.length; i++) {
+      switch (getState(states, i)) {
+        case STATE_TYPED:
+          writeTyped(out, valueTypes[i], row[i]);
+          break;
+        case STATE_TAGGED:
+          int objectType = HopRowCoder.getObjectType(row[i]);
+          VarInt.encode(objectType, out);
+          HopRowCoder.write(out, objectType, row[i]);
+          break;
+        default:
+          break;
+      }
+    }
+    out.flush();
+  }
+
+  @Override
+  public HopRow decode(InputStream inStream) throws IOException {
+    DataInputStream in = new DataInputStream(inStream);
+
+    int length = VarInt.decodeInt(in) - 1;
+    if (length < 0) {
+      return new HopRow(null);
+    }
+    byte[] states = new byte[(length + 3) / 4];
+    in.readFully(states);
+
+    Object[] row = new Object[length];
+    for (int i = 0; i < length; i++) {
+      switch (getState(states, i)) {
+        case STATE_TYPED:
+          row[i] = readTyped(in, valueTypes[i]);
+          break;
+        case STATE_TAGGED:
+          row[i] = HopRowCoder.read(in, VarInt.decodeInt(in));
+          break;
+        default:
+          break;
+      }
+    }
+    return new HopRow(row);
+  }
+
+  @Override
+  public void verifyDeterministic() {
+    // Equal rows have equal values so they're encoded the same way
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof HopRowSchemaCoder)) {
+      return false;
+    }
+    return Arrays.equals(valueTypes, ((HopRowSchemaCoder) other).valueTypes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(valueTypes);
+  }
+
+  private static int getState(byte[] states, int index) {
+    return (states[index / 4] >> ((index % 4) * 2)) & 0x03;
+  }
+
+  private int getState(int index, Object object) {
+    if (object == null) {
+      return STATE_NULL;
+    }
+    if (index < valueTypes.length && isOfType(valueTypes[index], object)) {
+      return STATE_TYPED;
+    }
+    return STATE_TAGGED;
+  }
+
+  private static boolean isOfType(int valueType, Object object) {
+    switch (valueType) {
+      case IValueMeta.TYPE_STRING:
+        return object instanceof String;
+      case IValueMeta.TYPE_INTEGER:
+        return object instanceof Long;
+      case IValueMeta.TYPE_NUMBER:
+        return object instanceof Double;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return object instanceof BigDecimal;
+      case IValueMeta.TYPE_BOOLEAN:
+        return object instanceof Boolean;
+      case IValueMeta.TYPE_BINARY:
+        return object instanceof byte[];
+      case IValueMeta.TYPE_DATE:
+        // Subclasses like Timestamp would lose information
+        return object.getClass() == Date.class;
+      case IValueMeta.TYPE_TIMESTAMP:
+        return object.getClass() == Timestamp.class;
+      default:
+        return false;
+    }
+  }
+
+  private static void writeTyped(DataOutputStream out, int valueType, Object object)
+      throws IOException {
+    switch (valueType) {
+      case IValueMeta.TYPE_STRING:
+        writeBytes(out, ((String) object).getBytes(StandardCharsets.UTF_8));
+        break;
+      case IValueMeta.TYPE_INTEGER:
+        writeZigZag(out, (Long) object);
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        out.writeDouble((Double) object);
+        break;
+      case IValueMeta.TYPE_BIGNUMBER:
+        {
+          BigDecimal bigDecimal = (BigDecimal) object;
+          writeBytes(out, bigDecimal.unscaledValue().toByteArray());
+          writeZigZag(out, bigDecimal.scale());
+        }
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        out.writeBoolean((Boolean) object);
+        break;
+      case IValueMeta.TYPE_BINARY:
+        writeBytes(out, (byte[]) object);
+        break;
+      case IValueMeta.TYPE_DATE:
+        writeZigZag(out, ((Date) object).getTime());
+        break;
+      case IValueMeta.TYPE_TIMESTAMP:
+        {
+          Timestamp timestamp = (Timestamp) object;
+          writeZigZag(out, timestamp.getTime());
+          VarInt.encode(timestamp.getNanos(), out);
+        }
+        break;
+      default:
+        throw new CoderException("Data type not supported: " + valueType);
+    }
+  }
+
+  private static Object readTyped(DataInputStream in, int valueType) throws IOException {
+    switch (valueType) {
+      case IValueMeta.TYPE_STRING:
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+      case IValueMeta.TYPE_INTEGER:
+        return readZigZag(in);
+      case IValueMeta.TYPE_NUMBER:
+        return in.readDouble();
+      case IValueMeta.TYPE_BIGNUMBER:
+        {
+          BigInteger unscaled = new BigInteger(readBytes(in));
+          return new BigDecimal(unscaled, (int) readZigZag(in));
+        }
+      case IValueMeta.TYPE_BOOLEAN:
+        return in.readBoolean();
+      case IValueMeta.TYPE_BINARY:
+        return readBytes(in);
+      case IValueMeta.TYPE_DATE:
+        return new Date(readZigZag(in));
+      case IValueMeta.TYPE_TIMESTAMP:
+        {
+          Timestamp timestamp = new Timestamp(readZigZag(in));
+          timestamp.setNanos(VarInt.decodeInt(in));
+          return timestamp;
+        }
+      default:
+        throw new CoderException("Data type not supported: " + valueType);
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    VarInt.encode(bytes.length, out);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[VarInt.decodeInt(in)];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /** Small negative numbers are common too: zig-zag encode them so they stay short */
+  private static void writeZigZag(DataOutputStream out, long value) throws IOException {
+    VarInt.encode((value << 1) ^ (value >> 63), out);
+  }
+
+  private static long readZigZag(DataInputStream in) throws IOException {
+    long value = VarInt.decodeLong(in);
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.beam.core.HopRow;
 import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.beam.core.coder.HopRowSchemaCoder;
 import org.apache.hop.beam.core.util.HopBeamUtil;
 import org.apache.hop.beam.engines.IBeamPipelineEngineRunConfiguration;
 import org.apache.hop.beam.metadata.RunnerType;
@@ -300,6 +301,8 @@ public class HopPipelineMetaToBeamPipelineConverter<T extends IBeamPipelineEngin
           pipelineMeta.getTransformFields(variables, transformMeta),
           null,
           null);
+
+      setRowSchemaCoders(log, transformCollectionMap, transformMeta);
     }
   }
 
@@ -500,6 +503,42 @@ public class HopPipelineMetaToBeamPipelineConverter<T extends IBeamPipelineEngin
             rowMeta,
             previousTransforms,
             input);
+
+        setRowSchemaCoders(log, transformCollectionMap, transformMeta);
+      }
+    }
+  }
+
+  /**
+   * The layout of the rows a transform produces is known here so we can encode them with a coder
+   * which doesn't need to store the data type of every value. This is done for the main output and
+   * the outputs targeting other transforms.
+   *
+   * @param log the log channel to use
+   * @param transformCollectionMap the collections produced so far
+   * @param transformMeta the transform which was just handled
+   * @throws HopException in case the output fields of the transform can't be determined
+   */
+  private void setRowSchemaCoders(
+      ILogChannel log,
+      Map<String, PCollection<HopRow>> transformCollectionMap,
+      TransformMeta transformMeta)
+      throws HopException {
+    HopRowSchemaCoder coder =
+        new HopRowSchemaCoder(pipelineMeta.getTransformFields(variables, transformMeta));
+    String targetPrefix = HopBeamUtil.createTargetTupleId(transformMeta.getName(), "");
+
+    for (Map.Entry<String, PCollection<HopRow>> entry : transformCollectionMap.entrySet()) {
+      String name = entry.getKey();
+      if (name.equals(transformMeta.getName()) || name.startsWith(targetPrefix)) {
+        try {
+          entry.getValue().setCoder(coder);
+        } catch (IllegalStateException e) {
+          // The collection was already used by the transform handler, keep the default coder
+          //
+          log.logDetailed(
+              "Unable to set the row coder of collection '" + name + "' : " + e.getMessage());
+        }
       }
     }
   }
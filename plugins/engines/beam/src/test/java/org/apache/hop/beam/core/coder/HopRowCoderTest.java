@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Date;
 
 public class HopRowCoderTest extends TestCase {
@@ -59,6 +60,21 @@ public class HopRowCoderTest extends TestCase {
     assertEquals(row1, row1d);
   }
 
+  @Test
+  public void testEncodeBinary() throws IOException {
+
+    HopRow row1 = new HopRow(new Object[] {"AAA", new byte[] {1, 2, 3, 4}, Long.valueOf(100)});
+
+    hopRowCoder.encode(row1, outputStream);
+    outputStream.close();
+
+    HopRow row1d = hopRowCoder.decode(new ByteArrayInputStream(outputStream.toByteArray()));
+
+    assertEquals("AAA", row1d.getRow()[0]);
+    assertTrue(Arrays.equals((byte[]) row1.getRow()[1], (byte[]) row1d.getRow()[1]));
+    assertEquals(100L, row1d.getRow()[2]);
+  }
+
   @Test
   public void decode() {}
 }
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.beam.core.coder;
+
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.PipelineResult;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.MetricNameFilter;
+import org.apache.beam.sdk.metrics.MetricQueryResults;
+import org.apache.beam.sdk.metrics.MetricResult;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.metrics.MetricsFilter;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.apache.beam.sdk.values.KV;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HopRowSchemaCoderTest {
+
+  private IRowMeta rowMeta;
+  private HopRowSchemaCoder coder;
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("total"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("timestamp"));
+    rowMeta.addValueMeta(new ValueMetaBinary("binary"));
+    coder = new HopRowSchemaCoder(rowMeta);
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Timestamp timestamp = new Timestamp(810311);
+    timestamp.setNanos(123456789);
+    HopRow row =
+        new HopRow(
+            new Object[] {
+              "AAA éà",
+              -12345678901L,
+              1.234,
+              new BigDecimal("-12345678901234567890.0012"),
+              true,
+              new Date(876876868),
+              timestamp,
+              new byte[] {1, 2, 3}
+            });
+
+    HopRow decoded = roundTrip(coder, row);
+    Object[] values = decoded.getRow();
+    assertEquals(8, values.length);
+    for (int i = 0; i < 7; i++) {
+      assertEquals(row.getRow()[i], values[i]);
+    }
+    assertEquals(123456789, ((Timestamp) values[6]).getNanos());
+    assertArrayEquals((byte[]) row.getRow()[7], (byte[]) values[7]);
+  }
+
+  @Test
+  public void testNullsAndNullRow() throws Exception {
+    HopRow row = new HopRow(new Object[] {null, 5L, null, null, false, null, null, null});
+    assertEquals(row, roundTrip(coder, row));
+
+    assertNull(roundTrip(coder, new HopRow(null)).getRow());
+    assertEquals(0, roundTrip(coder, new HopRow(new Object[0])).getRow().length);
+  }
+
+  @Test
+  public void testValuesNotMatchingTheLayout() throws Exception {
+    // A string in an integer field, a timestamp in a date field and extra values at the end
+    //
+    Timestamp timestamp = new Timestamp(1000);
+    timestamp.setNanos(42);
+    HopRow row =
+        new HopRow(
+            new Object[] {
+              "AAA", "not a number", 1.0, null, true, timestamp, null, null, "extra", 7L, null
+            });
+
+    HopRow decoded = roundTrip(coder, row);
+    assertEquals(row, decoded);
+    assertEquals(42, ((Timestamp) decoded.getRow()[5]).getNanos());
+  }
+
+  @Test
+  public void testNestedInKv() throws Exception {
+    KvCoder<HopRow, HopRow> kvCoder = KvCoder.of(coder, coder);
+    KV<HopRow, HopRow> kv =
+        KV.of(
+            new HopRow(new Object[] {"key", 1L, null, null, null, null, null, null}),
+            new HopRow(new Object[] {"value", 2L, 3.0, null, null, null, null, null}));
+
+    KV<HopRow, HopRow> decoded =
+        CoderUtils.decodeFromByteArray(kvCoder, CoderUtils.encodeToByteArray(kvCoder, kv));
+    assertEquals(kv.getKey(), decoded.getKey());
+    assertEquals(kv.getValue(), decoded.getValue());
+  }
+
+  @Test
+  public void testSmallerThanTaggedEncoding() throws Exception {
+    HopRow row = createRow(12345);
+    int schemaSize = CoderUtils.encodeToByteArray(coder, row).length;
+    int taggedSize = CoderUtils.encodeToByteArray(new HopRowCoder(), row).length;
+
+    assertTrue(
+        "Schema coder size " + schemaSize + " vs tagged size " + taggedSize,
+        schemaSize < taggedSize / 2);
+  }
+
+  @Test
+  public void testEquality() {
+    assertEquals(coder, new HopRowSchemaCoder(rowMeta.clone()));
+    assertEquals(coder.hashCode(), new HopRowSchemaCoder(rowMeta.clone()).hashCode());
+    assertTrue(!coder.equals(new HopRowSchemaCoder(new RowMeta())));
+  }
+
+  /**
+   * The direct runner encodes and decodes every element to verify the coder. Every row has to
+   * arrive unchanged in the next transform.
+   */
+  @Test
+  public void testDirectRunnerRoundTrip() throws Exception {
+    List<HopRow> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(createRow(i));
+    }
+
+    Pipeline pipeline = Pipeline.create(PipelineOptionsFactory.create());
+    pipeline
+        .apply("create", Create.of(rows).withCoder(coder))
+        .apply("check", ParDo.of(new CheckRowsFn()))
+        .setCoder(coder);
+    PipelineResult result = pipeline.run();
+    result.waitUntilFinish();
+
+    MetricQueryResults metrics =
+        result
+            .metrics()
+            .queryMetrics(
+                MetricsFilter.builder()
+                    .addNameFilter(MetricNameFilter.named(CheckRowsFn.class, "matching"))
+                    .build());
+    long count = 0;
+    for (MetricResult<Long> counter : metrics.getCounters()) {
+      count += counter.getAttempted();
+    }
+    assertEquals(rows.size(), count);
+  }
+
+  /**
+   * Runs the same rows through the direct runner with both coders. The direct runner encodes and
+   * decodes every element to verify the coder, like a shuffle would. The schema coder has to
+   * encode the rows in fewer bytes and pass them on faster. The timings depend on the machine so
+   * this is not run with the build.
+   */
+  @Test
+  @Ignore("Benchmark, run by hand")
+  public void testDirectRunnerBenchmark() throws Exception {
+    List<HopRow> rows = new ArrayList<>();
+    for (int i = 0; i < 50000; i++) {
+      rows.add(createRow(i));
+    }
+
+    HopRowCoder taggedCoder = new HopRowCoder();
+    long taggedBytes = encodedSize(taggedCoder, rows);
+    long schemaBytes = encodedSize(coder, rows);
+    assertTrue(
+        "Schema coder " + schemaBytes + " bytes vs tagged coder " + taggedBytes + " bytes",
+        schemaBytes < taggedBytes);
+
+    // Run both once to warm up, then keep the best time of a few runs
+    //
+    runPipeline(rows, taggedCoder);
+    runPipeline(rows, coder);
+    long taggedTime = Long.MAX_VALUE;
+    long schemaTime = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) {
+      taggedTime = Math.min(taggedTime, runPipeline(rows, taggedCoder));
+      schemaTime = Math.min(schemaTime, runPipeline(rows, coder));
+    }
+    assertTrue(
+        "Schema coder " + schemaTime + "ms vs tagged coder " + taggedTime + "ms",
+        schemaTime < taggedTime);
+  }
+
+  private static long encodedSize(Coder<HopRow> rowCoder, List<HopRow> rows) throws Exception {
+    long size = 0;
+    for (HopRow row : rows) {
+      size += CoderUtils.encodeToByteArray(rowCoder, row).length;
+    }
+    return size;
+  }
+
+  /** @return The time in ms to pass the rows through the direct runner with the coder */
+  private static long runPipeline(List<HopRow> rows, Coder<HopRow> rowCoder) {
+    long start = System.currentTimeMillis();
+    Pipeline pipeline = Pipeline.create(PipelineOptionsFactory.create());
+    pipeline
+        .apply("create", Create.of(rows).withCoder(rowCoder))
+        .apply("check", ParDo.of(new CheckRowsFn()))
+        .setCoder(rowCoder);
+    pipeline.run().waitUntilFinish();
+    return System.currentTimeMillis() - start;
+  }
+
+  /** Counts the rows which are equal to the row created for their id */
+  private static class CheckRowsFn extends DoFn<HopRow, HopRow> {
+    private final Counter matching = Metrics.counter(CheckRowsFn.class, "matching");
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      HopRow row = context.element();
+      if (row.equals(createRow(((Long) row.getRow()[1]).intValue()))) {
+        matching.inc();
+      }
+      context.output(row);
+    }
+  }
+
+  private static HopRow createRow(int i) {
+    return new HopRow(
+        new Object[] {
+          "Customer " + i,
+          (long) i,
+          i * 1.5,
+          BigDecimal.valueOf(i, 2),
+          i % 2 == 0,
+          new Date(1600000000000L + i),
+          null,
+          null
+        });
+  }
+
+  private static HopRow roundTrip(Coder<HopRow> rowCoder, HopRow row) throws Exception {
+    return CoderUtils.decodeFromByteArray(rowCoder, CoderUtils.encodeToByteArray(rowCoder, row));
+  }
+}
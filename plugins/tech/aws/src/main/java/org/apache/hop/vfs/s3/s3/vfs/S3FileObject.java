@@ -76,6 +76,12 @@ public class S3FileObject extends S3CommonFileObject {
     }
   }
 
+  @Override
+  protected InputStream getRangedInputStream(String key, String bucket) {
+    SimpleEntry<String, String> newPath = fixFilePath(key, bucket);
+    return super.getRangedInputStream(newPath.getKey(), newPath.getValue());
+  }
+
   private boolean bucketExists(String bucket) {
     boolean bucketExists = false;
     try {
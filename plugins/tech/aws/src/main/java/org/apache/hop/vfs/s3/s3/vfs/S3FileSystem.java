@@ -21,10 +21,12 @@ import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.core.logging.LogChannel;
 import org.apache.hop.core.util.StorageUnitConverter;
 import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.vfs.s3.amazon.s3.S3Util;
 import org.apache.hop.vfs.s3.s3common.S3CommonFileSystem;
 import org.apache.hop.vfs.s3.s3common.S3HopProperty;
 
@@ -74,6 +76,29 @@ public class S3FileSystem extends S3CommonFileSystem {
     return convertToInt(parsedPartSize);
   }
 
+  @Override
+  public int getUploadThreads() {
+    return Math.max(1, Const.toInt(s3HopProperty.getUploadThreads(), DEFAULT_UPLOAD_THREADS));
+  }
+
+  @Override
+  public long getUploadMemoryBudget() {
+    String memory = s3HopProperty.getUploadMemory();
+    return S3Util.isEmpty(memory) ? 0L : Math.max(0L, convertToLong(memory));
+  }
+
+  @Override
+  public int getDownloadThreads() {
+    return Math.max(1, Const.toInt(s3HopProperty.getDownloadThreads(), DEFAULT_DOWNLOAD_THREADS));
+  }
+
+  @Override
+  public int getDownloadPartSize() {
+    String partSize = s3HopProperty.getDownloadPartSize();
+    long parsedPartSize = S3Util.isEmpty(partSize) ? -1L : convertToLong(partSize);
+    return parsedPartSize > 0 ? convertToInt(parsedPartSize) : DEFAULT_DOWNLOAD_PART_SIZE;
+  }
+
   public long parsePartSize(String partSizeString) {
     long parsePartSize = convertToLong(partSizeString);
     if (parsePartSize < convertToLong(MIN_PART_SIZE)) {
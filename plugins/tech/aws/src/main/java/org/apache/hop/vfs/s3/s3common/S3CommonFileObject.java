@@ -59,10 +59,35 @@ public abstract class S3CommonFileObject extends AbstractFileObject {
   protected InputStream doGetInputStream() throws Exception {
     LogChannel.GENERAL.logDebug("Accessing content {0}", getQualifiedName());
     closeS3Object();
+    if (isRangedReadPossible()) {
+      return getRangedInputStream(this.key, this.bucketName);
+    }
     S3Object streamS3Object = getS3Object();
     return new S3CommonFileInputStream(streamS3Object.getObjectContent(), streamS3Object);
   }
 
+  /**
+   * Large objects are read with parallel ranged requests. The size known since attaching is only
+   * used to make that decision: the ranged stream uses fresh metadata.
+   */
+  protected boolean isRangedReadPossible() {
+    return s3ObjectMetadata != null
+        && fileSystem.getDownloadThreads() > 1
+        && s3ObjectMetadata.getContentLength() > 2L * fileSystem.getDownloadPartSize();
+  }
+
+  protected InputStream getRangedInputStream(String key, String bucket) {
+    ObjectMetadata metadata = fileSystem.getS3Client().getObjectMetadata(bucket, key);
+    return new S3CommonRangedInputStream(
+        fileSystem.getS3Client(),
+        bucket,
+        key,
+        metadata.getContentLength(),
+        metadata.getETag(),
+        fileSystem.getDownloadPartSize(),
+        fileSystem.getDownloadThreads());
+  }
+
   @Override
   protected FileType doGetType() throws Exception {
     return getType();
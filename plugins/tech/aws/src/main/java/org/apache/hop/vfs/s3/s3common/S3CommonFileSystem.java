@@ -38,6 +38,15 @@ import java.util.Collection;
 
 public abstract class S3CommonFileSystem extends AbstractFileSystem {
 
+  /** Number of multipart upload parts sent to S3 at the same time. */
+  public static final int DEFAULT_UPLOAD_THREADS = 4;
+
+  /** Number of ranged GET requests issued in parallel while reading a large object. */
+  public static final int DEFAULT_DOWNLOAD_THREADS = 4;
+
+  /** Size of a single ranged GET request. */
+  public static final int DEFAULT_DOWNLOAD_PART_SIZE = 8 * 1024 * 1024;
+
   private String awsAccessKeyCache;
   private String awsSecretKeyCache;
   private AmazonS3 client;
@@ -128,6 +137,29 @@ public abstract class S3CommonFileSystem extends AbstractFileSystem {
     return client;
   }
 
+  /** @return the number of parts of a multipart upload that are sent in parallel */
+  public int getUploadThreads() {
+    return DEFAULT_UPLOAD_THREADS;
+  }
+
+  /**
+   * @return the maximum number of bytes buffered by a single upload, 0 to keep one part per upload
+   *     thread in memory
+   */
+  public long getUploadMemoryBudget() {
+    return 0L;
+  }
+
+  /** @return the number of ranged GET requests issued in parallel, 1 to read sequentially */
+  public int getDownloadThreads() {
+    return DEFAULT_DOWNLOAD_THREADS;
+  }
+
+  /** @return the number of bytes fetched by a single ranged GET request */
+  public int getDownloadPartSize() {
+    return DEFAULT_DOWNLOAD_PART_SIZE;
+  }
+
   private boolean hasClientChangedCredentials() {
     return client != null
         && (S3Util.hasChanged(
@@ -26,11 +26,18 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
-/** Custom OutputStream that enables chunked uploads into S3 */
+/**
+ * Custom OutputStream that enables chunked uploads into S3. The written data is cut in parts of
+ * <code>partSize</code> bytes which are uploaded by a pool of upload threads while the next parts
+ * are being written. The number of parts kept in memory is limited by the memory budget.
+ */
 public class S3CommonPipedOutputStream extends PipedOutputStream {
 
   private static final Class<?> PKG = S3CommonPipedOutputStream.class; // For Translator
@@ -38,8 +45,13 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
   /** set to aws multipart minimum 5MB. */
   private static final int DEFAULT_PART_SIZE = 5 * 1024 * 1024;
 
-  private final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+  /** Buffer between the writing thread and the upload, the pipe default of 1KB is too small. */
+  private static final int PIPE_SIZE = 64 * 1024;
+
+  private final ExecutorService executor;
+  private ExecutorService uploadExecutor;
   private boolean initialized = false;
+  private boolean closed = false;
   private boolean blockedUntilDone = true;
   private final PipedInputStream pipedInputStream;
   private final S3AsyncTransferRunner s3AsyncTransferRunner;
@@ -49,6 +61,10 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
   private final String key;
   /** AWS Multipart part size. */
   private final int partSize;
+  /** Number of parts uploaded in parallel. */
+  private final int uploadThreads;
+  /** Number of parts which can be buffered in memory at the same time. */
+  private final Semaphore partsInMemory;
 
   public S3CommonPipedOutputStream(S3CommonFileSystem fileSystem, String bucketId, String key)
       throws IOException {
@@ -57,7 +73,33 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
 
   public S3CommonPipedOutputStream(
       S3CommonFileSystem fileSystem, String bucketId, String key, int partSize) throws IOException {
-    this.pipedInputStream = new PipedInputStream();
+    this(
+        fileSystem,
+        bucketId,
+        key,
+        partSize,
+        fileSystem.getUploadThreads(),
+        fileSystem.getUploadMemoryBudget());
+  }
+
+  /**
+   * @param fileSystem the file system providing the S3 client
+   * @param bucketId the bucket to upload to
+   * @param key the key of the new object
+   * @param partSize the size of a single part in bytes
+   * @param uploadThreads the number of parts uploaded in parallel
+   * @param memoryBudget the maximum number of bytes kept in memory for parts being read or
+   *     uploaded. When 0 or lower, one part per upload thread plus the part being read is kept.
+   */
+  public S3CommonPipedOutputStream(
+      S3CommonFileSystem fileSystem,
+      String bucketId,
+      String key,
+      int partSize,
+      int uploadThreads,
+      long memoryBudget)
+      throws IOException {
+    this.pipedInputStream = new PipedInputStream(PIPE_SIZE);
 
     try {
       this.pipedInputStream.connect(this);
@@ -71,11 +113,35 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
     this.key = key;
     this.fileSystem = fileSystem;
     this.partSize = partSize;
+    this.uploadThreads = Math.max(1, uploadThreads);
+
+    int maxParts;
+    if (memoryBudget > 0) {
+      maxParts = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, memoryBudget / partSize));
+    } else {
+      maxParts = this.uploadThreads + 1;
+    }
+    this.partsInMemory = new Semaphore(maxParts);
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              Thread thread = new Thread(r, "S3 multipart upload - " + key);
+              thread.setDaemon(true);
+              return thread;
+            });
   }
 
   private void initializeWrite() {
     if (!initialized) {
       initialized = true;
+      uploadExecutor =
+          Executors.newFixedThreadPool(
+              uploadThreads,
+              r -> {
+                Thread thread = new Thread(r, "S3 multipart upload part - " + key);
+                thread.setDaemon(true);
+                return thread;
+              });
       result = this.executor.submit(s3AsyncTransferRunner);
     }
   }
@@ -102,28 +168,67 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
 
   @Override
   public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
     super.close();
 
-    if (initialized && isBlockedUntilDone()) {
-      while (!result.isDone()) {
+    try {
+      if (initialized && isBlockedUntilDone()) {
+        boolean success;
         try {
-          Thread.sleep(100);
+          success = result.get();
         } catch (InterruptedException e) {
           LogChannel.GENERAL.logError(
               BaseMessages.getString(PKG, "ERROR.S3MultiPart.ExceptionCaught"), e);
           Thread.currentThread().interrupt();
+          return;
+        } catch (ExecutionException e) {
+          throw new IOException(
+              BaseMessages.getString(PKG, "ERROR.S3MultiPart.UploadFailed", bucketId, key),
+              e.getCause());
         }
+        if (!success) {
+          throw new IOException(
+              BaseMessages.getString(PKG, "ERROR.S3MultiPart.UploadFailed", bucketId, key));
+        }
+      }
+    } finally {
+      // Pending uploads are allowed to finish when not blocking until done
+      //
+      this.executor.shutdown();
+      if (uploadExecutor != null) {
+        uploadExecutor.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Read a full part from the input stream.
+   *
+   * @return the number of bytes read, less than the buffer size only at the end of the stream
+   */
+  private static int readPart(InputStream inputStream, byte[] buffer) throws IOException {
+    int length = 0;
+    while (length < buffer.length) {
+      int read = inputStream.read(buffer, length, buffer.length - length);
+      if (read < 0) {
+        break;
       }
+      length += read;
     }
-    this.executor.shutdown();
+    return length;
   }
 
   class S3AsyncTransferRunner implements Callable<Boolean> {
 
+    private final AtomicReference<Exception> uploadFailure = new AtomicReference<>();
+
     @Override
     public Boolean call() throws Exception {
       boolean returnVal = true;
-      List<PartETag> partETags = new ArrayList<>();
+      List<Future<PartETag>> partFutures = new ArrayList<>();
 
       // Transform 1: Initialize
       InitiateMultipartUploadRequest initRequest;
@@ -132,74 +237,74 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
       InitiateMultipartUploadResult initResponse = null;
 
       // NOTE: byte[] max size is ~2GB < 5GB = aws api max part size
-      try (ByteArrayOutputStream baos = new ByteArrayOutputStream(partSize);
-          BufferedInputStream bis = new BufferedInputStream(pipedInputStream, partSize)) {
+      try (PushbackInputStream pis = new PushbackInputStream(pipedInputStream, 1)) {
         initResponse = fileSystem.getS3Client().initiateMultipartUpload(initRequest);
-        // Transform 2: Upload parts.
-        byte[] tmpBuffer = new byte[partSize];
-        int read = 0;
+        String uploadId = initResponse.getUploadId();
+
+        // Transform 2: Upload parts while the next ones are being written.
         long offset = 0;
-        long totalRead = 0;
         int partNum = 1;
+        boolean lastPart = false;
 
-        S3CommonWindowedSubstream s3is;
         LogChannel.GENERAL.logDetailed(BaseMessages.getString(PKG, "INFO.S3MultiPart.Start"));
-        while ((read = bis.read(tmpBuffer)) >= 0) {
-
-          // if something was actually read
-          if (read > 0) {
-            baos.write(tmpBuffer, 0, read);
-            totalRead += read;
+        while (!lastPart) {
+          partsInMemory.acquire();
+          checkUploadFailure();
+
+          byte[] buffer;
+          int length;
+          try {
+            buffer = new byte[partSize];
+            length = readPart(pis, buffer);
+
+            // See if there's anything after this part to flag the last part correctly
+            //
+            if (length < partSize) {
+              lastPart = true;
+            } else {
+              int next = pis.read();
+              if (next < 0) {
+                lastPart = true;
+              } else {
+                pis.unread(next);
+              }
+            }
+          } catch (IOException | RuntimeException e) {
+            partsInMemory.release();
+            throw e;
           }
 
-          if (totalRead > partSize) {
-            s3is = new S3CommonWindowedSubstream(baos.toByteArray());
-
-            UploadPartRequest uploadRequest =
-                new UploadPartRequest()
-                    .withBucketName(bucketId)
-                    .withKey(key)
-                    .withUploadId(initResponse.getUploadId())
-                    .withPartNumber(partNum++)
-                    .withFileOffset(offset)
-                    .withPartSize(totalRead)
-                    .withInputStream(s3is);
-
-            // Upload part and add response to our list.
-            LogChannel.GENERAL.logDetailed(
-                BaseMessages.getString(
-                    PKG, "INFO.S3MultiPart.Upload", partNum - 1, offset, Long.toString(totalRead)));
-            partETags.add(fileSystem.getS3Client().uploadPart(uploadRequest).getPartETag());
-
-            offset += totalRead;
-            totalRead = 0; // reset part size counter
-            baos.reset(); // reset output stream to 0
-          }
+          UploadPartRequest uploadRequest =
+              new UploadPartRequest()
+                  .withBucketName(bucketId)
+                  .withKey(key)
+                  .withUploadId(uploadId)
+                  .withPartNumber(partNum++)
+                  .withFileOffset(offset)
+                  .withPartSize(length)
+                  .withInputStream(new S3CommonWindowedSubstream(buffer, 0, length))
+                  .withLastPart(lastPart);
+          partFutures.add(uploadExecutor.submit(() -> uploadPart(uploadRequest)));
+
+          offset += length;
         }
 
-        // Transform 2.1 upload last part
-        s3is = new S3CommonWindowedSubstream(baos.toByteArray());
-
-        UploadPartRequest uploadRequest =
-            new UploadPartRequest()
-                .withBucketName(bucketId)
-                .withKey(key)
-                .withUploadId(initResponse.getUploadId())
-                .withPartNumber(partNum++)
-                .withFileOffset(offset)
-                .withPartSize(totalRead)
-                .withInputStream(s3is)
-                .withLastPart(true);
-
-        LogChannel.GENERAL.logDetailed(
-            BaseMessages.getString(PKG, "INFO.S3MultiPart.Upload", partNum - 1, offset, totalRead));
-        partETags.add(fileSystem.getS3Client().uploadPart(uploadRequest).getPartETag());
+        // Wait for all the parts, the ETags need to be handed over in part number order
+        //
+        List<PartETag> partETags = new ArrayList<>(partFutures.size());
+        for (Future<PartETag> partFuture : partFutures) {
+          try {
+            partETags.add(partFuture.get());
+          } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+          }
+        }
 
         // Transform 3: Complete.
         LogChannel.GENERAL.logDetailed(BaseMessages.getString(PKG, "INFO.S3MultiPart.Complete"));
         CompleteMultipartUploadRequest compRequest =
-            new CompleteMultipartUploadRequest(
-                bucketId, key, initResponse.getUploadId(), partETags);
+            new CompleteMultipartUploadRequest(bucketId, key, uploadId, partETags);
 
         fileSystem.getS3Client().completeMultipartUpload(compRequest);
       } catch (OutOfMemoryError oome) {
@@ -209,23 +314,62 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
                 "ERROR.S3MultiPart.UploadOutOfMemory",
                 new StorageUnitConverter().byteCountToDisplaySize(partSize)),
             oome);
+        abort(initResponse, partFutures);
         returnVal = false;
       } catch (Exception e) {
         LogChannel.GENERAL.logError(
             BaseMessages.getString(PKG, "ERROR.S3MultiPart.ExceptionCaught"), e);
-        if (initResponse == null) {
-          close();
-        } else {
-          fileSystem
-              .getS3Client()
-              .abortMultipartUpload(
-                  new AbortMultipartUploadRequest(bucketId, key, initResponse.getUploadId()));
-          LogChannel.GENERAL.logError(BaseMessages.getString(PKG, "ERROR.S3MultiPart.Aborted"));
-        }
+        abort(initResponse, partFutures);
         returnVal = false;
       }
 
       return returnVal;
     }
+
+    private PartETag uploadPart(UploadPartRequest uploadRequest) {
+      try {
+        LogChannel.GENERAL.logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "INFO.S3MultiPart.Upload",
+                uploadRequest.getPartNumber(),
+                uploadRequest.getFileOffset(),
+                Long.toString(uploadRequest.getPartSize())));
+        return fileSystem.getS3Client().uploadPart(uploadRequest).getPartETag();
+      } catch (RuntimeException e) {
+        uploadFailure.compareAndSet(null, e);
+        throw e;
+      } finally {
+        partsInMemory.release();
+      }
+    }
+
+    private void checkUploadFailure() throws Exception {
+      Exception exception = uploadFailure.get();
+      if (exception != null) {
+        throw exception;
+      }
+    }
+
+    private void abort(
+        InitiateMultipartUploadResult initResponse, List<Future<PartETag>> partFutures) {
+      // Make sure the writing side doesn't block on a pipe nobody reads from anymore
+      //
+      try {
+        pipedInputStream.close();
+      } catch (IOException e) {
+        // Ignore, we're already reporting an error
+      }
+      for (Future<PartETag> partFuture : partFutures) {
+        partFuture.cancel(true);
+      }
+      if (initResponse != null) {
+        fileSystem
+            .getS3Client()
+            .abortMultipartUpload(
+                new AbortMultipartUploadRequest(bucketId, key, initResponse.getUploadId()));
+        LogChannel.GENERAL.logError(BaseMessages.getString(PKG, "ERROR.S3MultiPart.Aborted"));
+      }
+    }
   }
 }
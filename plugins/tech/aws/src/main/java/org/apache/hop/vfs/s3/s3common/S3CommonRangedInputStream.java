@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.vfs.s3.s3common;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.i18n.BaseMessages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * InputStream reading a (large) S3 object with ranged GET requests. A number of ranges following
+ * the current read position are fetched in parallel so that reading isn't limited by the
+ * throughput of a single connection. The ETag of the object is passed along with every request so
+ * that a concurrent modification of the object is detected instead of mixing up versions.
+ */
+public class S3CommonRangedInputStream extends InputStream {
+
+  private static final Class<?> PKG = S3CommonRangedInputStream.class; // For Translator
+
+  private final AmazonS3 client;
+  private final String bucketName;
+  private final String key;
+  private final String eTag;
+  private final long contentLength;
+  private final int partSize;
+  private final int readAhead;
+  private final ExecutorService executor;
+
+  /** The ranges being fetched, in the order of their offset. */
+  private final Deque<Future<byte[]>> parts = new ArrayDeque<>();
+
+  /** The offset of the first range which isn't requested yet */
+  private long nextOffset;
+
+  private byte[] current;
+  private int position;
+  private boolean closed;
+
+  /**
+   * @param client the S3 client to use
+   * @param bucketName the bucket of the object
+   * @param key the key of the object
+   * @param contentLength the size of the object in bytes
+   * @param eTag the ETag of the object or null to not verify the version of the object
+   * @param partSize the number of bytes to fetch per request
+   * @param threads the number of ranges fetched in parallel
+   */
+  public S3CommonRangedInputStream(
+      AmazonS3 client,
+      String bucketName,
+      String key,
+      long contentLength,
+      String eTag,
+      int partSize,
+      int threads) {
+    this.client = client;
+    this.bucketName = bucketName;
+    this.key = key;
+    this.contentLength = contentLength;
+    this.eTag = eTag;
+    this.partSize = partSize;
+    this.readAhead = Math.max(1, threads);
+    this.executor =
+        Executors.newFixedThreadPool(
+            readAhead,
+            r -> {
+              Thread thread = new Thread(r, "S3 ranged read - " + key);
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    LogChannel.GENERAL.logDebug(
+        BaseMessages.getString(
+            PKG, "INFO.S3RangedRead.Start", contentLength, partSize, readAhead));
+    requestParts();
+  }
+
+  /** Keep <code>readAhead</code> ranges in flight or buffered. */
+  private void requestParts() {
+    while (parts.size() < readAhead && nextOffset < contentLength) {
+      final long start = nextOffset;
+      final long end = Math.min(start + partSize, contentLength) - 1;
+      parts.add(executor.submit(() -> readRange(start, end)));
+      nextOffset = end + 1;
+    }
+  }
+
+  private byte[] readRange(long start, long end) throws IOException {
+    GetObjectRequest request = new GetObjectRequest(bucketName, key).withRange(start, end);
+    if (eTag != null) {
+      request.setMatchingETagConstraints(Collections.singletonList(eTag));
+    }
+    S3Object s3Object = client.getObject(request);
+    if (s3Object == null) {
+      // The ETag constraint wasn't met
+      throw new IOException(
+          BaseMessages.getString(PKG, "ERROR.S3RangedRead.ObjectChanged", bucketName, key));
+    }
+    byte[] buffer = new byte[(int) (end - start + 1)];
+    try (S3ObjectInputStream inputStream = s3Object.getObjectContent()) {
+      int length = 0;
+      while (length < buffer.length) {
+        int read = inputStream.read(buffer, length, buffer.length - length);
+        if (read < 0) {
+          throw new IOException(
+              BaseMessages.getString(
+                  PKG, "ERROR.S3RangedRead.PrematureEnd", bucketName, key, start + length));
+        }
+        length += read;
+      }
+    } finally {
+      s3Object.close();
+    }
+    return buffer;
+  }
+
+  /** @return false if there's no more data to read */
+  private boolean nextPart() throws IOException {
+    Future<byte[]> part = parts.poll();
+    if (part == null) {
+      return false;
+    }
+    try {
+      current = part.get();
+      position = 0;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+    requestParts();
+    return true;
+  }
+
+  private boolean ensureData() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    while (current == null || position >= current.length) {
+      current = null;
+      if (!nextPart()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureData()) {
+      return -1;
+    }
+    return current[position++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureData()) {
+      return -1;
+    }
+    int length = Math.min(len, current.length - position);
+    System.arraycopy(current, position, b, off, length);
+    position += length;
+    return length;
+  }
+
+  @Override
+  public int available() {
+    return current == null ? 0 : current.length - position;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    current = null;
+    for (Future<byte[]> part : parts) {
+      part.cancel(true);
+    }
+    parts.clear();
+    executor.shutdownNow();
+  }
+}
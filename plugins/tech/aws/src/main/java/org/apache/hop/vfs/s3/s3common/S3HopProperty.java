@@ -25,8 +25,28 @@ public class S3HopProperty {
   // variables
   //
   public static final String S3VFS_PART_SIZE = "HOP_S3_VFS_PART_SIZE";
+  public static final String S3VFS_UPLOAD_THREADS = "HOP_S3_VFS_UPLOAD_THREADS";
+  public static final String S3VFS_UPLOAD_MEMORY = "HOP_S3_VFS_UPLOAD_MEMORY";
+  public static final String S3VFS_DOWNLOAD_THREADS = "HOP_S3_VFS_DOWNLOAD_THREADS";
+  public static final String S3VFS_DOWNLOAD_PART_SIZE = "HOP_S3_VFS_DOWNLOAD_PART_SIZE";
 
   public String getPartSize() {
     return HopConfig.getInstance().findDescribedVariableValue(S3VFS_PART_SIZE);
   }
+
+  public String getUploadThreads() {
+    return HopConfig.getInstance().findDescribedVariableValue(S3VFS_UPLOAD_THREADS);
+  }
+
+  public String getUploadMemory() {
+    return HopConfig.getInstance().findDescribedVariableValue(S3VFS_UPLOAD_MEMORY);
+  }
+
+  public String getDownloadThreads() {
+    return HopConfig.getInstance().findDescribedVariableValue(S3VFS_DOWNLOAD_THREADS);
+  }
+
+  public String getDownloadPartSize() {
+    return HopConfig.getInstance().findDescribedVariableValue(S3VFS_DOWNLOAD_PART_SIZE);
+  }
 }
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.vfs.s3.s3common;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/** Runs the multipart upload against an in-memory stand-in of the S3 client */
+public class S3CommonPipedOutputStreamTest {
+
+  private static final String BUCKET = "bucket";
+  private static final String KEY = "some/key";
+  private static final int PART_SIZE = 1000;
+
+  private AmazonS3 s3Client;
+  private S3CommonFileSystem fileSystem;
+  private Map<Integer, byte[]> uploadedParts;
+  private Map<Integer, Boolean> lastParts;
+  private byte[] completedObject;
+  private AtomicInteger activeUploads;
+  private AtomicInteger maxActiveUploads;
+  private int failingPart;
+
+  @Before
+  public void setUp() {
+    uploadedParts = new ConcurrentHashMap<>();
+    lastParts = new ConcurrentHashMap<>();
+    completedObject = null;
+    activeUploads = new AtomicInteger();
+    maxActiveUploads = new AtomicInteger();
+    failingPart = -1;
+
+    s3Client = mock(AmazonS3.class);
+    fileSystem = mock(S3CommonFileSystem.class);
+    when(fileSystem.getS3Client()).thenReturn(s3Client);
+
+    InitiateMultipartUploadResult initResult = new InitiateMultipartUploadResult();
+    initResult.setUploadId("upload-1");
+    when(s3Client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class)))
+        .thenReturn(initResult);
+
+    when(s3Client.uploadPart(any(UploadPartRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+              maxActiveUploads.accumulateAndGet(activeUploads.incrementAndGet(), Math::max);
+              try {
+                Thread.sleep(5);
+                if (request.getPartNumber() == failingPart) {
+                  throw new AmazonS3Exception("part upload failed");
+                }
+                byte[] content = readFully(request.getInputStream());
+                assertEquals(request.getPartSize(), content.length);
+                uploadedParts.put(request.getPartNumber(), content);
+                lastParts.put(request.getPartNumber(), request.isLastPart());
+
+                UploadPartResult result = new UploadPartResult();
+                result.setPartNumber(request.getPartNumber());
+                result.setETag("etag-" + request.getPartNumber());
+                return result;
+              } finally {
+                activeUploads.decrementAndGet();
+              }
+            });
+
+    when(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              CompleteMultipartUploadRequest request =
+                  (CompleteMultipartUploadRequest) invocation.getArguments()[0];
+              ByteArrayOutputStream object = new ByteArrayOutputStream();
+              int expectedPartNumber = 1;
+              for (PartETag partETag : request.getPartETags()) {
+                assertEquals(expectedPartNumber++, partETag.getPartNumber());
+                assertEquals("etag-" + partETag.getPartNumber(), partETag.getETag());
+                object.write(uploadedParts.get(partETag.getPartNumber()));
+              }
+              completedObject = object.toByteArray();
+              return new CompleteMultipartUploadResult();
+            });
+  }
+
+  @Test
+  public void testParallelUpload() throws Exception {
+    byte[] data = randomData(10 * PART_SIZE + 500);
+    write(new S3CommonPipedOutputStream(fileSystem, BUCKET, KEY, PART_SIZE, 4, 0), data);
+
+    assertArrayEquals(data, completedObject);
+    assertEquals(11, uploadedParts.size());
+    assertEquals(500, uploadedParts.get(11).length);
+    assertTrue(lastParts.get(11));
+    assertFalse(lastParts.get(10));
+    assertTrue(maxActiveUploads.get() <= 4);
+    verify(s3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+  }
+
+  @Test
+  public void testExactMultipleOfPartSize() throws Exception {
+    byte[] data = randomData(5 * PART_SIZE);
+    write(new S3CommonPipedOutputStream(fileSystem, BUCKET, KEY, PART_SIZE, 2, 0), data);
+
+    assertArrayEquals(data, completedObject);
+    assertEquals(5, uploadedParts.size());
+    assertTrue(lastParts.get(5));
+  }
+
+  @Test
+  public void testMemoryBudgetLimitsParallelParts() throws Exception {
+    byte[] data = randomData(20 * PART_SIZE);
+    // Room for 2 parts: one being read from the pipe, one being uploaded
+    //
+    write(
+        new S3CommonPipedOutputStream(fileSystem, BUCKET, KEY, PART_SIZE, 8, 2L * PART_SIZE),
+        data);
+
+    assertArrayEquals(data, completedObject);
+    assertTrue(maxActiveUploads.get() <= 2);
+  }
+
+  @Test
+  public void testSmallObject() throws Exception {
+    byte[] data = randomData(10);
+    write(new S3CommonPipedOutputStream(fileSystem, BUCKET, KEY, PART_SIZE, 4, 0), data);
+
+    assertArrayEquals(data, completedObject);
+    assertEquals(1, uploadedParts.size());
+    assertTrue(lastParts.get(1));
+  }
+
+  @Test
+  public void testFailedPartAbortsUpload() throws Exception {
+    failingPart = 3;
+    byte[] data = randomData(10 * PART_SIZE);
+    try {
+      write(new S3CommonPipedOutputStream(fileSystem, BUCKET, KEY, PART_SIZE, 2, 0), data);
+      fail("The failing part should fail the upload");
+    } catch (IOException e) {
+      // expected, either while writing or on close
+    }
+
+    assertNull(completedObject);
+    verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+  }
+
+  private void write(S3CommonPipedOutputStream outputStream, byte[] data) throws IOException {
+    try {
+      for (int offset = 0; offset < data.length; offset += 333) {
+        outputStream.write(data, offset, Math.min(333, data.length - offset));
+      }
+    } finally {
+      outputStream.close();
+    }
+  }
+
+  private static byte[] randomData(int size) {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+    return data;
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[256];
+    int read;
+    while ((read = inputStream.read(buffer)) >= 0) {
+      outputStream.write(buffer, 0, read);
+    }
+    return outputStream.toByteArray();
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.vfs.s3.s3common;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/** Reads ranges from an in-memory stand-in of the S3 client */
+public class S3CommonRangedInputStreamTest {
+
+  private static final String BUCKET = "bucket";
+  private static final String KEY = "some/key";
+  private static final String ETAG = "etag-1";
+
+  private AmazonS3 s3Client;
+  private byte[] object;
+  private String currentETag;
+  private AtomicInteger requests;
+
+  @Before
+  public void setUp() {
+    object = new byte[10_500];
+    new Random(42).nextBytes(object);
+    currentETag = ETAG;
+    requests = new AtomicInteger();
+
+    s3Client = mock(AmazonS3.class);
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+              requests.incrementAndGet();
+              List<String> eTags = request.getMatchingETagConstraints();
+              if (!eTags.isEmpty() && !eTags.contains(currentETag)) {
+                return null;
+              }
+              long[] range = request.getRange();
+              int start = (int) range[0];
+              int end = (int) Math.min(range[1], object.length - 1);
+              S3Object s3Object = new S3Object();
+              s3Object.setObjectContent(
+                  new ByteArrayInputStream(Arrays.copyOfRange(object, start, end + 1)));
+              return s3Object;
+            });
+  }
+
+  @Test
+  public void testReadAll() throws Exception {
+    try (InputStream inputStream = createInputStream(1000, 4)) {
+      assertArrayEquals(object, readFully(inputStream, 777));
+    }
+    assertEquals(11, requests.get());
+  }
+
+  @Test
+  public void testSingleByteReads() throws Exception {
+    try (InputStream inputStream = createInputStream(333, 3)) {
+      for (byte b : object) {
+        assertEquals(b & 0xff, inputStream.read());
+      }
+      assertEquals(-1, inputStream.read());
+    }
+  }
+
+  @Test
+  public void testEmptyObject() throws Exception {
+    object = new byte[0];
+    try (InputStream inputStream = createInputStream(1000, 4)) {
+      assertEquals(-1, inputStream.read());
+    }
+    assertEquals(0, requests.get());
+  }
+
+  @Test
+  public void testChangedObjectFails() throws Exception {
+    currentETag = "etag-2";
+    try (InputStream inputStream = createInputStream(1000, 4)) {
+      inputStream.read();
+      fail("Reading a changed object should fail");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReadAfterCloseFails() throws Exception {
+    InputStream inputStream = createInputStream(1000, 2);
+    inputStream.read();
+    inputStream.close();
+    try {
+      inputStream.read();
+      fail("Reading a closed stream should fail");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  private InputStream createInputStream(int partSize, int threads) {
+    return new S3CommonRangedInputStream(
+        s3Client, BUCKET, KEY, object.length, ETAG, partSize, threads);
+  }
+
+  private static byte[] readFully(InputStream inputStream, int bufferSize) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[bufferSize];
+    int read;
+    while ((read = inputStream.read(buffer)) >= 0) {
+      outputStream.write(buffer, 0, read);
+    }
+    return outputStream.toByteArray();
+  }
+}
@@ -163,6 +163,25 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData>
       for (int i = 0; i < data.getTempIndexes().length; i++) {
         data.getTempIndexes()[i] = tempIndexes.get(i);
       }
+
+      // Prepare the calculations for this row layout.
+      // Simple arithmetic is done on primitive values, the rest the generic way.
+      //
+      data.setEvaluator(
+          new CalculatorEvaluator(
+              meta.getFunctions(),
+              data.getCalcRowMeta(),
+              getInputRowMeta().size(),
+              data.getFieldIndexes(),
+              (functionNr, index) -> calcData -> calcField(functionNr, index, calcData)));
+      if (log.isDetailed()) {
+        logDetailed(
+            "Calculating "
+                + data.getEvaluator().getPrimitiveCount()
+                + " of "
+                + meta.getFunctions().size()
+                + " calculations on primitive values");
+      }
     }
 
     if (log.isRowLevel()) {
@@ -205,469 +224,479 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData>
    * @param inputRowMeta the input row metadata
    * @param r the input row (data)
    * @return A row including the calculations, excluding the temporary values
-   * @throws HopValueException in case there is a calculation error.
+   * @throws HopException in case there is a calculation error.
    */
-  private Object[] calcFields(IRowMeta inputRowMeta, Object[] r)
-      throws HopValueException, HopFileNotFoundException {
+  private Object[] calcFields(IRowMeta inputRowMeta, Object[] r) throws HopException {
     // First copy the input data to the new result...
     Object[] calcData = RowDataUtil.resizeArray(r, data.getCalcRowMeta().size());
 
-    for (int i = 0, index = inputRowMeta.size() + i; i < meta.getFunctions().size(); i++, index++) {
-      CalculatorMetaFunction fn = meta.getFunctions().get(i);
-      if (!Utils.isEmpty(fn.getFieldName())) {
-        IValueMeta targetMeta = data.getCalcRowMeta().getValueMeta(index);
+    data.getEvaluator().evaluate(calcData);
 
-        IValueMeta metaA = null;
-        Object dataA = null;
+    // OK, now we should refrain from adding the temporary fields to the result.
+    // So we remove them.
+    //
+    return RowDataUtil.removeItems(calcData, data.getTempIndexes());
+  }
 
-        if (data.getFieldIndexes()[i].indexA >= 0) {
-          metaA = data.getCalcRowMeta().getValueMeta(data.getFieldIndexes()[i].indexA);
-          dataA = calcData[data.getFieldIndexes()[i].indexA];
-        }
+  /**
+   * Perform a single calculation the generic way.
+   *
+   * @param i the number of the calculator function
+   * @param index the index of the calculated field in the calculation row
+   * @param calcData the calculation row
+   * @throws HopValueException in case there is a calculation error.
+   */
+  private void calcField(int i, int index, Object[] calcData)
+      throws HopValueException, HopFileNotFoundException {
+    CalculatorMetaFunction fn = meta.getFunctions().get(i);
+    if (!Utils.isEmpty(fn.getFieldName())) {
+      IValueMeta targetMeta = data.getCalcRowMeta().getValueMeta(index);
 
-        IValueMeta metaB = null;
-        Object dataB = null;
+      IValueMeta metaA = null;
+      Object dataA = null;
 
-        if (data.getFieldIndexes()[i].indexB >= 0) {
-          metaB = data.getCalcRowMeta().getValueMeta(data.getFieldIndexes()[i].indexB);
-          dataB = calcData[data.getFieldIndexes()[i].indexB];
-        }
+      if (data.getFieldIndexes()[i].indexA >= 0) {
+        metaA = data.getCalcRowMeta().getValueMeta(data.getFieldIndexes()[i].indexA);
+        dataA = calcData[data.getFieldIndexes()[i].indexA];
+      }
 
-        IValueMeta metaC = null;
-        Object dataC = null;
+      IValueMeta metaB = null;
+      Object dataB = null;
 
-        if (data.getFieldIndexes()[i].indexC >= 0) {
-          metaC = data.getCalcRowMeta().getValueMeta(data.getFieldIndexes()[i].indexC);
-          dataC = calcData[data.getFieldIndexes()[i].indexC];
-        }
+      if (data.getFieldIndexes()[i].indexB >= 0) {
+        metaB = data.getCalcRowMeta().getValueMeta(data.getFieldIndexes()[i].indexB);
+        dataB = calcData[data.getFieldIndexes()[i].indexB];
+      }
 
-        CalculationType calcType = fn.getCalcType();
+      IValueMeta metaC = null;
+      Object dataC = null;
 
-        // The data types are those of the first argument field, convert to the target field.
-        // Exceptions:
-        // - multiply can be string
-        // - constant is string
-        // - all date functions except add days/months
-        // - hex encode / decodes
+      if (data.getFieldIndexes()[i].indexC >= 0) {
+        metaC = data.getCalcRowMeta().getValueMeta(data.getFieldIndexes()[i].indexC);
+        dataC = calcData[data.getFieldIndexes()[i].indexC];
+      }
 
-        int resultType;
-        if (metaA != null) {
-          resultType = metaA.getType();
-        } else {
-          resultType = IValueMeta.TYPE_NONE;
-        }
+      CalculationType calcType = fn.getCalcType();
 
-        switch (calcType) {
-          case NONE:
-            break;
-          case COPY_OF_FIELD: // Create a copy of field A
-            calcData[index] = dataA;
-
-            break;
-          case ADD: // A + B
-            calcData[index] = ValueDataUtil.plus(metaA, dataA, metaB, dataB);
-            if (metaA.isString() || metaB.isString()) {
-              resultType = IValueMeta.TYPE_STRING;
-            }
-            break;
-          case SUBTRACT: // A - B
-            calcData[index] = ValueDataUtil.minus(metaA, dataA, metaB, dataB);
-            if (metaA.isDate()) {
-              resultType = IValueMeta.TYPE_INTEGER;
-            }
-            break;
-          case MULTIPLY: // A * B
-            calcData[index] = ValueDataUtil.multiply(metaA, dataA, metaB, dataB);
-            if (metaA.isString() || metaB.isString()) {
-              resultType = IValueMeta.TYPE_STRING;
-            }
-            break;
-          case DIVIDE: // A / B
-            calcData[index] = ValueDataUtil.divide(metaA, dataA, metaB, dataB);
-            break;
-          case SQUARE: // A * A
-            calcData[index] = ValueDataUtil.multiply(metaA, dataA, metaA, dataA);
-            break;
-          case SQUARE_ROOT: // SQRT( A )
-            calcData[index] = ValueDataUtil.sqrt(metaA, dataA);
-            break;
-          case PERCENT_1: // 100 * A / B
-            calcData[index] = ValueDataUtil.percent1(metaA, dataA, metaB, dataB);
-            break;
-          case PERCENT_2: // A - ( A * B / 100 )
-            calcData[index] = ValueDataUtil.percent2(metaA, dataA, metaB, dataB);
-            break;
-          case PERCENT_3: // A + ( A * B / 100 )
-            calcData[index] = ValueDataUtil.percent3(metaA, dataA, metaB, dataB);
-            break;
-          case COMBINATION_1: // A + B * C
-            calcData[index] = ValueDataUtil.combination1(metaA, dataA, metaB, dataB, metaC, dataC);
-            break;
-          case COMBINATION_2: // SQRT( A*A + B*B )
-            calcData[index] = ValueDataUtil.combination2(metaA, dataA, metaB, dataB);
-            break;
-          case ROUND_1: // ROUND( A )
-            calcData[index] = ValueDataUtil.round(metaA, dataA);
-            break;
-          case ROUND_2: // ROUND( A , B )
-            calcData[index] = ValueDataUtil.round(metaA, dataA, metaB, dataB);
-            break;
-          case ROUND_CUSTOM_1: // ROUND( A , B )
-            calcData[index] = ValueDataUtil.round(metaA, dataA, metaB.getNumber(dataB).intValue());
-            break;
-          case ROUND_CUSTOM_2: // ROUND( A , B, C )
-            calcData[index] =
-                ValueDataUtil.round(metaA, dataA, metaB, dataB, metaC.getNumber(dataC).intValue());
-            break;
-          case ROUND_STD_1: // ROUND( A )
-            calcData[index] = ValueDataUtil.round(metaA, dataA, java.math.BigDecimal.ROUND_HALF_UP);
-            break;
-          case ROUND_STD_2: // ROUND( A , B )
-            calcData[index] =
-                ValueDataUtil.round(metaA, dataA, metaB, dataB, java.math.BigDecimal.ROUND_HALF_UP);
-            break;
-          case CEIL: // CEIL( A )
-            calcData[index] = ValueDataUtil.ceil(metaA, dataA);
-            break;
-          case FLOOR: // FLOOR( A )
-            calcData[index] = ValueDataUtil.floor(metaA, dataA);
-            break;
-          case CONSTANT: // Set field to constant value...
-            calcData[index] = fn.getFieldA(); // A string
-            resultType = calcType.getDefaultResultType();
-            break;
-          case NVL: // Replace null values with another value
-            calcData[index] = ValueDataUtil.nvl(metaA, dataA, metaB, dataB);
-            break;
-          case ADD_DAYS: // Add B days to date field A
-            calcData[index] = ValueDataUtil.addDays(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ADD_HOURS: // Add B hours to date field A
-            calcData[index] = ValueDataUtil.addHours(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ADD_MINUTES: // Add B minutes to date field A
-            calcData[index] = ValueDataUtil.addMinutes(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case YEAR_OF_DATE: // What is the year (Integer) of a date?
-            calcData[index] = ValueDataUtil.yearOfDate(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case MONTH_OF_DATE: // What is the month (Integer) of a date?
-            calcData[index] = ValueDataUtil.monthOfDate(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DAY_OF_YEAR: // What is the day of year (Integer) of a date?
-            calcData[index] = ValueDataUtil.dayOfYear(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DAY_OF_MONTH: // What is the day of month (Integer) of a date?
-            calcData[index] = ValueDataUtil.dayOfMonth(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DAY_OF_WEEK: // What is the day of week (Integer) of a date?
-            calcData[index] = ValueDataUtil.dayOfWeek(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case WEEK_OF_YEAR: // What is the week of year (Integer) of a date?
-            calcData[index] = ValueDataUtil.weekOfYear(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case WEEK_OF_YEAR_ISO8601: // What is the week of year (Integer) of a date ISO8601
-            // style?
-            calcData[index] = ValueDataUtil.weekOfYearISO8601(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case YEAR_OF_DATE_ISO8601: // What is the year (Integer) of a date ISO8601 style?
-            calcData[index] = ValueDataUtil.yearOfDateISO8601(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case BYTE_TO_HEX_ENCODE: // Byte to Hex encode string field A
-            calcData[index] = ValueDataUtil.byteToHexEncode(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case HEX_TO_BYTE_DECODE: // Hex to Byte decode string field A
-            calcData[index] = ValueDataUtil.hexToByteDecode(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-
-          case CHAR_TO_HEX_ENCODE: // Char to Hex encode string field A
-            calcData[index] = ValueDataUtil.charToHexEncode(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case HEX_TO_CHAR_DECODE: // Hex to Char decode string field A
-            calcData[index] = ValueDataUtil.hexToCharDecode(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case CRC32: // CRC32
-            calcData[index] = ValueDataUtil.checksumCRC32(metaA, dataA, meta.isFailIfNoFile());
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ADLER32: // ADLER32
-            calcData[index] = ValueDataUtil.checksumAdler32(metaA, dataA, meta.isFailIfNoFile());
-            resultType = calcType.getDefaultResultType();
-            break;
-          case MD5: // MD5
-            calcData[index] =
-                ValueDataUtil.createChecksum(metaA, dataA, "MD5", meta.isFailIfNoFile());
-            resultType = calcType.getDefaultResultType();
-            break;
-          case SHA1: // SHA-1
-            calcData[index] =
-                ValueDataUtil.createChecksum(metaA, dataA, "SHA-1", meta.isFailIfNoFile());
-            resultType = calcType.getDefaultResultType();
-            break;
-          case LEVENSHTEIN_DISTANCE: // LEVENSHTEIN DISTANCE
-            calcData[index] = ValueDataUtil.getLevenshtein_Distance(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case METAPHONE: // METAPHONE
-            calcData[index] = ValueDataUtil.get_Metaphone(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DOUBLE_METAPHONE: // Double METAPHONE
-            calcData[index] = ValueDataUtil.get_Double_Metaphone(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ABS: // ABS( A )
-            calcData[index] = ValueDataUtil.abs(metaA, dataA);
-            break;
-          case REMOVE_TIME_FROM_DATE: // Remove Time from field A
-            calcData[index] = ValueDataUtil.removeTimeFromDate(metaA, dataA);
-            break;
-          case DATE_DIFF: // DateA - DateB
-            calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "d");
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ADD3: // A + B + C
-            calcData[index] = ValueDataUtil.plus3(metaA, dataA, metaB, dataB, metaC, dataC);
-            if (metaA.isString() || metaB.isString() || metaC.isString()) {
-              resultType = IValueMeta.TYPE_STRING;
-            }
-            break;
-          case INITCAP: // InitCap( A )
-            calcData[index] = ValueDataUtil.initCap(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case UPPER_CASE: // UpperCase( A )
-            calcData[index] = ValueDataUtil.upperCase(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case LOWER_CASE: // UpperCase( A )
-            calcData[index] = ValueDataUtil.lowerCase(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case MASK_XML: // escapeXML( A )
-            calcData[index] = ValueDataUtil.escapeXml(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case USE_CDATA: // CDATA( A )
-            calcData[index] = ValueDataUtil.useCDATA(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case REMOVE_CR: // REMOVE CR FROM A
-            calcData[index] = ValueDataUtil.removeCR(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case REMOVE_LF: // REMOVE LF FROM A
-            calcData[index] = ValueDataUtil.removeLF(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case REMOVE_CRLF: // REMOVE CRLF FROM A
-            calcData[index] = ValueDataUtil.removeCRLF(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case REMOVE_TAB: // REMOVE TAB FROM A
-            calcData[index] = ValueDataUtil.removeTAB(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case GET_ONLY_DIGITS: // GET ONLY DIGITS FROM A
-            calcData[index] = ValueDataUtil.getDigits(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case REMOVE_DIGITS: // REMOVE DIGITS FROM A
-            calcData[index] = ValueDataUtil.removeDigits(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case STRING_LEN: // RETURN THE LENGTH OF A
-            calcData[index] = ValueDataUtil.stringLen(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case LOAD_FILE_CONTENT_BINARY: // LOAD CONTENT OF A FILE A IN A BLOB
-            calcData[index] =
-                ValueDataUtil.loadFileContentInBinary(metaA, dataA, meta.isFailIfNoFile());
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ADD_TIME_TO_DATE: // Add time B to a date A
-            calcData[index] = ValueDataUtil.addTimeToDate(metaA, dataA, metaB, dataB, metaC, dataC);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case QUARTER_OF_DATE: // What is the quarter (Integer) of a date?
-            calcData[index] = ValueDataUtil.quarterOfDate(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case SUBSTITUTE_VARIABLE: // variable substitution in string
-            calcData[index] = resolve(dataA.toString());
-            resultType = calcType.getDefaultResultType();
-            break;
-          case UNESCAPE_XML: // UnescapeXML( A )
-            calcData[index] = ValueDataUtil.unEscapeXml(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ESCAPE_HTML: // EscapeHTML( A )
-            calcData[index] = ValueDataUtil.escapeHtml(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case UNESCAPE_HTML: // UnescapeHTML( A )
-            calcData[index] = ValueDataUtil.unEscapeHtml(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ESCAPE_SQL: // EscapeSQL( A )
-            calcData[index] = ValueDataUtil.escapeSql(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DATE_WORKING_DIFF: // DateWorkingDiff( A , B)
-            calcData[index] = ValueDataUtil.DateWorkingDiff(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ADD_MONTHS: // Add B months to date field A
-            calcData[index] = ValueDataUtil.addMonths(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case CHECK_XML_FILE_WELL_FORMED: // Check if file A is well formed
-            calcData[index] =
-                ValueDataUtil.isXmlFileWellFormed(metaA, dataA, meta.isFailIfNoFile());
-            resultType = calcType.getDefaultResultType();
-            break;
-          case CHECK_XML_WELL_FORMED: // Check if xml A is well formed
-            calcData[index] = ValueDataUtil.isXmlWellFormed(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case GET_FILE_ENCODING: // Get file encoding from a file A
-            calcData[index] = ValueDataUtil.getFileEncoding(metaA, dataA, meta.isFailIfNoFile());
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DAMERAU_LEVENSHTEIN: // DAMERAULEVENSHTEIN DISTANCE
-            calcData[index] =
-                ValueDataUtil.getDamerauLevenshtein_Distance(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case NEEDLEMAN_WUNSH: // NEEDLEMANWUNSH DISTANCE
-            calcData[index] = CalculatorValueDataUtil.getNeedlemanWunschDistance(dataA, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case JARO: // Jaro DISTANCE
-            calcData[index] = ValueDataUtil.getJaro_Similitude(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case JARO_WINKLER: // Jaro DISTANCE
-            calcData[index] = ValueDataUtil.getJaroWinkler_Similitude(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case SOUNDEX: // SOUNDEX
-            calcData[index] = ValueDataUtil.get_SoundEx(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case REFINED_SOUNDEX: // REFINEDSOUNDEX
-            calcData[index] = ValueDataUtil.get_RefinedSoundEx(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DATE_DIFF_MSEC: // DateA - DateB (ms)
-            calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "ms");
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DATE_DIFF_SEC: // DateA - DateB (s)
-            calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "s");
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DATE_DIFF_MN: // DateA - DateB (mn)
-            calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "mn");
-            resultType = calcType.getDefaultResultType();
-            break;
-          case DATE_DIFF_HR: // DateA - DateB (h)
-            calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "h");
-            resultType = calcType.getDefaultResultType();
-            break;
-          case HOUR_OF_DAY:
-            calcData[index] = ValueDataUtil.hourOfDay(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case MINUTE_OF_HOUR:
-            calcData[index] = ValueDataUtil.minuteOfHour(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case SECOND_OF_MINUTE:
-            calcData[index] = ValueDataUtil.secondOfMinute(metaA, dataA);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case ADD_SECONDS: // Add B seconds to date field A
-            calcData[index] = ValueDataUtil.addSeconds(metaA, dataA, metaB, dataB);
-            resultType = calcType.getDefaultResultType();
-            break;
-          case REMAINDER:
-            if (targetMeta.getType() != metaA.getType()
-                || targetMeta.getType() != metaB.getType()) {
-              dataA = targetMeta.convertData(metaA, dataA);
-              metaA = targetMeta.clone();
-              dataB = targetMeta.convertData(metaB, dataB);
-              metaB = targetMeta.clone();
-            }
-            calcData[index] = ValueDataUtil.remainder(metaA, dataA, metaB, dataB);
-            resultType = targetMeta.getType();
-            break;
-          default:
-            throw new HopValueException(
-                BaseMessages.getString(PKG, "Calculator.Log.UnknownCalculationType")
-                    + fn.getCalcType());
-        }
+      // The data types are those of the first argument field, convert to the target field.
+      // Exceptions:
+      // - multiply can be string
+      // - constant is string
+      // - all date functions except add days/months
+      // - hex encode / decodes
 
-        // If we don't have a target data type, throw an error.
-        // Otherwise the result is non-deterministic.
-        //
-        if (targetMeta.getType() == IValueMeta.TYPE_NONE) {
+      int resultType;
+      if (metaA != null) {
+        resultType = metaA.getType();
+      } else {
+        resultType = IValueMeta.TYPE_NONE;
+      }
+
+      switch (calcType) {
+        case NONE:
+          break;
+        case COPY_OF_FIELD: // Create a copy of field A
+          calcData[index] = dataA;
+
+          break;
+        case ADD: // A + B
+          calcData[index] = ValueDataUtil.plus(metaA, dataA, metaB, dataB);
+          if (metaA.isString() || metaB.isString()) {
+            resultType = IValueMeta.TYPE_STRING;
+          }
+          break;
+        case SUBTRACT: // A - B
+          calcData[index] = ValueDataUtil.minus(metaA, dataA, metaB, dataB);
+          if (metaA.isDate()) {
+            resultType = IValueMeta.TYPE_INTEGER;
+          }
+          break;
+        case MULTIPLY: // A * B
+          calcData[index] = ValueDataUtil.multiply(metaA, dataA, metaB, dataB);
+          if (metaA.isString() || metaB.isString()) {
+            resultType = IValueMeta.TYPE_STRING;
+          }
+          break;
+        case DIVIDE: // A / B
+          calcData[index] = ValueDataUtil.divide(metaA, dataA, metaB, dataB);
+          break;
+        case SQUARE: // A * A
+          calcData[index] = ValueDataUtil.multiply(metaA, dataA, metaA, dataA);
+          break;
+        case SQUARE_ROOT: // SQRT( A )
+          calcData[index] = ValueDataUtil.sqrt(metaA, dataA);
+          break;
+        case PERCENT_1: // 100 * A / B
+          calcData[index] = ValueDataUtil.percent1(metaA, dataA, metaB, dataB);
+          break;
+        case PERCENT_2: // A - ( A * B / 100 )
+          calcData[index] = ValueDataUtil.percent2(metaA, dataA, metaB, dataB);
+          break;
+        case PERCENT_3: // A + ( A * B / 100 )
+          calcData[index] = ValueDataUtil.percent3(metaA, dataA, metaB, dataB);
+          break;
+        case COMBINATION_1: // A + B * C
+          calcData[index] = ValueDataUtil.combination1(metaA, dataA, metaB, dataB, metaC, dataC);
+          break;
+        case COMBINATION_2: // SQRT( A*A + B*B )
+          calcData[index] = ValueDataUtil.combination2(metaA, dataA, metaB, dataB);
+          break;
+        case ROUND_1: // ROUND( A )
+          calcData[index] = ValueDataUtil.round(metaA, dataA);
+          break;
+        case ROUND_2: // ROUND( A , B )
+          calcData[index] = ValueDataUtil.round(metaA, dataA, metaB, dataB);
+          break;
+        case ROUND_CUSTOM_1: // ROUND( A , B )
+          calcData[index] = ValueDataUtil.round(metaA, dataA, metaB.getNumber(dataB).intValue());
+          break;
+        case ROUND_CUSTOM_2: // ROUND( A , B, C )
+          calcData[index] =
+              ValueDataUtil.round(metaA, dataA, metaB, dataB, metaC.getNumber(dataC).intValue());
+          break;
+        case ROUND_STD_1: // ROUND( A )
+          calcData[index] = ValueDataUtil.round(metaA, dataA, java.math.BigDecimal.ROUND_HALF_UP);
+          break;
+        case ROUND_STD_2: // ROUND( A , B )
+          calcData[index] =
+              ValueDataUtil.round(metaA, dataA, metaB, dataB, java.math.BigDecimal.ROUND_HALF_UP);
+          break;
+        case CEIL: // CEIL( A )
+          calcData[index] = ValueDataUtil.ceil(metaA, dataA);
+          break;
+        case FLOOR: // FLOOR( A )
+          calcData[index] = ValueDataUtil.floor(metaA, dataA);
+          break;
+        case CONSTANT: // Set field to constant value...
+          calcData[index] = fn.getFieldA(); // A string
+          resultType = calcType.getDefaultResultType();
+          break;
+        case NVL: // Replace null values with another value
+          calcData[index] = ValueDataUtil.nvl(metaA, dataA, metaB, dataB);
+          break;
+        case ADD_DAYS: // Add B days to date field A
+          calcData[index] = ValueDataUtil.addDays(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ADD_HOURS: // Add B hours to date field A
+          calcData[index] = ValueDataUtil.addHours(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ADD_MINUTES: // Add B minutes to date field A
+          calcData[index] = ValueDataUtil.addMinutes(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case YEAR_OF_DATE: // What is the year (Integer) of a date?
+          calcData[index] = ValueDataUtil.yearOfDate(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case MONTH_OF_DATE: // What is the month (Integer) of a date?
+          calcData[index] = ValueDataUtil.monthOfDate(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DAY_OF_YEAR: // What is the day of year (Integer) of a date?
+          calcData[index] = ValueDataUtil.dayOfYear(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DAY_OF_MONTH: // What is the day of month (Integer) of a date?
+          calcData[index] = ValueDataUtil.dayOfMonth(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DAY_OF_WEEK: // What is the day of week (Integer) of a date?
+          calcData[index] = ValueDataUtil.dayOfWeek(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case WEEK_OF_YEAR: // What is the week of year (Integer) of a date?
+          calcData[index] = ValueDataUtil.weekOfYear(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case WEEK_OF_YEAR_ISO8601: // What is the week of year (Integer) of a date ISO8601
+          // style?
+          calcData[index] = ValueDataUtil.weekOfYearISO8601(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case YEAR_OF_DATE_ISO8601: // What is the year (Integer) of a date ISO8601 style?
+          calcData[index] = ValueDataUtil.yearOfDateISO8601(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case BYTE_TO_HEX_ENCODE: // Byte to Hex encode string field A
+          calcData[index] = ValueDataUtil.byteToHexEncode(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case HEX_TO_BYTE_DECODE: // Hex to Byte decode string field A
+          calcData[index] = ValueDataUtil.hexToByteDecode(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+
+        case CHAR_TO_HEX_ENCODE: // Char to Hex encode string field A
+          calcData[index] = ValueDataUtil.charToHexEncode(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case HEX_TO_CHAR_DECODE: // Hex to Char decode string field A
+          calcData[index] = ValueDataUtil.hexToCharDecode(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case CRC32: // CRC32
+          calcData[index] = ValueDataUtil.checksumCRC32(metaA, dataA, meta.isFailIfNoFile());
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ADLER32: // ADLER32
+          calcData[index] = ValueDataUtil.checksumAdler32(metaA, dataA, meta.isFailIfNoFile());
+          resultType = calcType.getDefaultResultType();
+          break;
+        case MD5: // MD5
+          calcData[index] =
+              ValueDataUtil.createChecksum(metaA, dataA, "MD5", meta.isFailIfNoFile());
+          resultType = calcType.getDefaultResultType();
+          break;
+        case SHA1: // SHA-1
+          calcData[index] =
+              ValueDataUtil.createChecksum(metaA, dataA, "SHA-1", meta.isFailIfNoFile());
+          resultType = calcType.getDefaultResultType();
+          break;
+        case LEVENSHTEIN_DISTANCE: // LEVENSHTEIN DISTANCE
+          calcData[index] = ValueDataUtil.getLevenshtein_Distance(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case METAPHONE: // METAPHONE
+          calcData[index] = ValueDataUtil.get_Metaphone(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DOUBLE_METAPHONE: // Double METAPHONE
+          calcData[index] = ValueDataUtil.get_Double_Metaphone(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ABS: // ABS( A )
+          calcData[index] = ValueDataUtil.abs(metaA, dataA);
+          break;
+        case REMOVE_TIME_FROM_DATE: // Remove Time from field A
+          calcData[index] = ValueDataUtil.removeTimeFromDate(metaA, dataA);
+          break;
+        case DATE_DIFF: // DateA - DateB
+          calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "d");
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ADD3: // A + B + C
+          calcData[index] = ValueDataUtil.plus3(metaA, dataA, metaB, dataB, metaC, dataC);
+          if (metaA.isString() || metaB.isString() || metaC.isString()) {
+            resultType = IValueMeta.TYPE_STRING;
+          }
+          break;
+        case INITCAP: // InitCap( A )
+          calcData[index] = ValueDataUtil.initCap(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case UPPER_CASE: // UpperCase( A )
+          calcData[index] = ValueDataUtil.upperCase(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case LOWER_CASE: // UpperCase( A )
+          calcData[index] = ValueDataUtil.lowerCase(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case MASK_XML: // escapeXML( A )
+          calcData[index] = ValueDataUtil.escapeXml(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case USE_CDATA: // CDATA( A )
+          calcData[index] = ValueDataUtil.useCDATA(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case REMOVE_CR: // REMOVE CR FROM A
+          calcData[index] = ValueDataUtil.removeCR(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case REMOVE_LF: // REMOVE LF FROM A
+          calcData[index] = ValueDataUtil.removeLF(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case REMOVE_CRLF: // REMOVE CRLF FROM A
+          calcData[index] = ValueDataUtil.removeCRLF(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case REMOVE_TAB: // REMOVE TAB FROM A
+          calcData[index] = ValueDataUtil.removeTAB(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case GET_ONLY_DIGITS: // GET ONLY DIGITS FROM A
+          calcData[index] = ValueDataUtil.getDigits(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case REMOVE_DIGITS: // REMOVE DIGITS FROM A
+          calcData[index] = ValueDataUtil.removeDigits(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case STRING_LEN: // RETURN THE LENGTH OF A
+          calcData[index] = ValueDataUtil.stringLen(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case LOAD_FILE_CONTENT_BINARY: // LOAD CONTENT OF A FILE A IN A BLOB
+          calcData[index] =
+              ValueDataUtil.loadFileContentInBinary(metaA, dataA, meta.isFailIfNoFile());
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ADD_TIME_TO_DATE: // Add time B to a date A
+          calcData[index] = ValueDataUtil.addTimeToDate(metaA, dataA, metaB, dataB, metaC, dataC);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case QUARTER_OF_DATE: // What is the quarter (Integer) of a date?
+          calcData[index] = ValueDataUtil.quarterOfDate(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case SUBSTITUTE_VARIABLE: // variable substitution in string
+          calcData[index] = resolve(dataA.toString());
+          resultType = calcType.getDefaultResultType();
+          break;
+        case UNESCAPE_XML: // UnescapeXML( A )
+          calcData[index] = ValueDataUtil.unEscapeXml(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ESCAPE_HTML: // EscapeHTML( A )
+          calcData[index] = ValueDataUtil.escapeHtml(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case UNESCAPE_HTML: // UnescapeHTML( A )
+          calcData[index] = ValueDataUtil.unEscapeHtml(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ESCAPE_SQL: // EscapeSQL( A )
+          calcData[index] = ValueDataUtil.escapeSql(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DATE_WORKING_DIFF: // DateWorkingDiff( A , B)
+          calcData[index] = ValueDataUtil.DateWorkingDiff(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ADD_MONTHS: // Add B months to date field A
+          calcData[index] = ValueDataUtil.addMonths(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case CHECK_XML_FILE_WELL_FORMED: // Check if file A is well formed
+          calcData[index] =
+              ValueDataUtil.isXmlFileWellFormed(metaA, dataA, meta.isFailIfNoFile());
+          resultType = calcType.getDefaultResultType();
+          break;
+        case CHECK_XML_WELL_FORMED: // Check if xml A is well formed
+          calcData[index] = ValueDataUtil.isXmlWellFormed(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case GET_FILE_ENCODING: // Get file encoding from a file A
+          calcData[index] = ValueDataUtil.getFileEncoding(metaA, dataA, meta.isFailIfNoFile());
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DAMERAU_LEVENSHTEIN: // DAMERAULEVENSHTEIN DISTANCE
+          calcData[index] =
+              ValueDataUtil.getDamerauLevenshtein_Distance(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case NEEDLEMAN_WUNSH: // NEEDLEMANWUNSH DISTANCE
+          calcData[index] = CalculatorValueDataUtil.getNeedlemanWunschDistance(dataA, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case JARO: // Jaro DISTANCE
+          calcData[index] = ValueDataUtil.getJaro_Similitude(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case JARO_WINKLER: // Jaro DISTANCE
+          calcData[index] = ValueDataUtil.getJaroWinkler_Similitude(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case SOUNDEX: // SOUNDEX
+          calcData[index] = ValueDataUtil.get_SoundEx(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case REFINED_SOUNDEX: // REFINEDSOUNDEX
+          calcData[index] = ValueDataUtil.get_RefinedSoundEx(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DATE_DIFF_MSEC: // DateA - DateB (ms)
+          calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "ms");
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DATE_DIFF_SEC: // DateA - DateB (s)
+          calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "s");
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DATE_DIFF_MN: // DateA - DateB (mn)
+          calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "mn");
+          resultType = calcType.getDefaultResultType();
+          break;
+        case DATE_DIFF_HR: // DateA - DateB (h)
+          calcData[index] = ValueDataUtil.DateDiff(metaA, dataA, metaB, dataB, "h");
+          resultType = calcType.getDefaultResultType();
+          break;
+        case HOUR_OF_DAY:
+          calcData[index] = ValueDataUtil.hourOfDay(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case MINUTE_OF_HOUR:
+          calcData[index] = ValueDataUtil.minuteOfHour(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case SECOND_OF_MINUTE:
+          calcData[index] = ValueDataUtil.secondOfMinute(metaA, dataA);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case ADD_SECONDS: // Add B seconds to date field A
+          calcData[index] = ValueDataUtil.addSeconds(metaA, dataA, metaB, dataB);
+          resultType = calcType.getDefaultResultType();
+          break;
+        case REMAINDER:
+          if (targetMeta.getType() != metaA.getType()
+              || targetMeta.getType() != metaB.getType()) {
+            dataA = targetMeta.convertData(metaA, dataA);
+            metaA = targetMeta.clone();
+            dataB = targetMeta.convertData(metaB, dataB);
+            metaB = targetMeta.clone();
+          }
+          calcData[index] = ValueDataUtil.remainder(metaA, dataA, metaB, dataB);
+          resultType = targetMeta.getType();
+          break;
+        default:
           throw new HopValueException(
-              BaseMessages.getString(PKG, "Calculator.Log.NoType")
-                  + (i + 1)
-                  + " : "
-                  + fn.getFieldName()
-                  + " = "
-                  + fn.getCalcType().getCode()
-                  + " / "
-                  + fn.getCalcType().getDescription());
-        }
+              BaseMessages.getString(PKG, "Calculator.Log.UnknownCalculationType")
+                  + fn.getCalcType());
+      }
 
-        // Convert the data to the correct target data type.
-        //
-        if (calcData[index] != null) {
-          if (targetMeta.getType() != resultType) {
-            IValueMeta resultMeta;
-            try {
-              // clone() is not necessary as one data instance belongs to one transform instance and
-              // no race condition occurs
-              resultMeta = data.getValueMetaFor(resultType, "result");
-            } catch (Exception exception) {
-              throw new HopValueException("Error creating value");
-            }
-            resultMeta.setConversionMask(fn.getConversionMask());
-            resultMeta.setGroupingSymbol(fn.getGroupingSymbol());
-            resultMeta.setDecimalSymbol(fn.getDecimalSymbol());
-            resultMeta.setCurrencySymbol(fn.getCurrencySymbol());
-            try {
-              calcData[index] = targetMeta.convertData(resultMeta, calcData[index]);
-            } catch (Exception ex) {
-              throw new HopValueException(
-                  "resultType: " + resultType + "; targetMeta: " + targetMeta.getType(), ex);
-            }
+      // If we don't have a target data type, throw an error.
+      // Otherwise the result is non-deterministic.
+      //
+      if (targetMeta.getType() == IValueMeta.TYPE_NONE) {
+        throw new HopValueException(
+            BaseMessages.getString(PKG, "Calculator.Log.NoType")
+                + (i + 1)
+                + " : "
+                + fn.getFieldName()
+                + " = "
+                + fn.getCalcType().getCode()
+                + " / "
+                + fn.getCalcType().getDescription());
+      }
+
+      // Convert the data to the correct target data type.
+      //
+      if (calcData[index] != null) {
+        if (targetMeta.getType() != resultType) {
+          IValueMeta resultMeta;
+          try {
+            // clone() is not necessary as one data instance belongs to one transform instance and
+            // no race condition occurs
+            resultMeta = data.getValueMetaFor(resultType, "result");
+          } catch (Exception exception) {
+            throw new HopValueException("Error creating value");
+          }
+          resultMeta.setConversionMask(fn.getConversionMask());
+          resultMeta.setGroupingSymbol(fn.getGroupingSymbol());
+          resultMeta.setDecimalSymbol(fn.getDecimalSymbol());
+          resultMeta.setCurrencySymbol(fn.getCurrencySymbol());
+          try {
+            calcData[index] = targetMeta.convertData(resultMeta, calcData[index]);
+          } catch (Exception ex) {
+            throw new HopValueException(
+                "resultType: " + resultType + "; targetMeta: " + targetMeta.getType(), ex);
           }
         }
       }
     }
-
-    // OK, now we should refrain from adding the temporary fields to the result.
-    // So we remove them.
-    //
-    return RowDataUtil.removeItems(calcData, data.getTempIndexes());
   }
 }
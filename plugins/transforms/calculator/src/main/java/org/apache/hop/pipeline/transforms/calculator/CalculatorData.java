@@ -35,6 +35,8 @@ public class CalculatorData extends BaseTransformData implements ITransformData
 
   private int[] tempIndexes;
 
+  private CalculatorEvaluator evaluator;
+
   private final Map<Integer, IValueMeta> resultMetaMapping;
 
   public CalculatorData() {
@@ -74,6 +76,14 @@ public class CalculatorData extends BaseTransformData implements ITransformData
     this.tempIndexes = tempIndexes;
   }
 
+  public CalculatorEvaluator getEvaluator() {
+    return evaluator;
+  }
+
+  public void setEvaluator(CalculatorEvaluator evaluator) {
+    this.evaluator = evaluator;
+  }
+
   public IValueMeta getValueMetaFor(int resultType, String name) throws HopPluginException {
     // don't need any synchronization as data instance belongs only to one transform instance
     IValueMeta meta = resultMetaMapping.get(resultType);
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.calculator;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMetaFunction.CalculationType;
+
+import java.util.List;
+
+/**
+ * The calculations of a Calculator transform, prepared on the first row for the layout of that
+ * row. Arithmetic on Integer and Number fields in normal storage is done on primitive values
+ * without going through ValueDataUtil. The results of such calculations are kept in primitive
+ * slots for the calculations that follow and are only boxed when they end up in the output row or
+ * are needed by another kind of calculation. All other calculations are delegated to the generic
+ * implementation of the transform.
+ */
+public class CalculatorEvaluator {
+
+  /** A single prepared calculation, storing its result in the calculation row. */
+  public interface ICalculation {
+    void calculate(Object[] calcData) throws HopException;
+  }
+
+  /** Creates the generic calculation for the function with the given number. */
+  public interface IGenericCalculationFactory {
+    ICalculation createCalculation(int functionNr, int index);
+  }
+
+  private interface ILongFunction {
+    long apply(long a, long b, long c);
+  }
+
+  private interface IDoubleFunction {
+    double apply(double a, double b, double c);
+  }
+
+  private final ICalculation[] calculations;
+
+  // The unboxed results of the arithmetic calculations, by function number
+  //
+  private final long[] longResults;
+  private final double[] doubleResults;
+  private final boolean[] nullResults;
+
+  private int primitiveCount;
+
+  /**
+   * @param functions the calculator functions
+   * @param calcRowMeta the layout of the input row with all calculated fields appended
+   * @param inputSize the number of fields in the input row
+   * @param fieldIndexes the resolved argument indexes of the functions
+   * @param genericFactory creates the calculations which can't be done on primitive values
+   */
+  public CalculatorEvaluator(
+      List<CalculatorMetaFunction> functions,
+      IRowMeta calcRowMeta,
+      int inputSize,
+      Calculator.FieldIndexes[] fieldIndexes,
+      IGenericCalculationFactory genericFactory) {
+    int size = functions.size();
+    calculations = new ICalculation[size];
+    longResults = new long[size];
+    doubleResults = new double[size];
+    nullResults = new boolean[size];
+
+    // Find out which functions can work on primitive values first...
+    //
+    boolean[] primitive = new boolean[size];
+    boolean[] integer = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      IValueMeta resultMeta =
+          getPrimitiveResultMeta(functions.get(i), calcRowMeta, fieldIndexes[i]);
+      IValueMeta targetMeta = calcRowMeta.getValueMeta(inputSize + i);
+      if (resultMeta != null && resultMeta.getType() == targetMeta.getType()) {
+        primitive[i] = true;
+        integer[i] = resultMeta.isInteger();
+      }
+    }
+
+    // ... and which results need to be boxed into the calculation row.
+    // That's the case for the results which are passed along to the next transform and the ones
+    // read by generic calculations or by calculations which come before them.
+    //
+    boolean[] box = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      box[i] = !functions.get(i).isRemovedFromResult();
+    }
+    for (int i = 0; i < size; i++) {
+      Calculator.FieldIndexes indexes = fieldIndexes[i];
+      for (int index : new int[] {indexes.indexA, indexes.indexB, indexes.indexC}) {
+        int nr = index - inputSize;
+        if (nr >= 0 && nr < size && (!primitive[i] || nr >= i)) {
+          box[nr] = true;
+        }
+      }
+    }
+
+    for (int i = 0; i < size; i++) {
+      int index = inputSize + i;
+      if (primitive[i]) {
+        CalculationType calcType = functions.get(i).getCalcType();
+        int arguments = getArgumentCount(calcType);
+        Operand[] operands = new Operand[3];
+        int[] argumentIndexes = {
+          fieldIndexes[i].indexA, fieldIndexes[i].indexB, fieldIndexes[i].indexC
+        };
+        for (int a = 0; a < arguments; a++) {
+          operands[a] =
+              createOperand(argumentIndexes[a], i, inputSize, primitive, integer, calcRowMeta);
+        }
+        calculations[i] =
+            createPrimitiveCalculation(
+                calcType, i, index, integer[i], box[i], operands[0], operands[1], operands[2]);
+        primitiveCount++;
+      } else {
+        calculations[i] = genericFactory.createCalculation(i, index);
+      }
+    }
+  }
+
+  /**
+   * Perform all calculations on the given calculation row.
+   *
+   * @param calcData the input row, resized to hold the calculated fields
+   * @throws HopException in case of a calculation error
+   */
+  public void evaluate(Object[] calcData) throws HopException {
+    for (ICalculation calculation : calculations) {
+      calculation.calculate(calcData);
+    }
+  }
+
+  /** @return the number of calculations done on primitive values */
+  public int getPrimitiveCount() {
+    return primitiveCount;
+  }
+
+  /**
+   * See if the function can be calculated on primitive values. Like ValueDataUtil, the type of the
+   * first argument determines the type of the result. Integer arithmetic only uses Integer
+   * arguments, Number arithmetic also accepts Integer arguments.
+   *
+   * @return the metadata of the first argument or null if the generic calculation is needed
+   */
+  private static IValueMeta getPrimitiveResultMeta(
+      CalculatorMetaFunction function, IRowMeta calcRowMeta, Calculator.FieldIndexes indexes) {
+    int arguments = getArgumentCount(function.getCalcType());
+    if (arguments == 0
+        || (arguments > 1 && Utils.isEmpty(function.getFieldB()))
+        || (arguments > 2 && Utils.isEmpty(function.getFieldC()))) {
+      return null;
+    }
+    IValueMeta metaA = calcRowMeta.getValueMeta(indexes.indexA);
+    if (!isPrimitive(metaA)) {
+      return null;
+    }
+    int[] others =
+        arguments == 1
+            ? new int[0]
+            : arguments == 2
+                ? new int[] {indexes.indexB}
+                : new int[] {indexes.indexB, indexes.indexC};
+    for (int index : others) {
+      IValueMeta meta = calcRowMeta.getValueMeta(index);
+      if (!isPrimitive(meta) || (metaA.isInteger() && !meta.isInteger())) {
+        return null;
+      }
+    }
+    return metaA;
+  }
+
+  private static boolean isPrimitive(IValueMeta valueMeta) {
+    return valueMeta != null
+        && valueMeta.isStorageNormal()
+        && (valueMeta.getType() == IValueMeta.TYPE_INTEGER
+            || valueMeta.getType() == IValueMeta.TYPE_NUMBER);
+  }
+
+  private static int getArgumentCount(CalculationType calcType) {
+    switch (calcType) {
+      case SQUARE:
+        return 1;
+      case ADD:
+      case SUBTRACT:
+      case MULTIPLY:
+      case DIVIDE:
+        return 2;
+      case ADD3:
+      case COMBINATION_1:
+        return 3;
+      default:
+        return 0;
+    }
+  }
+
+  private Operand createOperand(
+      int index,
+      int functionNr,
+      int inputSize,
+      boolean[] primitive,
+      boolean[] integer,
+      IRowMeta calcRowMeta) {
+    if (index < 0) {
+      return null;
+    }
+    int nr = index - inputSize;
+    if (nr >= 0 && nr < functionNr && primitive[nr]) {
+      return new Operand(index, nr, integer[nr]);
+    }
+    IValueMeta valueMeta = calcRowMeta.getValueMeta(index);
+    return new Operand(index, -1, valueMeta != null && valueMeta.isInteger());
+  }
+
+  /** Operands b and c are null when the calculation doesn't use them. */
+  private ICalculation createPrimitiveCalculation(
+      CalculationType calcType,
+      int nr,
+      int index,
+      boolean integer,
+      boolean box,
+      Operand a,
+      Operand b,
+      Operand c) {
+    if (integer) {
+      ILongFunction fn;
+      switch (calcType) {
+        case SQUARE:
+          fn = (x, y, z) -> x * x;
+          break;
+        case ADD:
+          fn = (x, y, z) -> x + y;
+          break;
+        case SUBTRACT:
+          fn = (x, y, z) -> x - y;
+          break;
+        case MULTIPLY:
+          fn = (x, y, z) -> x * y;
+          break;
+        case DIVIDE:
+          fn = (x, y, z) -> x / y;
+          break;
+        case ADD3:
+          fn = (x, y, z) -> x + y + z;
+          break;
+        default: // COMBINATION_1
+          fn = (x, y, z) -> x + y * z;
+          break;
+      }
+      return calcData -> {
+        if (isNull(calcData, a, b, c)) {
+          setNull(calcData, nr, index, box);
+          return;
+        }
+        long result =
+            fn.apply(
+                a.getLong(calcData),
+                b == null ? 0L : b.getLong(calcData),
+                c == null ? 0L : c.getLong(calcData));
+        nullResults[nr] = false;
+        longResults[nr] = result;
+        if (box) {
+          calcData[index] = Long.valueOf(result);
+        }
+      };
+    } else {
+      IDoubleFunction fn;
+      switch (calcType) {
+        case SQUARE:
+          fn = (x, y, z) -> x * x;
+          break;
+        case ADD:
+          fn = (x, y, z) -> x + y;
+          break;
+        case SUBTRACT:
+          fn = (x, y, z) -> x - y;
+          break;
+        case MULTIPLY:
+          fn = (x, y, z) -> x * y;
+          break;
+        case DIVIDE:
+          fn = (x, y, z) -> x / y;
+          break;
+        case ADD3:
+          fn = (x, y, z) -> x + y + z;
+          break;
+        default: // COMBINATION_1
+          fn = (x, y, z) -> x + (y * z);
+          break;
+      }
+      return calcData -> {
+        if (isNull(calcData, a, b, c)) {
+          setNull(calcData, nr, index, box);
+          return;
+        }
+        double result =
+            fn.apply(
+                a.getDouble(calcData),
+                b == null ? 0.0 : b.getDouble(calcData),
+                c == null ? 0.0 : c.getDouble(calcData));
+        nullResults[nr] = false;
+        doubleResults[nr] = result;
+        if (box) {
+          calcData[index] = Double.valueOf(result);
+        }
+      };
+    }
+  }
+
+  private static boolean isNull(Object[] calcData, Operand a, Operand b, Operand c) {
+    return a.isNull(calcData)
+        || (b != null && b.isNull(calcData))
+        || (c != null && c.isNull(calcData));
+  }
+
+  private void setNull(Object[] calcData, int nr, int index, boolean box) {
+    nullResults[nr] = true;
+    if (box) {
+      calcData[index] = null;
+    }
+  }
+
+  /**
+   * An argument of a primitive calculation: either a field of the calculation row or the unboxed
+   * result of an earlier primitive calculation.
+   */
+  private final class Operand {
+    private final int index;
+    private final int slot;
+    private final boolean integer;
+
+    private Operand(int index, int slot, boolean integer) {
+      this.index = index;
+      this.slot = slot;
+      this.integer = integer;
+    }
+
+    private boolean isNull(Object[] calcData) {
+      return slot >= 0 ? nullResults[slot] : calcData[index] == null;
+    }
+
+    private long getLong(Object[] calcData) {
+      return slot >= 0 ? longResults[slot] : ((Long) calcData[index]).longValue();
+    }
+
+    private double getDouble(Object[] calcData) {
+      if (slot >= 0) {
+        return integer ? longResults[slot] : doubleResults[slot];
+      }
+      Object value = calcData[index];
+      return integer ? ((Long) value).doubleValue() : ((Double) value).doubleValue();
+    }
+  }
+}
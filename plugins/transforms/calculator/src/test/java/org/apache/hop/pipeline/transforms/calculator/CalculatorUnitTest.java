@@ -973,6 +973,133 @@ public class CalculatorUnitTest {
     }
   }
 
+  @Test
+  public void testPrimitiveCalculations() throws HopException {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("a"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("b"));
+    inputRowMeta.addValueMeta(new ValueMetaNumber("c"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("d"));
+
+    IRowSet inputRowSet =
+        smh.getMockInputRowSet(new Object[][] {{7L, 3L, 1.5, null}, {-2L, 5L, 4.0, 1L}});
+    inputRowSet.setRowMeta(inputRowMeta);
+
+    CalculatorMeta meta = new CalculatorMeta();
+    List<CalculatorMetaFunction> functions = meta.getFunctions();
+    // tmp = a * b, removed from the result
+    functions.add(
+        new CalculatorMetaFunction(
+            "tmp",
+            CalculationType.MULTIPLY,
+            "a",
+            "b",
+            null,
+            "Integer",
+            0,
+            0,
+            "",
+            "",
+            "",
+            "",
+            true));
+    // sum = tmp + a
+    functions.add(
+        new CalculatorMetaFunction(
+            "sum",
+            CalculationType.ADD,
+            "tmp",
+            "a",
+            null,
+            "Integer",
+            0,
+            0,
+            "",
+            "",
+            "",
+            "",
+            false));
+    // ratio = c / a, Number arithmetic with an Integer argument
+    functions.add(
+        new CalculatorMetaFunction(
+            "ratio",
+            CalculationType.DIVIDE,
+            "c",
+            "a",
+            null,
+            "Number",
+            0,
+            0,
+            "",
+            "",
+            "",
+            "",
+            false));
+    // comb = tmp + b * d, d can be null
+    functions.add(
+        new CalculatorMetaFunction(
+            "comb",
+            CalculationType.COMBINATION_1,
+            "tmp",
+            "b",
+            "d",
+            "Integer",
+            0,
+            0,
+            "",
+            "",
+            "",
+            "",
+            false));
+    // text = sum converted to a String, done the generic way
+    functions.add(
+        new CalculatorMetaFunction(
+            "text",
+            CalculationType.COPY_OF_FIELD,
+            "sum",
+            null,
+            null,
+            "String",
+            0,
+            0,
+            "",
+            "",
+            "",
+            "",
+            false));
+
+    CalculatorData data = new CalculatorData();
+    Calculator calculator =
+        new Calculator(smh.transformMeta, meta, data, 0, smh.pipelineMeta, smh.pipeline);
+    calculator.addRowSetToInputRowSets(inputRowSet);
+    calculator.setInputRowMeta(inputRowMeta);
+    calculator.init();
+
+    final List<Object[]> rows = new ArrayList<>();
+    calculator.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            rows.add(row);
+          }
+        });
+    calculator.processRow();
+    calculator.processRow();
+
+    Assert.assertEquals(4, data.getEvaluator().getPrimitiveCount());
+    Assert.assertEquals(2, rows.size());
+
+    assertEquals(28L, rows.get(0)[4]);
+    assertEquals(1.5 / 7, rows.get(0)[5]);
+    assertEquals(null, rows.get(0)[6]);
+    assertEquals("28", rows.get(0)[7]);
+
+    assertEquals(-12L, rows.get(1)[4]);
+    assertEquals(-2.0, rows.get(1)[5]);
+    assertEquals(-5L, rows.get(1)[6]);
+    assertEquals("-12", rows.get(1)[7]);
+  }
+
   @Test
   public void calculatorReminder() throws Exception {
     assertCalculatorReminder(
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.databaselookup;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -41,9 +42,13 @@ import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.databaselookup.readallcache.ReadAllCache;
 
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /** Looks up values in a database using keys from input streams. */
 public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLookupData>
@@ -51,6 +56,12 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
   private static final Class<?> PKG = DatabaseLookupMeta.class; // For Translator
 
+  /**
+   * The maximum number of parameters of a batched lookup query. Larger batches are split over
+   * several queries. Oracle allows 1000 values in an IN list, SQL Server 2100 parameters.
+   */
+  static final int MAX_BATCH_PARAMETERS = 1000;
+
   public DatabaseLookup(
       TransformMeta transformMeta,
       DatabaseLookupMeta meta,
@@ -70,8 +81,17 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
    */
   @VisibleForTesting
   synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row) throws HopException {
-    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
+    return lookupValues(inputRowMeta, row, createLookupRow(inputRowMeta, row), null);
+  }
 
+  /**
+   * Get the values to look up from the input row, converted to the data types of the table.
+   *
+   * @param inputRowMeta The metadata of the input row
+   * @param row The input row
+   * @return The values for the lookup query
+   */
+  private Object[] createLookupRow(IRowMeta inputRowMeta, Object[] row) throws HopException {
     Object[] lookupRow = new Object[data.lookupMeta.size()];
     int lookupIndex = 0;
 
@@ -103,8 +123,26 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
+
+  /**
+   * Performs the lookup for a row of which the lookup values are known.
+   *
+   * @param inputRowMeta The metadata of the input row
+   * @param row The row to add the returned lookup fields to
+   * @param lookupRow The values to look up
+   * @param batch The results of a batched lookup or null if the database has to be queried for
+   *     this row alone
+   * @return the resulting row after the lookup values where added
+   */
+  private Object[] lookupValues(
+      IRowMeta inputRowMeta, Object[] row, Object[] lookupRow, LookupBatch batch)
+      throws HopException {
+    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
 
     Object[] add;
+    IRowMeta returnRowMeta = null;
     boolean cacheNow = false;
     boolean cacheHit = false;
 
@@ -132,8 +170,14 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
                   + data.lookupMeta.getString(lookupRow));
         }
 
-        data.db.setValuesLookup(data.lookupMeta, lookupRow);
-        add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+        if (batch != null && batch.contains(lookupRow)) {
+          add = batch.get(lookupRow);
+          returnRowMeta = batch.getReturnRowMeta();
+        } else {
+          data.db.setValuesLookup(data.lookupMeta, lookupRow);
+          add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+          returnRowMeta = data.db.getReturnRowMeta();
+        }
         cacheNow = true;
       }
     }
@@ -187,7 +231,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         //
         int[] types = data.returnValueTypes;
         for (int i = 0; i < types.length; i++) {
-          IValueMeta returned = data.db.getReturnRowMeta().getValueMeta(i);
+          IValueMeta returned = returnRowMeta.getValueMeta(i);
           IValueMeta expected = data.returnMeta.getValueMeta(i);
 
           if (returned != null && types[i] > 0 && types[i] != returned.getType()) {
@@ -326,6 +370,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batchRows != null && !data.batchRows.isEmpty() && !lookupBatch()) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -445,6 +492,17 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       if (meta.isCached() && meta.isLoadingAllDataInCache()) {
         loadAllTableDataIntoTheCache();
       }
+
+      // See if we can look up the keys of multiple rows with a single query
+      //
+      if (meta.getLookupBatchSize() > 1) {
+        if (isBatchingPossible()) {
+          data.batchSize = meta.getLookupBatchSize();
+          data.batchRows = new ArrayList<>(data.batchSize);
+        } else if (log.isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchingNotPossible"));
+        }
+      }
     }
 
     if (log.isRowLevel()) {
@@ -453,38 +511,313 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
               + getInputRowMeta().getString(r));
     }
 
+    if (data.batchSize > 1) {
+      data.batchRows.add(r);
+      if (data.batchRows.size() >= data.batchSize) {
+        return lookupBatch();
+      }
+      return true;
+    }
+
     try {
       // add new lookup values to the row
       Object[] outputRow = lookupValues(getInputRowMeta(), r);
+      putLookupRow(r, outputRow);
+    } catch (HopException e) {
+      return handleLookupError(r, e);
+    }
 
-      if (outputRow != null) {
-        // copy row to output rowset(s)
-        putRow(data.outputRowMeta, outputRow);
+    return true;
+  }
 
-        if (log.isRowLevel()) {
-          logRowlevel(
-              BaseMessages.getString(PKG, "DatabaseLookup.Log.WroteRowToNextTransform")
-                  + getInputRowMeta().getString(r));
+  private void putLookupRow(Object[] r, Object[] outputRow) throws HopException {
+    if (outputRow != null) {
+      // copy row to output rowset(s)
+      putRow(data.outputRowMeta, outputRow);
+
+      if (log.isRowLevel()) {
+        logRowlevel(
+            BaseMessages.getString(PKG, "DatabaseLookup.Log.WroteRowToNextTransform")
+                + getInputRowMeta().getString(r));
+      }
+      if (checkFeedback(getLinesRead())) {
+        logBasic("linenr " + getLinesRead());
+      }
+    }
+  }
+
+  /** @return false if the transform has to stop */
+  private boolean handleLookupError(Object[] r, HopException e) throws HopException {
+    if (getTransformMeta().isDoingErrorHandling()) {
+      putError(getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001");
+      return true;
+    }
+    logError(
+        BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
+            + e.getMessage());
+    setErrors(1);
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+    return false;
+  }
+
+  /**
+   * The keys of a batch of rows can only be looked up with a single query if every key is an
+   * integer field of the input row compared with "=". The results of the query are matched to the
+   * rows in Hop so the keys need to be equal in Hop exactly when they are equal in the database.
+   * That isn't the case for strings (padding, collations), numbers with a fraction or dates.
+   */
+  private boolean isBatchingPossible() {
+    if (meta.isCached() && meta.isLoadingAllDataInCache()) {
+      return false;
+    }
+    if (data.conditions.length == 0) {
+      return false;
+    }
+    for (int i = 0; i < data.conditions.length; i++) {
+      if (data.conditions[i] != DatabaseLookupMeta.CONDITION_EQ || data.keynrs[i] < 0) {
+        return false;
+      }
+      if (data.lookupMeta.getValueMeta(i).getType() != IValueMeta.TYPE_INTEGER) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Look up the buffered rows. The keys which are not in the cache are looked up with a single
+   * query. The rows are then passed on in the order they came in.
+   *
+   * @return false if the transform has to stop
+   */
+  private boolean lookupBatch() throws HopException {
+    List<Object[]> rows = data.batchRows;
+    data.batchRows = new ArrayList<>(data.batchSize);
+
+    IRowMeta inputRowMeta = getInputRowMeta();
+    Object[][] lookupRows = new Object[rows.size()][];
+    HopException[] errors = new HopException[rows.size()];
+    Set<RowMetaAndData> keys = new LinkedHashSet<>();
+    for (int i = 0; i < rows.size(); i++) {
+      try {
+        lookupRows[i] = createLookupRow(inputRowMeta, rows.get(i));
+      } catch (HopException e) {
+        errors[i] = e;
+        continue;
+      }
+      if (!meta.isCached()
+          || data.cache.getRowFromCache(data.lookupMeta, lookupRows[i]) == null) {
+        keys.add(new RowMetaAndData(data.lookupMeta, lookupRows[i]));
+      }
+    }
+
+    // Without a batch (no keys or batching was stopped) the rows are looked up one by one
+    //
+    LookupBatch batch = null;
+    if (!keys.isEmpty()) {
+      try {
+        batch = queryBatch(keys);
+      } catch (HopException e) {
+        for (Object[] r : rows) {
+          if (!handleLookupError(r, e)) {
+            return false;
+          }
         }
-        if (checkFeedback(getLinesRead())) {
-          logBasic("linenr " + getLinesRead());
+        return true;
+      }
+    }
+
+    for (int i = 0; i < rows.size(); i++) {
+      Object[] r = rows.get(i);
+      try {
+        if (errors[i] != null) {
+          throw errors[i];
+        }
+        putLookupRow(r, lookupValues(inputRowMeta, r, lookupRows[i], batch));
+      } catch (HopException e) {
+        if (!handleLookupError(r, e)) {
+          return false;
         }
       }
-    } catch (HopException e) {
-      if (getTransformMeta().isDoingErrorHandling()) {
-        putError(getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001");
+    }
+    return true;
+  }
+
+  /**
+   * Look up a set of keys with a single query: SELECT returns..., keys... FROM table WHERE key IN
+   * (?, ?, ...) or WHERE (key1 = ? AND key2 = ?) OR (...) for multiple keys. If that takes more
+   * than MAX_BATCH_PARAMETERS parameters the keys are split over several queries.
+   *
+   * @return The results or null if the key columns of the table are not integers
+   */
+  @VisibleForTesting
+  LookupBatch queryBatch(Collection<RowMetaAndData> keys) throws HopException {
+    if (data.batchDb == null) {
+      DatabaseMeta databaseMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
+      data.batchDb = getDatabase(databaseMeta);
+      connectDatabase(data.batchDb);
+    }
+    Database db = data.batchDb;
+    DatabaseMeta databaseMeta = db.getDatabaseMeta();
+    Lookup lookup = meta.getLookup();
+    List<KeyField> keyFields = lookup.getKeyFields();
+    List<ReturnValue> returnValues = lookup.getReturnValues();
+
+    StringBuilder select = new StringBuilder("SELECT ");
+    for (int i = 0; i < returnValues.size(); i++) {
+      ReturnValue returnValue = returnValues.get(i);
+      if (i > 0) {
+        select.append(", ");
+      }
+      select.append(databaseMeta.quoteField(returnValue.getTableField()));
+      String rename = returnValue.getNewName();
+      if (!Utils.isEmpty(rename) && !returnValue.getTableField().equalsIgnoreCase(rename)) {
+        select.append(" AS ").append(databaseMeta.quoteField(rename));
+      }
+    }
+    for (KeyField keyField : keyFields) {
+      select.append(", ").append(databaseMeta.quoteField(keyField.getTableField()));
+    }
+    select
+        .append(" FROM ")
+        .append(
+            databaseMeta.getQuotedSchemaTableCombination(
+                this, resolve(meta.getSchemaName()), resolve(meta.getTableName())))
+        .append(" WHERE ");
+
+    // A key with a null value never matches "=", there's no need to send it to the database.
+    //
+    List<RowMetaAndData> queryKeys = new ArrayList<>(keys.size());
+    for (RowMetaAndData key : keys) {
+      if (!hasNullValue(key)) {
+        queryKeys.add(key);
+      }
+    }
+    if (queryKeys.isEmpty()) {
+      return new LookupBatch(
+          data.lookupMeta, null, returnValues.size(), keys, lookup.isFailingOnMultipleResults());
+    }
+
+    int keysPerQuery = Math.max(1, MAX_BATCH_PARAMETERS / keyFields.size());
+    LookupBatch batch = null;
+    for (int from = 0; from < queryKeys.size(); from += keysPerQuery) {
+      List<RowMetaAndData> queryPart =
+          queryKeys.subList(from, Math.min(queryKeys.size(), from + keysPerQuery));
+      batch = queryBatchPart(db, select.toString(), queryPart, keys, batch);
+      if (batch == null) {
+        return null;
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Run the query for a part of the keys of a batch.
+   *
+   * @param db The database to query
+   * @param select The query up to and including WHERE
+   * @param queryKeys The keys to look up with this query, without null values
+   * @param keys All the keys of the batch
+   * @param batch The results of the previous parts or null for the first part
+   * @return The results including the ones of this part or null if the key columns of the table
+   *     are not integers
+   */
+  private LookupBatch queryBatchPart(
+      Database db,
+      String select,
+      List<RowMetaAndData> queryKeys,
+      Collection<RowMetaAndData> keys,
+      LookupBatch batch)
+      throws HopException {
+    DatabaseMeta databaseMeta = db.getDatabaseMeta();
+    Lookup lookup = meta.getLookup();
+    List<KeyField> keyFields = lookup.getKeyFields();
+    List<ReturnValue> returnValues = lookup.getReturnValues();
+
+    StringBuilder sql = new StringBuilder(select);
+    IRowMeta paramsMeta = new RowMeta();
+    List<Object> params = new ArrayList<>();
+    int nrKeys = 0;
+    for (RowMetaAndData key : queryKeys) {
+      if (keyFields.size() == 1) {
+        sql.append(nrKeys == 0 ? databaseMeta.quoteField(keyFields.get(0).getTableField()) : "");
+        sql.append(nrKeys == 0 ? " IN ( ?" : ", ?");
       } else {
-        logError(
-            BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
-                + e.getMessage());
-        setErrors(1);
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+        sql.append(nrKeys == 0 ? "( " : " OR ( ");
+        for (int k = 0; k < keyFields.size(); k++) {
+          if (k > 0) {
+            sql.append(" AND ");
+          }
+          sql.append(databaseMeta.quoteField(keyFields.get(k).getTableField())).append(" = ?");
+        }
+        sql.append(" )");
       }
+      for (int k = 0; k < keyFields.size(); k++) {
+        paramsMeta.addValueMeta(data.lookupMeta.getValueMeta(k).clone());
+        params.add(key.getData()[k]);
+      }
+      nrKeys++;
+    }
+    if (keyFields.size() == 1) {
+      sql.append(" )");
+    }
+    if (StringUtils.isNotEmpty(lookup.getOrderByClause())) {
+      sql.append(" ORDER BY ").append(lookup.getOrderByClause());
     }
 
-    return true;
+    if (log.isDebug()) {
+      logDebug(
+          BaseMessages.getString(
+              PKG, "DatabaseLookup.Log.BatchLookup", String.valueOf(nrKeys), sql.toString()));
+    }
+
+    ResultSet resultSet = db.openQuery(sql.toString(), paramsMeta, params.toArray());
+    try {
+      IRowMeta returnRowMeta = db.getReturnRowMeta();
+      if (batch == null) {
+        // The key columns of the table need to be integers as well or the results can't be
+        // matched exactly. If they're not, look up the rows one by one from now on.
+        //
+        for (int k = 0; k < keyFields.size(); k++) {
+          IValueMeta keyMeta = returnRowMeta.getValueMeta(returnValues.size() + k);
+          if (keyMeta.getType() != IValueMeta.TYPE_INTEGER) {
+            if (log.isDetailed()) {
+              logDetailed(
+                  BaseMessages.getString(
+                      PKG, "DatabaseLookup.Log.BatchingStopped", keyMeta.getName()));
+            }
+            data.batchSize = 1;
+            return null;
+          }
+        }
+        batch =
+            new LookupBatch(
+                data.lookupMeta,
+                returnRowMeta,
+                returnValues.size(),
+                keys,
+                lookup.isFailingOnMultipleResults());
+      }
+
+      Object[] row = db.getRow(resultSet);
+      while (row != null) {
+        batch.addResult(row);
+        row = db.getRow(resultSet);
+      }
+      return batch;
+    } finally {
+      db.closeQuery(resultSet);
+    }
+  }
+
+  private static boolean hasNullValue(RowMetaAndData key) throws HopException {
+    for (int i = 0; i < key.size(); i++) {
+      if (key.getValueMeta(i).isNull(key.getData()[i])) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private void loadAllTableDataIntoTheCache() throws HopException {
@@ -617,6 +950,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       synchronized (data.db) {
         data.db.cancelQuery();
       }
+      if (data.batchDb != null) {
+        data.batchDb.cancelQuery();
+      }
       data.isCanceled = true;
     }
   }
@@ -677,6 +1013,10 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     if (data.db != null) {
       data.db.disconnect();
     }
+    if (data.batchDb != null) {
+      data.batchDb.disconnect();
+      data.batchDb = null;
+    }
 
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
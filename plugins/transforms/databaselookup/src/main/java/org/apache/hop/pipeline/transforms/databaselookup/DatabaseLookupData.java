@@ -45,6 +45,13 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
   public String[] returnTrimTypes;
   public List<Integer> trimIndexes;
 
+  /** The number of rows to look up with a single query, 0 to look up row by row */
+  public int batchSize;
+  /** The rows waiting to be looked up in a batch */
+  public List<Object[]> batchRows;
+  /** The connection used for the batched lookups */
+  public Database batchDb;
+
   public DatabaseLookupData() {
     super();
 
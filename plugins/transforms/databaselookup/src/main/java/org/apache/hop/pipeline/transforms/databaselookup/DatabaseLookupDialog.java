@@ -69,6 +69,8 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
   private Label wlCachesize;
   private Text wCachesize;
 
+  private Text wLookupBatchSize;
+
   private TableView wKey;
 
   private TextVar wSchema;
@@ -284,12 +286,33 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
           }
         });
 
+    // Lookup batch size line
+    Label wlLookupBatchSize = new Label(shell, SWT.RIGHT);
+    wlLookupBatchSize.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.LookupBatchSize.Label"));
+    props.setLook(wlLookupBatchSize);
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment(0, 0);
+    fdlLookupBatchSize.right = new FormAttachment(middle, -margin);
+    fdlLookupBatchSize.top = new FormAttachment(wCacheLoadAll, margin);
+    wlLookupBatchSize.setLayoutData(fdlLookupBatchSize);
+    wLookupBatchSize = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wLookupBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.LookupBatchSize.Tooltip"));
+    props.setLook(wLookupBatchSize);
+    wLookupBatchSize.addModifyListener(lsMod);
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment(middle, 0);
+    fdLookupBatchSize.right = new FormAttachment(100, 0);
+    fdLookupBatchSize.top = new FormAttachment(wCacheLoadAll, margin);
+    wLookupBatchSize.setLayoutData(fdLookupBatchSize);
+
     Label wlKey = new Label(shell, SWT.NONE);
     wlKey.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.Keys.Label"));
     props.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wCacheLoadAll, margin);
+    fdlKey.top = new FormAttachment(wLookupBatchSize, margin);
     wlKey.setLayoutData(fdlKey);
 
     int nrKeyCols = 4;
@@ -605,6 +628,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
     wCache.setSelection(input.isCached());
     wCachesize.setText("" + input.getCacheSize());
     wCacheLoadAll.setSelection(input.isLoadingAllDataInCache());
+    wLookupBatchSize.setText("" + input.getLookupBatchSize());
 
     Lookup lookup = input.getLookup();
 
@@ -668,6 +692,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
     input.setCached(wCache.getSelection());
     input.setCacheSize(Const.toInt(wCachesize.getText(), 0));
     input.setLoadingAllDataInCache(wCacheLoadAll.getSelection());
+    input.setLookupBatchSize(Const.toInt(wLookupBatchSize.getText(), 0));
 
     for (TableItem item : wKey.getNonEmptyItems()) {
       KeyField keyField = new KeyField();
@@ -101,6 +101,12 @@ public class DatabaseLookupMeta extends BaseTransformMeta
       injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheLoadAll")
   private boolean loadingAllDataInCache;
 
+  /** Look up the keys of this many rows with a single query, 0 or 1 to look up row by row */
+  @HopMetadataProperty(
+      key = "lookup_batch_size",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.LookupBatchSize")
+  private int lookupBatchSize;
+
   @HopMetadataProperty(key = "lookup")
   private Lookup lookup;
 
@@ -112,6 +118,7 @@ public class DatabaseLookupMeta extends BaseTransformMeta
     this.cached = m.cached;
     this.cacheSize = m.cacheSize;
     this.loadingAllDataInCache = m.loadingAllDataInCache;
+    this.lookupBatchSize = m.lookupBatchSize;
     this.lookup = new Lookup(m.lookup);
   }
 
@@ -569,6 +576,20 @@ public class DatabaseLookupMeta extends BaseTransformMeta
     this.loadingAllDataInCache = loadingAllDataInCache;
   }
 
+  /**
+   * Gets lookupBatchSize
+   *
+   * @return value of lookupBatchSize
+   */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /** @param lookupBatchSize The lookupBatchSize to set */
+  public void setLookupBatchSize(int lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   /**
    * Gets lookup
    *
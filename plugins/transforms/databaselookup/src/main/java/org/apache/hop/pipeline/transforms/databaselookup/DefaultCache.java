@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.databaselookup;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.TimedRow;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
@@ -40,6 +41,9 @@ public class DefaultCache implements DatabaseLookupData.ICache {
   private final DatabaseLookupData data;
   private final LinkedHashMap<RowMetaAndData, TimedRow> map;
 
+  /** Sorted view on the cached keys for conditions other than "=" */
+  private RangeIndex rangeIndex;
+
   DefaultCache(DatabaseLookupData data, int capacity) {
     this.data = data;
     map = new LinkedHashMap<>(capacity);
@@ -56,78 +60,130 @@ public class DefaultCache implements DatabaseLookupData.ICache {
       }
     } else { // special handling of conditions <,>, <> etc.
       if (!data.hasDBCondition) { // e.g. LIKE not handled by this routine, yet
-        // TODO: find an alternative way to look up the data based on the condition.
-        // Not all conditions are "=" so we are going to have to evaluate row by row
-        // A sorted list or index might be a good solution here...
+        // Not all conditions are "=" so we are going to have to evaluate row by row.
+        // If possible, the sorted index on the first key limits the rows to evaluate.
         //
-        for (RowMetaAndData key : map.keySet()) {
-          // Now verify that the key is matching our conditions...
-          //
-          boolean match = true;
-          int lookupIndex = 0;
-          for (int i = 0; i < data.conditions.length && match; i++) {
-            IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
-            Object cmpData = lookupRow[lookupIndex];
-            IValueMeta keyMeta = key.getValueMeta(i);
-            Object keyData = key.getData()[i];
-
-            switch (data.conditions[i]) {
-              case DatabaseLookupMeta.CONDITION_EQ:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) == 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_NE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) != 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_LT:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) > 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_LE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) >= 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_GT:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) < 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_GE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) <= 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NULL:
-                match = keyMeta.isNull(keyData);
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
-                match = !keyMeta.isNull(keyData);
-                break;
-              case DatabaseLookupMeta.CONDITION_BETWEEN:
-                // Between key >= cmp && key <= cmp2
-                IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex + 1);
-                Object cmpData2 = lookupRow[lookupIndex + 1];
-                match = (keyMeta.compare(keyData, cmpMeta, cmpData) >= 0);
-                if (match) {
-                  match = (keyMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
-                }
-                lookupIndex++;
-                break;
-                // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
-              default:
-                match = false;
-                data.hasDBCondition =
-                    true; // avoid looping in here the next time, also safety when a new condition
-                // will be introduced
-                break;
-            }
-            lookupIndex++;
+        RangeIndex index = getRangeIndex(lookupMeta);
+        int from = 0;
+        int to = index.size;
+        if (index.sorted) {
+          Object cmpData = lookupRow[0];
+          switch (data.conditions[0]) {
+            case DatabaseLookupMeta.CONDITION_EQ:
+              from = index.lowerBound(cmpData);
+              to = index.upperBound(cmpData);
+              break;
+            case DatabaseLookupMeta.CONDITION_LT:
+              to = index.lowerBound(cmpData);
+              break;
+            case DatabaseLookupMeta.CONDITION_LE:
+              to = index.upperBound(cmpData);
+              break;
+            case DatabaseLookupMeta.CONDITION_GT:
+              from = index.upperBound(cmpData);
+              break;
+            case DatabaseLookupMeta.CONDITION_GE:
+              from = index.lowerBound(cmpData);
+              break;
+            default:
+              break;
           }
-          if (match) {
-            TimedRow timedRow = map.get(key);
-            if (timedRow != null) {
-              return timedRow.getRow();
+        }
+
+        // The cache returns the first matching row in the order the rows were put in.
+        //
+        int best = -1;
+        for (int k = from; k < to; k++) {
+          int position = index.positions[k];
+          if ((best < 0 || position < best) && matches(lookupMeta, lookupRow, index.keys[k])) {
+            best = position;
+            if (!index.sorted) {
+              break;
             }
           }
         }
+        if (best >= 0) {
+          TimedRow timedRow = map.get(index.keysInOrder[best]);
+          if (timedRow != null) {
+            return timedRow.getRow();
+          }
+        }
       }
     }
     return null;
   }
 
+  /** See if the key is matching our conditions... */
+  private boolean matches(IRowMeta lookupMeta, Object[] lookupRow, RowMetaAndData key)
+      throws HopException {
+    boolean match = true;
+    int lookupIndex = 0;
+    for (int i = 0; i < data.conditions.length && match; i++) {
+      IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
+      Object cmpData = lookupRow[lookupIndex];
+      IValueMeta keyMeta = key.getValueMeta(i);
+      Object keyData = key.getData()[i];
+
+      switch (data.conditions[i]) {
+        case DatabaseLookupMeta.CONDITION_EQ:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) == 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_NE:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) != 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_LT:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) > 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_LE:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) >= 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_GT:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) < 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_GE:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) <= 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NULL:
+          match = keyMeta.isNull(keyData);
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
+          match = !keyMeta.isNull(keyData);
+          break;
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          // Between key >= cmp && key <= cmp2
+          IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex + 1);
+          Object cmpData2 = lookupRow[lookupIndex + 1];
+          match = (keyMeta.compare(keyData, cmpMeta, cmpData) >= 0);
+          if (match) {
+            match = (keyMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
+          }
+          lookupIndex++;
+          break;
+          // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
+        default:
+          match = false;
+          data.hasDBCondition =
+              true; // avoid looping in here the next time, also safety when a new condition
+          // will be introduced
+          break;
+      }
+      lookupIndex++;
+    }
+    return match;
+  }
+
+  /**
+   * The index is built the first time it's needed and after rows were removed from the cache. New
+   * rows are added to the existing index.
+   */
+  private RangeIndex getRangeIndex(IRowMeta lookupMeta) throws HopException {
+    IValueMeta indexMeta = isRangeCondition(data.conditions[0]) ? lookupMeta.getValueMeta(0) : null;
+    if (rangeIndex == null || rangeIndex.indexMeta != indexMeta) {
+      rangeIndex = new RangeIndex(map.keySet(), indexMeta);
+    }
+    return rangeIndex;
+  }
+
   @Override
   public void storeRowInCache(
       DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add) {
@@ -140,7 +196,7 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     // * Additionally, if using the load all data feature, re-inserting would reverse the order
     // * specified in the transform.
     // */
-    map.put(rowMetaAndData, new TimedRow(add));
+    boolean newKey = map.put(rowMetaAndData, new TimedRow(add)) == null;
 
     // See if we have to limit the cache_size.
     // Sample 10% of the rows in the cache.
@@ -177,9 +233,172 @@ public class DefaultCache implements DatabaseLookupData.ICache {
 
           if (timedRow.getLogDate().compareTo(smallest) < 0) {
             map.remove(key);
+            newKey = false;
+            rangeIndex = null;
           }
         }
       }
     }
+
+    // A key which was already cached keeps its position so only new keys change the index
+    //
+    if (newKey && rangeIndex != null && !rangeIndex.add(rowMetaAndData)) {
+      rangeIndex = null;
+    }
+  }
+
+  private static boolean isRangeCondition(int condition) {
+    switch (condition) {
+      case DatabaseLookupMeta.CONDITION_EQ:
+      case DatabaseLookupMeta.CONDITION_LT:
+      case DatabaseLookupMeta.CONDITION_LE:
+      case DatabaseLookupMeta.CONDITION_GT:
+      case DatabaseLookupMeta.CONDITION_GE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * The cached keys sorted on their first value. A condition like "key &gt;= value" on the first
+   * key then matches a contiguous range of keys which is found with a binary search. The index
+   * sorts with the value metadata of the lookup row so the order is the same as the one used to
+   * evaluate the condition. If the keys can't be compared without a conversion they are kept in
+   * the order of the cache. New keys are inserted at their place so the index doesn't have to be
+   * sorted again after every cache miss.
+   */
+  private static final class RangeIndex {
+    /** The metadata used to sort the keys, null if the keys are not sorted */
+    private final IValueMeta indexMeta;
+
+    private final boolean sorted;
+
+    /** The number of keys in the index */
+    private int size;
+
+    /** The keys in the order they were put in the cache */
+    private RowMetaAndData[] keysInOrder;
+
+    /** The (sorted) keys */
+    private RowMetaAndData[] keys;
+
+    /** The position of the (sorted) keys in the cache */
+    private int[] positions;
+
+    private RangeIndex(Collection<RowMetaAndData> cachedKeys, IValueMeta indexMeta)
+        throws HopException {
+      this.indexMeta = indexMeta;
+      keysInOrder = cachedKeys.toArray(new RowMetaAndData[0]);
+      size = keysInOrder.length;
+
+      boolean sortable = indexMeta != null;
+      for (int i = 0; i < size && sortable; i++) {
+        sortable = isSortable(keysInOrder[i]);
+      }
+      sorted = sortable;
+
+      Integer[] order = new Integer[size];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+      }
+      if (sorted) {
+        try {
+          // A stable sort: equal keys stay in the order of the cache
+          //
+          Arrays.sort(
+              order,
+              (a, b) -> {
+                try {
+                  return indexMeta.compare(
+                      keysInOrder[a].getData()[0], keysInOrder[b].getData()[0]);
+                } catch (HopValueException e) {
+                  throw new IllegalStateException(e);
+                }
+              });
+        } catch (IllegalStateException e) {
+          throw new HopException("Unable to sort the keys in the lookup cache", e.getCause());
+        }
+      }
+
+      keys = new RowMetaAndData[size];
+      positions = new int[size];
+      for (int i = 0; i < size; i++) {
+        positions[i] = order[i];
+        keys[i] = keysInOrder[order[i]];
+      }
+    }
+
+    private boolean isSortable(RowMetaAndData key) {
+      IValueMeta keyMeta = key.getValueMeta(0);
+      return keyMeta != null
+          && keyMeta.getType() == indexMeta.getType()
+          && keyMeta.getStorageType() == indexMeta.getStorageType();
+    }
+
+    /**
+     * Add a key which was put at the end of the cache. It goes after the equal keys so they stay in
+     * the order of the cache.
+     *
+     * @return false if the key can't be compared with the other keys and the index has to be built
+     *     again
+     */
+    private boolean add(RowMetaAndData key) {
+      int insertAt = size;
+      if (sorted) {
+        if (!isSortable(key)) {
+          return false;
+        }
+        try {
+          insertAt = upperBound(key.getData()[0]);
+        } catch (HopValueException e) {
+          return false;
+        }
+      }
+
+      if (size == keys.length) {
+        int capacity = Math.max(16, size + (size >> 1));
+        keysInOrder = Arrays.copyOf(keysInOrder, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+      }
+      keysInOrder[size] = key;
+      System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+      System.arraycopy(positions, insertAt, positions, insertAt + 1, size - insertAt);
+      keys[insertAt] = key;
+      positions[insertAt] = size;
+      size++;
+      return true;
+    }
+
+    /** @return the index of the first key which is greater than or equal to the value */
+    private int lowerBound(Object value) throws HopValueException {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (indexMeta.compare(keys[mid].getData()[0], value) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /** @return the index of the first key which is greater than the value */
+    private int upperBound(Object value) throws HopValueException {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (indexMeta.compare(keys[mid].getData()[0], value) <= 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
   }
 }
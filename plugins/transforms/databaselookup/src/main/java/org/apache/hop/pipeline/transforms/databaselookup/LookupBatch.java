@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The results of looking up the keys of a batch of rows with a single query. Only used when all
+ * the keys are integers compared with "=" so the key values of a result row identify the lookup row
+ * exactly like the database does.
+ */
+class LookupBatch {
+  private final IRowMeta lookupMeta;
+  private final IRowMeta returnRowMeta;
+  private final int nrReturnValues;
+  private final boolean failingOnMultipleResults;
+
+  /** The keys which were looked up */
+  private final Set<RowMetaAndData> keys;
+
+  /** The first result found for every key */
+  private final Map<RowMetaAndData, Object[]> results;
+
+  /** The keys for which more than one result was found */
+  private final Set<RowMetaAndData> multipleResults;
+
+  /**
+   * @param lookupMeta The metadata of the lookup rows
+   * @param returnRowMeta The metadata of the result rows: the return values followed by the keys
+   * @param nrReturnValues The number of return values in a result row
+   * @param keys The keys which were looked up
+   * @param failingOnMultipleResults true if finding more than one result for a key is an error
+   */
+  LookupBatch(
+      IRowMeta lookupMeta,
+      IRowMeta returnRowMeta,
+      int nrReturnValues,
+      Collection<RowMetaAndData> keys,
+      boolean failingOnMultipleResults) {
+    this.lookupMeta = lookupMeta;
+    this.returnRowMeta = returnRowMeta;
+    this.nrReturnValues = nrReturnValues;
+    this.failingOnMultipleResults = failingOnMultipleResults;
+    this.keys = new HashSet<>(keys);
+    this.results = new HashMap<>();
+    this.multipleResults = new HashSet<>();
+  }
+
+  /**
+   * Add a row of the query result. The results come in the order of the query so the first row
+   * found for a key is the same one a lookup of just that key would return.
+   *
+   * @param row The result row: the return values followed by the keys
+   */
+  void addResult(Object[] row) throws HopException {
+    Object[] keyData = new Object[lookupMeta.size()];
+    for (int i = 0; i < keyData.length; i++) {
+      keyData[i] =
+          lookupMeta
+              .getValueMeta(i)
+              .convertData(returnRowMeta.getValueMeta(nrReturnValues + i), row[nrReturnValues + i]);
+    }
+    RowMetaAndData key = new RowMetaAndData(lookupMeta, keyData);
+    if (results.containsKey(key)) {
+      if (failingOnMultipleResults) {
+        multipleResults.add(key);
+      }
+    } else {
+      results.put(key, Arrays.copyOf(row, nrReturnValues));
+    }
+  }
+
+  /** @return true if the values of the lookup row were looked up in this batch */
+  boolean contains(Object[] lookupRow) {
+    return keys.contains(new RowMetaAndData(lookupMeta, lookupRow));
+  }
+
+  /**
+   * @param lookupRow The values of the lookup row
+   * @return A copy of the return values found for the lookup row or null if nothing was found
+   */
+  Object[] get(Object[] lookupRow) throws HopDatabaseException {
+    RowMetaAndData key = new RowMetaAndData(lookupMeta, lookupRow);
+    if (multipleResults.contains(key)) {
+      throw new HopDatabaseException(
+          "Only 1 row was expected as a result of a lookup, and at least 2 were found!");
+    }
+    Object[] result = results.get(key);
+    return result == null ? null : result.clone();
+  }
+
+  /** @return The metadata of the result rows */
+  IRowMeta getReturnRowMeta() {
+    return returnRowMeta;
+  }
+}
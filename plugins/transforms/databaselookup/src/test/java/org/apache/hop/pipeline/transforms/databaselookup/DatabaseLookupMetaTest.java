@@ -174,6 +174,7 @@ public class DatabaseLookupMetaTest {
     meta.setCached(true);
     meta.setCacheSize(123456);
     meta.setLoadingAllDataInCache(true);
+    meta.setLookupBatchSize(250);
     Lookup lookup = meta.getLookup();
     lookup.getKeyFields().add(new KeyField("aa", "gg", "ee", "cc"));
     lookup.getKeyFields().add(new KeyField("bb", "hh", "ff", "dd"));
@@ -209,6 +210,7 @@ public class DatabaseLookupMetaTest {
     assertEquals(meta.isCached(), meta2.isCached());
     assertEquals(meta.getCacheSize(), meta2.getCacheSize());
     assertEquals(meta.isLoadingAllDataInCache(), meta2.isLoadingAllDataInCache());
+    assertEquals(meta.getLookupBatchSize(), meta2.getLookupBatchSize());
 
     assertEquals(lookup.getKeyFields().size(), lookup2.getKeyFields().size());
     for (int i = 0; i < lookup.getKeyFields().size(); i++) {
@@ -316,6 +318,7 @@ public class DatabaseLookupMetaTest {
             .addString("cache?")
             .addString("cacheSize")
             .addString("loadAll?")
+            .addString("batchSize")
             .addString("orderBy")
             .addString("failOnMultiple?")
             .addString("eatRow?")
@@ -330,6 +333,7 @@ public class DatabaseLookupMetaTest {
                 "Y",
                 "123",
                 "Y",
+                "500",
                 "field1 DESC",
                 "Y",
                 "Y"));
@@ -344,6 +348,8 @@ public class DatabaseLookupMetaTest {
     assertEquals(123, meta.getCacheSize());
     injector.setProperty(meta, "cache_load_all", rows, "loadAll?");
     assertTrue(meta.isLoadingAllDataInCache());
+    injector.setProperty(meta, "lookup_batch_size", rows, "batchSize");
+    assertEquals(500, meta.getLookupBatchSize());
     injector.setProperty(meta, "schema", rows, "schema");
     assertEquals("schema1", meta.getLookup().getSchemaName());
     injector.setProperty(meta, "table", rows, "table");
@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.databaselookup;
 
 import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.NoneDatabaseMeta;
@@ -40,6 +41,7 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.databaselookup.readallcache.ReadAllCache;
 import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.*;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 
@@ -47,8 +49,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
@@ -430,6 +436,88 @@ public class DatabaseLookupUTest {
     assertNotNull(data.cache.getRowFromCache(data.lookupMeta, new Object[] {2L}));
   }
 
+  @Test
+  public void testLargeBatchIsSplitOverSeveralQueries() throws Exception {
+    int nrKeys = 2 * DatabaseLookup.MAX_BATCH_PARAMETERS + 1;
+    List<Integer> paramCounts = queryBatch(1, nrKeys);
+    assertEquals(Arrays.asList(1000, 1000, 1), paramCounts);
+  }
+
+  @Test
+  public void testLargeBatchWithTwoKeysIsSplitOverSeveralQueries() throws Exception {
+    // Every key takes two parameters so half as many keys fit in a query
+    //
+    int nrKeys = DatabaseLookup.MAX_BATCH_PARAMETERS + 1;
+    List<Integer> paramCounts = queryBatch(2, nrKeys);
+    assertEquals(Arrays.asList(1000, 1000, 2), paramCounts);
+  }
+
+  /**
+   * Look up a batch of integer keys, plus one with a null value which isn't sent to the database.
+   *
+   * @return The number of parameters of every query
+   */
+  private List<Integer> queryBatch(int nrKeyFields, int nrKeys) throws Exception {
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setIDatabase(new NoneDatabaseMeta());
+
+    DatabaseLookupMeta meta = new DatabaseLookupMeta();
+    Lookup lookup = meta.getLookup();
+    lookup.setTableName("VirtualTable");
+    lookup
+        .getReturnValues()
+        .add(
+            new ReturnValue(
+                "name",
+                "name",
+                "",
+                "String",
+                ValueMetaString.getTrimTypeCode(IValueMeta.TRIM_TYPE_NONE)));
+
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.lookupMeta = new RowMeta();
+    RowMeta returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta(new ValueMetaString("name"));
+    for (int k = 0; k < nrKeyFields; k++) {
+      lookup.getKeyFields().add(new KeyField("key" + k, "", "=", "ID" + k));
+      data.lookupMeta.addValueMeta(new ValueMetaInteger("key" + k));
+      returnRowMeta.addValueMeta(new ValueMetaInteger("ID" + k));
+    }
+
+    Database db = mock(Database.class);
+    when(db.getDatabaseMeta()).thenReturn(dbMeta);
+    when(db.openQuery(anyString(), any(IRowMeta.class), any(Object[].class)))
+        .thenReturn(mock(ResultSet.class));
+    when(db.getReturnRowMeta()).thenReturn(returnRowMeta);
+    data.batchDb = db;
+
+    DatabaseLookup transform =
+        new DatabaseLookup(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+
+    Set<RowMetaAndData> keys = new LinkedHashSet<>();
+    for (long i = 0; i < nrKeys; i++) {
+      Object[] key = new Object[nrKeyFields];
+      Arrays.fill(key, i);
+      keys.add(new RowMetaAndData(data.lookupMeta, key));
+    }
+    keys.add(new RowMetaAndData(data.lookupMeta, new Object[nrKeyFields]));
+
+    LookupBatch batch = transform.queryBatch(keys);
+    assertNotNull(batch);
+    for (RowMetaAndData key : keys) {
+      assertTrue(batch.contains(key.getData()));
+    }
+
+    ArgumentCaptor<IRowMeta> paramsCaptor = ArgumentCaptor.forClass(IRowMeta.class);
+    verify(db, atLeastOnce()).openQuery(anyString(), paramsCaptor.capture(), any(Object[].class));
+    List<Integer> paramCounts = new ArrayList<>();
+    for (IRowMeta params : paramsCaptor.getAllValues()) {
+      paramCounts.add(params.size());
+    }
+    return paramCounts;
+  }
+
   public class MockDatabaseLookup extends DatabaseLookup {
     public MockDatabaseLookup(
         TransformMeta transformMeta,
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class DefaultCacheTest {
+
+  private DatabaseLookupData data;
+  private DatabaseLookupMeta meta;
+  private IRowMeta keyMeta;
+
+  @Before
+  public void setUp() {
+    data = new DatabaseLookupData();
+    data.allEquals = false;
+    data.hasDBCondition = false;
+    meta = new DatabaseLookupMeta();
+    keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    keyMeta.addValueMeta(new ValueMetaInteger("version"));
+  }
+
+  @Test
+  public void testFirstMatchingRowIsReturned() throws Exception {
+    DefaultCache cache = DefaultCache.newCache(data, 0);
+    Object[] first = new Object[] {"first"};
+    Object[] second = new Object[] {"second"};
+    cache.storeRowInCache(meta, keyMeta, new Object[] {5L, 1L}, second);
+    cache.storeRowInCache(meta, keyMeta, new Object[] {3L, 1L}, first);
+
+    data.conditions =
+        new int[] {DatabaseLookupMeta.CONDITION_GE, DatabaseLookupMeta.CONDITION_EQ};
+    // Both keys match, the one put in the cache first wins even though 3 sorts before 5
+    assertSame(second, cache.getRowFromCache(keyMeta, new Object[] {1L, 1L}));
+    assertSame(first, cache.getRowFromCache(keyMeta, new Object[] {4L, 1L}));
+    assertNull(cache.getRowFromCache(keyMeta, new Object[] {6L, 1L}));
+    assertNull(cache.getRowFromCache(keyMeta, new Object[] {1L, 2L}));
+  }
+
+  @Test
+  public void testSameResultAsLinearScan() throws Exception {
+    DefaultCache cache = DefaultCache.newCache(data, 0);
+    Random random = new Random(42);
+    List<Object[]> keys = new ArrayList<>();
+    List<Object[]> values = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      Object[] key = new Object[] {(long) random.nextInt(100), (long) random.nextInt(3)};
+      if (random.nextInt(20) == 0) {
+        key[0] = null;
+      }
+      Object[] value = new Object[] {(long) i};
+      keys.add(key);
+      values.add(value);
+      cache.storeRowInCache(meta, keyMeta, key, value);
+    }
+
+    int[] rangeConditions = {
+      DatabaseLookupMeta.CONDITION_EQ,
+      DatabaseLookupMeta.CONDITION_LT,
+      DatabaseLookupMeta.CONDITION_LE,
+      DatabaseLookupMeta.CONDITION_GT,
+      DatabaseLookupMeta.CONDITION_GE,
+      DatabaseLookupMeta.CONDITION_NE,
+    };
+    for (int condition : rangeConditions) {
+      data.conditions = new int[] {condition, DatabaseLookupMeta.CONDITION_EQ};
+      for (long id = -1; id <= 101; id++) {
+        for (long version = 0; version < 3; version++) {
+          Object[] lookupRow = new Object[] {id, version};
+          Object[] expected = linearScan(keys, values, lookupRow);
+          assertArrayEquals(
+              "condition " + condition + " on " + id + "/" + version,
+              expected,
+              cache.getRowFromCache(keyMeta, lookupRow));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testStoresBetweenLookups() throws Exception {
+    // Like a lookup which misses the cache: every row is looked up and then stored
+    //
+    DefaultCache cache = DefaultCache.newCache(data, 0);
+    Random random = new Random(7);
+    List<Object[]> keys = new ArrayList<>();
+    List<Object[]> values = new ArrayList<>();
+    int[] rangeConditions = {
+      DatabaseLookupMeta.CONDITION_LT,
+      DatabaseLookupMeta.CONDITION_LE,
+      DatabaseLookupMeta.CONDITION_GT,
+      DatabaseLookupMeta.CONDITION_GE,
+    };
+    for (int i = 0; i < 1000; i++) {
+      data.conditions =
+          new int[] {rangeConditions[i % rangeConditions.length], DatabaseLookupMeta.CONDITION_EQ};
+      Object[] lookupRow = new Object[] {(long) random.nextInt(200), (long) random.nextInt(3)};
+      assertArrayEquals(
+          "lookup " + i,
+          linearScan(keys, values, lookupRow),
+          cache.getRowFromCache(keyMeta, lookupRow));
+
+      Object[] key = new Object[] {(long) random.nextInt(200), (long) random.nextInt(3)};
+      if (random.nextInt(20) == 0) {
+        key[0] = null;
+      }
+      Object[] value = new Object[] {(long) i};
+      keys.add(key);
+      values.add(value);
+      cache.storeRowInCache(meta, keyMeta, key, value);
+    }
+  }
+
+  /** The first key in insertion order matching the conditions, duplicates keep the first spot */
+  private Object[] linearScan(List<Object[]> keys, List<Object[]> values, Object[] lookupRow)
+      throws Exception {
+    for (int i = 0; i < keys.size(); i++) {
+      Object[] key = keys.get(i);
+      boolean match = true;
+      for (int c = 0; c < data.conditions.length && match; c++) {
+        int cmp = keyMeta.getValueMeta(c).compare(lookupRow[c], key[c]);
+        switch (data.conditions[c]) {
+          case DatabaseLookupMeta.CONDITION_EQ:
+            match = cmp == 0;
+            break;
+          case DatabaseLookupMeta.CONDITION_NE:
+            match = cmp != 0;
+            break;
+          case DatabaseLookupMeta.CONDITION_LT:
+            match = cmp > 0;
+            break;
+          case DatabaseLookupMeta.CONDITION_LE:
+            match = cmp >= 0;
+            break;
+          case DatabaseLookupMeta.CONDITION_GT:
+            match = cmp < 0;
+            break;
+          default:
+            match = cmp <= 0;
+            break;
+        }
+      }
+      if (match) {
+        // A duplicate key put in later replaces the value but keeps the position of the first one
+        Object[] value = values.get(i);
+        for (int j = keys.size() - 1; j > i; j--) {
+          if (keyMeta.compare(keys.get(j), key) == 0) {
+            value = values.get(j);
+            break;
+          }
+        }
+        return value;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LookupBatchTest {
+
+  private IRowMeta lookupMeta;
+  private IRowMeta returnRowMeta;
+
+  @Before
+  public void setUp() {
+    lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta(new ValueMetaInteger("id"));
+    lookupMeta.addValueMeta(new ValueMetaInteger("version"));
+
+    // The return value followed by the keys, as the batch query selects them
+    //
+    returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta(new ValueMetaString("name"));
+    returnRowMeta.addValueMeta(new ValueMetaInteger("ID"));
+    returnRowMeta.addValueMeta(new ValueMetaInteger("VERSION"));
+  }
+
+  private LookupBatch createBatch(boolean failingOnMultipleResults, Object[]... lookupRows) {
+    Set<RowMetaAndData> keys = new LinkedHashSet<>();
+    for (Object[] lookupRow : lookupRows) {
+      keys.add(new RowMetaAndData(lookupMeta, lookupRow));
+    }
+    return new LookupBatch(lookupMeta, returnRowMeta, 1, keys, failingOnMultipleResults);
+  }
+
+  @Test
+  public void testMultipleHits() throws Exception {
+    Object[] key = new Object[] {1L, 2L};
+
+    LookupBatch batch = createBatch(false, key);
+    batch.addResult(new Object[] {"first", 1L, 2L});
+    batch.addResult(new Object[] {"second", 1L, 2L});
+    assertArrayEquals(new Object[] {"first"}, batch.get(key));
+
+    LookupBatch failing = createBatch(true, key);
+    failing.addResult(new Object[] {"first", 1L, 2L});
+    failing.addResult(new Object[] {"second", 1L, 2L});
+    try {
+      failing.get(key);
+      fail("A key with more than one result should fail the lookup");
+    } catch (HopDatabaseException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testNoHits() throws Exception {
+    Object[] found = new Object[] {1L, 1L};
+    Object[] missing = new Object[] {2L, 1L};
+
+    LookupBatch batch = createBatch(true, found, missing);
+    batch.addResult(new Object[] {"found", 1L, 1L});
+
+    assertTrue(batch.contains(missing));
+    assertNull(batch.get(missing));
+    assertArrayEquals(new Object[] {"found"}, batch.get(found));
+
+    // Keys which were not part of the batch have to be looked up on their own
+    //
+    assertFalse(batch.contains(new Object[] {3L, 1L}));
+  }
+
+  @Test
+  public void testDuplicateKeysInOneBatch() throws Exception {
+    // Two input rows with the same key end up as one key of the query
+    //
+    Object[] firstRow = new Object[] {7L, 1L};
+    Object[] secondRow = new Object[] {7L, 1L};
+    LookupBatch batch = createBatch(true, firstRow, secondRow);
+    batch.addResult(new Object[] {"seven", 7L, 1L});
+
+    List<Object[]> results = new ArrayList<>();
+    results.add(batch.get(firstRow));
+    results.add(batch.get(secondRow));
+
+    assertEquals(2, results.size());
+    assertArrayEquals(new Object[] {"seven"}, results.get(0));
+    assertArrayEquals(new Object[] {"seven"}, results.get(1));
+    // Every row gets its own copy so changing one output row doesn't affect the other
+    //
+    assertNotSame(results.get(0), results.get(1));
+  }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.filterrows;
 
+import org.apache.hop.core.CompiledCondition;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -25,6 +26,7 @@ import org.apache.hop.pipeline.transform.ITransformData;
 public class FilterRowsData extends BaseTransformData implements ITransformData {
 
   public IRowMeta outputRowMeta;
+  public CompiledCondition condition;
   public IRowSet trueRowSet;
   public IRowSet falseRowSet;
   public boolean chosesTargetTransforms;
@@ -41,6 +41,7 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -81,6 +82,14 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
         data.repeatedFields.set(i);
       }
     }
+
+    // JSON lines files in the list of files are split over the transform copies
+    //
+    if (meta.isJsonLines() && !meta.isInFields()) {
+      data.transformNumber = getCopyNr();
+      data.totalNumberOfTransforms = getTransformMeta().getCopies(this);
+      data.parallel = data.totalNumberOfTransforms > 1;
+    }
     try {
       // Init a new JSON reader
       createReader();
@@ -257,8 +266,10 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   }
 
   private void parseNextInputToRowSet(InputStream input) throws HopException {
+    boolean keepOpen = false;
     try {
       data.readerRowSet = data.reader.parse(input);
+      keepOpen = data.reader.isStreaming();
     } catch (HopException ke) {
       logInputError(ke);
       throw new JsonInputException(ke);
@@ -266,7 +277,9 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       logInputError(e);
       throw new JsonInputException(e);
     } finally {
-      closeQuietly(input);
+      if (!keepOpen) {
+        closeQuietly(input);
+      }
     }
   }
 
@@ -330,9 +343,15 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       return null;
     }
     Object[] rawReaderRow = null;
-    while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+    while ((rawReaderRow = getReaderRow()) == null) {
       if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
-        try (InputStream nextIn = data.inputs.next()) {
+        InputStream input = data.inputs.next();
+        if (input != null && data.reader.isStreaming()) {
+          // The rows are read from the input while they're fetched, the reader closes it
+          parseNextInputToRowSet(input);
+          continue;
+        }
+        try (InputStream nextIn = input) {
 
           if (nextIn != null) {
             parseNextInputToRowSet(nextIn);
@@ -356,6 +375,16 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     return outputRow;
   }
 
+  /** get the next row from the reader, a streaming reader reports read errors here */
+  private Object[] getReaderRow() throws HopException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch (StreamingJsonReader.StreamingReadException e) {
+      logInputError(e.getCause());
+      throw new JsonInputException(e.getCause());
+    }
+  }
+
   private void sendErrorRow(String errorMsg) {
     try {
       // same error as before
@@ -456,7 +485,18 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    if ((meta.isStreaming() || meta.isJsonLines())
+        && (meta.isJsonLines() || StreamingJsonReader.isSupported(inputFields))) {
+      // JSON lines can only be read by the streaming reader
+      StreamingJsonReader streamingReader = new StreamingJsonReader(inputFields, log);
+      streamingReader.setPartialInput(data.parallel);
+      data.reader = streamingReader;
+    } else {
+      if (meta.isStreaming()) {
+        logBasic(BaseMessages.getString(PKG, "JsonInput.Log.StreamingNotSupported"));
+      }
+      data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
@@ -465,6 +505,10 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     if (data.file != null) {
       closeQuietly(data.file);
     }
+    if (data.readerRowSet != null) {
+      // Closes the input of a streaming reader
+      data.readerRowSet.clear();
+    }
     data.inputs = null;
     data.reader = null;
     data.readerRowSet = null;
@@ -52,6 +52,12 @@ public class JsonInputData extends BaseFileInputTransformData implements ITransf
   public IRowSet readerRowSet;
   public BitSet repeatedFields;
 
+  /** Are the transform copies each reading a part of the JSON lines files? */
+  public boolean parallel;
+
+  public int transformNumber;
+  public int totalNumberOfTransforms;
+
   public JsonInputData() {
     super();
     nr_repeats = 0;
@@ -118,6 +118,10 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
 
   private Button wDefaultPathLeafToNull;
 
+  private Button wStreaming;
+
+  private Button wJsonLines;
+
   private Button wDoNotFailIfNoFile;
 
   private TextVar wShortFileFieldName;
@@ -605,12 +609,62 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wDefaultPathLeafToNull.setLayoutData(fdDefaultPathLeafToNull);
     // default path leaf to null - end
 
+    // Streaming mode
+    //
+    Label wlStreaming = new Label(wConf, SWT.RIGHT);
+    wlStreaming.setText(BaseMessages.getString(PKG, "JsonInputDialog.Streaming.Label"));
+    props.setLook(wlStreaming);
+    FormData fdlStreaming = new FormData();
+    fdlStreaming.left = new FormAttachment(0, 0);
+    fdlStreaming.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdlStreaming.right = new FormAttachment(middle, -margin);
+    wlStreaming.setLayoutData(fdlStreaming);
+    wStreaming = new Button(wConf, SWT.CHECK);
+    props.setLook(wStreaming);
+    wStreaming.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+    wStreaming.setToolTipText(BaseMessages.getString(PKG, "JsonInputDialog.Streaming.Tooltip"));
+    FormData fdStreaming = new FormData();
+    fdStreaming.left = new FormAttachment(middle, 0);
+    fdStreaming.top = new FormAttachment(wlStreaming, 0, SWT.CENTER);
+    wStreaming.setLayoutData(fdStreaming);
+
+    // JSON lines
+    //
+    Label wlJsonLines = new Label(wConf, SWT.RIGHT);
+    wlJsonLines.setText(BaseMessages.getString(PKG, "JsonInputDialog.JsonLines.Label"));
+    props.setLook(wlJsonLines);
+    FormData fdlJsonLines = new FormData();
+    fdlJsonLines.left = new FormAttachment(0, 0);
+    fdlJsonLines.top = new FormAttachment(wlStreaming, margin);
+    fdlJsonLines.right = new FormAttachment(middle, -margin);
+    wlJsonLines.setLayoutData(fdlJsonLines);
+    wJsonLines = new Button(wConf, SWT.CHECK);
+    props.setLook(wJsonLines);
+    wJsonLines.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+    wJsonLines.setToolTipText(BaseMessages.getString(PKG, "JsonInputDialog.JsonLines.Tooltip"));
+    FormData fdJsonLines = new FormData();
+    fdJsonLines.left = new FormAttachment(middle, 0);
+    fdJsonLines.top = new FormAttachment(wlJsonLines, 0, SWT.CENTER);
+    wJsonLines.setLayoutData(fdJsonLines);
+
     wlLimit = new Label(wConf, SWT.RIGHT);
     wlLimit.setText(BaseMessages.getString(PKG, "JsonInputDialog.Limit.Label"));
     props.setLook(wlLimit);
     FormData fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment(0, 0);
-    fdlLimit.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdlLimit.top = new FormAttachment(wlJsonLines, margin);
     fdlLimit.right = new FormAttachment(middle, -margin);
     wlLimit.setLayoutData(fdlLimit);
     wLimit = new Text(wConf, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
@@ -618,7 +672,7 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wLimit.addModifyListener(lsMod);
     FormData fdLimit = new FormData();
     fdLimit.left = new FormAttachment(middle, 0);
-    fdLimit.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdLimit.top = new FormAttachment(wlJsonLines, margin);
     fdLimit.right = new FormAttachment(100, 0);
     wLimit.setLayoutData(fdLimit);
 
@@ -1242,6 +1296,8 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wDoNotFailIfNoFile.setSelection(in.isDoNotFailIfNoFile());
     wIgnoreMissingPath.setSelection(in.isIgnoreMissingPath());
     wDefaultPathLeafToNull.setSelection(in.isDefaultPathLeafToNull());
+    wStreaming.setSelection(in.isStreaming());
+    wJsonLines.setSelection(in.isJsonLines());
     wRemoveSourceField.setSelection(in.isRemoveSourceField());
     wSourceStreamField.setSelection(in.isInFields());
     wSourceIsAFile.setSelection(in.getIsAFile());
@@ -1385,6 +1441,8 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     in.setDoNotFailIfNoFile(wDoNotFailIfNoFile.getSelection());
     in.setIgnoreMissingPath(wIgnoreMissingPath.getSelection());
     in.setDefaultPathLeafToNull(wDefaultPathLeafToNull.getSelection());
+    in.setStreaming(wStreaming.getSelection());
+    in.setJsonLines(wJsonLines.getSelection());
     in.setRemoveSourceField(wRemoveSourceField.getSelection());
     in.setInFields(wSourceStreamField.getSelection());
     in.setIsAFile(wSourceIsAFile.getSelection());
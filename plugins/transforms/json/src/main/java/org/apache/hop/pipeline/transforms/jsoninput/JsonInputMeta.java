@@ -255,6 +255,14 @@ public class JsonInputMeta
 
   private boolean defaultPathLeafToNull;
 
+  /** Flag : read the input with a streaming parser instead of parsing it completely first */
+  @Injection(name = "STREAMING")
+  private boolean streaming;
+
+  /** Flag : the input contains a JSON value per line, copies can read parts of the files */
+  @Injection(name = "JSON_LINES")
+  private boolean jsonLines;
+
   public JsonInputMeta() {
     additionalOutputFields = new AdditionalFileOutputFields();
     inputFiles = new InputFiles();
@@ -279,6 +287,34 @@ public class JsonInputMeta
     this.defaultPathLeafToNull = defaultPathLeafToNull;
   }
 
+  /**
+   * Gets streaming
+   *
+   * @return value of streaming
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /** @param streaming The streaming to set */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
+  /**
+   * Gets jsonLines
+   *
+   * @return value of jsonLines
+   */
+  public boolean isJsonLines() {
+    return jsonLines;
+  }
+
+  /** @param jsonLines The jsonLines to set */
+  public void setJsonLines(boolean jsonLines) {
+    this.jsonLines = jsonLines;
+  }
+
   /** @return Returns the shortFileFieldName. */
   public String getShortFileNameField() {
     return additionalOutputFields.shortFilenameField;
@@ -570,6 +606,8 @@ public class JsonInputMeta
     retval.append("    " + XmlHandler.addTagValue("doNotFailIfNoFile", doNotFailIfNoFile));
     retval.append("    " + XmlHandler.addTagValue("ignoreMissingPath", ignoreMissingPath));
     retval.append("    " + XmlHandler.addTagValue("defaultPathLeafToNull", defaultPathLeafToNull));
+    retval.append("    " + XmlHandler.addTagValue("streaming", streaming));
+    retval.append("    " + XmlHandler.addTagValue("jsonLines", jsonLines));
     retval.append("    ").append(XmlHandler.addTagValue("rownum_field", rowNumberField));
 
     retval.append("    <file>").append(Const.CR);
@@ -641,6 +679,8 @@ public class JsonInputMeta
       ignoreMissingPath =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "ignoreMissingPath"));
       defaultPathLeafToNull = getDefaultPathLeafToNull(transformNode);
+      streaming = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streaming"));
+      jsonLines = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "jsonLines"));
       doNotFailIfNoFile =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "doNotFailIfNoFile"));
       includeRowNumber = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "rownum"));
@@ -728,6 +768,8 @@ public class JsonInputMeta
     isIgnoreEmptyFile = false;
     ignoreMissingPath = true;
     defaultPathLeafToNull = true;
+    streaming = false;
+    jsonLines = false;
     doNotFailIfNoFile = true;
     includeFilename = false;
     filenameField = "";
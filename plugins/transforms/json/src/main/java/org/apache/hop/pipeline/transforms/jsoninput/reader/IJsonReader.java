@@ -39,4 +39,14 @@ public interface IJsonReader {
 
   /** parse compiled fields into a rowset */
   public IRowSet parse(InputStream in) throws HopException;
+
+  /**
+   * A streaming reader keeps reading the input stream while rows are fetched from the row set it
+   * returned and closes the stream when it's done.
+   *
+   * @return true if the reader needs the input stream to stay open after parse()
+   */
+  default boolean isStreaming() {
+    return false;
+  }
 }
@@ -152,16 +152,34 @@ public class InputsReader implements Iterable<InputStream> {
           data.file = inner.next();
           data.currentFileIndex++;
           if (transform.onNewFile(data.file)) {
-            return HopVfs.getInputStream(data.file);
+            InputStream inputStream = HopVfs.getInputStream(data.file);
+            if (InputsReader.this.data.parallel) {
+              inputStream = getLineRange(inputStream, data.file.getContent().getSize());
+            }
+            return inputStream;
           }
         } catch (FileSystemException e) {
           handler.fileOpenError(data.file, e);
+        } catch (IOException e) {
+          handler.error(e);
         }
       }
       return null;
     }
   }
 
+  /** The lines of the file this transform copy reads when reading JSON lines in parallel */
+  private InputStream getLineRange(InputStream inputStream, long size) throws IOException {
+    long start = size * data.transformNumber / data.totalNumberOfTransforms;
+    long end = size * (data.transformNumber + 1) / data.totalNumberOfTransforms;
+    try {
+      return new LineRangeInputStream(inputStream, start, end);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(inputStream);
+      throw e;
+    }
+  }
+
   protected class FileNamesIterator extends ChainedIterator<FileObject, String> {
 
     private IVariables vars;
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Gives the lines of a stream which start in a range of bytes. This allows a number of transform
+ * copies to each read a part of the same JSON lines file: a line starting in the range of a copy
+ * is read completely by that copy, even if it ends after the range.
+ */
+public class LineRangeInputStream extends FilterInputStream {
+  private final long end;
+  private long position;
+  private boolean done;
+
+  /**
+   * @param in the stream to read, positioned at the start of the file
+   * @param start the first byte of the range
+   * @param end the first byte after the range
+   * @throws IOException in case the stream can't be positioned at the start of the range
+   */
+  public LineRangeInputStream(InputStream in, long start, long end) throws IOException {
+    super(in);
+    this.end = end;
+    if (start > 0) {
+      // The first line starting in the range comes after the first newline found from the byte
+      // before the range onwards.
+      //
+      skipFully(start - 1);
+      position = start - 1;
+      int b;
+      do {
+        b = in.read();
+        position++;
+      } while (b >= 0 && b != '\n');
+      done = b < 0;
+    }
+    done |= position >= end;
+  }
+
+  private void skipFully(long count) throws IOException {
+    long remaining = count;
+    while (remaining > 0) {
+      long skipped = in.skip(remaining);
+      if (skipped <= 0) {
+        if (in.read() < 0) {
+          return;
+        }
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (done) {
+      return -1;
+    }
+    int b = in.read();
+    if (b < 0) {
+      done = true;
+      return -1;
+    }
+    position++;
+    if (b == '\n' && position >= end) {
+      done = true;
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (done) {
+      return -1;
+    }
+    if (length == 0) {
+      return 0;
+    }
+    int n = in.read(buffer, offset, length);
+    if (n < 0) {
+      done = true;
+      return -1;
+    }
+    for (int i = 0; i < n; i++) {
+      if (buffer[offset + i] == '\n' && position + i + 1 >= end) {
+        // The next line starts after the range
+        n = i + 1;
+        done = true;
+        break;
+      }
+    }
+    position += n;
+    return n;
+  }
+
+  @Override
+  public long skip(long count) throws IOException {
+    long skipped = 0;
+    while (skipped < count && read() >= 0) {
+      skipped++;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return done ? 0 : super.available();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+}
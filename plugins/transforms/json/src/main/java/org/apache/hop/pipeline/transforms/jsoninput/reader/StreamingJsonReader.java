@@ -0,0 +1,527 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads JSON with a streaming parser, producing a row for every element of the array the paths
+ * point to as soon as the element has been read. Only one array element is kept in memory at any
+ * time, regardless of the size of the input.
+ *
+ * <p>A subset of the JSON path syntax is supported: object keys (<code>.key</code> or <code>
+ * ['key']</code>), array indexes (<code>[2]</code>) and a single array wildcard (<code>[*]</code>)
+ * which has to be at the same place in all the paths. For example <code>$.items[*].a.b</code> and
+ * <code>$.items[*].c</code>. Paths without a wildcard produce one row for every JSON value in the
+ * input, which makes it possible to read JSON lines.
+ *
+ * <p>Paths which are not found give a null value.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class; // For Translator
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final ILogChannel log;
+
+  private boolean ignoreMissingPath;
+
+  /** Is the input a range of lines of a file which is split over several transform copies? */
+  private boolean partialInput;
+
+  private JsonInputField[] fields;
+
+  /** The path to the array with the rows, null if every JSON value in the input is a row */
+  private PathStep[] rowPath;
+
+  /** The paths of the fields, relative to the row */
+  private PathStep[][] fieldPaths;
+
+  public StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    this.log = log;
+    setFields(fields);
+  }
+
+  /**
+   * See if the paths of the fields can be evaluated by the streaming reader.
+   *
+   * @param fields the fields to read
+   * @return true if the streaming reader supports all the paths
+   */
+  public static boolean isSupported(JsonInputField[] fields) {
+    return compilePaths(fields) != null;
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    PathStep[][] paths = compilePaths(fields);
+    if (paths == null) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "JsonReader.Error.StreamingPathNotSupported"));
+    }
+    this.fields = fields;
+
+    // Split the paths in the path to the rows and the paths relative to the rows
+    //
+    rowPath = null;
+    fieldPaths = new PathStep[paths.length][];
+    for (int i = 0; i < paths.length; i++) {
+      int wildcard = indexOfWildcard(paths[i]);
+      if (wildcard >= 0) {
+        rowPath = Arrays.copyOf(paths[i], wildcard);
+      }
+      fieldPaths[i] = Arrays.copyOfRange(paths[i], wildcard + 1, paths[i].length);
+    }
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+  }
+
+  public boolean isPartialInput() {
+    return partialInput;
+  }
+
+  /**
+   * @param partialInput true if the input is a range of lines of a file which is split over the
+   *     transform copies. A range without any JSON values then gives no rows at all.
+   */
+  public void setPartialInput(boolean partialInput) {
+    this.partialInput = partialInput;
+  }
+
+  @Override
+  public boolean isStreaming() {
+    return true;
+  }
+
+  @Override
+  public IRowSet parse(InputStream in) throws HopException {
+    try {
+      return new StreamingRowSet(mapper.getFactory().createParser(in));
+    } catch (IOException e) {
+      throw new JsonInputException(e);
+    }
+  }
+
+  /**
+   * Compile the paths of all fields. Either all paths contain the same array wildcard or none of
+   * them has one.
+   *
+   * @return the compiled paths or null if they're not supported
+   */
+  private static PathStep[][] compilePaths(JsonInputField[] fields) {
+    PathStep[][] paths = new PathStep[fields.length][];
+    PathStep[] rowPath = null;
+    for (int i = 0; i < fields.length; i++) {
+      paths[i] = compilePath(fields[i].getPath());
+      if (paths[i] == null) {
+        return null;
+      }
+      int wildcard = indexOfWildcard(paths[i]);
+      PathStep[] fieldRowPath = wildcard < 0 ? null : Arrays.copyOf(paths[i], wildcard);
+      if (i > 0 && !Arrays.equals(rowPath, fieldRowPath)) {
+        return null;
+      }
+      for (int s = 0; s < wildcard; s++) {
+        if (paths[i][s].index < 0) {
+          // Counting from the end of an array isn't possible while streaming
+          return null;
+        }
+      }
+      rowPath = fieldRowPath;
+    }
+    return paths;
+  }
+
+  private static int indexOfWildcard(PathStep[] path) {
+    for (int i = 0; i < path.length; i++) {
+      if (path[i].wildcard) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** @return the steps of the path or null if the path isn't supported */
+  static PathStep[] compilePath(String path) {
+    if (Utils.isEmpty(path)) {
+      return null;
+    }
+    path = path.trim();
+    if (!path.startsWith("$")) {
+      path = "$." + path;
+    }
+    List<PathStep> steps = new ArrayList<>();
+    int wildcards = 0;
+    int pos = 1;
+    while (pos < path.length()) {
+      char c = path.charAt(pos);
+      if (c == '.') {
+        int end = pos + 1;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+          end++;
+        }
+        String name = path.substring(pos + 1, end);
+        if (name.isEmpty() || name.equals("*")) {
+          // deep scan or object wildcard
+          return null;
+        }
+        steps.add(new PathStep(name, 0, false));
+        pos = end;
+      } else if (c == '[') {
+        int end = path.indexOf(']', pos);
+        if (end < 0) {
+          return null;
+        }
+        String inner = path.substring(pos + 1, end).trim();
+        if (inner.equals("*")) {
+          steps.add(new PathStep(null, 0, true));
+          wildcards++;
+        } else if (inner.length() >= 2
+            && (inner.charAt(0) == '\'' || inner.charAt(0) == '"')
+            && inner.charAt(inner.length() - 1) == inner.charAt(0)
+            && inner.indexOf(inner.charAt(0), 1) == inner.length() - 1) {
+          steps.add(new PathStep(inner.substring(1, inner.length() - 1), 0, false));
+        } else {
+          try {
+            steps.add(new PathStep(null, Integer.parseInt(inner), false));
+          } catch (NumberFormatException e) {
+            // filters, slices, unions, ...
+            return null;
+          }
+        }
+        pos = end + 1;
+      } else {
+        return null;
+      }
+    }
+    if (wildcards > 1) {
+      return null;
+    }
+    return steps.toArray(new PathStep[0]);
+  }
+
+  private static JsonNode select(JsonNode node, PathStep[] path) {
+    for (PathStep step : path) {
+      if (node == null) {
+        return null;
+      }
+      if (step.name != null) {
+        node = node.get(step.name);
+      } else {
+        node = node.get(step.index < 0 ? node.size() + step.index : step.index);
+      }
+    }
+    return node;
+  }
+
+  /** Convert to the values the JsonPath based reader gives, objects and arrays become JSON. */
+  private static Object getValue(JsonNode node) {
+    if (node == null || node.isNull() || node.isMissingNode()) {
+      return null;
+    }
+    if (node.isTextual()) {
+      return node.textValue();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    if (node.isIntegralNumber()) {
+      return node.canConvertToLong() ? (Object) node.longValue() : node.decimalValue();
+    }
+    if (node.isNumber()) {
+      return node.doubleValue();
+    }
+    return node.toString();
+  }
+
+  /** A step in a JSON path: an object key, an array index or the array wildcard. */
+  static final class PathStep {
+    private final String name;
+    private final int index;
+    private final boolean wildcard;
+
+    private PathStep(String name, int index, boolean wildcard) {
+      this.name = name;
+      this.index = index;
+      this.wildcard = wildcard;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof PathStep)) {
+        return false;
+      }
+      PathStep step = (PathStep) o;
+      return index == step.index
+          && wildcard == step.wildcard
+          && (name == null ? step.name == null : name.equals(step.name));
+    }
+
+    @Override
+    public int hashCode() {
+      return name == null ? index : name.hashCode();
+    }
+  }
+
+  /**
+   * Thrown while fetching rows from the row set when the input can't be read. The cause is the
+   * HopException describing the problem.
+   */
+  public static class StreamingReadException extends RuntimeException {
+    public StreamingReadException(HopException cause) {
+      super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized HopException getCause() {
+      return (HopException) super.getCause();
+    }
+  }
+
+  /** Reads the next row from the parser every time a row is requested. */
+  private class StreamingRowSet extends SingleRowRowSet {
+    private final JsonParser parser;
+
+    /** Are we reading the elements of the row array? */
+    private boolean inRowArray;
+
+    /** The number of objects and arrays we entered to get to the row array */
+    private int depth;
+
+    private boolean finished;
+    private boolean emptyInput = true;
+    private long rowCount;
+    private final boolean[] found;
+
+    StreamingRowSet(JsonParser parser) {
+      super();
+      this.parser = parser;
+      this.found = new boolean[fields.length];
+    }
+
+    @Override
+    public Object[] getRow() {
+      if (finished) {
+        return null;
+      }
+      try {
+        JsonNode element;
+        while ((element = nextElement()) != null) {
+          Object[] row = new Object[fields.length];
+          boolean allNulls = true;
+          for (int i = 0; i < fields.length; i++) {
+            row[i] = getValue(select(element, fieldPaths[i]));
+            if (row[i] != null) {
+              found[i] = true;
+              allNulls = false;
+            }
+          }
+          // Like the JsonPath based reader, skip the rows without any values
+          //
+          if (!allNulls) {
+            rowCount++;
+            return row;
+          }
+        }
+        return finish();
+      } catch (IOException e) {
+        clear();
+        throw new StreamingReadException(new JsonInputException(e));
+      } catch (HopException e) {
+        clear();
+        throw new StreamingReadException(e);
+      }
+    }
+
+    /** At the end of the input: check the paths, give a single empty row if there were no rows */
+    private Object[] finish() throws HopException {
+      clear();
+      if (partialInput && emptyInput) {
+        // The lines of the file went to the other transform copies
+        //
+        return null;
+      }
+      if (!ignoreMissingPath) {
+        for (int i = 0; i < fields.length; i++) {
+          if (!found[i]) {
+            throw new JsonInputException(
+                BaseMessages.getString(
+                    PKG, "JsonReader.Error.CanNotFindPath", fields[i].getPath()));
+          }
+        }
+      }
+      if (log.isDetailed()) {
+        log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", rowCount));
+      }
+      if (rowCount == 0) {
+        rowCount++;
+        return new Object[fields.length];
+      }
+      return null;
+    }
+
+    /** @return the next row element or null at the end of the input */
+    private JsonNode nextElement() throws IOException {
+      while (true) {
+        if (inRowArray) {
+          if (parser.nextToken() != JsonToken.END_ARRAY) {
+            return readElement();
+          }
+          inRowArray = false;
+          skipContainers();
+          continue;
+        }
+
+        // Next JSON value in the input
+        //
+        if (parser.nextToken() == null) {
+          return null;
+        }
+        emptyInput = false;
+        if (rowPath == null) {
+          return readElement();
+        }
+        if (moveToRowArray()) {
+          inRowArray = true;
+        } else {
+          parser.skipChildren();
+          skipContainers();
+        }
+      }
+    }
+
+    private JsonNode readElement() throws IOException {
+      JsonNode element = mapper.readTree(parser);
+      return element == null ? NullNode.getInstance() : element;
+    }
+
+    /**
+     * Follow the row path from the start of a JSON value to the start of the row array. The
+     * containers entered on the way are counted in depth.
+     *
+     * @return true if the row array was found
+     */
+    private boolean moveToRowArray() throws IOException {
+      depth = 0;
+      for (PathStep step : rowPath) {
+        JsonToken token = parser.currentToken();
+        if (step.name != null) {
+          if (token != JsonToken.START_OBJECT) {
+            return false;
+          }
+          depth++;
+          boolean keyFound = false;
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if (step.name.equals(name)) {
+              keyFound = true;
+              break;
+            }
+            parser.skipChildren();
+          }
+          if (!keyFound) {
+            depth--;
+            return false;
+          }
+        } else {
+          if (token != JsonToken.START_ARRAY) {
+            return false;
+          }
+          depth++;
+          boolean indexFound = false;
+          int index = 0;
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (index++ == step.index) {
+              indexFound = true;
+              break;
+            }
+            parser.skipChildren();
+          }
+          if (!indexFound) {
+            depth--;
+            return false;
+          }
+        }
+      }
+      return parser.currentToken() == JsonToken.START_ARRAY;
+    }
+
+    /** Skip the rest of the containers we entered to get to the row array */
+    private void skipContainers() throws IOException {
+      for (; depth > 0; depth--) {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT
+            && token != JsonToken.END_ARRAY) {
+          if (token == null) {
+            return;
+          }
+          parser.skipChildren();
+        }
+      }
+    }
+
+    @Override
+    public int size() {
+      return finished ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      if (!finished) {
+        finished = true;
+        try {
+          parser.close();
+        } catch (IOException e) {
+          // Nothing left to read
+        }
+      }
+    }
+  }
+}
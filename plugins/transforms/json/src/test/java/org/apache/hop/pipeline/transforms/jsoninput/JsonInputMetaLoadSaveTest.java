@@ -47,6 +47,8 @@ public class JsonInputMetaLoadSaveTest implements IInitializer<ITransformMeta> {
             "doNotFailIfNoFile",
             "ignoreMissingPath",
             "defaultPathLeafToNull",
+            "streaming",
+            "jsonLines",
             "rowNumberField",
             "FileName",
             "FileMask",
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class LineRangeInputStreamTest {
+
+  private static String readRange(byte[] bytes, long start, long end) throws Exception {
+    try (LineRangeInputStream in =
+        new LineRangeInputStream(new ByteArrayInputStream(bytes), start, end)) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  public void testRangesCoverAllLinesOnce() throws Exception {
+    String content = "{\"a\":1}\n{\"a\":22}\n\n{\"a\":333}\n{\"a\":4444}";
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+    for (int parts = 1; parts <= bytes.length + 1; parts++) {
+      StringBuilder all = new StringBuilder();
+      for (int part = 0; part < parts; part++) {
+        long start = (long) bytes.length * part / parts;
+        long end = (long) bytes.length * (part + 1) / parts;
+        all.append(readRange(bytes, start, end));
+      }
+      assertEquals("Split in " + parts + " parts", content, all.toString());
+    }
+  }
+
+  @Test
+  public void testLineStartingAtRangeStart() throws Exception {
+    byte[] bytes = "ab\ncd\nef\n".getBytes(StandardCharsets.UTF_8);
+    assertEquals("ab\n", readRange(bytes, 0, 3));
+    assertEquals("cd\n", readRange(bytes, 3, 6));
+    assertEquals("ef\n", readRange(bytes, 6, 9));
+    assertEquals("cd\nef\n", readRange(bytes, 2, 9));
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class StreamingJsonReaderTest {
+  private ILogChannel logMock = mock(ILogChannel.class);
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private List<Object[]> read(String json, boolean ignoreMissingPath, String... paths)
+      throws HopException {
+    StreamingJsonReader reader = new StreamingJsonReader(fields(paths), logMock);
+    reader.setIgnoreMissingPath(ignoreMissingPath);
+    IRowSet rowSet =
+        reader.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ((row = rowSet.getRow()) != null) {
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  @Test
+  public void testSupportedPaths() {
+    assertTrue(StreamingJsonReader.isSupported(fields("$.items[*].a.b", "$.items[*].c")));
+    assertTrue(StreamingJsonReader.isSupported(fields("$[*]['a b'][0]", "$[*].c[-1]")));
+    assertTrue(StreamingJsonReader.isSupported(fields("$.a", "b.c")));
+
+    assertFalse(StreamingJsonReader.isSupported(fields("$..a")));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.items[?(@.a > 1)].a")));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.items[0:2].a")));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.items[*].a[*]")));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.items[*].a", "$.other[*].a")));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.items[*].a", "$.name")));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.items[-1].list[*]")));
+  }
+
+  @Test
+  public void testRowsFromArray() throws Exception {
+    String json =
+        "{\"before\": {\"items\": [1]}, \"items\": ["
+            + "{\"a\": {\"b\": \"one\"}, \"c\": 1},"
+            + "{\"c\": 2.5, \"skip\": [[], {}]},"
+            + "{\"a\": {\"b\": {\"x\": [1, 2]}}, \"c\": true},"
+            + "{\"other\": 1},"
+            + "{\"a\": {\"b\": null}, \"c\": 12345678901234567890}"
+            + "], \"after\": [1, 2, 3]}";
+    List<Object[]> rows = read(json, true, "$.items[*].a.b", "$.items[*].c");
+
+    assertEquals(4, rows.size());
+    assertArrayEquals(new Object[] {"one", 1L}, rows.get(0));
+    assertArrayEquals(new Object[] {null, 2.5}, rows.get(1));
+    assertArrayEquals(new Object[] {"{\"x\":[1,2]}", true}, rows.get(2));
+    assertArrayEquals(new Object[] {null, new BigDecimal("12345678901234567890")}, rows.get(3));
+  }
+
+  @Test
+  public void testJsonLines() throws Exception {
+    String json =
+        "{\"a\": 1, \"b\": [\"x\", \"y\"]}\n{\"a\": 2}\n\n{\"b\": [\"z\", \"w\"]}\n{}";
+    List<Object[]> rows = read(json, true, "$.a", "$.b[1]");
+
+    assertEquals(3, rows.size());
+    assertArrayEquals(new Object[] {1L, "y"}, rows.get(0));
+    assertArrayEquals(new Object[] {2L, null}, rows.get(1));
+    assertArrayEquals(new Object[] {null, "w"}, rows.get(2));
+  }
+
+  @Test
+  public void testNoRows() throws Exception {
+    List<Object[]> rows = read("{\"items\": []}", true, "$.items[*].a");
+    assertEquals(1, rows.size());
+    assertNull(rows.get(0)[0]);
+  }
+
+  @Test
+  public void testMoreCopiesThanLines() throws Exception {
+    byte[] bytes = "{\"a\": 1}\n{\"a\": 2}\n".getBytes(StandardCharsets.UTF_8);
+    int copies = 5;
+
+    List<Object[]> rows = new ArrayList<>();
+    for (int copy = 0; copy < copies; copy++) {
+      StreamingJsonReader reader = new StreamingJsonReader(fields("$.a"), logMock);
+      reader.setPartialInput(true);
+      long start = (long) bytes.length * copy / copies;
+      long end = (long) bytes.length * (copy + 1) / copies;
+      IRowSet rowSet =
+          reader.parse(new LineRangeInputStream(new ByteArrayInputStream(bytes), start, end));
+      Object[] row;
+      while ((row = rowSet.getRow()) != null) {
+        rows.add(row);
+      }
+    }
+
+    assertEquals(2, rows.size());
+    assertArrayEquals(new Object[] {1L}, rows.get(0));
+    assertArrayEquals(new Object[] {2L}, rows.get(1));
+  }
+
+  @Test
+  public void testMissingPath() throws Exception {
+    try {
+      read("{\"items\": [{\"a\": 1}]}", false, "$.items[*].a", "$.items[*].b");
+      fail("The missing path should have been reported");
+    } catch (StreamingJsonReader.StreamingReadException e) {
+      assertTrue(e.getCause().getMessage().contains("$.items[*].b"));
+    }
+  }
+}
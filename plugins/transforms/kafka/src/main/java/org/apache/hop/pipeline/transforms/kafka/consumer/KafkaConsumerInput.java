@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.kafka.consumer;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IRowSet;
@@ -28,17 +29,24 @@ import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.*;
 import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 import org.apache.kafka.clients.consumer.*;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /** Consume messages from a Kafka topic */
@@ -76,7 +84,29 @@ public class KafkaConsumerInput
     data.incomingRowsBuffer= new ArrayList<>();
     data.batch = Const.toInt(resolve(meta.getBatchSize()), -1);
 
-    data.consumer = buildKafkaConsumer(this, meta);
+    // Process the batches on worker threads if we fetch ahead or run several sub-pipelines
+    //
+    int parallelism = Math.max(1, Const.toInt(resolve(meta.getParallelism()), 1));
+    data.pipelined = meta.isPipelined();
+    data.concurrent = parallelism > 1 || data.pipelined;
+    if (data.concurrent && errorHandlingConditionIsSatisfied()) {
+      logBasic(
+          "Error handling is enabled for single records: batches are processed one at a time");
+      data.concurrent = false;
+    }
+
+    // Kafka commits the offsets of the previous poll during the next one. When batches are
+    // processed on the worker threads that poll can happen before the records are processed so
+    // the offsets are only committed once a batch is completed.
+    //
+    boolean autoCommit = meta.isAutoCommit();
+    if (autoCommit && data.concurrent) {
+      logBasic(
+          "Offsets are committed when a batch is completed because batches are processed in"
+              + " parallel or while fetching the next batch");
+      autoCommit = false;
+    }
+    data.consumer = buildKafkaConsumer(this, meta, autoCommit);
 
     // Subscribe to the topics...
     //
@@ -87,6 +117,9 @@ public class KafkaConsumerInput
     //
     try {
       initSubPipeline();
+      if (data.concurrent) {
+        initWorkers(parallelism);
+      }
     } catch (Exception e) {
       logError("Error initializing sub-transformation", e);
       return false;
@@ -98,7 +131,55 @@ public class KafkaConsumerInput
   }
 
   private void initSubPipeline() throws HopException {
+    KafkaConsumerInputData.SubPipeline subPipeline = createSubPipeline(getTransformName());
+    data.rowProducer = subPipeline.rowProducer;
+    data.executor = subPipeline.executor;
+  }
+
+  /**
+   * Start the extra copies of the sub-pipeline and the threads to run them on. The records of a
+   * partition always go to the same copy so they are processed in order.
+   *
+   * @param parallelism The number of copies of the sub-pipeline
+   * @throws HopException In case a copy of the sub-pipeline can't be started
+   */
+  private void initWorkers(int parallelism) throws HopException {
+    List<KafkaConsumerInputData.SubPipeline> subPipelines = new ArrayList<>();
+    subPipelines.add(new KafkaConsumerInputData.SubPipeline(data.rowProducer, data.executor));
+    for (int i = 1; i < parallelism; i++) {
+      subPipelines.add(createSubPipeline(getTransformName() + " #" + (i + 1)));
+    }
+    initWorkers(subPipelines);
+  }
+
+  /**
+   * Set up the batch bookkeeping and a worker thread for every copy of the sub-pipeline.
+   *
+   * @param subPipelines The copies of the sub-pipeline
+   */
+  @VisibleForTesting
+  void initWorkers(List<KafkaConsumerInputData.SubPipeline> subPipelines) {
+    data.subPipelines = subPipelines;
+    int parallelism = subPipelines.size();
+    data.partitionSubPipelines = new HashMap<>();
+    data.runningSubPipelines = new ArrayList<>();
+    data.batchOffsets = new HashMap<>();
+
+    String threadName = getTransformName() + " (Kafka sub-pipeline)";
+    data.workers =
+        Executors.newFixedThreadPool(
+            parallelism,
+            runnable -> {
+              Thread thread = new Thread(runnable, threadName);
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  private KafkaConsumerInputData.SubPipeline createSubPipeline(String subPipelineName)
+      throws HopException {
     try {
+      RowProducer rowProducer = null;
 
       String realFilename = resolve(meta.getFilename());
       PipelineMeta subTransMeta = new PipelineMeta(realFilename, metadataProvider, true, this);
@@ -123,7 +204,7 @@ public class KafkaConsumerInput
       for (TransformMeta transformMeta : subTransMeta.getTransforms()) {
         ITransformMeta iTransform = transformMeta.getTransform();
         if (iTransform instanceof InjectorMeta) {
-          if (data.rowProducer != null) {
+          if (rowProducer != null) {
             throw new HopException(
                     "You can only have one copy of the injector transform '"
                             + transformMeta.getName()
@@ -131,11 +212,11 @@ public class KafkaConsumerInput
           }
           // Attach an injector to this transform
           //
-          data.rowProducer = kafkaPipeline.addRowProducer(transformMeta.getName(), 0);
+          rowProducer = kafkaPipeline.addRowProducer(transformMeta.getName(), 0);
         }
       }
 
-      if (data.rowProducer == null) {
+      if (rowProducer == null) {
         throw new HopException(
                 "Unable to find an Injector transform in the Kafka pipeline. Such a transform is needed to accept data from this Kafka Consumer transform.");
       }
@@ -154,30 +235,36 @@ public class KafkaConsumerInput
                   @Override
                   public void rowWrittenEvent(IRowMeta rowMeta, Object[] row)
                           throws HopTransformException {
-                    // Write this row to the next transform(s)
+                    // Write this row to the next transform(s).
+                    // The copies of the sub-pipeline can run on several worker threads.
                     //
-                    KafkaConsumerInput.this.putRow(rowMeta, row);
+                    synchronized (data.outputLock) {
+                      KafkaConsumerInput.this.putRow(rowMeta, row);
+                    }
                   }
                 });
       }
       kafkaPipeline.setLogChannel(getLogChannel());
       kafkaPipeline.startThreads();
 
+      SingleThreadedPipelineExecutor executor;
       if (errorHandlingConditionIsSatisfied()) {
-        data.executor = new SingleThreadedPipelineExecutor(kafkaPipeline, true);
+        executor = new SingleThreadedPipelineExecutor(kafkaPipeline, true);
       } else {
         // If the conditions for error handling are not met init SingleThreadedExecutor normally
-        data.executor = new SingleThreadedPipelineExecutor(kafkaPipeline);
+        executor = new SingleThreadedPipelineExecutor(kafkaPipeline);
       }
 
       // Initialize the sub-pipeline
       //
-      boolean ok = data.executor.init();
+      boolean ok = executor.init();
       if (!ok) {
         throw new HopException("Initialization of sub-pipeline failed");
       }
 
-      getPipeline().addActiveSubPipeline(getTransformName(), kafkaPipeline);
+      getPipeline().addActiveSubPipeline(subPipelineName, kafkaPipeline);
+
+      return new KafkaConsumerInputData.SubPipeline(rowProducer, executor);
     } catch (Exception e) {
       throw new HopException("Unable to load and initialize sub pipeline", e);
     }
@@ -185,6 +272,9 @@ public class KafkaConsumerInput
 
   @Override
   public void dispose() {
+    if (data.workers != null) {
+      data.workers.shutdownNow();
+    }
     if (data.consumer != null) {
       data.consumer.unsubscribe();
       data.consumer.close();
@@ -193,6 +283,17 @@ public class KafkaConsumerInput
   }
 
   public static Consumer buildKafkaConsumer(IVariables variables, KafkaConsumerInputMeta meta) {
+    return buildKafkaConsumer(variables, meta, meta.isAutoCommit());
+  }
+
+  /**
+   * @param variables The variables to resolve the options with
+   * @param meta The transform metadata
+   * @param autoCommit true to let Kafka commit the offsets of a poll during the next poll
+   * @return The Kafka consumer
+   */
+  public static Consumer buildKafkaConsumer(
+      IVariables variables, KafkaConsumerInputMeta meta, boolean autoCommit) {
 
     Thread.currentThread().setContextClassLoader(meta.getClass().getClassLoader());
 
@@ -215,7 +316,7 @@ public class KafkaConsumerInput
     config.put(
             ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
             variables.resolve(meta.getDirectBootstrapServers()));
-    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, meta.isAutoCommit());
+    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, autoCommit);
 
     // Timeout : max batch wait
     //
@@ -254,11 +355,15 @@ public class KafkaConsumerInput
   @Override
   public boolean processRow() throws HopException {
 
+    if (data.concurrent) {
+      return processRowConcurrently();
+    }
+
     // Poll records...
     // If we get any, process them...
     //
     try {
-      ConsumerRecords<String, String> records =
+      ConsumerRecords<Object, Object> records =
               data.consumer.poll(data.batch > 0 ? data.batch : Long.MAX_VALUE);
 
       if (!data.isKafkaConsumerClosing) {
@@ -268,7 +373,7 @@ public class KafkaConsumerInput
         } else {
           // Grab the records...
           //
-          for (ConsumerRecord<String, String> record : records) {
+          for (ConsumerRecord<Object, Object> record : records) {
             Object[] outputRow = processMessageAsRow(record);
             data.rowProducer.putRow(data.outputRowMeta, outputRow);
             if (errorHandlingConditionIsSatisfied()) {
@@ -346,19 +451,157 @@ public class KafkaConsumerInput
     return true;
   }
 
+  /**
+   * Poll for records and hand them to the copies of the sub-pipeline on the worker threads. In
+   * pipelined mode the poll for the next batch happens while the previous batch is processed.
+   * The offsets of a batch are committed per partition once all its records are processed.
+   */
+  private boolean processRowConcurrently() throws HopException {
+    try {
+      ConsumerRecords<Object, Object> records =
+          data.consumer.poll(data.batch > 0 ? data.batch : Long.MAX_VALUE);
+
+      if (data.isKafkaConsumerClosing) {
+        // The batch in flight isn't committed, its records are consumed again after a restart
+        //
+        stopSubPipelines();
+        return false;
+      }
+
+      // Wait for the batch in flight before starting the next one
+      //
+      if (!finishBatch()) {
+        stopSubPipelines();
+        return false;
+      }
+
+      if (!records.isEmpty()) {
+        startBatch(records);
+        if (!data.pipelined && !finishBatch()) {
+          stopSubPipelines();
+          return false;
+        }
+      }
+    } catch (WakeupException e) {
+      // We're going to close kafka consumer because of pipeline has been stopped so stop the
+      // sub-pipelines too
+      stopSubPipelines();
+      return false;
+    }
+    return true;
+  }
+
+  private void startBatch(ConsumerRecords<Object, Object> records) {
+    List<List<ConsumerRecord<Object, Object>>> batches = new ArrayList<>();
+    for (int i = 0; i < data.subPipelines.size(); i++) {
+      batches.add(new ArrayList<>());
+    }
+
+    for (TopicPartition partition : records.partitions()) {
+      Integer index = data.partitionSubPipelines.get(partition);
+      if (index == null) {
+        index = data.partitionSubPipelines.size() % data.subPipelines.size();
+        data.partitionSubPipelines.put(partition, index);
+      }
+      List<ConsumerRecord<Object, Object>> partitionRecords = records.records(partition);
+      batches.get(index).addAll(partitionRecords);
+
+      long lastOffset = partitionRecords.get(partitionRecords.size() - 1).offset();
+      data.batchOffsets.put(partition, new OffsetAndMetadata(lastOffset + 1));
+    }
+
+    for (int i = 0; i < batches.size(); i++) {
+      List<ConsumerRecord<Object, Object>> batch = batches.get(i);
+      if (!batch.isEmpty()) {
+        KafkaConsumerInputData.SubPipeline subPipeline = data.subPipelines.get(i);
+        data.runningSubPipelines.add(data.workers.submit(() -> processBatch(subPipeline, batch)));
+      }
+    }
+  }
+
+  /** Runs on a worker thread: passes the records of a batch through a copy of the sub-pipeline */
+  private boolean processBatch(
+      KafkaConsumerInputData.SubPipeline subPipeline, List<ConsumerRecord<Object, Object>> batch)
+      throws HopException {
+    for (ConsumerRecord<Object, Object> record : batch) {
+      subPipeline.rowProducer.putRow(data.outputRowMeta, processMessageAsRow(record));
+      incrementLinesInput();
+    }
+    subPipeline.executor.oneIteration();
+
+    if (subPipeline.executor.isStopped() || subPipeline.executor.getErrors() > 0) {
+      logDebug("Executor's reported errors #: " + subPipeline.executor.getErrors());
+      return false;
+    }
+    subPipeline.executor.buildExecutionSummary();
+    return true;
+  }
+
+  /**
+   * Wait until the batch in flight is processed and commit its offsets.
+   *
+   * @return false if the batch couldn't be processed
+   */
+  private boolean finishBatch() throws HopException {
+    if (data.runningSubPipelines.isEmpty()) {
+      return true;
+    }
+    boolean success = waitForSubPipelines();
+    if (success) {
+      data.consumer.commitAsync(
+          new HashMap<>(data.batchOffsets),
+          (offsets, e) -> {
+            if (e != null) {
+              logError("Error committing the Kafka offsets of a batch", e);
+            }
+          });
+    }
+    data.batchOffsets.clear();
+    return success;
+  }
+
+  private boolean waitForSubPipelines() throws HopException {
+    boolean success = true;
+    try {
+      for (Future<Boolean> running : data.runningSubPipelines) {
+        try {
+          success &= running.get();
+        } catch (ExecutionException e) {
+          logError("Error processing a batch of Kafka records", e.getCause());
+          success = false;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a batch of Kafka records", e);
+    } finally {
+      data.runningSubPipelines.clear();
+    }
+    return success;
+  }
+
+  private void stopSubPipelines() throws HopException {
+    for (KafkaConsumerInputData.SubPipeline subPipeline : data.subPipelines) {
+      subPipeline.executor.getPipeline().stopAll();
+    }
+    waitForSubPipelines();
+    setOutputDone();
+    stopAll();
+  }
+
   private boolean errorHandlingConditionIsSatisfied () {
     // Added a check to be sure that lines collecting for error handling is limited
     // to the case of batchSize = 1.
     return getTransformMeta().isDoingErrorHandling() && data.batch == 1;
   }
 
-  public Object[] processMessageAsRow(ConsumerRecord<String, String> record) {
+  public Object[] processMessageAsRow(ConsumerRecord<Object, Object> record) {
 
     Object[] rowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
 
     int index = 0;
-    rowData[index++] = record.key();
-    rowData[index++] = record.value();
+    rowData[index++] = toHopValue(record.key(), meta.getKeyField());
+    rowData[index++] = toHopValue(record.value(), meta.getMessageField());
     rowData[index++] = record.topic();
     rowData[index++] = (long) record.partition();
     rowData[index++] = record.offset();
@@ -366,4 +609,15 @@ public class KafkaConsumerInput
 
     return rowData;
   }
+
+  /**
+   * Keys and messages come in as deserialized for their type: byte[] for Binary, Long for Integer
+   * and so on. Avro records are passed on as their JSON representation.
+   */
+  private Object toHopValue(Object value, KafkaConsumerField field) {
+    if (value != null && field.getOutputType() == KafkaConsumerField.Type.Avro) {
+      return value.toString();
+    }
+    return value;
+  }
 }
@@ -23,8 +23,13 @@ import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class KafkaConsumerInputData extends BaseTransformData implements ITransformData {
   public IRowMeta outputRowMeta;
@@ -35,6 +40,38 @@ public class KafkaConsumerInputData extends BaseTransformData implements ITransf
   public boolean isKafkaConsumerClosing;
   public List<Object[]> incomingRowsBuffer;
 
+  /** True if batches are processed by the sub-pipelines on the worker threads */
+  public boolean concurrent;
+
+  public boolean pipelined;
+
+  /** The copies of the sub-pipeline, the first one is also in rowProducer and executor */
+  public List<SubPipeline> subPipelines;
+
+  /** The index of the sub-pipeline which processes the records of a partition */
+  public Map<TopicPartition, Integer> partitionSubPipelines;
+
+  public ExecutorService workers;
+
+  /** The sub-pipelines processing the batch in flight */
+  public List<Future<Boolean>> runningSubPipelines;
+
+  /** The offsets to commit per partition once the batch in flight is processed */
+  public Map<TopicPartition, OffsetAndMetadata> batchOffsets;
+
+  /** Serializes the rows passed on from the sub-pipelines to the next transforms */
+  public final Object outputLock = new Object();
+
+  /** A copy of the Kafka sub-pipeline with the producer to inject the records into */
+  public static class SubPipeline {
+    public final RowProducer rowProducer;
+    public final SingleThreadedPipelineExecutor executor;
+
+    public SubPipeline(RowProducer rowProducer, SingleThreadedPipelineExecutor executor) {
+      this.rowProducer = rowProducer;
+      this.executor = executor;
+    }
+  }
 
   /** */
   public KafkaConsumerInputData() {
@@ -103,6 +103,9 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
   private TextVar wConsumerGroup;
   private Button wbAutoCommit;
   private Button wbManualCommit;
+  private Group wOffsetGroup;
+  private TextVar wParallelism;
+  private Button wPipelined;
 
   private TableView fieldsTable;
   private TableView topicsTable;
@@ -271,6 +274,8 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
     m.setConsumerGroup(wConsumerGroup.getText());
     m.setDirectBootstrapServers(wBootstrapServers.getText());
     m.setAutoCommit(wbAutoCommit.getSelection());
+    m.setParallelism(wParallelism.getText());
+    m.setPipelined(wPipelined.getSelection());
 
     setFieldsFromTable();
     setOptionsFromTable();
@@ -284,10 +289,11 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
     buildFieldsTab();
     buildOptionsTab();
     buildOffsetManagement();
+    buildParallelism();
   }
 
   private void buildOffsetManagement() {
-    Group wOffsetGroup = new Group(wBatchComp, SWT.SHADOW_ETCHED_IN);
+    wOffsetGroup = new Group(wBatchComp, SWT.SHADOW_ETCHED_IN);
     wOffsetGroup.setText(BaseMessages.getString(PKG, "KafkaConsumerInputDialog.OffsetManagement"));
     FormLayout flOffsetGroup = new FormLayout();
     flOffsetGroup.marginHeight = 15;
@@ -318,6 +324,38 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
     props.setLook(wbManualCommit);
   }
 
+  private void buildParallelism() {
+    Label wlParallelism = new Label(wBatchComp, SWT.LEFT);
+    props.setLook(wlParallelism);
+    wlParallelism.setText(BaseMessages.getString(PKG, "KafkaConsumerInputDialog.Parallelism"));
+    FormData fdlParallelism = new FormData();
+    fdlParallelism.left = new FormAttachment(0, 0);
+    fdlParallelism.top = new FormAttachment(wOffsetGroup, 15);
+    fdlParallelism.right = new FormAttachment(50, 0);
+    wlParallelism.setLayoutData(fdlParallelism);
+
+    wParallelism = new TextVar(variables, wBatchComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wParallelism);
+    wParallelism.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.Parallelism.Tooltip"));
+    wParallelism.addModifyListener(lsMod);
+    FormData fdParallelism = new FormData();
+    fdParallelism.left = new FormAttachment(0, 0);
+    fdParallelism.right = new FormAttachment(100, 0);
+    fdParallelism.top = new FormAttachment(wlParallelism, 5);
+    wParallelism.setLayoutData(fdParallelism);
+
+    wPipelined = new Button(wBatchComp, SWT.CHECK);
+    props.setLook(wPipelined);
+    wPipelined.setText(BaseMessages.getString(PKG, "KafkaConsumerInputDialog.Pipelined"));
+    wPipelined.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.Pipelined.Tooltip"));
+    FormData fdPipelined = new FormData();
+    fdPipelined.left = new FormAttachment(0, 0);
+    fdPipelined.top = new FormAttachment(wParallelism, 10);
+    wPipelined.setLayoutData(fdPipelined);
+  }
+
   protected void buildSetup(Composite wSetupComp) {
     props.setLook(wSetupComp);
     FormLayout setupLayout = new FormLayout();
@@ -783,6 +821,8 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
 
     wbAutoCommit.setSelection(meta.isAutoCommit());
     wbManualCommit.setSelection(!meta.isAutoCommit());
+    wParallelism.setText(Const.NVL(meta.getParallelism(), ""));
+    wPipelined.setSelection(meta.isPipelined());
 
     populateFieldData();
 
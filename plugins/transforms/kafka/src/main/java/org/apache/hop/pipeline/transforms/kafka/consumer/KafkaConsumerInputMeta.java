@@ -90,6 +90,8 @@ public class KafkaConsumerInputMeta
   public static final String KAFKA_NAME_ATTRIBUTE = "kafkaName";
   public static final String TYPE_ATTRIBUTE = "type";
   public static final String AUTO_COMMIT = "AUTO_COMMIT";
+  public static final String PARALLELISM = "parallelism";
+  public static final String PIPELINED = "pipelined";
 
   @Injection(name = PIPELINE_PATH)
   protected String filename = "";
@@ -129,6 +131,14 @@ public class KafkaConsumerInputMeta
   @Injection(name = AUTO_COMMIT)
   private boolean autoCommit = true;
 
+  /** The number of copies of the sub-pipeline processing the partitions of a batch in parallel */
+  @Injection(name = "PARALLELISM")
+  private String parallelism = "1";
+
+  /** Fetch the next batch of records while the sub-pipeline processes the current one */
+  @Injection(name = "PIPELINED")
+  private boolean pipelined;
+
   private Map<String, String> config = new LinkedHashMap<>();
 
   private KafkaConsumerField topicField;
@@ -215,6 +225,8 @@ public class KafkaConsumerInputMeta
 
     String autoCommitValue = XmlHandler.getTagValue(transformNode, AUTO_COMMIT);
     setAutoCommit("Y".equals(autoCommitValue) || StringUtils.isEmpty(autoCommitValue));
+    setParallelism(Const.NVL(XmlHandler.getTagValue(transformNode, PARALLELISM), "1"));
+    setPipelined("Y".equals(XmlHandler.getTagValue(transformNode, PIPELINED)));
 
     List<Node> ofNode = XmlHandler.getNodes(transformNode, OUTPUT_FIELD_TAG_NAME);
 
@@ -261,6 +273,8 @@ public class KafkaConsumerInputMeta
   public void setDefault() {
     batchSize = "1000";
     batchDuration = "1000";
+    parallelism = "1";
+    pipelined = false;
   }
 
   public RowMeta getRowMeta(String origin, IVariables variables) throws HopTransformException {
@@ -307,6 +321,8 @@ public class KafkaConsumerInputMeta
     xml.append("    ")
         .append(XmlHandler.addTagValue(DIRECT_BOOTSTRAP_SERVERS, directBootstrapServers));
     xml.append("    ").append(XmlHandler.addTagValue(AUTO_COMMIT, autoCommit));
+    xml.append("    ").append(XmlHandler.addTagValue(PARALLELISM, parallelism));
+    xml.append("    ").append(XmlHandler.addTagValue(PIPELINED, pipelined));
 
     getFieldDefinitions()
         .forEach(
@@ -437,8 +453,8 @@ public class KafkaConsumerInputMeta
       // record coming from the kafka queue.
       TransformErrorMeta transformErrorMeta = getParentTransformMeta().getTransformErrorMeta();
       if (transformErrorMeta != null && transformErrorMeta.getTargetTransform().getName().equals(nextTransform.getName())) {
-        rowMeta.addValueMeta(createValueMetaString(getKeyField().getOutputName()));
-        rowMeta.addValueMeta(createValueMetaString(getMessageField().getOutputName()));
+        rowMeta.addValueMeta(createValueMeta(getKeyField()));
+        rowMeta.addValueMeta(createValueMeta(getMessageField()));
         rowMeta.addValueMeta(createValueMetaString(getTopicField().getOutputName()));
         rowMeta.addValueMeta(
             createValueMetaInteger(getPartitionField().getOutputName()));
@@ -453,6 +469,15 @@ public class KafkaConsumerInputMeta
     }
   }
 
+  private IValueMeta createValueMeta(KafkaConsumerField field) throws HopException {
+    IValueMeta vm =
+        ValueMetaFactory.createValueMeta(
+            field.getOutputName(), field.getOutputType().getIValueMetaType());
+    vm.setOrigin(getParentTransformMeta().getName());
+
+    return vm;
+  }
+
   private IValueMeta createValueMetaString(String name) {
     IValueMeta vm = new ValueMetaString(name);
     vm.setOrigin(getParentTransformMeta().getName());
@@ -501,6 +526,23 @@ public class KafkaConsumerInputMeta
               transformMeta));
     }
 
+    if (Const.toInt(variables.resolve(getParallelism()), 0) < 1) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "KafkaConsumerInputMeta.CheckResult.InvalidParallelism"),
+              transformMeta));
+    }
+
+    if (isAutoCommit()
+        && (isPipelined() || Const.toInt(variables.resolve(getParallelism()), 1) > 1)) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_WARNING,
+              BaseMessages.getString(PKG, "KafkaConsumerInputMeta.CheckResult.AutoCommitIgnored"),
+              transformMeta));
+    }
+
     if (duration == 0 && size == 0) {
       remarks.add(
           new CheckResult(
@@ -775,6 +817,34 @@ public class KafkaConsumerInputMeta
     this.autoCommit = autoCommit;
   }
 
+  /**
+   * Gets parallelism
+   *
+   * @return value of parallelism
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /** @param parallelism The parallelism to set */
+  public void setParallelism(String parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Gets pipelined
+   *
+   * @return value of pipelined
+   */
+  public boolean isPipelined() {
+    return pipelined;
+  }
+
+  /** @param pipelined The pipelined to set */
+  public void setPipelined(boolean pipelined) {
+    this.pipelined = pipelined;
+  }
+
   @Override
   public boolean supportsErrorHandling() {
     return true;
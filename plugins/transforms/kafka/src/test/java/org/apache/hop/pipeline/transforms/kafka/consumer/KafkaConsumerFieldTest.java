@@ -112,6 +112,14 @@ public class KafkaConsumerFieldTest {
     assertEquals(
         "org.apache.kafka.common.serialization.DoubleDeserializer",
         field.getOutputType().getKafkaDeserializerClass());
+
+    field =
+        new KafkaConsumerField(
+            KafkaConsumerField.Name.MESSAGE, "Test Name", KafkaConsumerField.Type.Avro);
+    assertEquals(
+        "io.confluent.kafka.serializers.KafkaAvroDeserializer",
+        field.getOutputType().getKafkaDeserializerClass());
+    assertEquals(IValueMeta.TYPE_STRING, field.getOutputType().getIValueMetaType());
   }
 
   @Test
@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class KafkaConsumerInputTest {
+
+  private static final String TOPIC = "topic";
+  private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+  private static final TopicPartition P2 = new TopicPartition(TOPIC, 2);
+
+  private TransformMockHelper<KafkaConsumerInputMeta, KafkaConsumerInputData> transformMockHelper;
+  private KafkaConsumerInputData data;
+  private KafkaConsumerInput transform;
+  private MockConsumer<Object, Object> consumer;
+  private Map<TopicPartition, Long> nextOffsets;
+
+  @Before
+  public void setUp() {
+    transformMockHelper =
+        new TransformMockHelper<>(
+            "Kafka consumer", KafkaConsumerInputMeta.class, KafkaConsumerInputData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+
+    data = new KafkaConsumerInputData();
+    transform =
+        new KafkaConsumerInput(
+            transformMockHelper.transformMeta,
+            new KafkaConsumerInputMeta(),
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.assign(Arrays.asList(P0, P1, P2));
+    Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+    for (TopicPartition partition : Arrays.asList(P0, P1, P2)) {
+      beginningOffsets.put(partition, 0L);
+    }
+    consumer.updateBeginningOffsets(beginningOffsets);
+    nextOffsets = new HashMap<>(beginningOffsets);
+
+    IRowMeta outputRowMeta = new RowMeta();
+    outputRowMeta.addValueMeta(new ValueMetaString("key"));
+    outputRowMeta.addValueMeta(new ValueMetaString("message"));
+    outputRowMeta.addValueMeta(new ValueMetaString("topic"));
+    outputRowMeta.addValueMeta(new ValueMetaInteger("partition"));
+    outputRowMeta.addValueMeta(new ValueMetaInteger("offset"));
+    outputRowMeta.addValueMeta(new ValueMetaInteger("timestamp"));
+
+    data.consumer = consumer;
+    data.outputRowMeta = outputRowMeta;
+    data.batch = 100;
+    data.concurrent = true;
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (data.workers != null) {
+      data.workers.shutdownNow();
+    }
+    transformMockHelper.cleanUp();
+  }
+
+  @Test
+  public void testPartitionsStayInOrderOnTheSameCopy() throws Exception {
+    List<FakeSubPipeline> subPipelines = initWorkers(2);
+
+    addRecords(P0, 3);
+    addRecords(P1, 2);
+    addRecords(P2, 2);
+    assertTrue(transform.processRow());
+    addRecords(P0, 2);
+    addRecords(P1, 3);
+    addRecords(P2, 1);
+    assertTrue(transform.processRow());
+
+    Map<Long, Integer> partitionCopies = new HashMap<>();
+    int total = 0;
+    for (int copy = 0; copy < subPipelines.size(); copy++) {
+      Map<Long, Long> lastOffsets = new HashMap<>();
+      for (Object[] row : subPipelines.get(copy).rows) {
+        long partition = (Long) row[3];
+        long offset = (Long) row[4];
+        Integer previousCopy = partitionCopies.put(partition, copy);
+        assertTrue(previousCopy == null || previousCopy == copy);
+        Long lastOffset = lastOffsets.put(partition, offset);
+        assertEquals(lastOffset == null ? 0L : lastOffset + 1, offset);
+        total++;
+      }
+    }
+    assertEquals(3, partitionCopies.size());
+    assertEquals(13, total);
+  }
+
+  @Test
+  public void testOffsetsCommittedAfterBatch() throws Exception {
+    List<FakeSubPipeline> subPipelines = initWorkers(2);
+    for (FakeSubPipeline subPipeline : subPipelines) {
+      subPipeline.onIteration = () -> assertNull(consumer.committed(P0));
+    }
+
+    addRecords(P0, 3);
+    addRecords(P1, 2);
+    assertTrue(transform.processRow());
+
+    assertEquals(3L, consumer.committed(P0).offset());
+    assertEquals(2L, consumer.committed(P1).offset());
+    assertNull(consumer.committed(P2));
+    for (FakeSubPipeline subPipeline : subPipelines) {
+      assertNull(subPipeline.failure);
+    }
+  }
+
+  @Test
+  public void testPipelinedOffsetsCommittedWhenBatchCompletes() throws Exception {
+    data.pipelined = true;
+    initWorkers(1);
+
+    addRecords(P0, 3);
+    assertTrue(transform.processRow());
+    data.runningSubPipelines.get(0).get(10, TimeUnit.SECONDS);
+    assertNull(consumer.committed(P0));
+
+    addRecords(P1, 2);
+    assertTrue(transform.processRow());
+    assertEquals(3L, consumer.committed(P0).offset());
+    assertNull(consumer.committed(P1));
+
+    assertTrue(transform.processRow());
+    assertEquals(2L, consumer.committed(P1).offset());
+  }
+
+  @Test
+  public void testNothingCommittedAfterFailedBatch() throws Exception {
+    List<FakeSubPipeline> subPipelines = initWorkers(2);
+    subPipelines.get(1).errors.set(1);
+
+    addRecords(P0, 3);
+    addRecords(P1, 2);
+    assertFalse(transform.processRow());
+
+    assertNull(consumer.committed(P0));
+    assertNull(consumer.committed(P1));
+    assertTrue(transform.isStopped());
+  }
+
+  @Test
+  public void testStopDuringPipelinedBatch() throws Exception {
+    data.pipelined = true;
+    List<FakeSubPipeline> subPipelines = initWorkers(1);
+    FakeSubPipeline subPipeline = subPipelines.get(0);
+    CountDownLatch iterating = new CountDownLatch(1);
+    subPipeline.onIteration =
+        () -> {
+          iterating.countDown();
+          assertTrue(subPipeline.released.await(10, TimeUnit.SECONDS));
+        };
+
+    addRecords(P0, 3);
+    assertTrue(transform.processRow());
+    assertTrue(iterating.await(10, TimeUnit.SECONDS));
+
+    transform.stopRunning();
+    assertFalse(transform.processRow());
+
+    assertTrue(subPipeline.stopped.get());
+    assertTrue(data.runningSubPipelines.isEmpty());
+    assertNull(consumer.committed(P0));
+    assertTrue(transform.isStopped());
+  }
+
+  private void addRecords(TopicPartition partition, int count) {
+    for (int i = 0; i < count; i++) {
+      long offset = nextOffsets.get(partition);
+      consumer.addRecord(
+          new ConsumerRecord<>(
+              partition.topic(), partition.partition(), offset, "key", "message " + offset));
+      nextOffsets.put(partition, offset + 1);
+    }
+  }
+
+  private List<FakeSubPipeline> initWorkers(int parallelism) throws Exception {
+    List<FakeSubPipeline> fakes = new ArrayList<>();
+    List<KafkaConsumerInputData.SubPipeline> subPipelines = new ArrayList<>();
+    for (int i = 0; i < parallelism; i++) {
+      FakeSubPipeline fake = new FakeSubPipeline();
+      fakes.add(fake);
+      subPipelines.add(new KafkaConsumerInputData.SubPipeline(fake.rowProducer, fake.executor));
+    }
+    transform.initWorkers(subPipelines);
+    return fakes;
+  }
+
+  private interface Iteration {
+    void run() throws Exception;
+  }
+
+  /** A copy of the sub-pipeline which collects the rows it gets */
+  private static class FakeSubPipeline {
+    final List<Object[]> rows = Collections.synchronizedList(new ArrayList<>());
+    final AtomicLong errors = new AtomicLong();
+    final AtomicBoolean stopped = new AtomicBoolean();
+    final CountDownLatch released = new CountDownLatch(1);
+    final RowProducer rowProducer = mock(RowProducer.class);
+    final SingleThreadedPipelineExecutor executor = mock(SingleThreadedPipelineExecutor.class);
+    volatile Iteration onIteration;
+    volatile Throwable failure;
+
+    FakeSubPipeline() throws Exception {
+      Pipeline pipeline = mock(Pipeline.class);
+      doAnswer(
+              invocation -> {
+                rows.add((Object[]) invocation.getArguments()[1]);
+                return null;
+              })
+          .when(rowProducer)
+          .putRow(any(IRowMeta.class), any(Object[].class));
+      doAnswer(
+              invocation -> {
+                if (onIteration != null) {
+                  try {
+                    onIteration.run();
+                  } catch (Throwable e) {
+                    failure = e;
+                    throw e;
+                  }
+                }
+                return true;
+              })
+          .when(executor)
+          .oneIteration();
+      doAnswer(
+              invocation -> {
+                stopped.set(true);
+                released.countDown();
+                return null;
+              })
+          .when(pipeline)
+          .stopAll();
+      when(executor.getPipeline()).thenReturn(pipeline);
+      when(executor.getErrors()).thenAnswer(invocation -> errors.get());
+      when(executor.isStopped()).thenAnswer(invocation -> stopped.get());
+    }
+  }
+}
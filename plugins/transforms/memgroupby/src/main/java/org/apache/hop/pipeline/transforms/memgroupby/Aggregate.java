@@ -15,6 +15,7 @@
  * limitations under the License.
  */
 
+
 package org.apache.hop.pipeline.transforms.memgroupby;
 
 import java.util.Set;
@@ -24,4 +25,10 @@ public class Aggregate {
   public long[] counts;
   public Set<Object>[] distinctObjs;
   public double[] mean;
+
+  /** Sums, minimums and maximums of Integer subjects, see MemoryGroupByData.ACCUMULATOR_LONG */
+  public long[] longs;
+
+  /** Sums, minimums and maximums of Number subjects, see MemoryGroupByData.ACCUMULATOR_DOUBLE */
+  public double[] doubles;
 }
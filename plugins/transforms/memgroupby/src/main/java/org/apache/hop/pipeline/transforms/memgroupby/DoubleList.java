@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/** A growing list of doubles which keeps the values in a primitive array instead of boxing them. */
+public class DoubleList extends AbstractList<Double> implements RandomAccess {
+  private double[] values;
+  private int size;
+
+  public DoubleList() {
+    values = new double[8];
+  }
+
+  public void addValue(double value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size + (size >> 1) + 1);
+    }
+    values[size++] = value;
+  }
+
+  @Override
+  public boolean add(Double value) {
+    addValue(value);
+    return true;
+  }
+
+  @Override
+  public Double get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return values[index];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /** @return The array holding the values, only the first size() values are used */
+  public double[] getValues() {
+    return values;
+  }
+}
@@ -27,6 +27,7 @@ import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -34,7 +35,13 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.SpillFile;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.*;
 
 /** Groups information based on aggregation rules. (sum, count, ...) */
@@ -42,6 +49,16 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     implements ITransform<MemoryGroupByMeta, MemoryGroupByData> {
   private static final Class<?> PKG = MemoryGroupByMeta.class; // For Translator
 
+  /** Rows which don't fit in memory are split over 2^SPILL_PARTITION_BITS temp files */
+  private static final int SPILL_PARTITION_BITS = 4;
+
+  private static final int SPILL_PARTITIONS = 1 << SPILL_PARTITION_BITS;
+
+  /** Every level of spilling uses the next bits of the hash code, so there is a limit */
+  private static final int MAX_SPILL_LEVEL = 32 / SPILL_PARTITION_BITS - 1;
+
+  private static final int TEMP_FILE_BUFFER_SIZE = 50000;
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
   private boolean compatibilityMode = false;
@@ -140,6 +157,17 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       // Initialize the group metadata
       //
       initGroupMeta(data.inputRowMeta);
+
+      // Sums, minimums and maximums of plain numbers don't need boxed values
+      //
+      if (r != null) {
+        initAccumulators();
+      }
+
+      // New groups go to disk once the free memory drops below this percentage
+      //
+      data.freeMemoryPctLimit = Const.toInt(resolve(meta.getFreeMemoryLimit()), -1);
+      data.freeCounter = 0;
     }
 
     if (first) {
@@ -169,6 +197,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
 
     addToAggregate(r);
+    checkFreeMemory();
 
     if (checkFeedback(getLinesRead())) {
       if (log.isBasic()) {
@@ -182,27 +211,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   private void handleLastOfGroup() throws HopException {
     // Dump the content of the map...
     //
-    for (HashEntry entry : data.map.keySet()) {
-      Aggregate aggregate = data.map.get(entry);
-      Object[] aggregateResult = getAggregateResult(aggregate);
-
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] =
-            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
-      }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        outputRowData[index++] =
-            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
-      }
-      putRow(data.outputRowMeta, outputRowData);
-    }
+    outputGroups();
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
+    if (data.map.isEmpty() && data.spillFiles == null && meta.isAlwaysGivingBackOneRow()) {
       Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
       int index = 0;
       for (int i = 0; i < data.groupMeta.size(); i++) {
@@ -219,6 +233,205 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       }
       putRow(data.outputRowMeta, outputRowData);
     }
+
+    // Then the groups which didn't fit in memory
+    //
+    if (data.spillFiles != null) {
+      aggregateSpilledRows();
+    }
+  }
+
+  private void outputGroups() throws HopException {
+    for (Map.Entry<HashEntry, Aggregate> mapEntry : data.map.entrySet()) {
+      HashEntry entry = mapEntry.getKey();
+      Object[] aggregateResult = getAggregateResult(mapEntry.getValue());
+
+      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+      int index = 0;
+      for (int i = 0; i < data.groupMeta.size(); i++) {
+        outputRowData[index++] =
+            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
+      }
+      for (int i = 0; i < data.aggMeta.size(); i++) {
+        outputRowData[index++] =
+            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+      }
+      putRow(data.outputRowMeta, outputRowData);
+    }
+  }
+
+  /**
+   * Every 1000 rows we see if there is still enough free memory. If not, the groups in memory are
+   * kept but the rows of new groups are written to temp files, split by the hash code of the group.
+   * All rows of a group end up in the same file so every file can be aggregated on its own later.
+   */
+  private void checkFreeMemory() throws HopException {
+    if (data.freeMemoryPctLimit <= 0 || data.spillFiles != null) {
+      return;
+    }
+    data.freeCounter++;
+    if (data.freeCounter < 1000) {
+      return;
+    }
+    data.freeCounter = 0;
+
+    int freeMemoryPct = Const.getPercentageFreeMemory();
+    if (freeMemoryPct >= data.freeMemoryPctLimit || data.map.isEmpty()) {
+      return;
+    }
+    if (data.spillLevel > MAX_SPILL_LEVEL) {
+      // All the hash bits are used up, the remaining groups have to fit in memory
+      //
+      return;
+    }
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "MemoryGroupBy.Detailed.StartSpilling", freeMemoryPct, data.map.size()));
+    }
+    data.spillFiles = new SpillFile[SPILL_PARTITIONS];
+  }
+
+  private void spillRow(HashEntry entry, Object[] r) throws HopException {
+    int shift = 32 - SPILL_PARTITION_BITS * (data.spillLevel + 1);
+    int partition = (OpenHashMap.mix(entry.hashCode()) >>> shift) & (SPILL_PARTITIONS - 1);
+
+    SpillFile spillFile = data.spillFiles[partition];
+    if (spillFile == null) {
+      spillFile = new SpillFile();
+      try {
+        spillFile.fileObject =
+            HopVfs.createTempFile(
+                resolve(Const.NVL(meta.getPrefix(), "grp")),
+                ".tmp",
+                resolve(Const.NVL(meta.getDirectory(), "${java.io.tmpdir}")));
+        spillFile.outputStream =
+            new DataOutputStream(
+                new BufferedOutputStream(
+                    HopVfs.getOutputStream(spillFile.fileObject, false), TEMP_FILE_BUFFER_SIZE));
+      } catch (Exception e) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "MemoryGroupBy.Exception.UnableToCreateTemporaryFile"), e);
+      }
+      data.spillFiles[partition] = spillFile;
+    }
+    data.inputRowMeta.writeData(spillFile.outputStream, r);
+    spillFile.rows++;
+  }
+
+  /**
+   * Aggregate the spilled rows, one temp file at a time. The groups in memory were already written
+   * out so the map is empty when we start on a file. A file which doesn't fit in memory either is
+   * spilled again, using the next bits of the hash codes.
+   */
+  private void aggregateSpilledRows() throws HopException {
+    SpillFile[] spillFiles = data.spillFiles;
+    data.spillFiles = null;
+    closeSpillFiles(spillFiles, false);
+
+    int spillLevel = data.spillLevel;
+    try {
+      for (int f = 0; f < spillFiles.length && !isStopped(); f++) {
+        SpillFile spillFile = spillFiles[f];
+        if (spillFile == null) {
+          continue;
+        }
+        if (log.isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG,
+                  "MemoryGroupBy.Detailed.AggregatingSpillFile",
+                  HopVfs.getFilename(spillFile.fileObject),
+                  spillFile.rows));
+        }
+
+        data.map.clear();
+        data.spillLevel = spillLevel + 1;
+        data.freeCounter = 0;
+
+        DataInputStream inputStream = openSpillFile(spillFile);
+        try {
+          for (long row = 0; row < spillFile.rows && !isStopped(); row++) {
+            addToAggregate(readSpilledRow(inputStream));
+            checkFreeMemory();
+          }
+        } finally {
+          closeQuietly(inputStream);
+        }
+        deleteSpillFile(spillFile);
+        spillFiles[f] = null;
+
+        outputGroups();
+        if (data.spillFiles != null) {
+          aggregateSpilledRows();
+        }
+      }
+    } finally {
+      data.spillLevel = spillLevel;
+      data.map.clear();
+      closeSpillFiles(spillFiles, true);
+    }
+  }
+
+  private DataInputStream openSpillFile(SpillFile spillFile) throws HopException {
+    try {
+      return new DataInputStream(
+          new BufferedInputStream(
+              HopVfs.getInputStream(spillFile.fileObject), TEMP_FILE_BUFFER_SIZE));
+    } catch (Exception e) {
+      throw new HopException(
+          BaseMessages.getString(
+              PKG, "MemoryGroupBy.Exception.UnableToReadBackRowFromTemporaryFile"),
+          e);
+    }
+  }
+
+  private Object[] readSpilledRow(DataInputStream inputStream) throws HopException {
+    try {
+      return data.inputRowMeta.readData(inputStream);
+    } catch (Exception e) {
+      throw new HopException(
+          BaseMessages.getString(
+              PKG, "MemoryGroupBy.Exception.UnableToReadBackRowFromTemporaryFile"),
+          e);
+    }
+  }
+
+  private void closeSpillFiles(SpillFile[] spillFiles, boolean delete) throws HopException {
+    if (spillFiles == null) {
+      return;
+    }
+    for (SpillFile spillFile : spillFiles) {
+      if (spillFile == null) {
+        continue;
+      }
+      if (spillFile.outputStream != null) {
+        try {
+          spillFile.outputStream.close();
+        } catch (IOException e) {
+          throw new HopException(
+              BaseMessages.getString(PKG, "MemoryGroupBy.Exception.UnableToWriteSpillFile"), e);
+        } finally {
+          spillFile.outputStream = null;
+        }
+      }
+      if (delete) {
+        deleteSpillFile(spillFile);
+      }
+    }
+  }
+
+  private void deleteSpillFile(SpillFile spillFile) {
+    try {
+      spillFile.fileObject.delete();
+    } catch (Exception e) {
+      logError(
+          BaseMessages.getString(
+              PKG,
+              "MemoryGroupBy.Error.UnableToDeleteSpillFile",
+              HopVfs.getFilename(spillFile.fileObject)),
+          e);
+    }
   }
 
   /**
@@ -238,6 +451,13 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     Aggregate aggregate = data.map.get(entry);
     if (aggregate == null) {
+      // No more room for new groups: keep the row for later
+      //
+      if (data.spillFiles != null) {
+        spillRow(entry, r);
+        return;
+      }
+
       // Create a new value...
       //
       aggregate = new Aggregate();
@@ -254,6 +474,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       Object value = aggregate.agg[i];
       IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
 
+      if (data.accumulators != null
+          && data.accumulators[i] != MemoryGroupByData.ACCUMULATOR_OBJECT) {
+        addToPrimitiveAggregate(aggregate, i, subjMeta, subj);
+        continue;
+      }
+
       switch (meta.getAggregateType()[i]) {
         case MemoryGroupByMeta.TYPE_GROUP_SUM:
           aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
@@ -267,7 +493,14 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case MemoryGroupByMeta.TYPE_GROUP_MEDIAN:
         case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
           if (!subjMeta.isNull(subj)) {
-            ((List<Double>) aggregate.agg[i]).add(subjMeta.getNumber(subj));
+            double number = subjMeta.getNumber(subj);
+            if (value instanceof QuantileSketch) {
+              ((QuantileSketch) value).add(number);
+            } else if (value instanceof DoubleList) {
+              ((DoubleList) value).addValue(number);
+            } else {
+              ((List<Double>) value).add(number);
+            }
           }
           break;
         case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
@@ -380,6 +613,123 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  /**
+   * Sums, minimums and maximums of Integer and Number values are kept in primitive arrays. Null
+   * values are skipped, the number of other values is kept in the counts.
+   */
+  private void addToPrimitiveAggregate(
+      Aggregate aggregate, int i, IValueMeta subjMeta, Object subj) throws HopValueException {
+    if (subjMeta.isNull(subj)) {
+      return;
+    }
+    boolean firstValue = aggregate.counts[i]++ == 0;
+
+    if (data.accumulators[i] == MemoryGroupByData.ACCUMULATOR_LONG) {
+      long value = subjMeta.getInteger(subj);
+      switch (meta.getAggregateType()[i]) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          aggregate.longs[i] = firstValue ? value : aggregate.longs[i] + value;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+          if (firstValue || value < aggregate.longs[i]) {
+            aggregate.longs[i] = value;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          if (firstValue || value > aggregate.longs[i]) {
+            aggregate.longs[i] = value;
+          }
+          break;
+        default:
+          break;
+      }
+    } else {
+      double value = subjMeta.getNumber(subj);
+      switch (meta.getAggregateType()[i]) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          aggregate.doubles[i] = firstValue ? value : aggregate.doubles[i] + value;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+          if (firstValue || Double.compare(value, aggregate.doubles[i]) < 0) {
+            aggregate.doubles[i] = value;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          if (firstValue || Double.compare(value, aggregate.doubles[i]) > 0) {
+            aggregate.doubles[i] = value;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /** @return The boxed value of a primitive aggregate or null if there were only null values */
+  private Object getPrimitiveValue(Aggregate aggregate, int i) {
+    if (aggregate.counts[i] == 0) {
+      return null;
+    }
+    if (data.accumulators[i] == MemoryGroupByData.ACCUMULATOR_LONG) {
+      return Long.valueOf(aggregate.longs[i]);
+    }
+    return Double.valueOf(aggregate.doubles[i]);
+  }
+
+  /**
+   * Decide which aggregates can be kept in primitive arrays. This is the case for sums, averages,
+   * minimums and maximums of Integer and Number fields in normal storage, as long as comparing the
+   * primitive values gives the same result as comparing the values through their metadata.
+   */
+  private void initAccumulators() {
+    data.accumulators = new int[data.subjectnrs.length];
+    data.hasLongAccumulators = false;
+    data.hasDoubleAccumulators = false;
+
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+      data.accumulators[i] = MemoryGroupByData.ACCUMULATOR_OBJECT;
+      if (subjMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL
+          || subjMeta.isSortedDescending()) {
+        continue;
+      }
+      boolean integer = subjMeta.getType() == IValueMeta.TYPE_INTEGER;
+      boolean number = subjMeta.getType() == IValueMeta.TYPE_NUMBER;
+      if (!integer && !number) {
+        continue;
+      }
+
+      switch (meta.getAggregateType()[i]) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          // In compatibility mode integers are summed up as numbers
+          //
+          data.accumulators[i] =
+              integer && !compatibilityMode
+                  ? MemoryGroupByData.ACCUMULATOR_LONG
+                  : MemoryGroupByData.ACCUMULATOR_DOUBLE;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+          if (minNullIsValued) {
+            break;
+          }
+          data.accumulators[i] =
+              integer ? MemoryGroupByData.ACCUMULATOR_LONG : MemoryGroupByData.ACCUMULATOR_DOUBLE;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          data.accumulators[i] =
+              integer ? MemoryGroupByData.ACCUMULATOR_LONG : MemoryGroupByData.ACCUMULATOR_DOUBLE;
+          break;
+        default:
+          break;
+      }
+      data.hasLongAccumulators |= data.accumulators[i] == MemoryGroupByData.ACCUMULATOR_LONG;
+      data.hasDoubleAccumulators |= data.accumulators[i] == MemoryGroupByData.ACCUMULATOR_DOUBLE;
+    }
+  }
+
   /**
    * Used for junits in MemoryGroupByNewAggregateTest
    *
@@ -399,7 +749,13 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       }
       aggregate.distinctObjs = null;
       aggregate.agg = new Object[data.subjectnrs.length];
-      aggregate.mean = new double[data.subjectnrs.length]; // sets all doubles to 0.0
+      aggregate.mean = null; // only allocated for standard deviations
+      if (data.hasLongAccumulators) {
+        aggregate.longs = new long[data.subjectnrs.length];
+      }
+      if (data.hasDoubleAccumulators) {
+        aggregate.doubles = new double[data.subjectnrs.length];
+      }
     }
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
@@ -410,7 +766,11 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case MemoryGroupByMeta.TYPE_GROUP_MEDIAN:
         case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
           vMeta = new ValueMetaNumber(meta.getAggregateField()[i]);
-          v = new ArrayList<Double>();
+          if (meta.isApproximatePercentiles()) {
+            v = new QuantileSketch();
+          } else {
+            v = new DoubleList();
+          }
           break;
         case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
           vMeta = new ValueMetaNumber(meta.getAggregateField()[i]);
@@ -489,7 +849,13 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     if (data.subjectnrs != null) {
       for (int i = 0; i < data.subjectnrs.length; i++) {
-        Object ag = aggregate.agg[i];
+        Object ag;
+        if (data.accumulators != null
+            && data.accumulators[i] != MemoryGroupByData.ACCUMULATOR_OBJECT) {
+          ag = getPrimitiveValue(aggregate, i);
+        } else {
+          ag = aggregate.agg[i];
+        }
         switch (meta.getAggregateType()[i]) {
           case MemoryGroupByMeta.TYPE_GROUP_SUM:
             break;
@@ -507,13 +873,22 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
             if (meta.getAggregateType()[i] == MemoryGroupByMeta.TYPE_GROUP_PERCENTILE) {
               percentile = Double.parseDouble(meta.getValueField()[i]);
             }
-            @SuppressWarnings("unchecked")
-            List<Double> valuesList = (List<Double>) aggregate.agg[i];
-            double[] values = new double[valuesList.size()];
-            for (int v = 0; v < values.length; v++) {
-              values[v] = valuesList.get(v);
+            if (ag instanceof QuantileSketch) {
+              ag = ((QuantileSketch) ag).quantile(percentile / 100.0);
+            } else if (ag instanceof DoubleList) {
+              DoubleList valuesList = (DoubleList) ag;
+              ag =
+                  new Percentile()
+                      .evaluate(valuesList.getValues(), 0, valuesList.size(), percentile);
+            } else {
+              @SuppressWarnings("unchecked")
+              List<Double> valuesList = (List<Double>) ag;
+              double[] values = new double[valuesList.size()];
+              for (int v = 0; v < values.length; v++) {
+                values[v] = valuesList.get(v);
+              }
+              ag = new Percentile().evaluate(values, percentile);
             }
-            ag = new Percentile().evaluate(values, percentile);
             break;
           case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
           case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
@@ -551,7 +926,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   public boolean init() {
 
     if (super.init()) {
-      data.map = new HashMap<>(5000);
+      data.map = new OpenHashMap<>(5000);
       return true;
     }
     return false;
@@ -559,6 +934,15 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
   @Override
   public void dispose() {
+    // Clean up the temp files when we were stopped halfway
+    //
+    try {
+      closeSpillFiles(data.spillFiles, true);
+    } catch (HopException e) {
+      logError(e.getMessage(), e);
+    }
+    data.spillFiles = null;
+
     super.dispose();
     ((MemoryGroupByData) data).clear();
   }
@@ -17,17 +17,31 @@
 
 package org.apache.hop.pipeline.transforms.memgroupby;
 
+import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.util.HashMap;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Map;
 
 public class MemoryGroupByData extends BaseTransformData implements ITransformData {
+  /** The aggregate is kept in Aggregate.agg */
+  public static final int ACCUMULATOR_OBJECT = 0;
+
+  /** The aggregate is kept in Aggregate.longs, the number of values in Aggregate.counts */
+  public static final int ACCUMULATOR_LONG = 1;
+
+  /** The aggregate is kept in Aggregate.doubles, the number of values in Aggregate.counts */
+  public static final int ACCUMULATOR_DOUBLE = 2;
+
   public class HashEntry {
     private Object[] groupData;
+    private int hash;
+    private boolean hashed;
 
     public HashEntry(Object[] groupData) {
       this.groupData = groupData;
@@ -38,7 +52,16 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
     }
 
     public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof HashEntry)) {
+        return false;
+      }
       HashEntry entry = (HashEntry) obj;
+      if (hashed && entry.hashed && hash != entry.hash) {
+        return false;
+      }
 
       try {
         return groupMeta.compare(groupData, entry.groupData) == 0;
@@ -48,24 +71,48 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
     }
 
     public int hashCode() {
-      try {
-        return groupMeta.hashCode(getHashValue());
-      } catch (HopValueException e) {
-        throw new RuntimeException(e);
+      if (!hashed) {
+        try {
+          hash = calculateHash();
+        } catch (HopValueException e) {
+          throw new RuntimeException(e);
+        }
+        hashed = true;
       }
+      return hash;
     }
 
-    private Object[] getHashValue() throws HopValueException {
-      Object[] groupDataHash = new Object[groupMeta.size()];
+    /**
+     * The deep hash code of the group values in normal storage. The values are converted one at a
+     * time so no row needs to be allocated to hold them.
+     */
+    private int calculateHash() throws HopValueException {
+      int result = 1;
       for (int i = 0; i < groupMeta.size(); i++) {
         IValueMeta valueMeta = groupMeta.getValueMeta(i);
-        groupDataHash[i] = valueMeta.convertToNormalStorageType(groupData[i]);
+        Object value = valueMeta.convertToNormalStorageType(groupData[i]);
+        int valueHash;
+        if (value == null) {
+          valueHash = 0;
+        } else if (value instanceof byte[]) {
+          valueHash = Arrays.hashCode((byte[]) value);
+        } else {
+          valueHash = value.hashCode();
+        }
+        result = 31 * result + valueHash;
       }
-      return groupDataHash;
+      return result;
     }
   }
 
-  public HashMap<HashEntry, Aggregate> map;
+  /** A temp file holding the rows of the groups in one partition which didn't fit in memory */
+  public static class SpillFile {
+    public FileObject fileObject;
+    public DataOutputStream outputStream;
+    public long rows;
+  }
+
+  public Map<HashEntry, Aggregate> map;
 
   public IRowMeta aggMeta;
   public IRowMeta groupMeta;
@@ -75,6 +122,12 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
   public int[] groupnrs;
   public int[] subjectnrs;
 
+  /** How every aggregate is kept: ACCUMULATOR_OBJECT, ACCUMULATOR_LONG or ACCUMULATOR_DOUBLE */
+  public int[] accumulators;
+
+  public boolean hasLongAccumulators;
+  public boolean hasDoubleAccumulators;
+
   public boolean firstRead;
 
   public Object[] groupResult;
@@ -89,6 +142,17 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /** Start spilling new groups to disk below this percentage of free memory, 0 or lower: never */
+  public int freeMemoryPctLimit;
+
+  public int freeCounter;
+
+  /** The partitions of the spilled rows, null as long as everything fits in memory */
+  public SpillFile[] spillFiles;
+
+  /** The number of times the rows being aggregated were spilled to disk before */
+  public int spillLevel;
+
   public MemoryGroupByData() {
     super();
   }
@@ -99,6 +163,6 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   /** Method responsible for clearing out memory hogs */
   public void clear() {
-    map = new HashMap<>();
+    map = new OpenHashMap<>();
   }
 }
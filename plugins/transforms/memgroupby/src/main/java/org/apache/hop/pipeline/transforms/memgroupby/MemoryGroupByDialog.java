@@ -31,6 +31,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -54,6 +55,14 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
 
   private Button wAlwaysAddResult;
 
+  private Button wApproximatePercentiles;
+
+  private TextVar wFreeMemory;
+
+  private TextVar wSpillDirectory;
+
+  private TextVar wPrefix;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -139,12 +148,98 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // Estimate medians and percentiles
+    //
+    Label wlApproximatePercentiles = new Label(shell, SWT.RIGHT);
+    wlApproximatePercentiles.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.ApproximatePercentiles.Label"));
+    wlApproximatePercentiles.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.ApproximatePercentiles.ToolTip"));
+    props.setLook(wlApproximatePercentiles);
+    FormData fdlApproximatePercentiles = new FormData();
+    fdlApproximatePercentiles.left = new FormAttachment(0, 0);
+    fdlApproximatePercentiles.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdlApproximatePercentiles.right = new FormAttachment(middle, -margin);
+    wlApproximatePercentiles.setLayoutData(fdlApproximatePercentiles);
+    wApproximatePercentiles = new Button(shell, SWT.CHECK);
+    wApproximatePercentiles.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.ApproximatePercentiles.ToolTip"));
+    props.setLook(wApproximatePercentiles);
+    FormData fdApproximatePercentiles = new FormData();
+    fdApproximatePercentiles.left = new FormAttachment(middle, 0);
+    fdApproximatePercentiles.top = new FormAttachment(wlApproximatePercentiles, 0, SWT.CENTER);
+    fdApproximatePercentiles.right = new FormAttachment(100, 0);
+    wApproximatePercentiles.setLayoutData(fdApproximatePercentiles);
+    wApproximatePercentiles.addSelectionListener(lsSel);
+
+    // Spill new groups to disk below this percentage of free memory
+    //
+    Label wlFreeMemory = new Label(shell, SWT.RIGHT);
+    wlFreeMemory.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemory.Label"));
+    wlFreeMemory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemory.ToolTip"));
+    props.setLook(wlFreeMemory);
+    FormData fdlFreeMemory = new FormData();
+    fdlFreeMemory.left = new FormAttachment(0, 0);
+    fdlFreeMemory.top = new FormAttachment(wlApproximatePercentiles, 2 * margin);
+    fdlFreeMemory.right = new FormAttachment(middle, -margin);
+    wlFreeMemory.setLayoutData(fdlFreeMemory);
+    wFreeMemory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wFreeMemory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemory.ToolTip"));
+    props.setLook(wFreeMemory);
+    wFreeMemory.addModifyListener(lsMod);
+    FormData fdFreeMemory = new FormData();
+    fdFreeMemory.left = new FormAttachment(middle, 0);
+    fdFreeMemory.top = new FormAttachment(wlFreeMemory, 0, SWT.CENTER);
+    fdFreeMemory.right = new FormAttachment(100, 0);
+    wFreeMemory.setLayoutData(fdFreeMemory);
+
+    // The directory for the spilled rows
+    //
+    Label wlSpillDirectory = new Label(shell, SWT.RIGHT);
+    wlSpillDirectory.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.TempDir.Label"));
+    props.setLook(wlSpillDirectory);
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment(0, 0);
+    fdlSpillDirectory.top = new FormAttachment(wFreeMemory, margin);
+    fdlSpillDirectory.right = new FormAttachment(middle, -margin);
+    wlSpillDirectory.setLayoutData(fdlSpillDirectory);
+    wSpillDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wSpillDirectory);
+    wSpillDirectory.addModifyListener(lsMod);
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.left = new FormAttachment(middle, 0);
+    fdSpillDirectory.top = new FormAttachment(wlSpillDirectory, 0, SWT.CENTER);
+    fdSpillDirectory.right = new FormAttachment(100, 0);
+    wSpillDirectory.setLayoutData(fdSpillDirectory);
+
+    // The prefix of the temp files
+    //
+    Label wlPrefix = new Label(shell, SWT.RIGHT);
+    wlPrefix.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.FilePrefix.Label"));
+    props.setLook(wlPrefix);
+    FormData fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment(0, 0);
+    fdlPrefix.top = new FormAttachment(wSpillDirectory, margin);
+    fdlPrefix.right = new FormAttachment(middle, -margin);
+    wlPrefix.setLayoutData(fdlPrefix);
+    wPrefix = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wPrefix);
+    wPrefix.addModifyListener(lsMod);
+    FormData fdPrefix = new FormData();
+    fdPrefix.left = new FormAttachment(middle, 0);
+    fdPrefix.top = new FormAttachment(wlPrefix, 0, SWT.CENTER);
+    fdPrefix.right = new FormAttachment(100, 0);
+    wPrefix.setLayoutData(fdPrefix);
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     props.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, 2 * margin);
+    fdlGroup.top = new FormAttachment(wPrefix, 2 * margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int nrKeyCols = 1;
@@ -311,6 +406,10 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wApproximatePercentiles.setSelection(input.isApproximatePercentiles());
+    wFreeMemory.setText(Const.NVL(input.getFreeMemoryLimit(), ""));
+    wSpillDirectory.setText(Const.NVL(input.getDirectory(), ""));
+    wPrefix.setText(Const.NVL(input.getPrefix(), ""));
 
     if (input.getGroupField() != null) {
       for (int i = 0; i < input.getGroupField().length; i++) {
@@ -362,6 +461,10 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     int nrFields = wAgg.nrNonEmpty();
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setApproximatePercentiles(wApproximatePercentiles.getSelection());
+    input.setFreeMemoryLimit(wFreeMemory.getText());
+    input.setDirectory(wSpillDirectory.getText());
+    input.setPrefix(wPrefix.getText());
 
     input.allocate(sizegroup, nrFields);
 
@@ -161,6 +161,22 @@ public class MemoryGroupByMeta extends BaseTransformMeta
   /** Flag to indicate that we always give back one row. Defaults to true for existing pipelines. */
   private boolean alwaysGivingBackOneRow;
 
+  @Injection(name = "APPROXIMATE_PERCENTILES")
+  /** Estimate medians and percentiles with a sketch instead of keeping all the values */
+  private boolean approximatePercentiles;
+
+  @Injection(name = "FREE_MEMORY_THRESHOLD")
+  /** Below this percentage of free memory new groups are spilled to disk, empty: never */
+  private String freeMemoryLimit;
+
+  @Injection(name = "SPILL_DIRECTORY")
+  /** Directory to store the spilled rows in */
+  private String directory;
+
+  @Injection(name = "SPILL_FILE_PREFIX")
+  /** Prefix of the temp files with spilled rows */
+  private String prefix;
+
   public MemoryGroupByMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -285,6 +301,12 @@ public class MemoryGroupByMeta extends BaseTransformMeta
         valueField[i] = XmlHandler.getTagValue(fnode, "valuefield");
       }
 
+      approximatePercentiles =
+          "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "approximate_percentiles"));
+      freeMemoryLimit = XmlHandler.getTagValue(transformNode, "free_memory");
+      directory = XmlHandler.getTagValue(transformNode, "directory");
+      prefix = XmlHandler.getTagValue(transformNode, "prefix");
+
       String giveBackRow = XmlHandler.getTagValue(transformNode, "give_back_row");
       if (Utils.isEmpty(giveBackRow)) {
         alwaysGivingBackOneRow = hasNumberOfValues;
@@ -333,6 +355,11 @@ public class MemoryGroupByMeta extends BaseTransformMeta
     int nrFields = 0;
 
     allocate(sizegroup, nrFields);
+
+    approximatePercentiles = false;
+    freeMemoryLimit = null;
+    directory = "${java.io.tmpdir}";
+    prefix = "grp";
   }
 
   @Override
@@ -456,6 +483,12 @@ public class MemoryGroupByMeta extends BaseTransformMeta
     StringBuilder retval = new StringBuilder(500);
 
     retval.append("      ").append(XmlHandler.addTagValue("give_back_row", alwaysGivingBackOneRow));
+    retval
+        .append("      ")
+        .append(XmlHandler.addTagValue("approximate_percentiles", approximatePercentiles));
+    retval.append("      ").append(XmlHandler.addTagValue("free_memory", freeMemoryLimit));
+    retval.append("      ").append(XmlHandler.addTagValue("directory", directory));
+    retval.append("      ").append(XmlHandler.addTagValue("prefix", prefix));
 
     retval.append("      <group>").append(Const.CR);
     for (int i = 0; i < groupField.length; i++) {
@@ -526,6 +559,46 @@ public class MemoryGroupByMeta extends BaseTransformMeta
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /** @return true if medians and percentiles are estimated instead of calculated exactly */
+  public boolean isApproximatePercentiles() {
+    return approximatePercentiles;
+  }
+
+  /** @param approximatePercentiles true to estimate medians and percentiles */
+  public void setApproximatePercentiles(boolean approximatePercentiles) {
+    this.approximatePercentiles = approximatePercentiles;
+  }
+
+  /** @return The percentage of free memory below which new groups are spilled to disk */
+  public String getFreeMemoryLimit() {
+    return freeMemoryLimit;
+  }
+
+  /** @param freeMemoryLimit The free memory percentage to set, empty to never spill */
+  public void setFreeMemoryLimit(String freeMemoryLimit) {
+    this.freeMemoryLimit = freeMemoryLimit;
+  }
+
+  /** @return The directory to store the spilled rows in */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /** @param directory The directory to set */
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  /** @return The prefix of the temp files */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /** @param prefix The prefix to set */
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
   /**
    * If we use injection we can have different arrays lengths. We need synchronize them for
    * consistency behavior with UI
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A hash map using open addressing with linear probing. The keys, values and hash codes are kept in
+ * flat arrays so there is no entry object per group, which matters when there are millions of
+ * groups. Entries can't be removed one by one, only the whole map can be cleared.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class OpenHashMap<K, V> extends AbstractMap<K, V> {
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private Object[] keys;
+  private Object[] values;
+  private int[] hashes;
+  private int mask;
+  private int size;
+  private int threshold;
+
+  public OpenHashMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /** @param expectedSize The number of entries to make room for */
+  public OpenHashMap(int expectedSize) {
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    hashes = new int[capacity];
+    mask = capacity - 1;
+    threshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    long needed = (long) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR);
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity < needed && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /** Spread the bits of the hash code: many hash codes only differ in their highest bits */
+  static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  private int indexOf(Object key, int hash) {
+    int index = hash & mask;
+    while (true) {
+      Object candidate = keys[index];
+      if (candidate == null) {
+        return -1;
+      }
+      if (hashes[index] == hash && candidate.equals(key)) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (key == null) {
+      return null;
+    }
+    int index = indexOf(key, mix(key.hashCode()));
+    return index < 0 ? null : (V) values[index];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key != null && indexOf(key, mix(key.hashCode())) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    if (key == null) {
+      throw new NullPointerException("Null keys are not supported");
+    }
+    int hash = mix(key.hashCode());
+    int index = hash & mask;
+    while (keys[index] != null) {
+      if (hashes[index] == hash && keys[index].equals(key)) {
+        V previous = (V) values[index];
+        values[index] = value;
+        return previous;
+      }
+      index = (index + 1) & mask;
+    }
+    keys[index] = key;
+    values[index] = value;
+    hashes[index] = hash;
+    if (++size > threshold) {
+      resize();
+    }
+    return null;
+  }
+
+  private void resize() {
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldHashes = hashes;
+    allocate(oldKeys.length * 2);
+
+    // The hash codes are kept around so there is no need to calculate them again
+    //
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int index = oldHashes[i] & mask;
+        while (keys[index] != null) {
+          index = (index + 1) & mask;
+        }
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+        hashes[index] = oldHashes[i];
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    allocate(DEFAULT_CAPACITY);
+    size = 0;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+    private final Object[] iteratedKeys = keys;
+    private int next = advance(0);
+
+    private int advance(int index) {
+      while (index < iteratedKeys.length && iteratedKeys[index] == null) {
+        index++;
+      }
+      return index;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < iteratedKeys.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map.Entry<K, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (iteratedKeys != keys) {
+        throw new ConcurrentModificationException();
+      }
+      final int index = next;
+      next = advance(index + 1);
+      return new AbstractMap.SimpleEntry<K, V>((K) keys[index], (V) values[index]) {
+        @Override
+        public V setValue(V value) {
+          values[index] = value;
+          return super.setValue(value);
+        }
+      };
+    }
+  }
+}
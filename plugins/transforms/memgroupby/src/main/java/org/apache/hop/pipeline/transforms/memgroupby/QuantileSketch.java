@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.Arrays;
+
+/**
+ * Estimates percentiles from a small summary of the values instead of keeping all of them. This is
+ * a merging t-digest: the values are buffered, sorted and merged into weighted centroids. Centroids
+ * near the median can hold many values while those near the extremes stay small so the tails remain
+ * accurate. The summary stays below a few thousand doubles no matter how many values are added.
+ *
+ * <p>As long as fewer than about compression values are added every centroid holds a single value.
+ * The estimates are then calculated the same way as the commons-math Percentile used for the exact
+ * percentiles, so both give the same result.
+ */
+public class QuantileSketch {
+  public static final double DEFAULT_COMPRESSION = 100.0;
+
+  private static final int INITIAL_BUFFER_SIZE = 16;
+
+  private final double compression;
+  private final int maxBufferSize;
+
+  private double[] means = new double[0];
+  private double[] weights = new double[0];
+  private int centroidCount;
+  private double centroidWeight;
+
+  private double[] buffer = new double[INITIAL_BUFFER_SIZE];
+  private int bufferCount;
+
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public QuantileSketch() {
+    this(DEFAULT_COMPRESSION);
+  }
+
+  /** @param compression Higher values give more accurate estimates but use more memory */
+  public QuantileSketch(double compression) {
+    this.compression = compression;
+    this.maxBufferSize = (int) (5 * compression);
+  }
+
+  public void add(double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    if (bufferCount == buffer.length) {
+      if (buffer.length < maxBufferSize) {
+        buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxBufferSize));
+      } else {
+        merge();
+      }
+    }
+    buffer[bufferCount++] = value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /** @return The number of values added */
+  public long size() {
+    return (long) centroidWeight + bufferCount;
+  }
+
+  /**
+   * @param quantile The quantile to estimate, between 0 and 1
+   * @return The estimated value at the given quantile or NaN if no values were added
+   */
+  public double quantile(double quantile) {
+    merge();
+    if (centroidCount == 0) {
+      return Double.NaN;
+    }
+    if (quantile <= 0) {
+      return min;
+    }
+    if (quantile >= 1) {
+      return max;
+    }
+    if (centroidCount == centroidWeight) {
+      return singleValueQuantile(quantile);
+    }
+    if (centroidCount == 1) {
+      return means[0];
+    }
+
+    // Every centroid sits at the middle of its weight, interpolate between them
+    //
+    double index = quantile * centroidWeight;
+    double firstHalf = weights[0] / 2;
+    if (index < firstHalf) {
+      return min + (means[0] - min) * index / firstHalf;
+    }
+    double cumulative = firstHalf;
+    for (int i = 0; i < centroidCount - 1; i++) {
+      double step = (weights[i] + weights[i + 1]) / 2;
+      if (cumulative + step >= index) {
+        return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / step;
+      }
+      cumulative += step;
+    }
+    double lastHalf = weights[centroidCount - 1] / 2;
+    double fraction = Math.min(1.0, (index - cumulative) / lastHalf);
+    return means[centroidCount - 1] + (max - means[centroidCount - 1]) * fraction;
+  }
+
+  /**
+   * Every centroid holds a single value: interpolate between the values around position quantile *
+   * (n + 1), the default estimation of Percentile.
+   */
+  private double singleValueQuantile(double quantile) {
+    double position = quantile * (centroidCount + 1);
+    if (position < 1) {
+      return means[0];
+    }
+    if (position >= centroidCount) {
+      return means[centroidCount - 1];
+    }
+    int lower = (int) Math.floor(position);
+    return means[lower - 1] + (position - lower) * (means[lower] - means[lower - 1]);
+  }
+
+  /** Merge the buffered values into the centroids */
+  private void merge() {
+    if (bufferCount == 0) {
+      return;
+    }
+    Arrays.sort(buffer, 0, bufferCount);
+
+    double total = centroidWeight + bufferCount;
+    double[] mergedMeans = new double[centroidCount + bufferCount];
+    double[] mergedWeights = new double[centroidCount + bufferCount];
+    int merged = 0;
+    double before = 0;
+
+    int c = 0;
+    int b = 0;
+    while (c < centroidCount || b < bufferCount) {
+      double mean;
+      double weight;
+      if (b >= bufferCount || (c < centroidCount && means[c] <= buffer[b])) {
+        mean = means[c];
+        weight = weights[c++];
+      } else {
+        mean = buffer[b++];
+        weight = 1;
+      }
+
+      if (merged > 0) {
+        // A centroid may grow as long as it stays below the size limit at its quantile
+        //
+        double last = mergedWeights[merged - 1];
+        double q = (before + (last + weight) / 2) / total;
+        double limit = Math.max(1.0, 4 * total * q * (1 - q) / compression);
+        if (last + weight <= limit) {
+          mergedWeights[merged - 1] = last + weight;
+          mergedMeans[merged - 1] += (mean - mergedMeans[merged - 1]) * weight / (last + weight);
+          continue;
+        }
+        before += last;
+      }
+      mergedMeans[merged] = mean;
+      mergedWeights[merged] = weight;
+      merged++;
+    }
+
+    means = Arrays.copyOf(mergedMeans, merged);
+    weights = Arrays.copyOf(mergedWeights, merged);
+    centroidCount = merged;
+    centroidWeight = total;
+    bufferCount = 0;
+  }
+}
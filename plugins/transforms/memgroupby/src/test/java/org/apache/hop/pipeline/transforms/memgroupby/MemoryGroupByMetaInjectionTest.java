@@ -38,5 +38,9 @@ public class MemoryGroupByMetaInjectionTest extends BaseMetadataInjectionTest<Me
     check("AGGREGATETYPE", () -> meta.getAggregateType()[0]);
     check("VALUEFIELD", () -> meta.getValueField()[0]);
     check("ALWAYSGIVINGBACKONEROW", () -> meta.isAlwaysGivingBackOneRow());
+    check("APPROXIMATE_PERCENTILES", () -> meta.isApproximatePercentiles());
+    check("FREE_MEMORY_THRESHOLD", () -> meta.getFreeMemoryLimit());
+    check("SPILL_DIRECTORY", () -> meta.getDirectory());
+    check("SPILL_FILE_PREFIX", () -> meta.getPrefix());
   }
 }
@@ -54,7 +54,11 @@ public class MemoryGroupByMetaTest implements IInitializer<MemoryGroupByMeta> {
             "aggregateField",
             "subjectField",
             "aggregateType",
-            "valueField");
+            "valueField",
+            "approximatePercentiles",
+            "freeMemoryLimit",
+            "directory",
+            "prefix");
 
     IFieldLoadSaveValidator<String[]> stringArrayLoadSaveValidator =
         new ArrayLoadSaveValidator<>(new StringLoadSaveValidator(), 5);
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aggregates the same rows with everything in memory and with the rows of new groups spilled to
+ * temp files. Both have to give the same result for every aggregate type.
+ */
+public class MemoryGroupBySpillTest {
+  /** The start of the MemoryGroupBy.Detailed.StartSpilling message */
+  private static final String START_SPILLING = "Free memory is down to";
+
+  /** The free memory percentage is at most 100 so this limit spills as soon as it is checked */
+  private static final String ALWAYS_SPILL = "101";
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @Test
+  public void testSpilledGroupsEqualGroupsInMemory() throws Exception {
+    // The first 1000 rows stay in memory, the rows of the other groups are spilled
+    //
+    assertSpilledEqualsInMemory(3000, 12000, false, 1);
+  }
+
+  @Test
+  public void testSpilledGroupsEqualGroupsInMemoryApproximatePercentiles() throws Exception {
+    assertSpilledEqualsInMemory(3000, 12000, true, 1);
+  }
+
+  @Test
+  public void testSpillFilesSpilledAgain() throws Exception {
+    // Every spill file gets about 2000 rows so aggregating it spills again
+    //
+    assertSpilledEqualsInMemory(5000, 40000, false, 2);
+  }
+
+  private void assertSpilledEqualsInMemory(
+      int nrGroups, int nrRows, boolean approximatePercentiles, int minSpills) throws Exception {
+    List<Object[]> rows = createRows(nrGroups, nrRows);
+
+    Map<Long, Object[]> inMemory = runGroupBy(rows, null, approximatePercentiles, 0);
+    Map<Long, Object[]> spilled = runGroupBy(rows, ALWAYS_SPILL, approximatePercentiles, minSpills);
+
+    assertEquals(nrGroups, inMemory.size());
+    assertEquals(inMemory.keySet(), spilled.keySet());
+    for (Map.Entry<Long, Object[]> entry : inMemory.entrySet()) {
+      assertArrayEquals("Group " + entry.getKey(), entry.getValue(), spilled.get(entry.getKey()));
+    }
+
+    // All the temp files are removed once the groups are passed on
+    //
+    assertEquals(0, tempFolder.getRoot().listFiles().length);
+  }
+
+  /**
+   * Run the rows through the transform.
+   *
+   * @param rows The input rows
+   * @param freeMemoryLimit The free memory percentage below which rows are spilled, null: never
+   * @param approximatePercentiles true to estimate medians and percentiles
+   * @param minSpills The minimum number of times the rows of new groups go to disk
+   * @return The output rows by group
+   */
+  private Map<Long, Object[]> runGroupBy(
+      List<Object[]> rows, String freeMemoryLimit, boolean approximatePercentiles, int minSpills)
+      throws Exception {
+    TransformMockHelper<MemoryGroupByMeta, MemoryGroupByData> mockHelper =
+        new TransformMockHelper<>(
+            "Memory Group By", MemoryGroupByMeta.class, MemoryGroupByData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    when(mockHelper.iLogChannel.isDetailed()).thenReturn(true);
+
+    MemoryGroupByData data = new MemoryGroupByData();
+    MemoryGroupBy transform =
+        new MemoryGroupBy(
+            mockHelper.transformMeta,
+            createMeta(freeMemoryLimit, approximatePercentiles),
+            data,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    try {
+      assertTrue(transform.init());
+
+      IRowSet output = new QueueRowSet();
+      transform.addRowSetToInputRowSets(createInput(rows));
+      transform.addRowSetToOutputRowSets(output);
+
+      for (int i = 0; i < rows.size(); i++) {
+        assertTrue(transform.processRow());
+      }
+      if (minSpills > 0) {
+        assertNotNull(data.spillFiles);
+        assertTrue(tempFolder.getRoot().listFiles().length > 0);
+      } else {
+        assertNull(data.spillFiles);
+      }
+      assertFalse(transform.processRow());
+
+      if (minSpills > 0) {
+        verify(mockHelper.iLogChannel, atLeast(minSpills)).logDetailed(startsWith(START_SPILLING));
+      } else {
+        verify(mockHelper.iLogChannel, never()).logDetailed(startsWith(START_SPILLING));
+      }
+
+      Map<Long, Object[]> result = new TreeMap<>();
+      assertTrue(output.isDone());
+      Object[] row;
+      while ((row = output.getRow()) != null) {
+        assertNull("Group " + row[0] + " is passed on twice", result.put((Long) row[0], row));
+      }
+      return result;
+    } finally {
+      transform.dispose();
+      mockHelper.cleanUp();
+    }
+  }
+
+  /** Every aggregate type, on Integer, Number and String subjects with and without null values */
+  private MemoryGroupByMeta createMeta(String freeMemoryLimit, boolean approximatePercentiles) {
+    Object[][] aggregates = {
+      {"num", MemoryGroupByMeta.TYPE_GROUP_SUM, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_AVERAGE, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_MEDIAN, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_PERCENTILE, "90"},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_MIN, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_MAX, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_FIRST, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_LAST, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_FIRST_INCL_NULL, null},
+      {"num", MemoryGroupByMeta.TYPE_GROUP_LAST_INCL_NULL, null},
+      // Standard deviations don't skip null values
+      {"amount", MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION, null},
+      {"int", MemoryGroupByMeta.TYPE_GROUP_SUM, null},
+      {"int", MemoryGroupByMeta.TYPE_GROUP_AVERAGE, null},
+      {"int", MemoryGroupByMeta.TYPE_GROUP_MIN, null},
+      {"int", MemoryGroupByMeta.TYPE_GROUP_MAX, null},
+      {"str", MemoryGroupByMeta.TYPE_GROUP_MIN, null},
+      {"str", MemoryGroupByMeta.TYPE_GROUP_MAX, null},
+      {"str", MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA, null},
+      {"str", MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING, "|"},
+      {"str", MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY, null},
+    };
+
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setDefault();
+    meta.allocate(1, aggregates.length);
+    meta.getGroupField()[0] = "grp";
+    for (int i = 0; i < aggregates.length; i++) {
+      meta.getSubjectField()[i] = (String) aggregates[i][0];
+      meta.getAggregateType()[i] = (Integer) aggregates[i][1];
+      meta.getValueField()[i] = (String) aggregates[i][2];
+      meta.getAggregateField()[i] = aggregates[i][0] + "_" + i;
+    }
+    meta.setApproximatePercentiles(approximatePercentiles);
+    meta.setFreeMemoryLimit(freeMemoryLimit);
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    meta.setPrefix("grptest");
+    return meta;
+  }
+
+  /** The groups take turns so the rows of every group are spread over the whole input */
+  private static List<Object[]> createRows(int nrGroups, int nrRows) {
+    Random random = new Random(42);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < nrRows; i++) {
+      Double num = random.nextInt(10) == 0 ? null : Double.valueOf(random.nextInt(1000) / 8.0);
+      Long integer = random.nextInt(10) == 0 ? null : Long.valueOf(random.nextInt(2000) - 1000);
+      String str = random.nextInt(10) == 0 ? null : "s" + random.nextInt(50);
+      rows.add(new Object[] {(long) (i % nrGroups), num, random.nextDouble() * 100, integer, str});
+    }
+    return rows;
+  }
+
+  private static IRowSet createInput(List<Object[]> rows) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("grp"));
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+
+    IRowSet input = new QueueRowSet();
+    input.setRowMeta(rowMeta);
+    for (Object[] row : rows) {
+      input.putRow(rowMeta, row);
+    }
+    input.setDone();
+    return input;
+  }
+}
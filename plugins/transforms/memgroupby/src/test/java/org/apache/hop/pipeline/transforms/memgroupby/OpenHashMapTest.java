@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OpenHashMapTest {
+
+  @Test
+  public void testSameAsHashMap() {
+    OpenHashMap<Long, Integer> map = new OpenHashMap<>();
+    Map<Long, Integer> reference = new HashMap<>();
+
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      Long key = (long) random.nextInt(20000);
+      Integer value = random.nextInt();
+      assertEquals(reference.put(key, value), map.put(key, value));
+    }
+    assertEquals(reference.size(), map.size());
+    for (long key = -10; key < 20010; key++) {
+      assertEquals(reference.get(key), map.get(key));
+      assertEquals(reference.containsKey(key), map.containsKey(key));
+    }
+    assertEquals(reference, map);
+  }
+
+  @Test
+  public void testKeysWithTheSameHashCode() {
+    OpenHashMap<String, String> map = new OpenHashMap<>(2);
+    // "Aa" and "BB" have the same hash code
+    map.put("Aa", "first");
+    map.put("BB", "second");
+    assertEquals("first", map.get("Aa"));
+    assertEquals("second", map.get("BB"));
+    assertEquals(2, map.size());
+  }
+
+  @Test
+  public void testEntrySetAndClear() {
+    OpenHashMap<String, Integer> map = new OpenHashMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put("key" + i, i);
+    }
+    int sum = 0;
+    for (Map.Entry<String, Integer> entry : map.entrySet()) {
+      assertEquals("key" + entry.getValue(), entry.getKey());
+      sum += entry.getValue();
+      entry.setValue(-1);
+    }
+    assertEquals(4950, sum);
+    assertEquals(Integer.valueOf(-1), map.get("key50"));
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get("key50"));
+    assertFalse(map.entrySet().iterator().hasNext());
+  }
+}
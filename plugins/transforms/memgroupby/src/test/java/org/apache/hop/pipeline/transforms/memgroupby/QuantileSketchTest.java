@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+
+  @Test
+  public void testEmpty() {
+    assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+  }
+
+  @Test
+  public void testExactForFewValues() {
+    QuantileSketch sketch = new QuantileSketch();
+    for (double value : new double[] {4, 1, 3, 2}) {
+      sketch.add(value);
+    }
+    assertEquals(4, sketch.size());
+    assertEquals(2.5, sketch.quantile(0.5), 0.0);
+    assertEquals(1.0, sketch.quantile(0.0), 0.0);
+    assertEquals(4.0, sketch.quantile(1.0), 0.0);
+    assertEquals(
+        new Percentile().evaluate(new double[] {1, 2, 3, 4}, 50.0), sketch.quantile(0.5), 0.0);
+    assertEquals(1.25, sketch.quantile(0.25), 0.0);
+    assertEquals(
+        new Percentile().evaluate(new double[] {1, 2, 3, 4}, 25.0), sketch.quantile(0.25), 0.0);
+  }
+
+  @Test
+  public void testSameAsPercentileForFewValues() {
+    Random random = new Random(3);
+    double[] values = new double[50];
+    QuantileSketch sketch = new QuantileSketch();
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(1000) / 10.0;
+      sketch.add(values[i]);
+    }
+
+    Percentile percentile = new Percentile();
+    percentile.setData(values);
+    for (double p : new double[] {0.5, 1, 10, 25, 33.3, 50, 75, 90, 99, 100}) {
+      assertEquals("percentile " + p, percentile.evaluate(p), sketch.quantile(p / 100), 1e-9);
+    }
+  }
+
+  @Test
+  public void testEstimates() {
+    Random random = new Random(7);
+    int n = 200000;
+    double[] values = new double[n];
+    QuantileSketch sketch = new QuantileSketch();
+    for (int i = 0; i < n; i++) {
+      values[i] = Math.exp(random.nextGaussian());
+      sketch.add(values[i]);
+    }
+    Arrays.sort(values);
+
+    // The estimate has to be close to the right rank, more so in the tails
+    //
+    for (double quantile : new double[] {0.001, 0.01, 0.1, 0.5, 0.9, 0.99, 0.999}) {
+      double estimate = sketch.quantile(quantile);
+      int rank = Arrays.binarySearch(values, estimate);
+      if (rank < 0) {
+        rank = -rank - 1;
+      }
+      double maxError = 0.005 * Math.min(1.0, 4 * quantile * (1 - quantile)) + 0.0005;
+      assertEquals("quantile " + quantile, quantile, rank / (double) n, maxError);
+    }
+  }
+}
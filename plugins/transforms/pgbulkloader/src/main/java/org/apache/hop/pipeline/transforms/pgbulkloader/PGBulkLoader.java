@@ -43,12 +43,15 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import org.postgresql.PGConnection;
 import org.postgresql.copy.PGCopyOutputStream;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.ZoneId;
 import java.util.List;
 
 /** Performs a bulk load to a postgres table. */
@@ -112,17 +115,54 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     contents.append(" FROM STDIN"); // FIFO file
 
     // The "FORMAT" clause
-    contents
-        .append(" WITH CSV DELIMITER AS '")
-        .append(resolve(meta.getDelimiter()))
-        .append("' QUOTE AS '")
-        .append(resolve(meta.getEnclosure()))
-        .append("'");
+    if (data.binary) {
+      contents.append(" WITH ( FORMAT binary )");
+    } else {
+      contents
+          .append(" WITH CSV DELIMITER AS '")
+          .append(resolve(meta.getDelimiter()))
+          .append("' QUOTE AS '")
+          .append(resolve(meta.getEnclosure()))
+          .append("'");
+    }
     contents.append(";").append(Const.CR);
 
     return contents.toString();
   }
 
+  /**
+   * Look up the types of the target columns. Binary COPY data has to match these exactly.
+   *
+   * @return The PostgreSQL type names of the mapped table fields
+   */
+  String[] getColumnTypeNames() throws HopException {
+    DatabaseMeta dm = meta.getDatabaseMeta();
+    String tableName =
+        dm.getQuotedSchemaTableCombination(this, meta.getSchemaName(), meta.getTableName());
+    List<PGBulkLoaderMappingMeta> mapping = meta.getMapping();
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < mapping.size(); i++) {
+      if (i != 0) {
+        sql.append(", ");
+      }
+      sql.append(dm.quoteField(mapping.get(i).getFieldTable()));
+    }
+    sql.append(" FROM ").append(tableName).append(" WHERE 1=0");
+
+    try (Statement statement = data.db.getConnection().createStatement();
+        ResultSet rs = statement.executeQuery(sql.toString())) {
+      ResultSetMetaData rsMeta = rs.getMetaData();
+      String[] typeNames = new String[mapping.size()];
+      for (int i = 0; i < typeNames.length; i++) {
+        typeNames[i] = rsMeta.getColumnTypeName(i + 1);
+      }
+      return typeNames;
+    } catch (SQLException ex) {
+      throw new HopException("Unable to determine the column types of " + tableName, ex);
+    }
+  }
+
   void checkClientEncoding() throws Exception {
     Connection connection = data.db.getConnection();
 
@@ -154,16 +194,52 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
 
       checkClientEncoding();
 
+      // Check the column types before the table is truncated: a column which can't be loaded in
+      // the binary format mustn't leave an empty table behind.
+      //
+      String[] columnNames = null;
+      String[] columnTypeNames = null;
+      if (data.binary) {
+        columnNames = new String[meta.getMapping().size()];
+        for (int i = 0; i < columnNames.length; i++) {
+          columnNames[i] = meta.getMapping().get(i).getFieldTable();
+        }
+        columnTypeNames = getColumnTypeNames();
+        PGBulkLoaderBinaryWriter.getColumnTypes(columnNames, columnTypeNames);
+      }
+
       processTruncate();
 
       logBasic("Launching command: " + copyCmd);
-      pgCopyOut = new PGCopyOutputStream((PGConnection) data.db.getConnection(), copyCmd);
+      pgCopyOut =
+          new PGCopyOutputStream(
+              (PGConnection) data.db.getConnection(), copyCmd, data.bufferSize);
+
+      if (data.binary) {
+        data.binaryWriter =
+            new PGBulkLoaderBinaryWriter(
+                pgCopyOut, columnNames, columnTypeNames, clientEncoding, ZoneId.systemDefault());
+        data.binaryWriter.writeHeader();
+      }
+      data.batchStartTime = System.currentTimeMillis();
 
     } catch (Exception ex) {
+      cancelCopy();
       throw new HopException("Error while preparing the COPY " + copyCmd, ex);
     }
   }
 
+  /** Abort a COPY which was started so the connection can be used again. */
+  private void cancelCopy() {
+    if (pgCopyOut != null && pgCopyOut.isActive()) {
+      try {
+        pgCopyOut.cancelCopy();
+      } catch (SQLException ex) {
+        logError("Error cancelling the COPY command", ex);
+      }
+    }
+  }
+
   @VisibleForTesting
   Database getDatabase(ILoggingObject parentObject, PGBulkLoaderMeta pgBulkLoaderMeta) {
     DatabaseMeta dbMeta = pgBulkLoaderMeta.getDatabaseMeta();
@@ -217,8 +293,14 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         // Close the output stream...
         // will be null if no records (empty stream)
         if (data != null && pgCopyOut != null) {
+          if (data.binaryWriter != null) {
+            data.binaryWriter.writeTrailer();
+          }
           pgCopyOut.flush();
-          pgCopyOut.endCopy();
+          long rowsLoaded = pgCopyOut.endCopy();
+          logBasic(
+              BaseMessages.getString(
+                  PKG, "PGBulkLoader.Log.CopyFinished", Long.toString(rowsLoaded)));
           pgCopyOut.close();
           data.db.getConnection().close();
         }
@@ -245,7 +327,12 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         //
       }
 
-      writeRowToPostgres(getInputRowMeta(), r);
+      if (data.binary) {
+        data.binaryWriter.writeRow(getInputRowMeta(), r, data.keynrs);
+      } else {
+        writeRowToPostgres(getInputRowMeta(), r);
+      }
+      finishBatch();
 
       putRow(getInputRowMeta(), r);
       incrementLinesOutput();
@@ -260,6 +347,28 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     }
   }
 
+  /**
+   * Count the row that was sent. At the end of every batch the buffered data is pushed to the
+   * server and the progress is logged.
+   */
+  private void finishBatch() throws IOException {
+    data.rowsSent++;
+    if (data.batchSize <= 0 || data.rowsSent % data.batchSize != 0) {
+      return;
+    }
+    pgCopyOut.flush();
+
+    long now = System.currentTimeMillis();
+    long rowsPerSecond = data.batchSize * 1000L / Math.max(1L, now - data.batchStartTime);
+    logBasic(
+        BaseMessages.getString(
+            PKG,
+            "PGBulkLoader.Log.BatchSent",
+            Long.toString(data.rowsSent),
+            Long.toString(rowsPerSecond)));
+    data.batchStartTime = now;
+  }
+
   private void writeRowToPostgres(IRowMeta rowMeta, Object[] r) throws HopException {
 
     try {
@@ -461,6 +570,16 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
       }
       data.newline = Const.CR.getBytes();
 
+      data.binary =
+          PGBulkLoaderMeta.COPY_FORMAT_BINARY.equalsIgnoreCase(resolve(meta.getCopyFormat()));
+      data.bufferSize =
+          Const.toInt(resolve(meta.getBufferSize()), PGBulkLoaderMeta.DEFAULT_BUFFER_SIZE);
+      if (data.bufferSize <= 0) {
+        data.bufferSize = PGBulkLoaderMeta.DEFAULT_BUFFER_SIZE;
+      }
+      data.batchSize =
+          Const.toInt(resolve(meta.getBatchSize()), PGBulkLoaderMeta.DEFAULT_BATCH_SIZE);
+
       data.dateFormatChoices = new int[meta.getMapping().size()];
       for (int i = 0; i < data.dateFormatChoices.length; i++) {
         if (Utils.isEmpty(meta.getMapping().get(i).getDateMask())) {
@@ -0,0 +1,377 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Writes rows in the binary format of the PostgreSQL COPY command. Every value is encoded in the
+ * binary representation of the type of its target column so numbers and dates don't need to be
+ * formatted in Hop and parsed again by the server.
+ *
+ * <p>A row is encoded in a reusable buffer first and then written to the output stream in one go.
+ */
+public class PGBulkLoaderBinaryWriter {
+
+  private static final byte[] SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
+
+  /** The number of days between 1970-01-01 and 2000-01-01, the PostgreSQL epoch */
+  static final long PG_EPOCH_DAYS = 10957L;
+
+  /** The number of microseconds between 1970-01-01 and 2000-01-01 UTC */
+  static final long PG_EPOCH_MICROS = PG_EPOCH_DAYS * 86400L * 1000000L;
+
+  private static final BigInteger NBASE = BigInteger.valueOf(10000);
+
+  /** The column types which can be loaded in the binary format */
+  enum ColumnType {
+    SMALLINT,
+    INTEGER,
+    BIGINT,
+    REAL,
+    DOUBLE,
+    NUMERIC,
+    BOOLEAN,
+    TEXT,
+    BYTEA,
+    UUID,
+    DATE,
+    TIMESTAMP,
+    TIMESTAMPTZ
+  }
+
+  private final OutputStream out;
+  private final ColumnType[] columnTypes;
+  private final Charset encoding;
+  private final ZoneId zone;
+
+  private final ByteArrayOutputStream rowBuffer = new ByteArrayOutputStream(1024);
+  private final DataOutputStream row = new DataOutputStream(rowBuffer);
+
+  /**
+   * @param out The COPY stream to write to
+   * @param columnNames The names of the target columns, for the error messages
+   * @param columnTypeNames The PostgreSQL type names of the target columns like int4 or timestamptz
+   * @param encoding The client encoding of the connection, used for the text values
+   * @param zone The time zone in which dates are converted to a date or timestamp without time zone
+   * @throws HopException In case a column has a type which can't be loaded in the binary format
+   */
+  public PGBulkLoaderBinaryWriter(
+      OutputStream out,
+      String[] columnNames,
+      String[] columnTypeNames,
+      Charset encoding,
+      ZoneId zone)
+      throws HopException {
+    this.out = out;
+    this.encoding = encoding;
+    this.zone = zone;
+    this.columnTypes = getColumnTypes(columnNames, columnTypeNames);
+  }
+
+  /**
+   * Look up the binary encoding of every target column.
+   *
+   * @param columnNames The names of the target columns, for the error messages
+   * @param columnTypeNames The PostgreSQL type names of the target columns
+   * @return The column types
+   * @throws HopException In case a column has a type which can't be loaded in the binary format
+   */
+  static ColumnType[] getColumnTypes(String[] columnNames, String[] columnTypeNames)
+      throws HopException {
+    ColumnType[] columnTypes = new ColumnType[columnTypeNames.length];
+    for (int i = 0; i < columnTypeNames.length; i++) {
+      columnTypes[i] = getColumnType(columnTypeNames[i]);
+      if (columnTypes[i] == null) {
+        throw new HopException(
+            "Column ["
+                + columnNames[i]
+                + "] has type ["
+                + columnTypeNames[i]
+                + "] which can't be loaded with the binary COPY format,"
+                + " use the CSV format instead");
+      }
+    }
+    return columnTypes;
+  }
+
+  /**
+   * Look up the binary encoding for a PostgreSQL type.
+   *
+   * @param typeName The type name as reported by the JDBC driver
+   * @return The column type or null if it isn't supported
+   */
+  static ColumnType getColumnType(String typeName) {
+    if (typeName == null) {
+      return null;
+    }
+    switch (typeName.toLowerCase()) {
+      case "int2":
+      case "smallserial":
+        return ColumnType.SMALLINT;
+      case "int4":
+      case "serial":
+        return ColumnType.INTEGER;
+      case "int8":
+      case "bigserial":
+        return ColumnType.BIGINT;
+      case "float4":
+        return ColumnType.REAL;
+      case "float8":
+        return ColumnType.DOUBLE;
+      case "numeric":
+        return ColumnType.NUMERIC;
+      case "bool":
+        return ColumnType.BOOLEAN;
+      case "text":
+      case "varchar":
+      case "bpchar":
+      case "name":
+      case "json":
+        return ColumnType.TEXT;
+      case "bytea":
+        return ColumnType.BYTEA;
+      case "uuid":
+        return ColumnType.UUID;
+      case "date":
+        return ColumnType.DATE;
+      case "timestamp":
+        return ColumnType.TIMESTAMP;
+      case "timestamptz":
+        return ColumnType.TIMESTAMPTZ;
+      default:
+        return null;
+    }
+  }
+
+  /** Write the header which starts the binary COPY data. */
+  public void writeHeader() throws IOException {
+    row.write(SIGNATURE);
+    row.writeInt(0); // flags, no OIDs
+    row.writeInt(0); // no header extension
+    flushRow();
+  }
+
+  /**
+   * Write a row.
+   *
+   * @param rowMeta The layout of the row
+   * @param r The row data
+   * @param fieldIndexes The indexes of the fields to load, in the order of the target columns
+   */
+  public void writeRow(IRowMeta rowMeta, Object[] r, int[] fieldIndexes)
+      throws HopException, IOException {
+    // Drop what's left of a row which failed halfway
+    //
+    rowBuffer.reset();
+    row.writeShort(fieldIndexes.length);
+    for (int i = 0; i < fieldIndexes.length; i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(fieldIndexes[i]);
+      Object valueData = r[fieldIndexes[i]];
+      if (valueMeta.isNull(valueData)) {
+        row.writeInt(-1);
+      } else {
+        writeValue(columnTypes[i], valueMeta, valueData);
+      }
+    }
+    flushRow();
+  }
+
+  /** Write the trailer which ends the binary COPY data. */
+  public void writeTrailer() throws IOException {
+    row.writeShort(-1);
+    flushRow();
+  }
+
+  private void flushRow() throws IOException {
+    rowBuffer.writeTo(out);
+    rowBuffer.reset();
+  }
+
+  private void writeValue(ColumnType columnType, IValueMeta valueMeta, Object valueData)
+      throws HopException, IOException {
+    switch (columnType) {
+      case SMALLINT:
+        long smallint = valueMeta.getInteger(valueData);
+        if (smallint < Short.MIN_VALUE || smallint > Short.MAX_VALUE) {
+          throw outOfRange(valueMeta, smallint);
+        }
+        row.writeInt(2);
+        row.writeShort((int) smallint);
+        break;
+      case INTEGER:
+        long integer = valueMeta.getInteger(valueData);
+        if (integer < Integer.MIN_VALUE || integer > Integer.MAX_VALUE) {
+          throw outOfRange(valueMeta, integer);
+        }
+        row.writeInt(4);
+        row.writeInt((int) integer);
+        break;
+      case BIGINT:
+        row.writeInt(8);
+        row.writeLong(valueMeta.getInteger(valueData));
+        break;
+      case REAL:
+        row.writeInt(4);
+        row.writeFloat(valueMeta.getNumber(valueData).floatValue());
+        break;
+      case DOUBLE:
+        row.writeInt(8);
+        row.writeDouble(valueMeta.getNumber(valueData));
+        break;
+      case NUMERIC:
+        writeNumeric(valueMeta.getBigNumber(valueData));
+        break;
+      case BOOLEAN:
+        row.writeInt(1);
+        row.writeByte(valueMeta.getBoolean(valueData) ? 1 : 0);
+        break;
+      case TEXT:
+        writeBytes(valueMeta.getString(valueData).getBytes(encoding));
+        break;
+      case BYTEA:
+        writeBytes(valueMeta.getBinary(valueData));
+        break;
+      case UUID:
+        UUID uuid = UUID.fromString(valueMeta.getString(valueData).trim());
+        row.writeInt(16);
+        row.writeLong(uuid.getMostSignificantBits());
+        row.writeLong(uuid.getLeastSignificantBits());
+        break;
+      case DATE:
+        LocalDateTime date = toLocalDateTime(valueMeta, valueData);
+        row.writeInt(4);
+        row.writeInt((int) (date.toLocalDate().toEpochDay() - PG_EPOCH_DAYS));
+        break;
+      case TIMESTAMP:
+        LocalDateTime timestamp = toLocalDateTime(valueMeta, valueData);
+        row.writeInt(8);
+        row.writeLong(
+            timestamp.toEpochSecond(ZoneOffset.UTC) * 1000000L
+                + timestamp.getNano() / 1000
+                - PG_EPOCH_MICROS);
+        break;
+      case TIMESTAMPTZ:
+        Timestamp instant = toTimestamp(valueMeta, valueData);
+        row.writeInt(8);
+        row.writeLong(
+            Math.floorDiv(instant.getTime(), 1000L) * 1000000L
+                + instant.getNanos() / 1000
+                - PG_EPOCH_MICROS);
+        break;
+      default:
+        throw new HopException("Unsupported column type " + columnType);
+    }
+  }
+
+  private void writeBytes(byte[] bytes) throws IOException {
+    row.writeInt(bytes.length);
+    row.write(bytes);
+  }
+
+  /**
+   * Write a numeric as a sign, a scale and a series of base 10000 digits with the weight of the
+   * first one.
+   */
+  private void writeNumeric(BigDecimal number) throws IOException {
+    int scale = Math.max(0, number.scale());
+    BigInteger unscaled = number.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue();
+    int sign = unscaled.signum() < 0 ? 0x4000 : 0x0000;
+    unscaled = unscaled.abs();
+
+    // Align the decimal point on a digit boundary
+    //
+    int fractionDigits = (scale + 3) / 4;
+    unscaled = unscaled.multiply(BigInteger.TEN.pow(fractionDigits * 4 - scale));
+
+    // Collect the base 10000 digits, the least significant first
+    //
+    short[] digits = new short[unscaled.toString().length() / 4 + 1];
+    int nrDigits = 0;
+    while (unscaled.signum() > 0) {
+      BigInteger[] divRem = unscaled.divideAndRemainder(NBASE);
+      digits[nrDigits++] = divRem[1].shortValue();
+      unscaled = divRem[0];
+    }
+    int weight = nrDigits - fractionDigits - 1;
+
+    // Trailing zero digits are left out, the scale keeps the display precision
+    //
+    int first = 0;
+    while (first < nrDigits && digits[first] == 0) {
+      first++;
+    }
+    if (first == nrDigits) {
+      sign = 0x0000;
+      weight = 0;
+    }
+
+    row.writeInt(8 + 2 * (nrDigits - first));
+    row.writeShort(nrDigits - first);
+    row.writeShort(weight);
+    row.writeShort(sign);
+    row.writeShort(scale);
+    for (int d = nrDigits - 1; d >= first; d--) {
+      row.writeShort(digits[d]);
+    }
+  }
+
+  private LocalDateTime toLocalDateTime(IValueMeta valueMeta, Object valueData)
+      throws HopException {
+    Timestamp timestamp = toTimestamp(valueMeta, valueData);
+    return LocalDateTime.ofInstant(timestamp.toInstant(), zone);
+  }
+
+  private static Timestamp toTimestamp(IValueMeta valueMeta, Object valueData)
+      throws HopException {
+    if (valueMeta instanceof ValueMetaTimestamp) {
+      return ((ValueMetaTimestamp) valueMeta).getTimestamp(valueData);
+    }
+    Date date = valueMeta.getDate(valueData);
+    return new Timestamp(date.getTime());
+  }
+
+  private static HopException outOfRange(IValueMeta valueMeta, long value) {
+    return new HopException(
+        "Value "
+            + value
+            + " of field ["
+            + valueMeta.getName()
+            + "] is out of range for its column");
+  }
+}
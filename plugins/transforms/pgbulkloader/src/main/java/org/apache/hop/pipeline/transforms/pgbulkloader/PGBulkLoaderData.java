@@ -20,7 +20,6 @@ package org.apache.hop.pipeline.transforms.pgbulkloader;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.value.ValueMetaDate;
-import org.apache.hop.core.util.StreamLogger;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.postgresql.PGConnection;
@@ -33,12 +32,6 @@ public class PGBulkLoaderData extends BaseTransformData implements ITransformDat
 
   public int[] keynrs; // nr of keylookup -value in row...
 
-  public StreamLogger errorLogger;
-
-  public Process psqlProcess;
-
-  public StreamLogger outputLogger;
-
   public OutputStream pgOutputStream;
 
   public byte[] quote;
@@ -52,6 +45,22 @@ public class PGBulkLoaderData extends BaseTransformData implements ITransformDat
   public IValueMeta dateMeta;
   public IValueMeta dateTimeMeta;
 
+  /** true if the rows are sent in the binary COPY format */
+  public boolean binary;
+
+  /** Encodes the rows in the binary COPY format */
+  public PGBulkLoaderBinaryWriter binaryWriter;
+
+  public int bufferSize;
+
+  public int batchSize;
+
+  /** The number of rows sent to the COPY command so far */
+  public long rowsSent;
+
+  /** When the current batch was started, to report the throughput */
+  public long batchStartTime;
+
   /** Default constructor. */
   public PGBulkLoaderData() {
     super();
@@ -76,6 +76,12 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
 
   private TextVar wDbNameOverride;
 
+  private CCombo wCopyFormat;
+
+  private TextVar wBufferSize;
+
+  private TextVar wBatchSize;
+
   private Button wStopOnError;
 
   private final PGBulkLoaderMeta input;
@@ -281,13 +287,73 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     fdDelimiter.right = new FormAttachment(100, 0);
     wDelimiter.setLayoutData(fdDelimiter);
 
+    // Copy format line
+    Label wlCopyFormat = new Label(shell, SWT.RIGHT);
+    wlCopyFormat.setText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.CopyFormat.Label"));
+    props.setLook(wlCopyFormat);
+    FormData fdlCopyFormat = new FormData();
+    fdlCopyFormat.left = new FormAttachment(0, 0);
+    fdlCopyFormat.top = new FormAttachment(wDelimiter, margin);
+    fdlCopyFormat.right = new FormAttachment(middle, -margin);
+    wlCopyFormat.setLayoutData(fdlCopyFormat);
+    wCopyFormat = new CCombo(shell, SWT.SINGLE | SWT.READ_ONLY | SWT.BORDER);
+    wCopyFormat.setToolTipText(
+        BaseMessages.getString(PKG, "PGBulkLoaderDialog.CopyFormat.Tooltip"));
+    wCopyFormat.add(PGBulkLoaderMeta.COPY_FORMAT_CSV);
+    wCopyFormat.add(PGBulkLoaderMeta.COPY_FORMAT_BINARY);
+    wCopyFormat.select(0);
+    wCopyFormat.addModifyListener(lsMod);
+    wCopyFormat.addModifyListener(e -> enableFields());
+    props.setLook(wCopyFormat);
+    FormData fdCopyFormat = new FormData();
+    fdCopyFormat.left = new FormAttachment(middle, 0);
+    fdCopyFormat.top = new FormAttachment(wDelimiter, margin);
+    fdCopyFormat.right = new FormAttachment(100, 0);
+    wCopyFormat.setLayoutData(fdCopyFormat);
+
+    // Buffer size line
+    Label wlBufferSize = new Label(shell, SWT.RIGHT);
+    wlBufferSize.setText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.BufferSize.Label"));
+    props.setLook(wlBufferSize);
+    FormData fdlBufferSize = new FormData();
+    fdlBufferSize.left = new FormAttachment(0, 0);
+    fdlBufferSize.top = new FormAttachment(wCopyFormat, margin);
+    fdlBufferSize.right = new FormAttachment(middle, -margin);
+    wlBufferSize.setLayoutData(fdlBufferSize);
+    wBufferSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wBufferSize);
+    wBufferSize.addModifyListener(lsMod);
+    FormData fdBufferSize = new FormData();
+    fdBufferSize.left = new FormAttachment(middle, 0);
+    fdBufferSize.top = new FormAttachment(wCopyFormat, margin);
+    fdBufferSize.right = new FormAttachment(100, 0);
+    wBufferSize.setLayoutData(fdBufferSize);
+
+    // Batch size line
+    Label wlBatchSize = new Label(shell, SWT.RIGHT);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.BatchSize.Label"));
+    props.setLook(wlBatchSize);
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.top = new FormAttachment(wBufferSize, margin);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+    wBatchSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wBatchSize);
+    wBatchSize.addModifyListener(lsMod);
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(middle, 0);
+    fdBatchSize.top = new FormAttachment(wBufferSize, margin);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    wBatchSize.setLayoutData(fdBatchSize);
+
     // Stop on Error line
     Label wlStopOnError = new Label(shell, SWT.RIGHT);
     wlStopOnError.setText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.StopOnError.Label"));
     props.setLook(wlStopOnError);
     FormData fdlStopOnError = new FormData();
     fdlStopOnError.left = new FormAttachment(0, 0);
-    fdlStopOnError.top = new FormAttachment(wDelimiter, margin);
+    fdlStopOnError.top = new FormAttachment(wBatchSize, margin);
     fdlStopOnError.right = new FormAttachment(middle, -margin);
     wlStopOnError.setLayoutData(fdlStopOnError);
     wStopOnError = new Button(shell, SWT.CHECK);
@@ -482,6 +548,18 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     if (input.getDbNameOverride() != null) {
       wDbNameOverride.setText(input.getDbNameOverride());
     }
+    if (PGBulkLoaderMeta.COPY_FORMAT_BINARY.equalsIgnoreCase(input.getCopyFormat())) {
+      wCopyFormat.select(1);
+    } else {
+      wCopyFormat.select(0);
+    }
+    if (input.getBufferSize() != null) {
+      wBufferSize.setText(input.getBufferSize());
+    }
+    if (input.getBatchSize() != null) {
+      wBatchSize.setText(input.getBatchSize());
+    }
+    enableFields();
 
     String action = input.getLoadAction();
     if (PGBulkLoaderMeta.ACTION_INSERT.equals(action)) {
@@ -703,6 +781,9 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     inf.setDelimiter(wDelimiter.getText());
     inf.setEnclosure(wEnclosure.getText());
     inf.setStopOnError(wStopOnError.getSelection());
+    inf.setCopyFormat(wCopyFormat.getText());
+    inf.setBufferSize(wBufferSize.getText());
+    inf.setBatchSize(wBatchSize.getText());
 
     /*
      * /* Set the loadaction
@@ -722,6 +803,13 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     transformName = wTransformName.getText(); // return value
   }
 
+  /** The enclosure and delimiter only apply to the CSV format */
+  private void enableFields() {
+    boolean csv = !PGBulkLoaderMeta.COPY_FORMAT_BINARY.equals(wCopyFormat.getText());
+    wEnclosure.setEnabled(csv);
+    wDelimiter.setEnabled(csv);
+  }
+
   private void ok() {
     if (Utils.isEmpty(wTransformName.getText())) {
       return;
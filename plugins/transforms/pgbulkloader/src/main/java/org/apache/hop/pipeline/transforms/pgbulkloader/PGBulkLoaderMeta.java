@@ -110,6 +110,24 @@ public class PGBulkLoaderMeta extends BaseTransformMeta
       injectionKeyDescription = "PGBulkLoader.Injection.StopOnError.Label")
   private boolean stopOnError;
 
+  /** The format of the COPY data: CSV or BINARY */
+  @HopMetadataProperty(
+      key = "copy_format",
+      injectionKeyDescription = "PGBulkLoader.Injection.CopyFormat.Label")
+  private String copyFormat;
+
+  /** The size in bytes of the buffer in which the COPY data is collected before it's sent */
+  @HopMetadataProperty(
+      key = "buffer_size",
+      injectionKeyDescription = "PGBulkLoader.Injection.BufferSize.Label")
+  private String bufferSize;
+
+  /** The number of rows after which the buffer is flushed to the server and progress is logged */
+  @HopMetadataProperty(
+      key = "batch_size",
+      injectionKeyDescription = "PGBulkLoader.Injection.BatchSize.Label")
+  private String batchSize;
+
   /*
    * Do not translate following values!!! They are will end up in the workflow export.
    */
@@ -123,6 +141,15 @@ public class PGBulkLoaderMeta extends BaseTransformMeta
   public static final String DATE_MASK_DATE = "DATE";
   public static final String DATE_MASK_DATETIME = "DATETIME";
 
+  /*
+   * Do not translate following values!!! They are will end up in the workflow export.
+   */
+  public static final String COPY_FORMAT_CSV = "CSV";
+  public static final String COPY_FORMAT_BINARY = "BINARY";
+
+  public static final int DEFAULT_BUFFER_SIZE = 65536;
+  public static final int DEFAULT_BATCH_SIZE = 100000;
+
   public static final int NR_DATE_MASK_PASS_THROUGH = 0;
   public static final int NR_DATE_MASK_DATE = 1;
   public static final int NR_DATE_MASK_DATETIME = 2;
@@ -170,6 +197,9 @@ public class PGBulkLoaderMeta extends BaseTransformMeta
     delimiter = ";";
     enclosure = "\"";
     stopOnError = false;
+    copyFormat = COPY_FORMAT_CSV;
+    bufferSize = Integer.toString(DEFAULT_BUFFER_SIZE);
+    batchSize = Integer.toString(DEFAULT_BATCH_SIZE);
     mapping = new ArrayList<>();
   }
 
@@ -560,4 +590,28 @@ public class PGBulkLoaderMeta extends BaseTransformMeta
   public void setStopOnError(boolean value) {
     this.stopOnError = value;
   }
+
+  public String getCopyFormat() {
+    return copyFormat;
+  }
+
+  public void setCopyFormat(String copyFormat) {
+    this.copyFormat = copyFormat;
+  }
+
+  public String getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setBufferSize(String bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  public String getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(String batchSize) {
+    this.batchSize = batchSize;
+  }
 }
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class PGBulkLoaderBinaryWriterTest {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+  private PGBulkLoaderBinaryWriter createWriter(String... typeNames) throws HopException {
+    return new PGBulkLoaderBinaryWriter(
+        out, typeNames, typeNames, StandardCharsets.UTF_8, ZoneOffset.UTC);
+  }
+
+  private DataInputStream written() {
+    return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  @Test
+  public void testHeaderAndTrailer() throws Exception {
+    PGBulkLoaderBinaryWriter writer = createWriter();
+    writer.writeHeader();
+    writer.writeTrailer();
+
+    byte[] signature = new byte[11];
+    DataInputStream in = written();
+    in.readFully(signature);
+    assertArrayEquals("PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1), signature);
+    assertEquals(0, in.readInt());
+    assertEquals(0, in.readInt());
+    assertEquals(-1, in.readShort());
+    assertEquals(-1, in.read());
+  }
+
+  @Test
+  public void testWriteRow() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("skipped"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaString("code"));
+    rowMeta.addValueMeta(new ValueMetaDate("day"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("moment"));
+
+    Timestamp moment = new Timestamp(946684801000L); // 2000-01-01 00:00:01 UTC
+    moment.setNanos(500001000);
+    Object[] row = {"x", 42L, "h\u00e9llo", null, new Date(946771200000L), moment};
+
+    PGBulkLoaderBinaryWriter writer = createWriter("int8", "varchar", "int4", "date", "timestamp");
+    writer.writeRow(rowMeta, row, new int[] {1, 2, 3, 4, 5});
+
+    DataInputStream in = written();
+    assertEquals(5, in.readShort());
+    assertEquals(8, in.readInt());
+    assertEquals(42L, in.readLong());
+    byte[] name = "h\u00e9llo".getBytes(StandardCharsets.UTF_8);
+    assertEquals(name.length, in.readInt());
+    byte[] text = new byte[name.length];
+    in.readFully(text);
+    assertArrayEquals(name, text);
+    assertEquals(-1, in.readInt());
+    assertEquals(4, in.readInt());
+    assertEquals(1, in.readInt());
+    assertEquals(8, in.readInt());
+    assertEquals(1500001L, in.readLong());
+    assertEquals(-1, in.read());
+  }
+
+  @Test
+  public void testNumeric() throws Exception {
+    assertNumeric(writeNumeric("123.45"), 0, 0x0000, 2, 123, 4500);
+    assertNumeric(writeNumeric("-0.0001"), -1, 0x4000, 4, 1);
+    assertNumeric(writeNumeric("1E+8"), 2, 0x0000, 0, 1);
+    assertNumeric(writeNumeric("10000.5"), 1, 0x0000, 1, 1, 0, 5000);
+    assertNumeric(writeNumeric("0.00"), 0, 0x0000, 2);
+  }
+
+  @Test
+  public void testOutOfRange() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    PGBulkLoaderBinaryWriter writer = createWriter("int2");
+    try {
+      writer.writeRow(rowMeta, new Object[] {40000L}, new int[] {0});
+      fail("A value which doesn't fit a smallint should be refused");
+    } catch (HopException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testUnsupportedColumnType() {
+    assertNull(PGBulkLoaderBinaryWriter.getColumnType("interval"));
+    try {
+      createWriter("int4", "interval");
+      fail("An interval column can't be loaded in the binary format");
+    } catch (HopException e) {
+      // Expected
+    }
+  }
+
+  private DataInputStream writeNumeric(String number) throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+
+    out.reset();
+    PGBulkLoaderBinaryWriter writer = createWriter("numeric");
+    writer.writeRow(rowMeta, new Object[] {new BigDecimal(number)}, new int[] {0});
+
+    DataInputStream in = written();
+    assertEquals(1, in.readShort());
+    return in;
+  }
+
+  private static void assertNumeric(
+      DataInputStream in, int weight, int sign, int scale, int... digits) throws Exception {
+    assertEquals(8 + 2 * digits.length, in.readInt());
+    assertEquals(digits.length, in.readShort());
+    assertEquals(weight, in.readShort());
+    assertEquals(sign, in.readShort());
+    assertEquals(scale, in.readShort());
+    for (int digit : digits) {
+      assertEquals(digit, in.readShort());
+    }
+    assertEquals(-1, in.read());
+  }
+}
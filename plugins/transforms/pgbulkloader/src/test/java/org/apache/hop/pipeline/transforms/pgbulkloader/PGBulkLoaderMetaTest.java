@@ -64,6 +64,9 @@ public class PGBulkLoaderMetaTest {
             "delimiter",
             "enclosure",
             "stopOnError",
+            "copyFormat",
+            "bufferSize",
+            "batchSize",
             "databaseMeta");
 
     Map<String, String> getterMap =
@@ -76,6 +79,9 @@ public class PGBulkLoaderMetaTest {
             put("delimiter", "getDelimiter");
             put("enclosure", "getEnclosure");
             put("stopOnError", "isStopOnError");
+            put("copyFormat", "getCopyFormat");
+            put("bufferSize", "getBufferSize");
+            put("batchSize", "getBatchSize");
             put("databaseMeta", "getDatabaseMeta");
           }
         };
@@ -89,6 +95,9 @@ public class PGBulkLoaderMetaTest {
             put("delimiter", "setDelimiter");
             put("enclosure", "setEnclosure");
             put("stopOnError", "setStopOnError");
+            put("copyFormat", "setCopyFormat");
+            put("bufferSize", "setBufferSize");
+            put("batchSize", "setBatchSize");
             put("databaseMeta", "setDatabaseMeta");
           }
         };
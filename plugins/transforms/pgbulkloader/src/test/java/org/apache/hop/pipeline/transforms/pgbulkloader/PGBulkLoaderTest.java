@@ -26,12 +26,16 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopXmlException;
 import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.databases.postgresql.PostgreSqlDatabaseMeta;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
@@ -113,6 +117,42 @@ public class PGBulkLoaderTest {
     verify(spy).processTruncate();
   }
 
+  @Test
+  public void testUnsupportedColumnTypeDoesNotTruncate() throws Exception {
+    PGBulkLoaderMappingMeta mapping = new PGBulkLoaderMappingMeta();
+    mapping.setFieldTable("period");
+    mapping.setFieldStream("period");
+    PGBulkLoaderMeta meta = mock(PGBulkLoaderMeta.class);
+    doReturn(new DatabaseMeta()).when(meta).getDatabaseMeta();
+    doReturn(Collections.singletonList(mapping)).when(meta).getMapping();
+    doReturn(PGBulkLoaderMeta.COPY_FORMAT_BINARY).when(meta).getCopyFormat();
+    doReturn("truncate").when(meta).getLoadAction();
+    PGBulkLoaderData data = mock(PGBulkLoaderData.class);
+
+    PGBulkLoader spy =
+        spy(
+            new PGBulkLoader(
+                transformMockHelper.transformMeta,
+                meta,
+                data,
+                0,
+                transformMockHelper.pipelineMeta,
+                transformMockHelper.pipeline));
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("period"));
+    doReturn(new Object[] {"1 day"}).when(spy).getRow();
+    doReturn(inputRowMeta).when(spy).getInputRowMeta();
+    doReturn("").when(spy).getCopyCommand();
+    doNothing().when(spy).connect();
+    doNothing().when(spy).checkClientEncoding();
+    doReturn(new String[] {"interval"}).when(spy).getColumnTypeNames();
+    doNothing().when(spy).processTruncate();
+    spy.init();
+    assertFalse(spy.processRow());
+    verify(spy, never()).processTruncate();
+  }
+
   @Test
   public void testDBNameOverridden_IfDbNameOverrideSetUp() throws Exception {
     // Db Name Override is set up
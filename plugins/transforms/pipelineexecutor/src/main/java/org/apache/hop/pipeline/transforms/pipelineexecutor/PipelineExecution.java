@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.pipeline.transforms.pipelineexecutor;
+
+import org.apache.hop.core.Result;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+import java.util.List;
+
+/** A started execution of the pipeline for a group of rows of which the results are pending. */
+class PipelineExecution {
+  final IPipelineEngine<PipelineMeta> pipeline;
+  final List<RowMetaAndData> rows;
+  final long startTime;
+
+  /** The result in case the execution failed to start, null if it's running */
+  Result failedResult;
+
+  PipelineExecution(
+      IPipelineEngine<PipelineMeta> pipeline, List<RowMetaAndData> rows, long startTime) {
+    this.pipeline = pipeline;
+    this.rows = rows;
+    this.startTime = startTime;
+  }
+}
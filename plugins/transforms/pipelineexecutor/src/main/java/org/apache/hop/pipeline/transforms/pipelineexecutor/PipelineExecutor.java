@@ -69,6 +69,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
       if (row == null) {
         executePipeline(null);
+        finishExecutions(0);
         setOutputDone();
         return false;
       }
@@ -244,6 +245,11 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     result.setRows(pipelineExecutorData.groupBuffer);
     executorPipeline.setPreviousResult(result);
 
+    if (pipelineExecutorData.parallelExecutions > 1) {
+      startExecution(executorPipeline, result);
+      return;
+    }
+
     try {
       executorPipeline.prepareExecution();
 
@@ -267,6 +273,62 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     pipelineExecutorData.groupBuffer.clear();
   }
 
+  /**
+   * Start the execution of the pipeline for the current group without waiting for it. When the
+   * maximum number of parallel executions is reached we wait for the oldest ones to finish and pass
+   * their results on so that the results keep the order of the groups.
+   */
+  @VisibleForTesting
+  void startExecution(IPipelineEngine<PipelineMeta> executorPipeline, Result result)
+      throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    PipelineExecution execution =
+        new PipelineExecution(
+            executorPipeline,
+            pipelineExecutorData.groupBuffer,
+            pipelineExecutorData.groupTimeStart);
+    try {
+      executorPipeline.prepareExecution();
+      executorPipeline.startThreads();
+    } catch (HopException e) {
+      log.logError("An error occurred executing the pipeline: ", e);
+      result.setResult(false);
+      result.setNrErrors(1);
+      execution.failedResult = result;
+    }
+    pipelineExecutorData.runningExecutions.add(execution);
+
+    // The running pipeline reads the rows of this group: start a new buffer
+    //
+    pipelineExecutorData.groupBuffer = new ArrayList<>();
+
+    finishExecutions(pipelineExecutorData.parallelExecutions - 1);
+  }
+
+  /**
+   * Wait for the oldest running executions and pass their results on until no more than the given
+   * number of executions is running.
+   */
+  @VisibleForTesting
+  void finishExecutions(int maxRunning) throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    if (pipelineExecutorData.runningExecutions == null) {
+      return;
+    }
+    while (pipelineExecutorData.runningExecutions.size() > maxRunning) {
+      PipelineExecution execution = pipelineExecutorData.runningExecutions.poll();
+      Result result = execution.failedResult;
+      if (result == null) {
+        execution.pipeline.waitUntilFinished();
+        result = execution.pipeline.getResult();
+      }
+
+      collectPipelineResults(result);
+      collectExecutionResults(result, execution.pipeline, execution.startTime);
+      collectExecutionResultFiles(result);
+    }
+  }
+
   @VisibleForTesting
   void discardLogLines(PipelineExecutorData pipelineExecutorData) {
     // Keep the strain on the logging back-end conservative.
@@ -284,7 +346,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     String runConfigurationName = resolve(meta.getRunConfigurationName());
     IPipelineEngine<PipelineMeta> executorPipeline =
         PipelineEngineFactory.createPipelineEngine(
-            this, runConfigurationName, metadataProvider, getData().getExecutorPipelineMeta());
+            this, runConfigurationName, metadataProvider, getExecutionPipelineMeta());
     executorPipeline.setParentPipeline(getPipeline());
     executorPipeline.setParent(this);
     executorPipeline.setLogLevel(getLogLevel());
@@ -294,6 +356,21 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     return executorPipeline;
   }
 
+  /**
+   * Pipelines running at the same time can't share their metadata: an execution which runs next to
+   * others gets its own copy of the loaded pipeline.
+   *
+   * @return The pipeline metadata to create the next execution with
+   */
+  @VisibleForTesting
+  PipelineMeta getExecutionPipelineMeta() {
+    PipelineMeta executorPipelineMeta = getData().getExecutorPipelineMeta();
+    if (getData().parallelExecutions > 1) {
+      return (PipelineMeta) executorPipelineMeta.realClone(false);
+    }
+    return executorPipelineMeta;
+  }
+
   @VisibleForTesting
   void passParametersToPipeline(List<String> incomingFieldValues) throws HopException {
     // The values of the incoming fields from the previous transform.
@@ -415,6 +492,12 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
   @VisibleForTesting
   void collectExecutionResults(Result result) throws HopException {
+    collectExecutionResults(result, getData().getExecutorPipeline(), getData().groupTimeStart);
+  }
+
+  private void collectExecutionResults(
+      Result result, IPipelineEngine<PipelineMeta> executorPipeline, long startTime)
+      throws HopException {
     IRowSet executionResultsRowSet = getData().getExecutionResultRowSet();
     if (meta.getExecutionResultTargetTransformMeta() != null && executionResultsRowSet != null) {
       Object[] outputRow =
@@ -422,7 +505,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       int idx = 0;
 
       if (!Utils.isEmpty(meta.getExecutionTimeField())) {
-        outputRow[idx++] = Long.valueOf(System.currentTimeMillis() - getData().groupTimeStart);
+        outputRow[idx++] = Long.valueOf(System.currentTimeMillis() - startTime);
       }
       if (!Utils.isEmpty(meta.getExecutionResultField())) {
         outputRow[idx++] = Boolean.valueOf(result.getResult());
@@ -458,12 +541,12 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
         outputRow[idx++] = Long.valueOf(result.getExitStatus());
       }
       if (!Utils.isEmpty(meta.getExecutionLogTextField())) {
-        String channelId = getData().getExecutorPipeline().getLogChannelId();
+        String channelId = executorPipeline.getLogChannelId();
         String logText = HopLogStore.getAppender().getBuffer(channelId, false).toString();
         outputRow[idx++] = logText;
       }
       if (!Utils.isEmpty(meta.getExecutionLogChannelIdField())) {
-        outputRow[idx++] = getData().getExecutorPipeline().getLogChannelId();
+        outputRow[idx++] = executorPipeline.getLogChannelId();
       }
 
       putRowTo(getData().getExecutionResultsOutputRowMeta(), outputRow, executionResultsRowSet);
@@ -540,6 +623,13 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       }
       pipelineExecutorData.groupTimeStart = System.currentTimeMillis();
 
+      // How many groups do we execute at the same time?
+      pipelineExecutorData.parallelExecutions =
+          Math.max(1, Const.toInt(resolve(meta.getParallelExecutions()), 1));
+      if (pipelineExecutorData.runningExecutions == null) {
+        pipelineExecutorData.runningExecutions = new ArrayDeque<>();
+      }
+
       // Is there a grouping field set?
       if (!Utils.isEmpty(meta.getGroupField())) {
         pipelineExecutorData.groupField = resolve(meta.getGroupField());
@@ -561,6 +651,10 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
   public void dispose() {
     PipelineExecutorData pipelineExecutorData = getData();
     pipelineExecutorData.groupBuffer = null;
+
+    // Executions can only be left behind in case of an error
+    stopRunningExecutions();
+    pipelineExecutorData.runningExecutions = null;
     super.dispose();
   }
 
@@ -569,6 +663,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     if (getData().getExecutorPipeline() != null) {
       getData().getExecutorPipeline().stopAll();
     }
+    stopRunningExecutions();
   }
 
   @Override
@@ -577,11 +672,21 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     if (getData().getExecutorPipeline() != null) {
       getData().getExecutorPipeline().stopAll();
     }
+    stopRunningExecutions();
 
     // Also stop this transform
     super.stopAll();
   }
 
+  private void stopRunningExecutions() {
+    Deque<PipelineExecution> runningExecutions = getData().runningExecutions;
+    if (runningExecutions != null) {
+      for (PipelineExecution execution : runningExecutions) {
+        execution.pipeline.stopAll();
+      }
+    }
+  }
+
   public IPipelineEngine<PipelineMeta> getExecutorPipeline() {
     return getData().getExecutorPipeline();
   }
@@ -26,6 +26,7 @@ import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
+import java.util.Deque;
 import java.util.List;
 
 public class PipelineExecutorData extends BaseTransformData implements ITransformData {
@@ -50,6 +51,12 @@ public class PipelineExecutorData extends BaseTransformData implements ITransfor
 
   public Object prevGroupFieldData;
 
+  /** The maximum number of groups executed at the same time */
+  public int parallelExecutions;
+
+  /** The executions which are started but of which the results aren't passed on yet, in order */
+  Deque<PipelineExecution> runningExecutions;
+
   private IRowSet executorTransformOutputRowSet;
   private IRowSet resultRowsRowSet;
   private IRowSet resultFilesRowSet;
@@ -98,6 +98,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog implements ITran
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private TextVar wParallelExecutions;
 
   private CCombo wExecutionResultTarget;
   private TableItem tiExecutionTimeField;
@@ -490,6 +491,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog implements ITran
     wGroupSize.setText(Const.NVL(pipelineExecutorMeta.getGroupSize(), ""));
     wGroupTime.setText(Const.NVL(pipelineExecutorMeta.getGroupTime(), ""));
     wGroupField.setText(Const.NVL(pipelineExecutorMeta.getGroupField(), ""));
+    wParallelExecutions.setText(Const.NVL(pipelineExecutorMeta.getParallelExecutions(), ""));
 
     wExecutionResultTarget.setText(
         pipelineExecutorMeta.getExecutionResultTargetTransformMeta() == null
@@ -846,6 +848,30 @@ public class PipelineExecutorDialog extends BaseTransformDialog implements ITran
     fdGroupTime.left = new FormAttachment(0, 0);
     wGroupTime.setLayoutData(fdGroupTime);
 
+    // Number of groups executed in parallel
+    //
+    Label wlParallelExecutions = new Label(wInputComposite, SWT.RIGHT);
+    props.setLook(wlParallelExecutions);
+    wlParallelExecutions.setText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ParallelExecutions.Label"));
+    wlParallelExecutions.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ParallelExecutions.Tooltip"));
+    FormData fdlParallelExecutions = new FormData();
+    fdlParallelExecutions.top = new FormAttachment(wGroupTime, 10);
+    fdlParallelExecutions.left = new FormAttachment(0, 0);
+    wlParallelExecutions.setLayoutData(fdlParallelExecutions);
+
+    wParallelExecutions =
+        new TextVar(variables, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wParallelExecutions);
+    wParallelExecutions.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ParallelExecutions.Tooltip"));
+    FormData fdParallelExecutions = new FormData();
+    fdParallelExecutions.width = 250;
+    fdParallelExecutions.top = new FormAttachment(wlParallelExecutions, 5);
+    fdParallelExecutions.left = new FormAttachment(0, 0);
+    wParallelExecutions.setLayoutData(fdParallelExecutions);
+
     wTab.setControl(wInputComposite);
     wTabFolder.setSelection(wTab);
   }
@@ -1256,6 +1282,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog implements ITran
     pipelineExecutorMeta.setGroupSize(wGroupSize.getText());
     pipelineExecutorMeta.setGroupField(wGroupField.getText());
     pipelineExecutorMeta.setGroupTime(wGroupTime.getText());
+    pipelineExecutorMeta.setParallelExecutions(wParallelExecutions.getText());
 
     pipelineExecutorMeta.setExecutionResultTargetTransform(wExecutionResultTarget.getText());
     pipelineExecutorMeta.setExecutionResultTargetTransformMeta(
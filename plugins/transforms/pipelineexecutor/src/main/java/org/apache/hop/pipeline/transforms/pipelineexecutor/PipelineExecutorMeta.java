@@ -99,6 +99,12 @@ public class PipelineExecutorMeta
    */
   private String groupTime;
 
+  /**
+   * The number of groups of rows for which the pipeline is executed at the same time, defaults to
+   * "1". The results are passed on in the order of the groups.
+   */
+  private String parallelExecutions;
+
   private PipelineExecutorParameters parameters;
 
   private String executionResultTargetTransform;
@@ -237,6 +243,9 @@ public class PipelineExecutorMeta
     retval.append("    ").append(XmlHandler.addTagValue("group_size", groupSize));
     retval.append("    ").append(XmlHandler.addTagValue("group_field", groupField));
     retval.append("    ").append(XmlHandler.addTagValue("group_time", groupTime));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("parallel_executions", parallelExecutions));
 
     // Add the mapping parameters too
     //
@@ -358,6 +367,7 @@ public class PipelineExecutorMeta
       groupSize = XmlHandler.getTagValue(transformNode, "group_size");
       groupField = XmlHandler.getTagValue(transformNode, "group_field");
       groupTime = XmlHandler.getTagValue(transformNode, "group_time");
+      parallelExecutions = XmlHandler.getTagValue(transformNode, "parallel_executions");
 
       // Load the mapping parameters too..
       //
@@ -433,6 +443,7 @@ public class PipelineExecutorMeta
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    parallelExecutions = "1";
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -905,6 +916,16 @@ public class PipelineExecutorMeta
     this.groupTime = groupTime;
   }
 
+  /** @return the number of groups for which the pipeline is executed at the same time */
+  public String getParallelExecutions() {
+    return parallelExecutions;
+  }
+
+  /** @param parallelExecutions the number of groups executed at the same time to set */
+  public void setParallelExecutions(String parallelExecutions) {
+    this.parallelExecutions = parallelExecutions;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
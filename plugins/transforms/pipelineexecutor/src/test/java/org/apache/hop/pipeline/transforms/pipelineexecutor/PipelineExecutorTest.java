@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pipelineexecutor;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PipelineExecutorTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private TransformMockHelper<PipelineExecutorMeta, PipelineExecutorData> transformMockHelper;
+  private PipelineExecutorData data;
+  private PipelineExecutor executor;
+  private List<Result> collectedResults;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    transformMockHelper =
+        new TransformMockHelper<>(
+            "Pipeline executor", PipelineExecutorMeta.class, PipelineExecutorData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+
+    data = new PipelineExecutorData();
+    data.parallelExecutions = 2;
+    data.runningExecutions = new ArrayDeque<>();
+    data.groupBuffer = new ArrayList<>();
+
+    executor =
+        spy(
+            new PipelineExecutor(
+                transformMockHelper.transformMeta,
+                transformMockHelper.iTransformMeta,
+                data,
+                0,
+                transformMockHelper.pipelineMeta,
+                transformMockHelper.pipeline));
+
+    collectedResults = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              collectedResults.add((Result) invocation.getArguments()[0]);
+              return null;
+            })
+        .when(executor)
+        .collectPipelineResults(any(Result.class));
+  }
+
+  @After
+  public void tearDown() {
+    transformMockHelper.cleanUp();
+  }
+
+  @Test
+  public void testResultsKeepTheOrderOfTheGroups() throws Exception {
+    IPipelineEngine<PipelineMeta> first = mockPipeline(new Result());
+    IPipelineEngine<PipelineMeta> second = mockPipeline(new Result());
+    IPipelineEngine<PipelineMeta> third = mockPipeline(new Result());
+
+    List<RowMetaAndData> firstGroup = data.groupBuffer;
+    executor.startExecution(first, new Result());
+    assertEquals(1, data.runningExecutions.size());
+    assertTrue(collectedResults.isEmpty());
+    assertNotSame(firstGroup, data.groupBuffer);
+    assertSame(firstGroup, data.runningExecutions.peek().rows);
+
+    // With two executions running, starting the next group waits for the oldest one
+    //
+    executor.startExecution(second, new Result());
+    assertEquals(1, data.runningExecutions.size());
+    executor.startExecution(third, new Result());
+    assertEquals(1, data.runningExecutions.size());
+
+    executor.finishExecutions(0);
+    assertTrue(data.runningExecutions.isEmpty());
+
+    InOrder inOrder = inOrder(first, second, third);
+    inOrder.verify(first).waitUntilFinished();
+    inOrder.verify(second).waitUntilFinished();
+    inOrder.verify(third).waitUntilFinished();
+
+    assertEquals(3, collectedResults.size());
+    assertSame(first.getResult(), collectedResults.get(0));
+    assertSame(second.getResult(), collectedResults.get(1));
+    assertSame(third.getResult(), collectedResults.get(2));
+  }
+
+  @Test
+  public void testFailedStartIsPassedOnInOrder() throws Exception {
+    data.parallelExecutions = 3;
+    IPipelineEngine<PipelineMeta> first = mockPipeline(new Result());
+    IPipelineEngine<PipelineMeta> failing = mockPipeline(new Result());
+    IPipelineEngine<PipelineMeta> third = mockPipeline(new Result());
+    doThrow(new HopException("Unable to prepare")).when(failing).prepareExecution();
+
+    executor.startExecution(first, new Result());
+    Result failedResult = new Result();
+    executor.startExecution(failing, failedResult);
+    assertTrue(collectedResults.isEmpty());
+    executor.startExecution(third, new Result());
+    assertEquals(1, collectedResults.size());
+
+    executor.finishExecutions(0);
+
+    verify(failing, never()).startThreads();
+    verify(failing, never()).waitUntilFinished();
+    assertFalse(failedResult.getResult());
+    assertEquals(1, failedResult.getNrErrors());
+
+    assertEquals(3, collectedResults.size());
+    assertSame(first.getResult(), collectedResults.get(0));
+    assertSame(failedResult, collectedResults.get(1));
+    assertSame(third.getResult(), collectedResults.get(2));
+  }
+
+  @Test
+  public void testParallelExecutionsGetTheirOwnPipelineMeta() {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("executed");
+    data.setExecutorPipelineMeta(pipelineMeta);
+
+    data.parallelExecutions = 1;
+    assertSame(pipelineMeta, executor.getExecutionPipelineMeta());
+
+    data.parallelExecutions = 2;
+    PipelineMeta first = executor.getExecutionPipelineMeta();
+    PipelineMeta second = executor.getExecutionPipelineMeta();
+    assertNotSame(pipelineMeta, first);
+    assertNotSame(first, second);
+    assertEquals("executed", first.getName());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static IPipelineEngine<PipelineMeta> mockPipeline(Result result) {
+    IPipelineEngine<PipelineMeta> pipeline = mock(IPipelineEngine.class);
+    when(pipeline.getResult()).thenReturn(result);
+    return pipeline;
+  }
+}
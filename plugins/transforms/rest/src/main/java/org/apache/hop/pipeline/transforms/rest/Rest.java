@@ -42,6 +42,11 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.json.simple.JSONObject;
 
@@ -60,11 +65,16 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 
 public class Rest extends BaseTransform<RestMeta, RestData>
     implements ITransform<RestMeta, RestData> {
   private static final Class<?> PKG = RestMeta.class; // For Translator
 
+  /** The minimum size of the connection pool over all hosts */
+  private static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 20;
+
   public Rest(
       TransformMeta transformMeta,
       RestMeta meta,
@@ -83,34 +93,88 @@ public class Rest extends BaseTransform<RestMeta, RestData>
   }
 
   protected Object[] callRest(Object[] rowData) throws HopException {
+    return executeRequest(prepareRequest(rowData));
+  }
+
+  /**
+   * Read all the values needed for a call from the input row. This happens on the transform thread
+   * since the row metadata is not thread-safe.
+   */
+  private RestRequest prepareRequest(Object[] rowData) throws HopException {
+    RestRequest request = new RestRequest(rowData);
     // get dynamic url ?
     if (meta.isUrlInField()) {
-      data.realUrl = data.inputRowMeta.getString(rowData, data.indexOfUrlField);
+      request.url = data.inputRowMeta.getString(rowData, data.indexOfUrlField);
+    } else {
+      request.url = data.realUrl;
     }
     // get dynamic method?
     if (meta.isDynamicMethod()) {
-      data.method = data.inputRowMeta.getString(rowData, data.indexOfMethod);
-      if (Utils.isEmpty(data.method)) {
+      request.method = data.inputRowMeta.getString(rowData, data.indexOfMethod);
+      if (Utils.isEmpty(request.method)) {
         throw new HopException(BaseMessages.getString(PKG, "Rest.Error.MethodMissing"));
       }
+    } else {
+      request.method = data.method;
+    }
+    if (data.useMatrixParams) {
+      request.matrixParamValues = new String[data.nrMatrixParams];
+      for (int i = 0; i < data.nrMatrixParams; i++) {
+        request.matrixParamValues[i] =
+            data.inputRowMeta.getString(rowData, data.indexOfMatrixParamFields[i]);
+      }
+    }
+    if (data.useParams) {
+      request.paramValues = new String[data.nrParams];
+      for (int i = 0; i < data.nrParams; i++) {
+        request.paramValues[i] = data.inputRowMeta.getString(rowData, data.indexOfParamFields[i]);
+      }
+    }
+    if (data.useHeaders) {
+      request.headerValues = new String[data.nrheader];
+      for (int i = 0; i < data.nrheader; i++) {
+        request.headerValues[i] =
+            data.inputRowMeta.getString(rowData, data.indexOfHeaderFields[i]);
+      }
     }
+    if (data.useBody) {
+      request.body = Const.NVL(data.inputRowMeta.getString(rowData, data.indexOfBodyField), null);
+    }
+    return request;
+  }
+
+  /**
+   * The client is created once and shared by all the calls of this transform copy. With a pooled
+   * connection manager the client can be used by multiple threads at once.
+   */
+  private Client getClient() {
+    synchronized (data) {
+      if (data.client == null) {
+        // create an instance of the com.sun.jersey.api.client.Client class
+        data.client = ApacheHttpClient4.create(data.config);
+        if (data.basicAuthentication != null) {
+          data.client.addFilter(data.basicAuthentication);
+        }
+      }
+      return data.client;
+    }
+  }
+
+  /** Execute a call and build the output row. This can be done on any thread. */
+  private Object[] executeRequest(RestRequest request) throws HopException {
+    Object[] rowData = request.row;
     WebResource webResource = null;
-    Client client = null;
     Object[] newRow = null;
     if (rowData != null) {
       newRow = rowData.clone();
     }
     try {
       if (isDetailed()) {
-        logDetailed(BaseMessages.getString(PKG, "Rest.Log.ConnectingToURL", data.realUrl));
-      }
-      // create an instance of the com.sun.jersey.api.client.Client class
-      client = ApacheHttpClient4.create(data.config);
-      if (data.basicAuthentication != null) {
-        client.addFilter(data.basicAuthentication);
+        logDetailed(BaseMessages.getString(PKG, "Rest.Log.ConnectingToURL", request.url));
       }
+      Client client = getClient();
       // create a WebResource object, which encapsulates a web resource for the client
-      webResource = client.resource(data.realUrl);
+      webResource = client.resource(request.url);
 
       // used for calculating the responseTime
       long startTime = System.currentTimeMillis();
@@ -119,7 +183,7 @@ public class Rest extends BaseTransform<RestMeta, RestData>
         // Add matrix parameters
         UriBuilder builder = webResource.getUriBuilder();
         for (int i = 0; i < data.nrMatrixParams; i++) {
-          String value = data.inputRowMeta.getString(rowData, data.indexOfMatrixParamFields[i]);
+          String value = request.matrixParamValues[i];
           if (isDebug()) {
             logDebug(
                 BaseMessages.getString(
@@ -136,7 +200,7 @@ public class Rest extends BaseTransform<RestMeta, RestData>
       if (data.useParams) {
         // Add query parameters
         for (int i = 0; i < data.nrParams; i++) {
-          String value = data.inputRowMeta.getString(rowData, data.indexOfParamFields[i]);
+          String value = request.paramValues[i];
           if (isDebug()) {
             logDebug(
                 BaseMessages.getString(
@@ -153,7 +217,7 @@ public class Rest extends BaseTransform<RestMeta, RestData>
       if (data.useHeaders) {
         // Add headers
         for (int i = 0; i < data.nrheader; i++) {
-          String value = data.inputRowMeta.getString(rowData, data.indexOfHeaderFields[i]);
+          String value = request.headerValues[i];
 
           // unsure if an already set header will be returned to builder
           builder = builder.header(data.headerNames[i], value);
@@ -168,36 +232,33 @@ public class Rest extends BaseTransform<RestMeta, RestData>
       }
 
       ClientResponse response = null;
-      String entityString = null;
-      if (data.useBody) {
-        // Set Http request entity
-        entityString = Const.NVL(data.inputRowMeta.getString(rowData, data.indexOfBodyField), null);
-        if (isDebug()) {
-          logDebug(BaseMessages.getString(PKG, "Rest.Log.BodyValue", entityString));
-        }
+      String entityString = request.body;
+      if (data.useBody && isDebug()) {
+        logDebug(BaseMessages.getString(PKG, "Rest.Log.BodyValue", entityString));
       }
+      String method = request.method;
       try {
-        if (data.method.equals(RestMeta.HTTP_METHOD_GET)) {
+        if (method.equals(RestMeta.HTTP_METHOD_GET)) {
           response = builder.get(ClientResponse.class);
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_POST)) {
+        } else if (method.equals(RestMeta.HTTP_METHOD_POST)) {
           if (null != contentType) {
             response = builder.type(contentType).post(ClientResponse.class, entityString);
           } else {
             response = builder.type(data.mediaType).post(ClientResponse.class, entityString);
           }
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_PUT)) {
+        } else if (method.equals(RestMeta.HTTP_METHOD_PUT)) {
           if (null != contentType) {
             response = builder.type(contentType).put(ClientResponse.class, entityString);
           } else {
             response = builder.type(data.mediaType).put(ClientResponse.class, entityString);
           }
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_DELETE)) {
+        } else if (method.equals(RestMeta.HTTP_METHOD_DELETE)) {
           response = builder.delete(ClientResponse.class);
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_HEAD)) {
+        } else if (method.equals(RestMeta.HTTP_METHOD_HEAD)) {
           response = builder.head();
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_OPTIONS)) {
+        } else if (method.equals(RestMeta.HTTP_METHOD_OPTIONS)) {
           response = builder.options(ClientResponse.class);
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_PATCH)) {
+        } else if (method.equals(RestMeta.HTTP_METHOD_PATCH)) {
           if (null != contentType) {
             response =
                 builder
@@ -210,8 +271,7 @@ public class Rest extends BaseTransform<RestMeta, RestData>
                     .method(RestMeta.HTTP_METHOD_PATCH, ClientResponse.class, entityString);
           }
         } else {
-          throw new HopException(
-              BaseMessages.getString(PKG, "Rest.Error.UnknownMethod", data.method));
+          throw new HopException(BaseMessages.getString(PKG, "Rest.Error.UnknownMethod", method));
         }
       } catch (UniformInterfaceException u) {
         response = u.getResponse();
@@ -221,7 +281,7 @@ public class Rest extends BaseTransform<RestMeta, RestData>
       if (isDetailed()) {
         logDetailed(
             BaseMessages.getString(
-                PKG, "Rest.Log.ResponseTime", String.valueOf(responseTime), data.realUrl));
+                PKG, "Rest.Log.ResponseTime", String.valueOf(responseTime), request.url));
       }
 
       // Get status
@@ -238,7 +298,12 @@ public class Rest extends BaseTransform<RestMeta, RestData>
         body = response.getEntity(String.class);
       } catch (UniformInterfaceException ex) {
         body = "";
+      } finally {
+        // Hand the connection back to the pool
+        response.close();
       }
+      addResponseTime(responseTime);
+
       // get Header
       MultivaluedMap<String, String> headers = searchForHeaders(response);
       JSONObject json = new JSONObject();
@@ -277,18 +342,19 @@ public class Rest extends BaseTransform<RestMeta, RestData>
       }
     } catch (Exception e) {
       throw new HopException(
-          BaseMessages.getString(PKG, "Rest.Error.CanNotReadURL", data.realUrl), e);
-    } finally {
-      if (webResource != null) {
-        webResource = null;
-      }
-      if (client != null) {
-        client.destroy();
-      }
+          BaseMessages.getString(PKG, "Rest.Error.CanNotReadURL", request.url), e);
     }
     return newRow;
   }
 
+  private void addResponseTime(long responseTime) {
+    synchronized (data) {
+      data.nrRequests++;
+      data.totalResponseTime += responseTime;
+      data.maxResponseTime = Math.max(data.maxResponseTime, responseTime);
+    }
+  }
+
   private void setConfig() throws HopException {
     if (data.config == null) {
       // Use ApacheHttpClient for supporting proxy authentication.
@@ -323,6 +389,7 @@ public class Rest extends BaseTransform<RestMeta, RestData>
             .put(ApacheHttpClient4Config.PROPERTY_PREEMPTIVE_BASIC_AUTHENTICATION, true);
       }
       // SSL TRUST STORE CONFIGURATION
+      SSLContext sslContext = null;
       if (!Utils.isEmpty(data.trustStoreFile)) {
         try (FileInputStream trustFileStream = new FileInputStream(data.trustStoreFile)) {
           KeyStore trustStore = KeyStore.getInstance("JKS");
@@ -343,6 +410,7 @@ public class Rest extends BaseTransform<RestMeta, RestData>
           data.config
               .getProperties()
               .put(HTTPSProperties.PROPERTY_HTTPS_PROPERTIES, new HTTPSProperties(hv, ctx));
+          sslContext = ctx;
         } catch (NoSuchAlgorithmException e) {
           throw new HopException(BaseMessages.getString(PKG, "Rest.Error.NoSuchAlgorithm"), e);
         } catch (KeyStoreException e) {
@@ -359,6 +427,24 @@ public class Rest extends BaseTransform<RestMeta, RestData>
               BaseMessages.getString(PKG, "Rest.Error.KeyManagementException"), e);
         }
       }
+
+      // CONNECTION POOL CONFIGURATION
+      // Connections are kept alive and reused by all the calls of this transform copy.
+      SchemeRegistry schemeRegistry = SchemeRegistryFactory.createDefault();
+      if (sslContext != null) {
+        schemeRegistry.register(
+            new Scheme(
+                "https",
+                443,
+                new SSLSocketFactory(sslContext, SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER)));
+      }
+      data.connectionManager = new PoolingClientConnectionManager(schemeRegistry);
+      data.connectionManager.setDefaultMaxPerRoute(data.connectionsPerRoute);
+      int maxTotal = Math.max(data.connectionsPerRoute, data.concurrentRequests);
+      data.connectionManager.setMaxTotal(Math.max(DEFAULT_MAX_TOTAL_CONNECTIONS, maxTotal));
+      data.config
+          .getProperties()
+          .put(ApacheHttpClient4Config.PROPERTY_CONNECTION_MANAGER, data.connectionManager);
     }
   }
 
@@ -372,8 +458,10 @@ public class Rest extends BaseTransform<RestMeta, RestData>
     Object[] r = getRow(); // Get row from input rowset & set row busy!
 
     if (r == null) {
-      // no more input to be expected...
-      setOutputDone();
+      // no more input to be expected, wait for the calls in flight...
+      if (flushRequests(0)) {
+        setOutputDone();
+      }
       return false;
     }
     if (first) {
@@ -493,34 +581,112 @@ public class Rest extends BaseTransform<RestMeta, RestData>
         }
       }
     } // end if first
-    try {
-      Object[] outputRowData = callRest(r);
-      putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
-      if (checkFeedback(getLinesRead()) && isDetailed()) {
-        logDetailed(BaseMessages.getString(PKG, "Rest.LineNumber") + getLinesRead());
+
+    if (data.executor == null) {
+      try {
+        Object[] outputRowData = callRest(r);
+        putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
+        if (checkFeedback(getLinesRead()) && isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "Rest.LineNumber") + getLinesRead());
+        }
+      } catch (HopException e) {
+        return handleError(r, e);
       }
+      return true;
+    }
+
+    // Keep up to the maximum number of calls in flight.
+    // The rows are passed on in the order they came in.
+    //
+    if (!flushRequests(data.concurrentRequests - 1)) {
+      return false;
+    }
+    RestRequest request;
+    try {
+      request = prepareRequest(r);
     } catch (HopException e) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
-      if (getTransformMeta().isDoingErrorHandling()) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError(BaseMessages.getString(PKG, "Rest.ErrorInTransformRunning") + e.getMessage());
-        setErrors(1);
-        logError(Const.getStackTracker(e));
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if (sendToErrorRow) {
-        // Simply add this row to the error row
-        putError(getInputRowMeta(), r, 1, errorMessage, null, "Rest001");
+      return handleError(r, e);
+    }
+    request.result = data.executor.submit(() -> executeRequest(request));
+    data.pendingRequests.addLast(request);
+    return true;
+  }
+
+  /**
+   * Pass on the results of the calls in flight, oldest first, until no more than the given number
+   * of calls are left. Calls which are already finished are passed on right away.
+   *
+   * @param maxPending The number of calls which can be left in flight
+   * @return false if the transform has to stop because of an error
+   */
+  private boolean flushRequests(int maxPending) throws HopException {
+    while (!data.pendingRequests.isEmpty()
+        && (data.pendingRequests.size() > maxPending
+            || data.pendingRequests.peekFirst().result.isDone())) {
+      RestRequest request = data.pendingRequests.pollFirst();
+      try {
+        Object[] outputRowData = getResult(request);
+        putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
+        if (checkFeedback(getLinesRead()) && isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "Rest.LineNumber") + getLinesRead());
+        }
+      } catch (HopException e) {
+        if (!handleError(request.row, e)) {
+          cancelRequests();
+          return false;
+        }
       }
     }
     return true;
   }
 
+  private Object[] getResult(RestRequest request) throws HopException {
+    try {
+      return request.result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof HopException) {
+        throw (HopException) e.getCause();
+      }
+      throw new HopException(e.getCause());
+    }
+  }
+
+  private void cancelRequests() {
+    for (RestRequest request : data.pendingRequests) {
+      request.result.cancel(true);
+    }
+    data.pendingRequests.clear();
+  }
+
+  /**
+   * Send the row to the error stream or stop the transform.
+   *
+   * @return false if the transform has to stop
+   */
+  private boolean handleError(Object[] r, HopException e) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+    if (getTransformMeta().isDoingErrorHandling()) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError(BaseMessages.getString(PKG, "Rest.ErrorInTransformRunning") + e.getMessage());
+      setErrors(1);
+      logError(Const.getStackTracker(e));
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    if (sendToErrorRow) {
+      // Simply add this row to the error row
+      putError(getInputRowMeta(), r, 1, errorMessage, null, "Rest001");
+    }
+    return true;
+  }
+
   @Override
   public boolean init() {
 
@@ -568,12 +734,30 @@ public class Rest extends BaseTransform<RestMeta, RestData>
       } else {
         data.mediaType = MediaType.TEXT_PLAIN_TYPE;
       }
+      data.concurrentRequests =
+          Math.max(1, Const.toInt(resolve(meta.getConcurrentRequests()), 1));
+      data.connectionsPerRoute =
+          Math.max(
+              1,
+              Const.toInt(
+                  resolve(meta.getConnectionsPerRoute()), RestMeta.DEFAULT_CONNECTIONS_PER_ROUTE));
       try {
         setConfig();
       } catch (Exception e) {
         logError(BaseMessages.getString(PKG, "Rest.Error.Config"), e);
         return false;
       }
+      if (data.concurrentRequests > 1) {
+        String threadName = getPipelineMeta().getName() + " - " + getTransformName() + " (rest)";
+        data.executor =
+            Executors.newFixedThreadPool(
+                data.concurrentRequests,
+                runnable -> {
+                  Thread thread = new Thread(runnable, threadName);
+                  thread.setDaemon(true);
+                  return thread;
+                });
+      }
       return true;
     }
     return false;
@@ -582,6 +766,29 @@ public class Rest extends BaseTransform<RestMeta, RestData>
   @Override
   public void dispose() {
 
+    cancelRequests();
+    if (data.executor != null) {
+      data.executor.shutdownNow();
+      data.executor = null;
+    }
+    if (data.client != null) {
+      data.client.destroy();
+      data.client = null;
+    }
+    if (data.connectionManager != null) {
+      data.connectionManager.shutdown();
+      data.connectionManager = null;
+    }
+    if (data.nrRequests > 0 && isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "Rest.Log.Statistics",
+              String.valueOf(data.nrRequests),
+              String.valueOf(data.totalResponseTime / data.nrRequests),
+              String.valueOf(data.maxResponseTime)));
+    }
+
     data.config = null;
     data.headerNames = null;
     data.indexOfHeaderFields = null;
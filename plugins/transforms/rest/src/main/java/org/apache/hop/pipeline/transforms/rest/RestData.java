@@ -17,13 +17,18 @@
 
 package org.apache.hop.pipeline.transforms.rest;
 
+import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
 
 import javax.ws.rs.core.MediaType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
 
 public class RestData extends BaseTransformData implements ITransformData {
   public IRowMeta outputRowMeta;
@@ -96,6 +101,30 @@ public class RestData extends BaseTransformData implements ITransformData {
 
   public MediaType mediaType;
 
+  /** The client shared by all requests of this transform copy */
+  public Client client;
+
+  /** The pool of HTTP connections used by the client */
+  public PoolingClientConnectionManager connectionManager;
+
+  /** The maximum number of requests in flight */
+  public int concurrentRequests;
+
+  /** The maximum number of pooled connections per host */
+  public int connectionsPerRoute;
+
+  /** Executes the requests when more than one request can be in flight */
+  public ExecutorService executor;
+
+  /** The requests in flight, oldest first */
+  public Deque<RestRequest> pendingRequests;
+
+  /** Statistics, guarded by this */
+  public long nrRequests;
+
+  public long totalResponseTime;
+  public long maxResponseTime;
+
   public RestData() {
     super();
     this.indexOfUrlField = -1;
@@ -118,5 +147,8 @@ public class RestData extends BaseTransformData implements ITransformData {
     this.trustStoreFile = null;
     this.trustStorePassword = null;
     this.basicAuthentication = null;
+    this.concurrentRequests = 1;
+    this.connectionsPerRoute = RestMeta.DEFAULT_CONNECTIONS_PER_ROUTE;
+    this.pendingRequests = new ArrayDeque<>();
   }
 }
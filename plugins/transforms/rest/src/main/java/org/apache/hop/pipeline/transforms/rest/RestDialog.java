@@ -51,6 +51,10 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
 
   private ComboVar wApplicationType;
 
+  private TextVar wConcurrentRequests;
+
+  private TextVar wConnectionsPerRoute;
+
   private Label wlMethod;
   private ComboVar wMethod;
 
@@ -424,6 +428,48 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
           }
         });
 
+    // Concurrent requests line
+    Label wlConcurrentRequests = new Label(gSettings, SWT.RIGHT);
+    wlConcurrentRequests.setText(
+        BaseMessages.getString(PKG, "RestDialog.ConcurrentRequests.Label"));
+    props.setLook(wlConcurrentRequests);
+    FormData fdlConcurrentRequests = new FormData();
+    fdlConcurrentRequests.left = new FormAttachment(0, 0);
+    fdlConcurrentRequests.right = new FormAttachment(middle, -margin);
+    fdlConcurrentRequests.top = new FormAttachment(wApplicationType, 2 * margin);
+    wlConcurrentRequests.setLayoutData(fdlConcurrentRequests);
+    wConcurrentRequests = new TextVar(variables, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wConcurrentRequests.setToolTipText(
+        BaseMessages.getString(PKG, "RestDialog.ConcurrentRequests.Tooltip"));
+    props.setLook(wConcurrentRequests);
+    wConcurrentRequests.addModifyListener(lsMod);
+    FormData fdConcurrentRequests = new FormData();
+    fdConcurrentRequests.left = new FormAttachment(middle, 0);
+    fdConcurrentRequests.top = new FormAttachment(wApplicationType, 2 * margin);
+    fdConcurrentRequests.right = new FormAttachment(100, -margin);
+    wConcurrentRequests.setLayoutData(fdConcurrentRequests);
+
+    // Connections per route line
+    Label wlConnectionsPerRoute = new Label(gSettings, SWT.RIGHT);
+    wlConnectionsPerRoute.setText(
+        BaseMessages.getString(PKG, "RestDialog.ConnectionsPerRoute.Label"));
+    props.setLook(wlConnectionsPerRoute);
+    FormData fdlConnectionsPerRoute = new FormData();
+    fdlConnectionsPerRoute.left = new FormAttachment(0, 0);
+    fdlConnectionsPerRoute.right = new FormAttachment(middle, -margin);
+    fdlConnectionsPerRoute.top = new FormAttachment(wConcurrentRequests, margin);
+    wlConnectionsPerRoute.setLayoutData(fdlConnectionsPerRoute);
+    wConnectionsPerRoute = new TextVar(variables, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wConnectionsPerRoute.setToolTipText(
+        BaseMessages.getString(PKG, "RestDialog.ConnectionsPerRoute.Tooltip"));
+    props.setLook(wConnectionsPerRoute);
+    wConnectionsPerRoute.addModifyListener(lsMod);
+    FormData fdConnectionsPerRoute = new FormData();
+    fdConnectionsPerRoute.left = new FormAttachment(middle, 0);
+    fdConnectionsPerRoute.top = new FormAttachment(wConcurrentRequests, margin);
+    fdConnectionsPerRoute.right = new FormAttachment(100, -margin);
+    wConnectionsPerRoute.setLayoutData(fdConnectionsPerRoute);
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment(0, 0);
     fdSettings.right = new FormAttachment(100, 0);
@@ -1243,6 +1289,8 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
     }
 
     wApplicationType.setText(Const.NVL(input.getApplicationType(), ""));
+    wConcurrentRequests.setText(Const.NVL(input.getConcurrentRequests(), ""));
+    wConnectionsPerRoute.setText(Const.NVL(input.getConnectionsPerRoute(), ""));
 
     wFields.setRowNums();
     wFields.optWidth(true);
@@ -1309,6 +1357,8 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
     input.setTrustStoreFile(wTrustStoreFile.getText());
     input.setTrustStorePassword(wTrustStorePassword.getText());
     input.setApplicationType(wApplicationType.getText());
+    input.setConcurrentRequests(wConcurrentRequests.getText());
+    input.setConnectionsPerRoute(wConnectionsPerRoute.getText());
     transformName = wTransformName.getText(); // return value
 
     dispose();
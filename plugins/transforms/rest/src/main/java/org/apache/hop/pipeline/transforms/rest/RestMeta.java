@@ -77,6 +77,8 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
 
   private String applicationType;
 
+  public static final int DEFAULT_CONNECTIONS_PER_ROUTE = 10;
+
   public static final String[] HTTP_METHODS =
       new String[] {"GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH"};
 
@@ -124,6 +126,12 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
   private String httpPassword;
   private boolean preemptive;
 
+  /** The maximum number of requests in flight, the output keeps the order of the input */
+  private String concurrentRequests;
+
+  /** The maximum number of pooled connections to a single host */
+  private String connectionsPerRoute;
+
   /** Body fieldname */
   private String bodyField;
 
@@ -252,6 +260,26 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
     this.preemptive = preemptive;
   }
 
+  /** @return The maximum number of requests in flight */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /** @param concurrentRequests The maximum number of requests in flight */
+  public void setConcurrentRequests(String concurrentRequests) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /** @return The maximum number of pooled connections to a single host */
+  public String getConnectionsPerRoute() {
+    return connectionsPerRoute;
+  }
+
+  /** @param connectionsPerRoute The maximum number of pooled connections to a single host */
+  public void setConnectionsPerRoute(String connectionsPerRoute) {
+    this.connectionsPerRoute = connectionsPerRoute;
+  }
+
   /** @return Is the method defined in a field? */
   public boolean isDynamicMethod() {
     return dynamicMethod;
@@ -351,6 +379,8 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
     this.trustStoreFile = null;
     this.trustStorePassword = null;
     this.applicationType = APPLICATION_TYPE_TEXT_PLAIN;
+    this.concurrentRequests = "1";
+    this.connectionsPerRoute = Integer.toString(DEFAULT_CONNECTIONS_PER_ROUTE);
   }
 
   @Override
@@ -408,6 +438,10 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
     retval.append("    ").append(XmlHandler.addTagValue("proxyHost", proxyHost));
     retval.append("    ").append(XmlHandler.addTagValue("proxyPort", proxyPort));
     retval.append("    ").append(XmlHandler.addTagValue("preemptive", preemptive));
+    retval.append("    ").append(XmlHandler.addTagValue("concurrentRequests", concurrentRequests));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("connectionsPerRoute", connectionsPerRoute));
 
     retval.append("    ").append(XmlHandler.addTagValue("trustStoreFile", trustStoreFile));
     retval
@@ -477,6 +511,12 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
       proxyHost = XmlHandler.getTagValue(transformNode, "proxyHost");
       proxyPort = XmlHandler.getTagValue(transformNode, "proxyPort");
       preemptive = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "preemptive"));
+      concurrentRequests =
+          Const.NVL(XmlHandler.getTagValue(transformNode, "concurrentRequests"), "1");
+      connectionsPerRoute =
+          Const.NVL(
+              XmlHandler.getTagValue(transformNode, "connectionsPerRoute"),
+              Integer.toString(DEFAULT_CONNECTIONS_PER_ROUTE));
 
       trustStoreFile = XmlHandler.getTagValue(transformNode, "trustStoreFile");
       trustStorePassword =
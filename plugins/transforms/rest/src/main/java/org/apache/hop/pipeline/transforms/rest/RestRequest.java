@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.rest;
+
+import java.util.concurrent.Future;
+
+/**
+ * The values of a single REST call, taken from an input row. The values are read from the row on
+ * the transform thread so the call itself can be executed on any thread.
+ */
+class RestRequest {
+  /** The input row */
+  Object[] row;
+
+  String url;
+  String method;
+  String[] matrixParamValues;
+  String[] paramValues;
+  String[] headerValues;
+  String body;
+
+  /** The output row once the request was executed asynchronously */
+  Future<Object[]> result;
+
+  RestRequest(Object[] row) {
+    this.row = row;
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+/** Calls a local HTTP server, one request at a time and with several requests in flight. */
+public class RestHttpServerTest {
+  private static final int NR_ROWS = 20;
+
+  private TransformMockHelper<RestMeta, RestData> transformMockHelper;
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private String baseUrl;
+  private String unreachableUrl;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private Rest rest;
+  private IRowSet output;
+  private List<Object[]> errorRows;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    transformMockHelper = new TransformMockHelper<>("REST client", RestMeta.class, RestData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+    when(transformMockHelper.transformMeta.isDoingErrorHandling()).thenReturn(true);
+
+    // The earlier rows get the slower responses so the responses come back out of order
+    //
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/item",
+        exchange -> {
+          int count = inFlight.incrementAndGet();
+          maxInFlight.accumulateAndGet(count, Math::max);
+          try {
+            String id = exchange.getRequestURI().getQuery().replace("id=", "");
+            Thread.sleep((5 - Long.parseLong(id) % 5) * 20L);
+            respond(exchange, "item " + id);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            inFlight.decrementAndGet();
+          }
+        });
+    serverExecutor = Executors.newFixedThreadPool(8);
+    server.setExecutor(serverExecutor);
+    server.start();
+    baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/item?id=";
+
+    // Nothing listens on a port which was just closed
+    //
+    try (ServerSocket socket = new ServerSocket(0)) {
+      unreachableUrl = "http://127.0.0.1:" + socket.getLocalPort() + "/item?id=";
+    }
+  }
+
+  @After
+  public void tearDown() {
+    if (rest != null) {
+      rest.dispose();
+    }
+    server.stop(0);
+    serverExecutor.shutdownNow();
+    transformMockHelper.cleanUp();
+  }
+
+  @Test
+  public void testResponsesInInputOrder() throws Exception {
+    runRest(1, Collections.emptyList());
+
+    assertOutput(Collections.emptyList());
+    assertTrue(errorRows.isEmpty());
+    assertEquals(1, maxInFlight.get());
+  }
+
+  @Test
+  public void testConcurrentResponsesInInputOrder() throws Exception {
+    runRest(4, Collections.emptyList());
+
+    assertOutput(Collections.emptyList());
+    assertTrue(errorRows.isEmpty());
+    assertTrue(maxInFlight.get() > 1);
+    assertTrue(maxInFlight.get() <= 4);
+  }
+
+  @Test
+  public void testErrorRows() throws Exception {
+    List<Long> failing = Arrays.asList(0L, 7L, 8L, 19L);
+    runRest(1, failing);
+
+    assertOutput(failing);
+    assertErrorRows(failing);
+  }
+
+  @Test
+  public void testConcurrentErrorRows() throws Exception {
+    List<Long> failing = Arrays.asList(0L, 7L, 8L, 19L);
+    runRest(4, failing);
+
+    assertOutput(failing);
+    assertErrorRows(failing);
+  }
+
+  /**
+   * Pass the rows through the transform.
+   *
+   * @param concurrentRequests The number of calls in flight
+   * @param failing The ids of the rows which call a URL where nothing is listening
+   */
+  private void runRest(int concurrentRequests, List<Long> failing) throws Exception {
+    RestMeta meta = new RestMeta();
+    meta.setDefault();
+    meta.setUrlInField(true);
+    meta.setUrlField("url");
+    meta.setFieldName("result");
+    meta.setResultCodeFieldName("status");
+    meta.setConcurrentRequests(Integer.toString(concurrentRequests));
+
+    rest =
+        spy(
+            new Rest(
+                transformMockHelper.transformMeta,
+                meta,
+                new RestData(),
+                0,
+                transformMockHelper.pipelineMeta,
+                transformMockHelper.pipeline));
+    errorRows = Collections.synchronizedList(new ArrayList<>());
+    doAnswer(
+            invocation -> {
+              errorRows.add((Object[]) invocation.getArguments()[1]);
+              return null;
+            })
+        .when(rest)
+        .putError(
+            any(IRowMeta.class),
+            any(Object[].class),
+            anyLong(),
+            any(String.class),
+            any(String.class),
+            any(String.class));
+    assertTrue(rest.init());
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("url"));
+    IRowSet input = new QueueRowSet();
+    input.setRowMeta(rowMeta);
+    for (long id = 0; id < NR_ROWS; id++) {
+      String url = (failing.contains(id) ? unreachableUrl : baseUrl) + id;
+      input.putRow(rowMeta, new Object[] {id, url});
+    }
+    input.setDone();
+    output = new QueueRowSet();
+    rest.addRowSetToInputRowSets(input);
+    rest.addRowSetToOutputRowSets(output);
+
+    while (rest.processRow()) {
+      // Keep going
+    }
+  }
+
+  private void assertOutput(List<Long> failing) {
+    assertTrue(output.isDone());
+    for (long id = 0; id < NR_ROWS; id++) {
+      if (failing.contains(id)) {
+        continue;
+      }
+      Object[] row = output.getRow();
+      assertEquals(id, row[0]);
+      assertEquals("item " + id, row[2]);
+      assertEquals(200L, row[3]);
+    }
+    assertNull(output.getRow());
+  }
+
+  private void assertErrorRows(List<Long> failing) {
+    assertEquals(failing.size(), errorRows.size());
+    for (int i = 0; i < failing.size(); i++) {
+      assertEquals(failing.get(i), errorRows.get(i)[0]);
+    }
+  }
+
+  private static void respond(HttpExchange exchange, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "text/plain");
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
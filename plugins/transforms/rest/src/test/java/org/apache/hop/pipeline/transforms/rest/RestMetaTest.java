@@ -76,6 +76,8 @@ public class RestMetaTest {
             "proxyHost",
             "proxyPort",
             "preemptive",
+            "concurrentRequests",
+            "connectionsPerRoute",
             "trustStoreFile",
             "trustStorePassword",
             "headerField",
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+
+import java.util.Comparator;
+
+/**
+ * A row to sort together with a normalized version of its first sort key: a long which compares
+ * (unsigned) in the same order as the key values themselves. Only when two normalized keys are
+ * equal, the rows need to be compared with {@link IValueMeta#compare(Object, Object)}.
+ *
+ * <p>Integers, numbers, dates and booleans are normalized completely. Strings compared without a
+ * collator and case sensitive are normalized to their first 4 characters.
+ */
+public class NormalizedKeyRow {
+  public final Object[] row;
+
+  /** Puts null values first or last, the same way the value metadata does */
+  private final int nullOrder;
+
+  private final long key;
+
+  private NormalizedKeyRow(Object[] row, int nullOrder, long key) {
+    this.row = row;
+    this.nullOrder = nullOrder;
+    this.key = key;
+  }
+
+  /**
+   * @param valueMeta The metadata of the first sort key
+   * @return true if the values of the key can be normalized
+   */
+  public static boolean isSupported(IValueMeta valueMeta) {
+    // Only the standard types: other implementations can compare values in their own way
+    //
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return valueMeta.getClass() == ValueMetaInteger.class;
+      case IValueMeta.TYPE_NUMBER:
+        return valueMeta.getClass() == ValueMetaNumber.class;
+      case IValueMeta.TYPE_DATE:
+        return valueMeta.getClass() == ValueMetaDate.class;
+      case IValueMeta.TYPE_BOOLEAN:
+        return valueMeta.getClass() == ValueMetaBoolean.class;
+      case IValueMeta.TYPE_STRING:
+        return valueMeta.getClass() == ValueMetaString.class
+            && valueMeta.isCollatorDisabled()
+            && !valueMeta.isCaseInsensitive();
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Create a row with a normalized key.
+   *
+   * @param valueMeta The metadata of the first sort key, supported according to isSupported()
+   * @param index The index of the first sort key in the row
+   * @param row The row
+   * @return The row with the normalized key
+   * @throws HopValueException In case the key value can't be converted
+   */
+  public static NormalizedKeyRow create(IValueMeta valueMeta, int index, Object[] row)
+      throws HopValueException {
+    Object value = row[index];
+    boolean descending = valueMeta.isSortedDescending();
+
+    // Null values come first when sorting ascending and last when sorting descending
+    //
+    if (valueMeta.isNull(value)) {
+      return new NormalizedKeyRow(row, descending ? 1 : 0, 0L);
+    }
+
+    long key;
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        key = valueMeta.getInteger(value) ^ Long.MIN_VALUE;
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        // Same order as Double.compare(), including -0.0 and NaN
+        long bits = Double.doubleToLongBits(valueMeta.getNumber(value));
+        key = bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+        break;
+      case IValueMeta.TYPE_DATE:
+        key = valueMeta.getDate(value).getTime() ^ Long.MIN_VALUE;
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        key = valueMeta.getBoolean(value) ? 1L : 0L;
+        break;
+      default:
+        key = stringKey(valueMeta, value);
+        break;
+    }
+    return new NormalizedKeyRow(row, descending ? 0 : 1, descending ? ~key : key);
+  }
+
+  /**
+   * The first 4 characters of the string, 16 bits each. Shorter strings are padded with zeroes so
+   * a prefix never sorts after the longer string.
+   */
+  private static long stringKey(IValueMeta valueMeta, Object value) throws HopValueException {
+    String string = valueMeta.getString(value);
+    if (valueMeta.isIgnoreWhitespace()) {
+      string = string.trim();
+    }
+    long key = 0L;
+    for (int i = 0; i < 4; i++) {
+      key <<= 16;
+      if (i < string.length()) {
+        key |= string.charAt(i);
+      }
+    }
+    return key;
+  }
+
+  /**
+   * @param rowComparator Compares the rows if the normalized keys are equal
+   * @return A comparator which looks at the normalized keys first
+   */
+  public static Comparator<NormalizedKeyRow> comparator(Comparator<Object[]> rowComparator) {
+    return (one, two) -> {
+      if (one.nullOrder != two.nullOrder) {
+        return Integer.compare(one.nullOrder, two.nullOrder);
+      }
+      if (one.key != two.key) {
+        return Long.compareUnsigned(one.key, two.key);
+      }
+      return rowComparator.compare(one.row, two.row);
+    };
+  }
+}
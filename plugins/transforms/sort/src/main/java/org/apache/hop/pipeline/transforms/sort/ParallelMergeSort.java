@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.exception.HopException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A stable merge sort which uses a number of threads. The array is cut in slices which are sorted
+ * at the same time. Then pairs of neighbouring slices are merged, again at the same time, until a
+ * single sorted array is left.
+ */
+public class ParallelMergeSort {
+
+  /** Below this number of elements per thread it's faster to simply sort on one thread */
+  public static final int MIN_SLICE_SIZE = 10000;
+
+  private ParallelMergeSort() {}
+
+  /**
+   * Sort an array in place.
+   *
+   * @param array The array to sort
+   * @param comparator The comparator to use, it's called from multiple threads at the same time
+   * @param executor The executor service to run the sorting and merging tasks with
+   * @param nrThreads The number of slices to sort at the same time
+   * @throws HopException In case the sort was interrupted or failed
+   */
+  public static <T> void sort(
+      T[] array, Comparator<? super T> comparator, ExecutorService executor, int nrThreads)
+      throws HopException {
+    int nrSlices = Math.min(nrThreads, array.length / MIN_SLICE_SIZE);
+    if (nrSlices <= 1) {
+      Arrays.sort(array, comparator);
+      return;
+    }
+
+    // The boundaries of the slices: slice i runs from bounds[i] to bounds[i+1]
+    //
+    int[] bounds = new int[nrSlices + 1];
+    for (int i = 0; i <= nrSlices; i++) {
+      bounds[i] = (int) ((long) array.length * i / nrSlices);
+    }
+
+    List<Callable<Void>> tasks = new ArrayList<>(nrSlices);
+    for (int i = 0; i < nrSlices; i++) {
+      int from = bounds[i];
+      int to = bounds[i + 1];
+      tasks.add(
+          () -> {
+            Arrays.sort(array, from, to, comparator);
+            return null;
+          });
+    }
+    run(executor, tasks);
+
+    // Merge neighbouring slices, going back and forth between the array and a work array
+    //
+    T[] source = array;
+    T[] target = array.clone();
+    while (bounds.length > 2) {
+      int nrSorted = bounds.length - 1;
+      int nrMerged = (nrSorted + 1) / 2;
+      int[] mergedBounds = new int[nrMerged + 1];
+      tasks.clear();
+      for (int i = 0; i < nrMerged; i++) {
+        int from = bounds[2 * i];
+        int middle = bounds[Math.min(2 * i + 1, bounds.length - 1)];
+        int to = bounds[Math.min(2 * i + 2, bounds.length - 1)];
+        mergedBounds[i] = from;
+        T[] src = source;
+        T[] dst = target;
+        tasks.add(
+            () -> {
+              merge(src, dst, from, middle, to, comparator);
+              return null;
+            });
+      }
+      mergedBounds[nrMerged] = array.length;
+      run(executor, tasks);
+
+      bounds = mergedBounds;
+      T[] swap = source;
+      source = target;
+      target = swap;
+    }
+
+    if (source != array) {
+      System.arraycopy(source, 0, array, 0, array.length);
+    }
+  }
+
+  /** Merge the sorted ranges [from, middle) and [middle, to) of source into target. */
+  private static <T> void merge(
+      T[] source, T[] target, int from, int middle, int to, Comparator<? super T> comparator) {
+    int left = from;
+    int right = middle;
+    int index = from;
+    while (left < middle && right < to) {
+      // Take from the left on equal elements to keep the sort stable
+      //
+      if (comparator.compare(source[right], source[left]) < 0) {
+        target[index++] = source[right++];
+      } else {
+        target[index++] = source[left++];
+      }
+    }
+    System.arraycopy(source, left, target, index, middle - left);
+    index += middle - left;
+    System.arraycopy(source, right, target, index, to - right);
+  }
+
+  private static void run(ExecutorService executor, List<Callable<Void>> tasks)
+      throws HopException {
+    try {
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while sorting rows", e);
+    } catch (ExecutionException e) {
+      throw new HopException("Error sorting rows", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.net.SocketTimeoutException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges a number of sorted temporary files into a single sorted stream of rows. The smallest
+ * unread row of every file is kept in a priority queue so finding the next row costs O(log(files))
+ * comparisons instead of O(files).
+ */
+public class RowTempFileMerge implements Closeable {
+  private final IRowMeta rowMeta;
+  private final DataInputStream[] streams;
+  private final long[] remaining;
+  private final PriorityQueue<RowTempFile> queue;
+
+  /**
+   * Open the merge and read the first row of every file.
+   *
+   * @param rowMeta The layout of the rows in the files
+   * @param comparator Compares the rows, rows with equal keys should be ordered by file number
+   * @param streams The streams to read the sorted rows from, closed by this merge
+   * @param rowCounts The number of rows in each of the streams
+   * @throws HopException in case a row can't be read
+   */
+  public RowTempFileMerge(
+      IRowMeta rowMeta,
+      Comparator<RowTempFile> comparator,
+      List<DataInputStream> streams,
+      List<Long> rowCounts)
+      throws HopException {
+    this.rowMeta = rowMeta;
+    this.streams = streams.toArray(new DataInputStream[0]);
+    this.remaining = new long[this.streams.length];
+    this.queue = new PriorityQueue<>(Math.max(1, this.streams.length), comparator);
+
+    for (int f = 0; f < this.streams.length; f++) {
+      remaining[f] = rowCounts.get(f);
+      if (remaining[f] > 0) {
+        queue.add(new RowTempFile(readRow(f), f));
+      } else {
+        closeStream(f);
+      }
+    }
+  }
+
+  /**
+   * @return The next row in sort order or null if all rows were read
+   * @throws HopException in case a row can't be read
+   */
+  public Object[] next() throws HopException {
+    RowTempFile smallest = queue.poll();
+    if (smallest == null) {
+      return null;
+    }
+    Object[] row = smallest.row;
+
+    // Replace the row with the next one from the same file.
+    //
+    int f = smallest.fileNumber;
+    if (remaining[f] > 0) {
+      smallest.row = readRow(f);
+      queue.add(smallest);
+    } else {
+      closeStream(f);
+    }
+    return row;
+  }
+
+  private Object[] readRow(int f) throws HopException {
+    try {
+      Object[] row = rowMeta.readData(streams[f]);
+      remaining[f]--;
+      return row;
+    } catch (SocketTimeoutException e) {
+      throw new HopException(e); // should never happen on local files
+    }
+  }
+
+  private void closeStream(int f) {
+    if (streams[f] != null) {
+      BaseTransform.closeQuietly(streams[f]);
+      streams[f] = null;
+    }
+  }
+
+  /** @return The number of files which still have rows to return */
+  public int getNrOpenFiles() {
+    return queue.size();
+  }
+
+  @Override
+  public void close() {
+    for (int f = 0; f < streams.length; f++) {
+      closeStream(f);
+    }
+    queue.clear();
+  }
+}
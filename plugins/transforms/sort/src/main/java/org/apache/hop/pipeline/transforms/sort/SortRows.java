@@ -21,8 +21,8 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
-import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -35,11 +35,12 @@ import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
 import java.io.*;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -48,6 +49,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
     implements ITransform<SortRowsMeta, SortRowsData> {
   private static final Class<?> PKG = SortRows.class; // For Translator
 
+  /** The buffer size for reading temp files and for the blocks of data passed to the codec */
+  private static final int TEMP_FILE_BLOCK_SIZE = 128 * 1024;
+
   public SortRows(
       TransformMeta transformMeta,
       SortRowsMeta meta,
@@ -110,254 +114,309 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
   // dump sorted rows from in-memory buffer to fs file
   // clean current buffer
   void sortExternalRows() throws HopException {
+    sortExternalRows(data.sortInBackground);
+  }
+
+  /**
+   * Sort the rows in the buffer and write them to a new temp file.
+   *
+   * @param inBackground true to sort and write the rows in the background so the next rows can be
+   *     read in the meantime
+   */
+  void sortExternalRows(boolean inBackground) throws HopException {
+    // Only one chunk is sorted in the background at any time: wait for the previous one.
+    // This also keeps the list of temp files in line with their sizes.
+    //
+    waitForBackgroundSort();
+
     // we just recently dump buffer - but there is no new rows came.
     if (data.buffer.isEmpty()) {
       return;
     }
 
-    // First sort the rows in buffer[]
-    quickSort(data.buffer);
+    List<Object[]> rows = data.buffer;
+    FileObject fileObject;
+    try {
+      fileObject = HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()));
+    } catch (Exception e) {
+      throw new HopException("Error processing temp-file!", e);
+    }
+    data.files.add(fileObject); // Remember the files!
 
-    // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
-    int p;
+    if (data.sortSize < 0 && rows.size() > data.minSortSize) {
+      data.minSortSize = rows.size(); // if we did it once, we can do
+      // it again.
 
-    try {
-      FileObject fileObject =
-          HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()));
-
-      data.files.add(fileObject); // Remember the files!
-      OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-      if (data.compressFiles) {
-        gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
-        dos = new DataOutputStream(gzos);
-      } else {
-        dos = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
-        gzos = null;
-      }
+      // Memory usage goes up over time, even with garbage collection
+      // We need pointers, file handles, etc.
+      // As such, we're going to lower the min sort size a bit
+      //
+      data.minSortSize = (int) Math.round(data.minSortSize * 0.90);
+    }
 
-      // Just write the data, nothing else
-      List<Integer> duplicates = new ArrayList<>();
-      Object[] previousRow = null;
-      if (meta.isOnlyPassingUniqueRows()) {
-        int index = 0;
-        while (index < data.buffer.size()) {
-          Object[] row = data.buffer.get(index);
-          if (previousRow != null) {
-            int result = data.outputRowMeta.compare(row, previousRow, data.fieldnrs);
-            if (result == 0) {
-              duplicates.add(index);
-              if (log.isRowLevel()) {
-                logRowlevel(
-                    BaseMessages.getString(
-                        PKG,
-                        "SortRows.RowLevel.DuplicateRowRemoved",
-                        data.outputRowMeta.getString(row)));
-              }
-            }
-          }
-          index++;
-          previousRow = row;
-        }
-      }
+    if (inBackground) {
+      // Continue reading rows in a new buffer
+      //
+      data.buffer = new ArrayList<>(rows.size());
+      data.pendingSort = data.sortExecutor.submit(() -> writeSortedRows(rows, fileObject));
+    } else {
+      data.bufferSizes.add(writeSortedRows(rows, fileObject));
 
-      // How many records do we have left?
-      data.bufferSizes.add(data.buffer.size() - duplicates.size());
+      // Clear the list
+      rows.clear();
+    }
+
+    // How much memory do we have left?
+    //
+    data.freeMemoryPct = Const.getPercentageFreeMemory();
+    data.freeCounter = 0;
+    if (data.sortSize <= 0 && log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct));
+    }
+
+    data.getBufferIndex = 0;
+  }
+
+  /**
+   * Sort the rows and write them to a temp file. Duplicates are left out if only unique rows are
+   * passed. This can run in the background, it doesn't touch the state of the transform other than
+   * the output row metadata which isn't used by the main thread while rows are being read.
+   *
+   * @return the number of rows written to the file
+   */
+  long writeSortedRows(List<Object[]> rows, FileObject fileObject) throws HopException {
+    // First sort the rows in buffer[]
+    quickSort(rows);
 
-      int duplicatesIndex = 0;
-      for (p = 0; p < data.buffer.size(); p++) {
-        boolean skip = false;
-        if (duplicatesIndex < duplicates.size() && p == duplicates.get(duplicatesIndex)) {
-          skip = true;
-          duplicatesIndex++;
+    // Then write them to disk...
+    long nrRows = 0;
+    try (DataOutputStream dos = openTempFileOutput(fileObject)) {
+      Object[] previousRow = null;
+      for (Object[] row : rows) {
+        boolean duplicate = false;
+        if (meta.isOnlyPassingUniqueRows() && previousRow != null) {
+          duplicate = data.outputRowMeta.compare(row, previousRow, data.fieldnrs) == 0;
+          if (duplicate && log.isRowLevel()) {
+            logRowlevel(
+                BaseMessages.getString(
+                    PKG, "SortRows.RowLevel.DuplicateRowRemoved", data.outputRowMeta.getString(row)));
+          }
         }
-        if (!skip) {
-          data.outputRowMeta.writeData(dos, data.buffer.get(p));
+        if (!duplicate) {
+          data.outputRowMeta.writeData(dos, row);
+          nrRows++;
         }
+        previousRow = row;
       }
+    } catch (Exception e) {
+      throw new HopException("Error processing temp-file!", e);
+    }
+    return nrRows;
+  }
 
-      if (data.sortSize < 0 && data.buffer.size() > data.minSortSize) {
-        data.minSortSize = data.buffer.size(); // if we did it once, we can do
-        // it again.
+  /** Wait for the chunk of rows which is sorted in the background, if any. */
+  void waitForBackgroundSort() throws HopException {
+    if (data.pendingSort == null) {
+      return;
+    }
+    try {
+      data.bufferSizes.add(data.pendingSort.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for the rows to be sorted", e);
+    } catch (ExecutionException e) {
+      throw new HopException("Error processing temp-file!", e.getCause());
+    } finally {
+      data.pendingSort = null;
+    }
+  }
 
-        // Memory usage goes up over time, even with garbage collection
-        // We need pointers, file handles, etc.
-        // As such, we're going to lower the min sort size a bit
-        //
-        data.minSortSize = (int) Math.round(data.minSortSize * 0.90);
+  /**
+   * Open a temp file for writing. Compressed files get a buffer on both sides of the codec so the
+   * codec always works on large blocks of data instead of on single values.
+   */
+  private DataOutputStream openTempFileOutput(FileObject fileObject) throws IOException {
+    OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
+    try {
+      if (!data.compressFiles) {
+        return new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
       }
-
-      // Clear the list
-      data.buffer.clear();
-
-      // Close temp-file
-      dos.close(); // close data stream
-      if (gzos != null) {
-        gzos.close(); // close gzip stream
+      OutputStream blocks = new BufferedOutputStream(outputStream, TEMP_FILE_BLOCK_SIZE);
+      OutputStream compressed;
+      if (data.compressionProvider == null) {
+        compressed = new GZIPOutputStream(blocks, TEMP_FILE_BLOCK_SIZE);
+      } else {
+        compressed = data.compressionProvider.createOutputStream(blocks);
       }
-      outputStream.close(); // close file stream
+      return new DataOutputStream(new BufferedOutputStream(compressed, TEMP_FILE_BLOCK_SIZE));
+    } catch (IOException e) {
+      BaseTransform.closeQuietly(outputStream);
+      throw e;
+    }
+  }
 
-      // How much memory do we have left?
-      //
-      data.freeMemoryPct = Const.getPercentageFreeMemory();
-      data.freeCounter = 0;
-      if (data.sortSize <= 0 && log.isDetailed()) {
-        logDetailed(
-            BaseMessages.getString(PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct));
+  /** Open a temp file for reading, the counterpart of openTempFileOutput() */
+  private DataInputStream openTempFileInput(FileObject fileObject) throws HopException {
+    InputStream inputStream = null;
+    try {
+      inputStream = HopVfs.getInputStream(fileObject);
+      if (!data.compressFiles) {
+        return new DataInputStream(new BufferedInputStream(inputStream, TEMP_FILE_BLOCK_SIZE));
       }
-
+      InputStream blocks = new BufferedInputStream(inputStream, TEMP_FILE_BLOCK_SIZE);
+      InputStream decompressed;
+      if (data.compressionProvider == null) {
+        decompressed = new GZIPInputStream(blocks, TEMP_FILE_BLOCK_SIZE);
+      } else {
+        decompressed = data.compressionProvider.createInputStream(blocks);
+      }
+      return new DataInputStream(new BufferedInputStream(decompressed, TEMP_FILE_BLOCK_SIZE));
     } catch (Exception e) {
-      throw new HopException("Error processing temp-file!", e);
+      BaseTransform.closeQuietly(inputStream);
+      throw new HopException(
+          BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
     }
-
-    data.getBufferIndex = 0;
   }
 
-  private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
-    DataInputStream result = new DataInputStream(gzipInputStream);
-    data.gzis.add(gzipInputStream);
-    return result;
+  /**
+   * Open a merge of the given temp files.
+   *
+   * @param files The files to merge
+   * @param sizes The number of rows in each file
+   * @return The merge, reading the sorted rows from the files
+   */
+  private RowTempFileMerge openMerge(List<FileObject> files, List<Long> sizes)
+      throws HopException {
+    List<DataInputStream> streams = new ArrayList<>(files.size());
+    try {
+      for (int f = 0; f < files.size() && !isStopped(); f++) {
+        FileObject fileObject = files.get(f);
+        String filename = HopVfs.getFilename(fileObject);
+        if (log.isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
+          logDetailed(
+              BaseMessages.getString(
+                  PKG, "SortRows.Detailed.FromFileExpectingRows", filename, sizes.get(f)));
+        }
+        streams.add(openTempFileInput(fileObject));
+      }
+      return new RowTempFileMerge(data.outputRowMeta, data.comparator, streams, sizes);
+    } catch (HopException e) {
+      for (DataInputStream stream : streams) {
+        BaseTransform.closeQuietly(stream);
+      }
+      throw e;
+    }
   }
 
-  // get sorted rows from available files in iterative manner.
-  // that means call to this method will continue to return rows
-  // till all temp files will not be read to the end.
-  Object[] getBuffer() throws HopValueException {
-    Object[] retval;
-
-    // Open all files at once and read one row from each file...
-    if (CollectionUtils.isNotEmpty(data.files) && (data.dis.isEmpty() || data.fis.isEmpty())) {
+  /**
+   * As long as there are more temp files than we want to have open at once, merge groups of
+   * consecutive files into larger ones. Every pass divides the number of files by the fan-in. Rows
+   * with equal keys keep their order because the files in a group are consecutive.
+   */
+  void mergeTempFiles() throws HopException {
+    while (data.files.size() > data.mergeFanIn && !isStopped()) {
       if (log.isBasic()) {
-        logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
+        logBasic(
+            BaseMessages.getString(
+                PKG, "SortRows.Basic.MergePass", data.files.size(), data.mergeFanIn));
+      }
+      int index = 0;
+      while (index < data.files.size() && !isStopped()) {
+        int end = Math.min(index + data.mergeFanIn, data.files.size());
+        if (end - index > 1) {
+          mergeTempFiles(index, end);
+        }
+        index++;
       }
+    }
+  }
 
-      try {
-        for (int f = 0; f < data.files.size() && !isStopped(); f++) {
-          FileObject fileObject = data.files.get(f);
-          String filename = HopVfs.getFilename(fileObject);
-          if (log.isDetailed()) {
-            logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
-          }
-          InputStream fi = HopVfs.getInputStream(fileObject);
-          DataInputStream di;
-          data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
-          } else {
-            di = new DataInputStream(new BufferedInputStream(fi, 50000));
-          }
-          data.dis.add(di);
+  /** Merge the files from index start (inclusive) to end (exclusive) into a single new file. */
+  private void mergeTempFiles(int start, int end) throws HopException {
+    List<FileObject> group = data.files.subList(start, end);
+    List<Long> sizes = data.bufferSizes.subList(start, end);
 
-          // How long is the buffer?
-          int buffersize = data.bufferSizes.get(f);
+    FileObject merged;
+    try {
+      merged = HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()));
+    } catch (Exception e) {
+      throw new HopException("Error processing temp-file!", e);
+    }
 
-          if (log.isDetailed()) {
-            logDetailed(
-                BaseMessages.getString(
-                    PKG, "SortRows.Detailed.FromFileExpectingRows", filename, buffersize));
-          }
+    long nrRows = 0;
+    try (RowTempFileMerge merge = openMerge(group, sizes);
+        DataOutputStream dos = openTempFileOutput(merged)) {
+      Object[] row = merge.next();
+      while (row != null && !isStopped()) {
+        data.outputRowMeta.writeData(dos, row);
+        nrRows++;
+        row = merge.next();
+      }
+    } catch (Exception e) {
+      deleteTempFile(merged);
+      throw new HopException("Error processing temp-file!", e);
+    }
+    if (isStopped()) {
+      deleteTempFile(merged);
+      return;
+    }
 
-          if (buffersize > 0) {
-            Object[] row = data.outputRowMeta.readData(di);
-            data.rowbuffer.add(row); // new row from input stream
-            data.tempRows.add(new RowTempFile(row, f));
-          }
-        }
+    // The merged file takes the place of the group
+    //
+    for (FileObject fileObject : group) {
+      deleteTempFile(fileObject);
+    }
+    group.clear();
+    sizes.clear();
+    data.files.add(start, merged);
+    data.bufferSizes.add(start, nrRows);
+  }
 
-        // Sort the data row buffer
-        Collections.sort(data.tempRows, data.comparator);
-      } catch (Exception e) {
-        logError(BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
+  private void deleteTempFile(FileObject fileObject) {
+    try {
+      if (fileObject != null && fileObject.exists()) {
+        fileObject.delete();
       }
+    } catch (FileSystemException e) {
+      logError(e.getLocalizedMessage(), e);
     }
+  }
 
+  // get sorted rows from available files in iterative manner.
+  // that means call to this method will continue to return rows
+  // till all temp files will not be read to the end.
+  Object[] getBuffer() throws HopException {
     if (data.files.isEmpty()) {
       // read from in-memory processing
 
       if (data.getBufferIndex < data.buffer.size()) {
-        retval = data.buffer.get(data.getBufferIndex);
+        Object[] retval = data.buffer.get(data.getBufferIndex);
         data.getBufferIndex++;
-      } else {
-        retval = null;
+        return retval;
       }
-    } else {
-      // read from disk processing
-
-      if (data.rowbuffer.isEmpty()) {
-        retval = null;
-      } else {
-        // We now have "filenr" rows waiting: which one is the smallest?
-        //
-        if (log.isRowLevel()) {
-          for (int i = 0; i < data.rowbuffer.size() && !isStopped(); i++) {
-            Object[] b = data.rowbuffer.get(i);
-            logRowlevel(
-                BaseMessages.getString(
-                    PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString(b)));
-          }
-        }
-
-        RowTempFile rowTempFile = data.tempRows.remove(0);
-        retval = rowTempFile.row;
-        int smallest = rowTempFile.fileNumber;
-
-        // now get another Row for position smallest
-
-        FileObject file = data.files.get(smallest);
-        DataInputStream di = data.dis.get(smallest);
-        InputStream fi = data.fis.get(smallest);
-
-        try {
-          Object[] row2 = data.outputRowMeta.readData(di);
-          RowTempFile extra = new RowTempFile(row2, smallest);
-
-          int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
-          if (index < 0) {
-            data.tempRows.add(index * (-1) - 1, extra);
-          } else {
-            data.tempRows.add(index, extra);
-          }
-        } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
-          try {
-            di.close();
-            fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
-            file.delete();
-          } catch (IOException e) {
-            logError(
-                BaseMessages.getString(
-                    PKG, "SortRows.Error.UnableToCloseFile", smallest, file.toString()));
-            setErrors(1);
-            stopAll();
-            return null;
-          }
+      return null;
+    }
 
-          data.files.remove(smallest);
-          data.dis.remove(smallest);
-          data.fis.remove(smallest);
+    // read from disk processing
+    //
+    if (data.merge == null) {
+      waitForBackgroundSort();
 
-          if (gzfi != null) {
-            data.gzis.remove(smallest);
-          }
+      // Don't open more files at once than the fan-in allows
+      //
+      mergeTempFiles();
+      if (isStopped()) {
+        return null;
+      }
 
-          // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
-          //
-          for (RowTempFile rtf : data.tempRows) {
-            if (rtf.fileNumber > smallest) {
-              rtf.fileNumber--;
-            }
-          }
-        } catch (SocketTimeoutException e) {
-          throw new HopValueException(e); // should never happen on local files
-        }
+      if (log.isBasic()) {
+        logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
       }
+      data.merge = openMerge(data.files, data.bufferSizes);
     }
-    return retval;
+    return data.merge.next();
   }
 
   @Override
@@ -432,6 +491,20 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator(data.outputRowMeta, data.fieldnrs);
+
+      // Can we speed up the comparisons with normalized keys?
+      //
+      data.normalizedKeyMeta = null;
+      if (meta.isUsingNormalizedKeys() && data.fieldnrs.length > 0) {
+        IValueMeta keyMeta = data.outputRowMeta.getValueMeta(data.fieldnrs[0]);
+        if (NormalizedKeyRow.isSupported(keyMeta)) {
+          data.normalizedKeyMeta = keyMeta;
+        } else if (log.isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG, "SortRows.Detailed.NormalizedKeysNotSupported", keyMeta.toStringMeta()));
+        }
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -557,14 +630,52 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
     //
     data.buffer = new ArrayList<>(5000);
 
-    // Buffer for reading from disk
-    //
-    data.rowbuffer = new ArrayList<>(5000);
-
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.getCompressFiles());
 
-    data.tempRows = new ArrayList<>();
+    // GZIP is handled directly, other codecs come from the compression plugins
+    //
+    String compressionType =
+        Const.NVL(resolve(meta.getCompressionType()), SortRowsMeta.COMPRESSION_TYPE_GZIP);
+    data.compressionProvider = null;
+    if (data.compressFiles
+        && !SortRowsMeta.COMPRESSION_TYPE_GZIP.equalsIgnoreCase(compressionType)) {
+      data.compressionProvider =
+          CompressionProviderFactory.getInstance().createCompressionProviderInstance(compressionType);
+      if (data.compressionProvider == null) {
+        logError(
+            BaseMessages.getString(PKG, "SortRows.Error.UnknownCompressionType", compressionType));
+        return false;
+      }
+    }
+
+    data.mergeFanIn =
+        Math.max(2, Const.toInt(resolve(meta.getMergeFanIn()), SortRowsMeta.DEFAULT_MERGE_FAN_IN));
+
+    data.sortInBackground = meta.isSortingInBackground();
+    if (data.sortInBackground) {
+      String threadName = getPipelineMeta().getName() + " - " + getTransformName() + " (sort)";
+      data.sortExecutor =
+          Executors.newSingleThreadExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+
+    data.sortThreads = Math.max(1, Const.toInt(resolve(meta.getSortThreads()), 1));
+    if (data.sortThreads > 1) {
+      String threadName = getPipelineMeta().getName() + " - " + getTransformName() + " (sort)";
+      data.sortPool =
+          Executors.newFixedThreadPool(
+              data.sortThreads,
+              runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
 
     data.minSortSize = 5000;
 
@@ -574,45 +685,71 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
   @Override
   public void dispose() {
     clearBuffers();
+    if (data.sortExecutor != null) {
+      data.sortExecutor.shutdownNow();
+      data.sortExecutor = null;
+    }
+    if (data.sortPool != null) {
+      data.sortPool.shutdownNow();
+      data.sortPool = null;
+    }
     super.dispose();
   }
 
   private void clearBuffers() {
 
+    // Let a background sort finish, it's still writing to one of the temp files
+    if (data.pendingSort != null) {
+      try {
+        data.pendingSort.get();
+      } catch (Exception e) {
+        // The temp file is removed below
+      }
+      data.pendingSort = null;
+    }
+
     // Clean out the sort buffer
-    data.buffer.clear();
+    if (data.buffer != null) {
+      data.buffer.clear();
+    }
     data.getBufferIndex = 0;
-    data.rowbuffer.clear();
 
-    // close any open DataInputStream objects
-    if (CollectionUtils.isNotEmpty(data.dis)) {
-      for (DataInputStream dis : data.dis) {
-        BaseTransform.closeQuietly(dis);
-      }
-    }
-    // close any open InputStream objects
-    if (CollectionUtils.isNotEmpty(data.fis)) {
-      for (InputStream is : data.fis) {
-        BaseTransform.closeQuietly(is);
-      }
+    // close any open temp files
+    if (data.merge != null) {
+      data.merge.close();
+      data.merge = null;
     }
+
     // remove temp files
-    for (int f = 0; f < data.files.size(); f++) {
-      FileObject fileToDelete = data.files.get(f);
-      try {
-        if (fileToDelete != null && fileToDelete.exists()) {
-          fileToDelete.delete();
-        }
-      } catch (FileSystemException e) {
-        logError(e.getLocalizedMessage(), e);
-      }
+    for (FileObject fileToDelete : data.files) {
+      deleteTempFile(fileToDelete);
     }
+    data.files.clear();
+    data.bufferSizes.clear();
   }
 
   /** Sort the entire vector, if it is not empty. */
-  void quickSort(List<Object[]> elements) {
+  void quickSort(List<Object[]> elements) throws HopException {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      if (data.normalizedKeyMeta != null) {
+        // Compare the normalized keys first, only compare the values if they are equal
+        //
+        NormalizedKeyRow[] rows = new NormalizedKeyRow[elements.size()];
+        for (int i = 0; i < rows.length; i++) {
+          rows[i] =
+              NormalizedKeyRow.create(data.normalizedKeyMeta, data.fieldnrs[0], elements.get(i));
+        }
+        sortArray(rows, NormalizedKeyRow.comparator(data.rowComparator));
+        for (int i = 0; i < rows.length; i++) {
+          elements.set(i, rows[i].row);
+        }
+      } else {
+        Object[][] rows = elements.toArray(new Object[elements.size()][]);
+        sortArray(rows, data.rowComparator);
+        for (int i = 0; i < rows.length; i++) {
+          elements.set(i, rows[i]);
+        }
+      }
 
       long nrConversions = 0L;
       for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
@@ -627,6 +764,15 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
     }
   }
 
+  /** Sort an array, using multiple threads if so configured. */
+  private <T> void sortArray(T[] array, Comparator<? super T> comparator) throws HopException {
+    if (data.sortPool != null) {
+      ParallelMergeSort.sort(array, comparator, data.sortPool, data.sortThreads);
+    } else {
+      Arrays.sort(array, comparator);
+    }
+  }
+
   /**
    * Calling this method will alert the transform that we finished passing records to the transform.
    * Specifically for transforms like "Sort Rows" it means that the buffered rows can be sorted and
@@ -641,8 +787,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
 
   private void preSortBeforeFlush() throws HopException {
     if (data.files.size() > 0) {
-      // dump to dist and then read from disk
-      sortExternalRows();
+      // dump to dist and then read from disk, no need to do that in the background
+      sortExternalRows(false);
     } else {
       // sort in memory
       quickSort(data.buffer);
@@ -685,7 +831,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
     @Override
     public int compare(RowTempFile o1, RowTempFile o2) {
       try {
-        return rowMeta.compare(o1.row, o2.row, fieldNrs);
+        int cmp = rowMeta.compare(o1.row, o2.row, fieldNrs);
+        // Rows with equal keys come out in the order in which they were read
+        return cmp != 0 ? cmp : Integer.compare(o1.fileNumber, o2.fileNumber);
       } catch (HopValueException e) {
         logError("Error comparing rows: " + e.toString());
         return 0;
@@ -18,36 +18,37 @@
 package org.apache.hop.pipeline.transforms.sort;
 
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.io.DataInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class SortRowsData extends BaseTransformData implements ITransformData {
   public List<FileObject> files;
   public List<Object[]> buffer;
   public int getBufferIndex;
 
-  public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
-  public List<DataInputStream> dis;
-  public List<Object[]> rowbuffer;
-  public List<Integer> bufferSizes;
+  // The number of rows in each of the temp files
+  public List<Long> bufferSizes;
 
-  // To store rows and file references
-  public List<RowTempFile> tempRows;
+  // Merges the temp files back together
+  public RowTempFileMerge merge;
 
   public int[] fieldnrs; // the corresponding field numbers
   public FileObject fil;
   public IRowMeta outputRowMeta;
   public int sortSize;
   public boolean compressFiles;
+  // The codec to compress temp files with, null means GZIP
+  public ICompressionProvider compressionProvider;
+  public int mergeFanIn;
   public int[] convertKeysToNative;
   public boolean convertAnyKeysToNative;
 
@@ -60,6 +61,18 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public int freeMemoryPctLimit;
   public int memoryReporting;
 
+  // Sorting and writing a chunk of rows in the background
+  public boolean sortInBackground;
+  public ExecutorService sortExecutor;
+  public Future<Long> pendingSort;
+
+  // Sorting with multiple threads
+  public int sortThreads;
+  public ExecutorService sortPool;
+
+  // The first sort key if it's sorted using normalized keys, null otherwise
+  public IValueMeta normalizedKeyMeta;
+
   /*
    * Group Fields Implementation heroic
    */
@@ -71,9 +84,6 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
     super();
 
     files = new ArrayList<>();
-    fis = new ArrayList<>();
-    gzis = new ArrayList<>();
-    dis = new ArrayList<>();
     bufferSizes = new ArrayList<>();
 
     previous = null; // Heroic
@@ -31,6 +31,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.CheckBoxVar;
 import org.apache.hop.ui.core.widget.ColumnInfo;
+import org.apache.hop.ui.core.widget.ComboVar;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
@@ -60,8 +61,18 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
 
   private TextVar wFreeMemory;
 
+  private TextVar wMergeFanIn;
+
+  private TextVar wSortThreads;
+
   private CheckBoxVar wCompress;
 
+  private ComboVar wCompressionType;
+
+  private Button wSortInBackground;
+
+  private Button wNormalizedKeys;
+
   private Button wUniqueRows;
 
   private TableView wFields;
@@ -207,6 +218,46 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     fdFreeMemory.right = new FormAttachment(100, 0);
     wFreeMemory.setLayoutData(fdFreeMemory);
 
+    // Maximum number of temporary files to merge at once
+    Label wlMergeFanIn = new Label(shell, SWT.RIGHT);
+    wlMergeFanIn.setText(BaseMessages.getString(PKG, "SortRowsDialog.MergeFanIn.Label"));
+    wlMergeFanIn.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.MergeFanIn.Tooltip"));
+    props.setLook(wlMergeFanIn);
+    FormData fdlMergeFanIn = new FormData();
+    fdlMergeFanIn.left = new FormAttachment(0, 0);
+    fdlMergeFanIn.right = new FormAttachment(middle, -margin);
+    fdlMergeFanIn.top = new FormAttachment(wFreeMemory, margin * 2);
+    wlMergeFanIn.setLayoutData(fdlMergeFanIn);
+    wMergeFanIn = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMergeFanIn.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.MergeFanIn.Tooltip"));
+    props.setLook(wMergeFanIn);
+    wMergeFanIn.addModifyListener(lsMod);
+    FormData fdMergeFanIn = new FormData();
+    fdMergeFanIn.left = new FormAttachment(middle, 0);
+    fdMergeFanIn.top = new FormAttachment(wFreeMemory, margin * 2);
+    fdMergeFanIn.right = new FormAttachment(100, 0);
+    wMergeFanIn.setLayoutData(fdMergeFanIn);
+
+    // Number of threads to sort with
+    Label wlSortThreads = new Label(shell, SWT.RIGHT);
+    wlSortThreads.setText(BaseMessages.getString(PKG, "SortRowsDialog.SortThreads.Label"));
+    wlSortThreads.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.SortThreads.Tooltip"));
+    props.setLook(wlSortThreads);
+    FormData fdlSortThreads = new FormData();
+    fdlSortThreads.left = new FormAttachment(0, 0);
+    fdlSortThreads.right = new FormAttachment(middle, -margin);
+    fdlSortThreads.top = new FormAttachment(wMergeFanIn, margin * 2);
+    wlSortThreads.setLayoutData(fdlSortThreads);
+    wSortThreads = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wSortThreads.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.SortThreads.Tooltip"));
+    props.setLook(wSortThreads);
+    wSortThreads.addModifyListener(lsMod);
+    FormData fdSortThreads = new FormData();
+    fdSortThreads.left = new FormAttachment(middle, 0);
+    fdSortThreads.top = new FormAttachment(wMergeFanIn, margin * 2);
+    fdSortThreads.right = new FormAttachment(100, 0);
+    wSortThreads.setLayoutData(fdSortThreads);
+
     // Using compression for temporary files?
     Label wlCompress = new Label(shell, SWT.RIGHT);
     wlCompress.setText(BaseMessages.getString(PKG, "SortRowsDialog.Compress.Label"));
@@ -214,7 +265,7 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     FormData fdlCompress = new FormData();
     fdlCompress.left = new FormAttachment(0, 0);
     fdlCompress.right = new FormAttachment(middle, -margin);
-    fdlCompress.top = new FormAttachment(wFreeMemory, margin * 2);
+    fdlCompress.top = new FormAttachment(wSortThreads, margin * 2);
     wlCompress.setLayoutData(fdlCompress);
     wCompress = new CheckBoxVar(variables, shell, SWT.CHECK, "");
     props.setLook(wCompress);
@@ -233,6 +284,68 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
           }
         });
 
+    // Which codec to use for the temporary files?
+    Label wlCompressionType = new Label(shell, SWT.RIGHT);
+    wlCompressionType.setText(BaseMessages.getString(PKG, "SortRowsDialog.CompressionType.Label"));
+    wlCompressionType.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.CompressionType.Tooltip"));
+    props.setLook(wlCompressionType);
+    FormData fdlCompressionType = new FormData();
+    fdlCompressionType.left = new FormAttachment(0, 0);
+    fdlCompressionType.right = new FormAttachment(middle, -margin);
+    fdlCompressionType.top = new FormAttachment(wCompress, margin);
+    wlCompressionType.setLayoutData(fdlCompressionType);
+    wCompressionType = new ComboVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wCompressionType.setItems(SortRowsMeta.COMPRESSION_TYPES);
+    props.setLook(wCompressionType);
+    wCompressionType.addModifyListener(lsMod);
+    FormData fdCompressionType = new FormData();
+    fdCompressionType.left = new FormAttachment(middle, 0);
+    fdCompressionType.top = new FormAttachment(wCompress, margin);
+    fdCompressionType.right = new FormAttachment(100, 0);
+    wCompressionType.setLayoutData(fdCompressionType);
+
+    // Sort the rows in the background?
+    Label wlSortInBackground = new Label(shell, SWT.RIGHT);
+    wlSortInBackground.setText(
+        BaseMessages.getString(PKG, "SortRowsDialog.SortInBackground.Label"));
+    props.setLook(wlSortInBackground);
+    FormData fdlSortInBackground = new FormData();
+    fdlSortInBackground.left = new FormAttachment(0, 0);
+    fdlSortInBackground.right = new FormAttachment(middle, -margin);
+    fdlSortInBackground.top = new FormAttachment(wCompressionType, margin);
+    wlSortInBackground.setLayoutData(fdlSortInBackground);
+    wSortInBackground = new Button(shell, SWT.CHECK);
+    wSortInBackground.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.SortInBackground.Tooltip"));
+    props.setLook(wSortInBackground);
+    FormData fdSortInBackground = new FormData();
+    fdSortInBackground.left = new FormAttachment(middle, 0);
+    fdSortInBackground.top = new FormAttachment(wlSortInBackground, 0, SWT.CENTER);
+    fdSortInBackground.right = new FormAttachment(100, 0);
+    wSortInBackground.setLayoutData(fdSortInBackground);
+    wSortInBackground.addSelectionListener(new ComponentSelectionListener(input));
+
+    // Compare normalized keys first?
+    Label wlNormalizedKeys = new Label(shell, SWT.RIGHT);
+    wlNormalizedKeys.setText(BaseMessages.getString(PKG, "SortRowsDialog.NormalizedKeys.Label"));
+    props.setLook(wlNormalizedKeys);
+    FormData fdlNormalizedKeys = new FormData();
+    fdlNormalizedKeys.left = new FormAttachment(0, 0);
+    fdlNormalizedKeys.right = new FormAttachment(middle, -margin);
+    fdlNormalizedKeys.top = new FormAttachment(wSortInBackground, margin);
+    wlNormalizedKeys.setLayoutData(fdlNormalizedKeys);
+    wNormalizedKeys = new Button(shell, SWT.CHECK);
+    wNormalizedKeys.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.NormalizedKeys.Tooltip"));
+    props.setLook(wNormalizedKeys);
+    FormData fdNormalizedKeys = new FormData();
+    fdNormalizedKeys.left = new FormAttachment(middle, 0);
+    fdNormalizedKeys.top = new FormAttachment(wlNormalizedKeys, 0, SWT.CENTER);
+    fdNormalizedKeys.right = new FormAttachment(100, 0);
+    wNormalizedKeys.setLayoutData(fdNormalizedKeys);
+    wNormalizedKeys.addSelectionListener(new ComponentSelectionListener(input));
+
     // Using compression for temporary files?
     Label wlUniqueRows = new Label(shell, SWT.RIGHT);
     wlUniqueRows.setText(BaseMessages.getString(PKG, "SortRowsDialog.UniqueRows.Label"));
@@ -240,7 +353,7 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     FormData fdlUniqueRows = new FormData();
     fdlUniqueRows.left = new FormAttachment(0, 0);
     fdlUniqueRows.right = new FormAttachment(middle, -margin);
-    fdlUniqueRows.top = new FormAttachment(wCompress, margin);
+    fdlUniqueRows.top = new FormAttachment(wNormalizedKeys, margin);
     wlUniqueRows.setLayoutData(fdlUniqueRows);
     wUniqueRows = new Button(shell, SWT.CHECK);
     wUniqueRows.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.UniqueRows.Tooltip"));
@@ -406,6 +519,12 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     wFreeMemory.setText(Const.NVL(input.getFreeMemoryLimit(), ""));
     wCompress.setSelection(input.getCompressFiles());
     wCompress.setVariableName(input.getCompressFilesVariable());
+    wCompressionType.setText(
+        Const.NVL(input.getCompressionType(), SortRowsMeta.COMPRESSION_TYPE_GZIP));
+    wMergeFanIn.setText(Const.NVL(input.getMergeFanIn(), ""));
+    wSortInBackground.setSelection(input.isSortingInBackground());
+    wSortThreads.setText(Const.NVL(input.getSortThreads(), ""));
+    wNormalizedKeys.setSelection(input.isUsingNormalizedKeys());
     wUniqueRows.setSelection(input.isOnlyPassingUniqueRows());
 
     Table table = wFields.table;
@@ -471,6 +590,11 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     log.logDetailed("Sort rows", "Compression is set to " + wCompress.getSelection());
     input.setCompressFiles(wCompress.getSelection());
     input.setCompressFilesVariable(wCompress.getVariableName());
+    input.setCompressionType(wCompressionType.getText());
+    input.setMergeFanIn(wMergeFanIn.getText());
+    input.setSortingInBackground(wSortInBackground.getSelection());
+    input.setSortThreads(wSortThreads.getText());
+    input.setUsingNormalizedKeys(wNormalizedKeys.getSelection());
     input.setOnlyPassingUniqueRows(wUniqueRows.getSelection());
 
     int nrFields = wFields.nrNonEmpty();
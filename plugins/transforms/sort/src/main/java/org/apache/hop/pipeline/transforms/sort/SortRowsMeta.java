@@ -64,6 +64,18 @@ public class SortRowsMeta extends BaseTransformMeta
   private static final long serialVersionUID = -9075883720765645655L;
   private static final Class<?> PKG = SortRowsMeta.class; // For Translator
 
+  /** The name of the GZIP compression provider, the default codec for temp files */
+  public static final String COMPRESSION_TYPE_GZIP = "GZip";
+
+  /** The name of the Snappy compression provider: less compression but a lot faster */
+  public static final String COMPRESSION_TYPE_SNAPPY = "Snappy";
+
+  /** The codecs which can be used for temp files */
+  public static final String[] COMPRESSION_TYPES = {COMPRESSION_TYPE_GZIP, COMPRESSION_TYPE_SNAPPY};
+
+  /** The default maximum number of temp files merged at once */
+  public static final int DEFAULT_MERGE_FAN_IN = 100;
+
   /** order by which fields? */
   @Injection(name = "NAME", group = "FIELDS")
   private String[] fieldName;
@@ -120,6 +132,32 @@ public class SortRowsMeta extends BaseTransformMeta
   /** The variable to use to set the compressFiles option boolean */
   private String compressFilesVariable;
 
+  /** The compression codec for the temporary files, GZip if nothing is specified */
+  @Injection(name = "COMPRESSION_TYPE")
+  private String compressionType;
+
+  /**
+   * The maximum number of temporary files to merge at once. If there are more files, they are
+   * merged into larger files first.
+   */
+  @Injection(name = "MERGE_FAN_IN")
+  private String mergeFanIn;
+
+  /** Sort and write a chunk of rows to disk in the background while the next one is read */
+  @Injection(name = "SORT_IN_BACKGROUND")
+  private boolean sortingInBackground;
+
+  /** The number of threads to sort a chunk of rows with */
+  @Injection(name = "SORT_THREADS")
+  private String sortThreads;
+
+  /**
+   * Compare a binary comparable version of the first sort key before comparing the values
+   * themselves
+   */
+  @Injection(name = "NORMALIZED_KEYS")
+  private boolean usingNormalizedKeys;
+
   public SortRowsMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -215,6 +253,13 @@ public class SortRowsMeta extends BaseTransformMeta
       freeMemoryLimit = XmlHandler.getTagValue(transformNode, "free_memory");
       compressFiles = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "compress"));
       compressFilesVariable = XmlHandler.getTagValue(transformNode, "compress_variable");
+      compressionType = XmlHandler.getTagValue(transformNode, "compression_type");
+      mergeFanIn = XmlHandler.getTagValue(transformNode, "merge_fan_in");
+      sortingInBackground =
+          "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "background_sort"));
+      sortThreads = XmlHandler.getTagValue(transformNode, "sort_threads");
+      usingNormalizedKeys =
+          "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "normalized_keys"));
       onlyPassingUniqueRows =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "unique_rows"));
 
@@ -253,6 +298,11 @@ public class SortRowsMeta extends BaseTransformMeta
     freeMemoryLimit = null;
     compressFiles = false;
     compressFilesVariable = null;
+    compressionType = COMPRESSION_TYPE_GZIP;
+    mergeFanIn = Integer.toString(DEFAULT_MERGE_FAN_IN);
+    sortingInBackground = false;
+    sortThreads = "1";
+    usingNormalizedKeys = false;
     onlyPassingUniqueRows = false;
 
     int nrFields = 0;
@@ -279,6 +329,11 @@ public class SortRowsMeta extends BaseTransformMeta
     retval
         .append("      ")
         .append(XmlHandler.addTagValue("compress_variable", compressFilesVariable));
+    retval.append("      ").append(XmlHandler.addTagValue("compression_type", compressionType));
+    retval.append("      ").append(XmlHandler.addTagValue("merge_fan_in", mergeFanIn));
+    retval.append("      ").append(XmlHandler.addTagValue("background_sort", sortingInBackground));
+    retval.append("      ").append(XmlHandler.addTagValue("sort_threads", sortThreads));
+    retval.append("      ").append(XmlHandler.addTagValue("normalized_keys", usingNormalizedKeys));
     retval.append("      ").append(XmlHandler.addTagValue("unique_rows", onlyPassingUniqueRows));
 
     retval.append("    <fields>").append(Const.CR);
@@ -523,6 +578,56 @@ public class SortRowsMeta extends BaseTransformMeta
     this.compressFilesVariable = compressFilesVariable;
   }
 
+  /** @return the compressionType */
+  public String getCompressionType() {
+    return compressionType;
+  }
+
+  /** @param compressionType the compressionType to set */
+  public void setCompressionType(String compressionType) {
+    this.compressionType = compressionType;
+  }
+
+  /** @return the maximum number of temp files to merge at once */
+  public String getMergeFanIn() {
+    return mergeFanIn;
+  }
+
+  /** @param mergeFanIn the maximum number of temp files to merge at once */
+  public void setMergeFanIn(String mergeFanIn) {
+    this.mergeFanIn = mergeFanIn;
+  }
+
+  /** @return true if chunks of rows are sorted and written to disk in the background */
+  public boolean isSortingInBackground() {
+    return sortingInBackground;
+  }
+
+  /** @param sortingInBackground true to sort and write chunks of rows in the background */
+  public void setSortingInBackground(boolean sortingInBackground) {
+    this.sortingInBackground = sortingInBackground;
+  }
+
+  /** @return the number of threads to sort a chunk of rows with */
+  public String getSortThreads() {
+    return sortThreads;
+  }
+
+  /** @param sortThreads the number of threads to sort a chunk of rows with */
+  public void setSortThreads(String sortThreads) {
+    this.sortThreads = sortThreads;
+  }
+
+  /** @return true if the first sort key is compared in a normalized form first */
+  public boolean isUsingNormalizedKeys() {
+    return usingNormalizedKeys;
+  }
+
+  /** @param usingNormalizedKeys true to compare the first sort key in a normalized form first */
+  public void setUsingNormalizedKeys(boolean usingNormalizedKeys) {
+    this.usingNormalizedKeys = usingNormalizedKeys;
+  }
+
   /** @return the caseSensitive */
   public boolean[] getCaseSensitive() {
     return caseSensitive;
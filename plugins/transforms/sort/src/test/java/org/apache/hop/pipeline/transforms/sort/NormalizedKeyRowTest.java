@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NormalizedKeyRowTest {
+
+  /** Verify that the normalized keys sort in exactly the same order as the values */
+  private void assertSameOrder(IValueMeta valueMeta, Object... values) throws Exception {
+    for (boolean descending : new boolean[] {false, true}) {
+      valueMeta.setSortedDescending(descending);
+      assertTrue(NormalizedKeyRow.isSupported(valueMeta));
+
+      // Only the normalized keys, the values are never compared
+      Comparator<NormalizedKeyRow> comparator = NormalizedKeyRow.comparator((one, two) -> 0);
+
+      for (Object one : values) {
+        for (Object two : values) {
+          int expected = Integer.signum(valueMeta.compare(one, two));
+          int actual =
+              Integer.signum(
+                  comparator.compare(
+                      NormalizedKeyRow.create(valueMeta, 0, new Object[] {one}),
+                      NormalizedKeyRow.create(valueMeta, 0, new Object[] {two})));
+          if (actual != 0) {
+            assertEquals(one + " vs " + two, expected, actual);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInteger() throws Exception {
+    assertSameOrder(
+        new ValueMetaInteger("i"), null, Long.MIN_VALUE, -10L, -1L, 0L, 1L, 10L, Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testNumber() throws Exception {
+    assertSameOrder(
+        new ValueMetaNumber("n"),
+        null,
+        Double.NEGATIVE_INFINITY,
+        -2.5,
+        -1.0,
+        -0.0,
+        0.0,
+        Double.MIN_VALUE,
+        1.0,
+        2.5,
+        Double.POSITIVE_INFINITY,
+        Double.NaN);
+  }
+
+  @Test
+  public void testDate() throws Exception {
+    assertSameOrder(
+        new ValueMetaDate("d"), null, new Date(-1000000L), new Date(0L), new Date(1000000L));
+  }
+
+  @Test
+  public void testBoolean() throws Exception {
+    assertSameOrder(new ValueMetaBoolean("b"), null, false, true);
+  }
+
+  @Test
+  public void testString() throws Exception {
+    ValueMetaString valueMeta = new ValueMetaString("s");
+    valueMeta.setCollatorDisabled(true);
+    valueMeta.setCaseInsensitive(false);
+    assertSameOrder(
+        valueMeta, null, "a", "a\u0000", "aa", "aaaa", "aaaab", "ab", "b", "B", "\uffff", "abcde");
+  }
+
+  @Test
+  public void testUnsupported() {
+    ValueMetaString caseInsensitive = new ValueMetaString("s");
+    caseInsensitive.setCaseInsensitive(true);
+    assertFalse(NormalizedKeyRow.isSupported(caseInsensitive));
+
+    ValueMetaString collator = new ValueMetaString("s");
+    collator.setCollatorDisabled(false);
+    assertFalse(NormalizedKeyRow.isSupported(collator));
+
+    assertFalse(NormalizedKeyRow.isSupported(new ValueMetaBigNumber("bn")));
+  }
+}
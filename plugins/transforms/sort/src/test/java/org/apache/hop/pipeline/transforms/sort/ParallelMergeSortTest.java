@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertSame;
+
+public class ParallelMergeSortTest {
+  private static ExecutorService executor;
+
+  @BeforeClass
+  public static void setUpClass() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSameAsStableSort() throws Exception {
+    Random random = new Random(12345);
+    Comparator<long[]> comparator = Comparator.comparingLong(value -> value[0]);
+
+    for (int size : new int[] {0, 1, 9999, 20000, 30001, 123457}) {
+      for (int nrThreads = 1; nrThreads <= 7; nrThreads++) {
+        long[][] array = new long[size][];
+        for (int i = 0; i < size; i++) {
+          // Lots of duplicates to verify that the sort is stable
+          array[i] = new long[] {random.nextInt(1000), i};
+        }
+        long[][] expected = array.clone();
+        Arrays.sort(expected, comparator);
+
+        ParallelMergeSort.sort(array, comparator, executor, nrThreads);
+
+        for (int i = 0; i < size; i++) {
+          assertSame("size " + size + ", threads " + nrThreads, expected[i], array[i]);
+        }
+      }
+    }
+  }
+}
@@ -45,6 +45,11 @@ public class SortRowsMetaTest {
             "FreeMemoryLimit",
             "CompressFiles",
             "CompressFilesVariable",
+            "CompressionType",
+            "MergeFanIn",
+            "SortingInBackground",
+            "SortThreads",
+            "UsingNormalizedKeys",
             "OnlyPassingUniqueRows",
             "FieldName",
             "Ascending",
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+/** Sorts more rows than fit in the sort buffer so they have to be spilled to temp files. */
+public class SortRowsTest {
+  private static final int NR_ROWS = 250;
+  private static final int SORT_SIZE = 10;
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private TransformMockHelper<SortRowsMeta, SortRowsData> transformMockHelper;
+  private SortRows sortRows;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    transformMockHelper =
+        new TransformMockHelper<>("Sort rows", SortRowsMeta.class, SortRowsData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @After
+  public void tearDown() {
+    if (sortRows != null) {
+      sortRows.dispose();
+    }
+    transformMockHelper.cleanUp();
+  }
+
+  @Test
+  public void testSpillToDisk() throws Exception {
+    assertSortedWithSpilling(false, false);
+  }
+
+  @Test
+  public void testSpillToDiskCompressed() throws Exception {
+    assertSortedWithSpilling(true, false);
+  }
+
+  @Test
+  public void testSpillToDiskInBackground() throws Exception {
+    assertSortedWithSpilling(false, true);
+  }
+
+  @Test
+  public void testSpillToDiskCompressedInBackground() throws Exception {
+    assertSortedWithSpilling(true, true);
+  }
+
+  private void assertSortedWithSpilling(boolean compress, boolean inBackground)
+      throws Exception {
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.allocate(1);
+    meta.setFieldName(new String[] {"key"});
+    meta.setAscending(new boolean[] {true});
+    meta.setCaseSensitive(new boolean[] {true});
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    meta.setPrefix("sorttest");
+    meta.setSortSize(Integer.toString(SORT_SIZE));
+    // Few files per merge so the files are merged in several passes
+    meta.setMergeFanIn("3");
+    meta.setCompressFiles(compress);
+    meta.setSortingInBackground(inBackground);
+
+    SortRowsData data = new SortRowsData();
+    sortRows =
+        new SortRows(
+            transformMockHelper.transformMeta,
+            meta,
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+    assertTrue(sortRows.init());
+
+    // Lots of equal keys with an increasing sequence number to check the order is stable
+    //
+    List<Object[]> input = new ArrayList<>();
+    Random random = new Random(42);
+    for (long seq = 0; seq < NR_ROWS; seq++) {
+      input.add(new Object[] {(long) random.nextInt(20), seq});
+    }
+    IRowSet output = new QueueRowSet();
+    sortRows.addRowSetToInputRowSets(createInput(input));
+    sortRows.addRowSetToOutputRowSets(output);
+
+    for (int i = 0; i < NR_ROWS; i++) {
+      assertTrue(sortRows.processRow());
+    }
+    // The rows didn't fit in the buffer so they went to temp files
+    //
+    assertFalse(data.files.isEmpty());
+    assertTrue(tempFolder.getRoot().listFiles().length > 0);
+
+    assertFalse(sortRows.processRow());
+
+    List<Object[]> expected = new ArrayList<>(input);
+    expected.sort(
+        Comparator.comparingLong((Object[] row) -> (Long) row[0])
+            .thenComparingLong(row -> (Long) row[1]));
+    assertTrue(output.isDone());
+    for (Object[] row : expected) {
+      Object[] sorted = output.getRow();
+      assertEquals(row[0], sorted[0]);
+      assertEquals(row[1], sorted[1]);
+    }
+    assertNull(output.getRow());
+
+    // All the temp files are removed once the rows are passed on
+    //
+    File[] files = tempFolder.getRoot().listFiles();
+    assertEquals(0, files.length);
+  }
+
+  private static IRowSet createInput(List<Object[]> rows) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("key"));
+    rowMeta.addValueMeta(new ValueMetaInteger("seq"));
+
+    IRowSet input = new QueueRowSet();
+    input.setRowMeta(rowMeta);
+    for (Object[] row : rows) {
+      input.putRow(rowMeta, row);
+    }
+    input.setDone();
+    return input;
+  }
+}
@@ -25,6 +25,7 @@ import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -40,6 +41,7 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -232,6 +234,13 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       throw new HopTransformException("The tablename is not defined (empty)");
     }
 
+    // The batch writer inserts the rows, they are passed on after the batch is committed
+    //
+    if (data.batchWriter != null) {
+      addToBatch(rowMeta, tableName, insertRowData, r);
+      return null;
+    }
+
     insertStatement = data.preparedStatements.get(tableName);
     if (insertStatement == null) {
       String sql =
@@ -360,22 +369,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         errorMessage = dbe.toString();
       } else {
         if (meta.isIgnoreErrors()) {
-          if (data.warnings < 20) {
-            if (log.isBasic()) {
-              logBasic(
-                  "WARNING: Couldn't insert row into table: "
-                      + rowMeta.getString(r)
-                      + Const.CR
-                      + dbe.getMessage());
-            }
-          } else if (data.warnings == 20 && log.isBasic()) {
-            logBasic(
-                "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
-                    + rowMeta.getString(r)
-                    + Const.CR
-                    + dbe.getMessage());
-          }
-          data.warnings++;
+          logIgnoredError(rowMeta, r, dbe);
         } else {
           setErrors(getErrors() + 1);
           data.db.rollback();
@@ -400,7 +394,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           data.batchBuffer.add(outputRowData);
           outputRowData = null;
 
-          processBatchException(errorMessage, updateCounts, exceptionsList);
+          processBatchException(errorMessage, updateCounts, exceptionsList, data.batchBuffer);
         } else {
           // Simply add this row to the error row
           putError(rowMeta, r, 1L, errorMessage, null, "TOP001");
@@ -430,20 +424,121 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return outputRowData;
   }
 
+  private void logIgnoredError(IRowMeta rowMeta, Object[] r, HopDatabaseException dbe)
+      throws HopValueException {
+    if (data.warnings < 20) {
+      if (log.isBasic()) {
+        logBasic(
+            "WARNING: Couldn't insert row into table: "
+                + rowMeta.getString(r)
+                + Const.CR
+                + dbe.getMessage());
+      }
+    } else if (data.warnings == 20 && log.isBasic()) {
+      logBasic(
+          "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
+              + rowMeta.getString(r)
+              + Const.CR
+              + dbe.getMessage());
+    }
+    data.warnings++;
+  }
+
+  /**
+   * Add a row to the batch of its table. A full batch is handed to the batch writer once the
+   * previous batch is executed.
+   */
+  private void addToBatch(IRowMeta rowMeta, String tableName, Object[] insertRowData, Object[] r)
+      throws HopException {
+    TableOutputBatchWriter.Batch batch = data.openBatches.get(tableName);
+    if (batch == null) {
+      batch = new TableOutputBatchWriter.Batch(tableName, rowMeta);
+      data.openBatches.put(tableName, batch);
+    }
+    batch.add(insertRowData, r);
+
+    if (batch.size() >= data.commitSize) {
+      data.openBatches.remove(tableName);
+      executeBatch(batch);
+    }
+  }
+
+  /**
+   * Wait for the previous batch, start executing the given one and then pass on the rows of the
+   * previous batch. If the previous batch failed the given batch is not executed.
+   */
+  private void executeBatch(TableOutputBatchWriter.Batch batch) throws HopException {
+    TableOutputBatchWriter.Batch executed = data.batchWriter.waitForBatch();
+    if (executed != null && executed.exception != null) {
+      throw executed.exception;
+    }
+    data.batchWriter.execute(batch);
+    if (executed != null) {
+      processExecutedBatch(executed);
+    }
+  }
+
+  /** Execute the batches which are still being filled and wait for all of them */
+  private void flushBatches() throws HopException {
+    List<TableOutputBatchWriter.Batch> batches = new ArrayList<>(data.openBatches.values());
+    data.openBatches.clear();
+    for (TableOutputBatchWriter.Batch batch : batches) {
+      executeBatch(batch);
+    }
+    TableOutputBatchWriter.Batch executed = data.batchWriter.waitForBatch();
+    if (executed != null) {
+      if (executed.exception != null) {
+        throw executed.exception;
+      }
+      processExecutedBatch(executed);
+    }
+  }
+
+  /** Route the rows of a batch the batch writer executed, the same way inline batches are */
+  private void processExecutedBatch(TableOutputBatchWriter.Batch batch) throws HopException {
+    for (int i = 0; i < batch.rejectedRows.size(); i++) {
+      Object[] row = batch.rejectedRows.get(i);
+      HopDatabaseException dbe = batch.rejections.get(i);
+      if (getTransformMeta().isDoingErrorHandling()) {
+        if (isRowLevel()) {
+          logRowlevel("Written row to error handling : " + batch.rowMeta.getString(row));
+        }
+        putError(batch.rowMeta, row, 1L, dbe.toString(), null, "TOP001");
+      } else {
+        logIgnoredError(batch.rowMeta, row, dbe);
+      }
+    }
+
+    if (batch.batchException != null) {
+      HopDatabaseBatchException be = batch.batchException;
+      processBatchException(
+          be.toString(), be.getUpdateCounts(), be.getExceptionsList(), batch.batchRows);
+    } else {
+      for (Object[] row : batch.batchRows) {
+        putRow(data.outputRowMeta, row);
+        incrementLinesOutput();
+      }
+    }
+  }
+
   @Override
   public boolean isRowLevel() {
     return log.isRowLevel();
   }
 
   private void processBatchException(
-      String errorMessage, int[] updateCounts, List<Exception> exceptionsList) throws HopException {
+      String errorMessage,
+      int[] updateCounts,
+      List<Exception> exceptionsList,
+      List<Object[]> batchBuffer)
+      throws HopException {
     // There was an error with the commit
     // We should put all the failing rows out there...
     //
     if (updateCounts != null) {
       int errNr = 0;
       for (int i = 0; i < updateCounts.length; i++) {
-        Object[] row = data.batchBuffer.get(i);
+        Object[] row = batchBuffer.get(i);
         if (updateCounts[i] > 0) {
           // send the error foward
           putRow(data.outputRowMeta, row);
@@ -462,14 +557,14 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       // If we don't have update counts, it probably means the DB doesn't support it.
       // In this case we don't have a choice but to consider all inserted rows to be error rows.
       //
-      for (int i = 0; i < data.batchBuffer.size(); i++) {
-        Object[] row = data.batchBuffer.get(i);
+      for (int i = 0; i < batchBuffer.size(); i++) {
+        Object[] row = batchBuffer.get(i);
         putError(data.outputRowMeta, row, 1L, errorMessage, null, "TOP0003");
       }
     }
 
     // Clear the buffer afterwards...
-    data.batchBuffer.clear();
+    batchBuffer.clear();
   }
 
   @Override
@@ -548,6 +643,35 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           data.tableName = resolve(meta.getTableName());
         }
 
+        // Execute the batches on a separate thread while the next batch is filled.
+        // Only do this with real batch inserts, not on a connection shared with other transforms.
+        //
+        if (data.batchMode && meta.isAsyncBatchUpdate() && data.db.getUseBatchInsert(true)) {
+          boolean doingErrorHandling = getTransformMeta().isDoingErrorHandling();
+
+          // We can't tell which rows of a multi-row insert failed
+          //
+          boolean multiRowInsert =
+              meta.isMultiRowInsert()
+                  && dbInterface.supportsMultiRowInsert()
+                  && !doingErrorHandling
+                  && !meta.isIgnoreErrors();
+          data.batchWriter =
+              new TableOutputBatchWriter(
+                  data,
+                  log,
+                  getPipelineMeta().getName() + " - " + getTransformName() + " (batch writer)",
+                  resolve(meta.getSchemaName()),
+                  doingErrorHandling,
+                  meta.isIgnoreErrors(),
+                  multiRowInsert);
+          if (log.isBasic()) {
+            logBasic(
+                BaseMessages.getString(
+                    PKG, "TableOutput.Log.AsyncBatchMode", multiRowInsert ? "Y" : "N"));
+          }
+        }
+
         return true;
       } catch (HopException e) {
         logError("An error occurred initializing this transform: " + e.getMessage());
@@ -575,6 +699,10 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       try {
         emptyAndCommitBatchBuffers(true);
       } finally {
+        if (data.batchWriter != null) {
+          data.batchWriter.shutdown();
+          data.batchWriter = null;
+        }
         data.db.disconnect();
       }
       super.dispose();
@@ -591,6 +719,17 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   private void emptyAndCommitBatchBuffers(boolean dispose) {
     try {
+      if (data.batchWriter != null) {
+        if (getErrors() == 0) {
+          flushBatches();
+        } else {
+          // Don't insert anything after an error.
+          // The writer has to be done before we roll back.
+          //
+          data.batchWriter.waitForBatch();
+          data.openBatches.clear();
+        }
+      }
       for (String schemaTable : data.preparedStatements.keySet()) {
         // Get a commit counter per prepared statement to keep track of separate tables, etc.
         //
@@ -615,7 +754,8 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         // Right at the back we are experiencing a batch commit problem...
         // OK, we have the numbers...
         try {
-          processBatchException(be.toString(), be.getUpdateCounts(), be.getExceptionsList());
+          processBatchException(
+              be.toString(), be.getUpdateCounts(), be.getExceptionsList(), data.batchBuffer);
         } catch (HopException e) {
           logError("Unexpected error processing batch error", e);
           setErrors(1);
@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the batches of the Table Output transform on a separate thread. The transform fills the
+ * next batch while the previous one is sent to the database and committed. Only one batch is
+ * executed at a time and while that happens the database connection is only used by the writer
+ * thread. The rows of an executed batch are passed on by the transform thread.
+ */
+public class TableOutputBatchWriter {
+
+  /** The maximum number of rows in a multi-row insert statement */
+  static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+  /** The maximum number of parameters in a multi-row insert statement */
+  static final int MAX_PARAMETERS_PER_STATEMENT = 30000;
+
+  /** The rows for one table, inserted and committed together. */
+  public static class Batch {
+    final String tableName;
+    final IRowMeta rowMeta;
+    final List<Object[]> insertRows = new ArrayList<>();
+    final List<Object[]> rows = new ArrayList<>();
+
+    // The results, filled in by the writer thread
+    //
+    /** The rows which were added to the batch, the update counts of a batch error match these */
+    final List<Object[]> batchRows = new ArrayList<>();
+
+    /** The rows which couldn't be added to the batch and why */
+    final List<Object[]> rejectedRows = new ArrayList<>();
+
+    final List<HopDatabaseException> rejections = new ArrayList<>();
+
+    /** The batch error in case of error handling, the batch rows were handled as far as possible */
+    HopDatabaseBatchException batchException;
+
+    /** The error which stops the transform, the batch was rolled back */
+    HopException exception;
+
+    /**
+     * @param tableName The table to insert into
+     * @param rowMeta The layout of the input rows
+     */
+    Batch(String tableName, IRowMeta rowMeta) {
+      this.tableName = tableName;
+      this.rowMeta = rowMeta;
+    }
+
+    /**
+     * @param insertRow The values to insert
+     * @param row The input row, passed on once the batch is committed
+     */
+    void add(Object[] insertRow, Object[] row) {
+      insertRows.add(insertRow);
+      rows.add(row);
+    }
+
+    int size() {
+      return rows.size();
+    }
+  }
+
+  private final TableOutputData data;
+  private final ILogChannel log;
+  private final String schemaName;
+  private final boolean doingErrorHandling;
+  private final boolean ignoreErrors;
+  private final boolean multiRowInsert;
+
+  private final ExecutorService executor;
+  private Future<Batch> executing;
+
+  /** The multi-row insert statements per table for a batch of the maximum size */
+  private final Map<String, PreparedStatement> multiRowStatements = new HashMap<>();
+
+  /**
+   * @param data The transform data with the connection, the insert row layout and the prepared
+   *     statements
+   * @param log The log channel of the transform
+   * @param threadName The name of the writer thread
+   * @param schemaName The schema of the tables
+   * @param doingErrorHandling true if the transform sends failing rows to error handling
+   * @param ignoreErrors true if rows which can't be inserted are skipped
+   * @param multiRowInsert true to insert the rows with multi-row insert statements. Individual
+   *     failing rows can't be determined then so don't use this with error handling.
+   */
+  TableOutputBatchWriter(
+      TableOutputData data,
+      ILogChannel log,
+      String threadName,
+      String schemaName,
+      boolean doingErrorHandling,
+      boolean ignoreErrors,
+      boolean multiRowInsert) {
+    this.data = data;
+    this.log = log;
+    this.schemaName = schemaName;
+    this.doingErrorHandling = doingErrorHandling;
+    this.ignoreErrors = ignoreErrors;
+    this.multiRowInsert = multiRowInsert;
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, threadName);
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Start executing a batch. Wait for the previous batch with {@link #waitForBatch()} first.
+   *
+   * @param batch The batch to execute
+   */
+  void execute(Batch batch) {
+    if (executing != null) {
+      throw new IllegalStateException("The previous batch is still being executed");
+    }
+    executing = executor.submit(() -> write(batch));
+  }
+
+  /**
+   * Wait until the batch which is being executed is finished.
+   *
+   * @return The executed batch with its results or null if no batch was being executed
+   * @throws HopException in case we got interrupted while waiting
+   */
+  Batch waitForBatch() throws HopException {
+    if (executing == null) {
+      return null;
+    }
+    try {
+      return executing.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a batch to be inserted", e);
+    } catch (ExecutionException e) {
+      throw new HopException("Unexpected error inserting a batch of rows", e.getCause());
+    } finally {
+      executing = null;
+    }
+  }
+
+  /** Stop the writer thread and close the statements it prepared. */
+  void shutdown() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.logError("The batch writer thread didn't stop in time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (PreparedStatement statement : multiRowStatements.values()) {
+      try {
+        data.db.closePreparedStatement(statement);
+      } catch (HopDatabaseException e) {
+        log.logError("Error closing multi-row insert statement", e);
+      }
+    }
+    multiRowStatements.clear();
+  }
+
+  /** Runs on the writer thread. Problems are kept in the batch for the transform thread. */
+  private Batch write(Batch batch) {
+    try {
+      if (multiRowInsert) {
+        writeMultiRow(batch);
+      } else {
+        writeBatch(batch);
+      }
+    } catch (HopException e) {
+      batch.exception = e;
+    } catch (Exception e) {
+      batch.exception =
+          new HopException(
+              "Unexpected error inserting rows into table [" + batch.tableName + "]", e);
+    }
+    return batch;
+  }
+
+  private void writeBatch(Batch batch) throws HopException {
+    Database db = data.db;
+    PreparedStatement insertStatement = data.preparedStatements.get(batch.tableName);
+    if (insertStatement == null) {
+      String sql = db.getInsertStatement(schemaName, batch.tableName, data.insertRowMeta);
+      if (log.isDetailed()) {
+        log.logDetailed("Prepared statement : " + sql);
+      }
+      insertStatement = db.prepareSql(sql);
+      data.preparedStatements.put(batch.tableName, insertStatement);
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      Object[] insertRow = batch.insertRows.get(i);
+      Object[] row = batch.rows.get(i);
+      try {
+        db.setValues(data.insertRowMeta, insertRow, insertStatement);
+        db.insertRow(insertStatement, true, false);
+        if (log.isRowLevel()) {
+          log.logRowlevel("Written row: " + data.insertRowMeta.getString(insertRow));
+        }
+        batch.batchRows.add(row);
+      } catch (HopDatabaseException dbe) {
+        if (doingErrorHandling || ignoreErrors) {
+          batch.rejectedRows.add(row);
+          batch.rejections.add(dbe);
+        } else {
+          db.clearBatch(insertStatement);
+          db.rollback();
+          throw new HopException(
+              "Error inserting row into table ["
+                  + batch.tableName
+                  + "] with values: "
+                  + batch.rowMeta.getString(row),
+              dbe);
+        }
+      }
+    }
+
+    if (batch.batchRows.isEmpty()) {
+      return;
+    }
+
+    try {
+      try {
+        insertStatement.executeBatch();
+        db.commit();
+        insertStatement.clearBatch();
+      } catch (SQLException ex) {
+        throw Database.createHopDatabaseBatchException("Error updating batch", ex);
+      }
+    } catch (HopDatabaseBatchException be) {
+      db.clearBatch(insertStatement);
+      if (doingErrorHandling) {
+        db.commit(true);
+        batch.batchException = be;
+      } else {
+        db.rollback();
+        StringBuilder msg =
+            new StringBuilder("Error batch inserting rows into table [" + batch.tableName + "].");
+        msg.append(Const.CR);
+        msg.append("Errors encountered (first 10):").append(Const.CR);
+        for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
+          Exception exception = be.getExceptionsList().get(x);
+          if (exception.getMessage() != null) {
+            msg.append(exception.getMessage()).append(Const.CR);
+          }
+        }
+        throw new HopException(msg.toString(), be);
+      }
+    } catch (HopDatabaseException dbe) {
+      db.rollback();
+      throw new HopException("Error committing rows into table [" + batch.tableName + "]", dbe);
+    }
+  }
+
+  private void writeMultiRow(Batch batch) throws HopException {
+    Database db = data.db;
+    IRowMeta insertRowMeta = data.insertRowMeta;
+    int nrFields = Math.max(1, insertRowMeta.size());
+    int rowsPerStatement =
+        Math.max(1, Math.min(MAX_ROWS_PER_STATEMENT, MAX_PARAMETERS_PER_STATEMENT / nrFields));
+    rowsPerStatement = Math.min(rowsPerStatement, data.commitSize);
+
+    try {
+      for (int start = 0; start < batch.size(); start += rowsPerStatement) {
+        int nrRows = Math.min(rowsPerStatement, batch.size() - start);
+
+        // Statements for a full set of rows are kept, the one for the remainder is not
+        //
+        PreparedStatement insertStatement;
+        if (nrRows == rowsPerStatement) {
+          insertStatement = multiRowStatements.get(batch.tableName);
+          if (insertStatement == null) {
+            insertStatement = prepareMultiRow(batch.tableName, nrRows);
+            multiRowStatements.put(batch.tableName, insertStatement);
+          }
+        } else {
+          insertStatement = prepareMultiRow(batch.tableName, nrRows);
+        }
+
+        try {
+          int pos = 1;
+          for (int i = start; i < start + nrRows; i++) {
+            Object[] insertRow = batch.insertRows.get(i);
+            for (int v = 0; v < insertRowMeta.size(); v++) {
+              db.setValue(insertStatement, insertRowMeta.getValueMeta(v), insertRow[v], pos++);
+            }
+          }
+          insertStatement.executeUpdate();
+        } finally {
+          if (nrRows != rowsPerStatement) {
+            db.closePreparedStatement(insertStatement);
+          }
+        }
+      }
+      db.commit();
+      batch.batchRows.addAll(batch.rows);
+    } catch (SQLException | HopDatabaseException e) {
+      db.rollback();
+      throw new HopException(
+          "Error inserting " + batch.size() + " rows into table [" + batch.tableName + "]", e);
+    }
+  }
+
+  private PreparedStatement prepareMultiRow(String tableName, int nrRows)
+      throws HopDatabaseException {
+    String sql = data.db.getInsertStatement(schemaName, tableName, data.insertRowMeta, nrRows);
+    if (log.isDebug()) {
+      log.logDebug("Prepared multi-row statement for " + nrRows + " rows");
+    }
+    return data.db.prepareSql(sql);
+  }
+}
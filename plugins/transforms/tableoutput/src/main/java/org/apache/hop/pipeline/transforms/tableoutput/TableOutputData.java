@@ -65,6 +65,12 @@ public class TableOutputData extends BaseTransformData implements ITransformData
 
   public int commitSize;
 
+  /** Executes the batches on a separate thread, null if the batches are executed inline */
+  public TableOutputBatchWriter batchWriter;
+
+  /** The batches per table which are being filled for the batch writer */
+  public Map<String, TableOutputBatchWriter.Batch> openBatches;
+
   public TableOutputData() {
     super();
 
@@ -79,6 +85,7 @@ public class TableOutputData extends BaseTransformData implements ITransformData
 
     batchBuffer = new ArrayList<>();
     commitCounterMap = new HashMap<>();
+    openBatches = new LinkedHashMap<>();
 
     releaseSavepoint = true;
   }
@@ -79,6 +79,12 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
   private Label wlBatch;
   private Button wBatch;
 
+  private Label wlAsyncBatch;
+  private Button wAsyncBatch;
+
+  private Label wlMultiRow;
+  private Button wMultiRow;
+
   private Button wUsePart;
 
   private Label wlPartField;
@@ -496,13 +502,60 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
           }
         });
 
+    // Execute the batches on a separate thread
+    wlAsyncBatch = new Label(wMainComp, SWT.RIGHT);
+    wlAsyncBatch.setText(BaseMessages.getString(PKG, "TableOutputDialog.AsyncBatch.Label"));
+    wlAsyncBatch.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.AsyncBatch.Tooltip"));
+    props.setLook(wlAsyncBatch);
+    FormData fdlAsyncBatch = new FormData();
+    fdlAsyncBatch.left = new FormAttachment(0, 0);
+    fdlAsyncBatch.top = new FormAttachment(wBatch, margin);
+    fdlAsyncBatch.right = new FormAttachment(middle, -margin);
+    wlAsyncBatch.setLayoutData(fdlAsyncBatch);
+    wAsyncBatch = new Button(wMainComp, SWT.CHECK);
+    props.setLook(wAsyncBatch);
+    FormData fdAsyncBatch = new FormData();
+    fdAsyncBatch.left = new FormAttachment(middle, 0);
+    fdAsyncBatch.top = new FormAttachment(wlAsyncBatch, 0, SWT.CENTER);
+    fdAsyncBatch.right = new FormAttachment(100, 0);
+    wAsyncBatch.setLayoutData(fdAsyncBatch);
+    wAsyncBatch.addSelectionListener(lsSelMod);
+    wAsyncBatch.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent arg0) {
+            setFlags();
+          }
+        });
+
+    // Multi-row inserts
+    wlMultiRow = new Label(wMainComp, SWT.RIGHT);
+    wlMultiRow.setText(BaseMessages.getString(PKG, "TableOutputDialog.MultiRowInsert.Label"));
+    wlMultiRow.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.MultiRowInsert.Tooltip"));
+    props.setLook(wlMultiRow);
+    FormData fdlMultiRow = new FormData();
+    fdlMultiRow.left = new FormAttachment(0, 0);
+    fdlMultiRow.top = new FormAttachment(wAsyncBatch, margin);
+    fdlMultiRow.right = new FormAttachment(middle, -margin);
+    wlMultiRow.setLayoutData(fdlMultiRow);
+    wMultiRow = new Button(wMainComp, SWT.CHECK);
+    props.setLook(wMultiRow);
+    FormData fdMultiRow = new FormData();
+    fdMultiRow.left = new FormAttachment(middle, 0);
+    fdMultiRow.top = new FormAttachment(wlMultiRow, 0, SWT.CENTER);
+    fdMultiRow.right = new FormAttachment(100, 0);
+    wMultiRow.setLayoutData(fdMultiRow);
+    wMultiRow.addSelectionListener(lsSelMod);
+
     // NameInField
     Label wlNameInField = new Label(wMainComp, SWT.RIGHT);
     wlNameInField.setText(BaseMessages.getString(PKG, "TableOutputDialog.NameInField.Label"));
     props.setLook(wlNameInField);
     FormData fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment(0, 0);
-    fdlNameInField.top = new FormAttachment(wBatch, margin * 5);
+    fdlNameInField.top = new FormAttachment(wMultiRow, margin * 5);
     fdlNameInField.right = new FormAttachment(middle, -margin);
     wlNameInField.setLayoutData(fdlNameInField);
     wNameInField = new Button(wMainComp, SWT.CHECK);
@@ -1170,6 +1223,13 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wlBatch.setEnabled(enableBatch);
     wBatch.setEnabled(enableBatch);
 
+    // The batches are only executed on a separate thread in batch mode
+    boolean useAsyncBatch = useBatch && wAsyncBatch.getSelection();
+    wlAsyncBatch.setEnabled(useBatch);
+    wAsyncBatch.setEnabled(useBatch);
+    wlMultiRow.setEnabled(useAsyncBatch);
+    wMultiRow.setEnabled(useAsyncBatch);
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled(specifyFields);
     wGetFields.setEnabled(specifyFields);
@@ -1213,6 +1273,8 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wTruncate.setSelection(input.isTruncateTable());
     wIgnore.setSelection(input.isIgnoreErrors());
     wBatch.setSelection(input.isUseBatchUpdate());
+    wAsyncBatch.setSelection(input.isAsyncBatchUpdate());
+    wMultiRow.setSelection(input.isMultiRowInsert());
 
     wCommit.setText(input.getCommitSize());
 
@@ -1268,6 +1330,8 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     info.setTruncateTable(wTruncate.getSelection());
     info.setIgnoreErrors(wIgnore.getSelection());
     info.setUseBatchUpdate(wBatch.getSelection());
+    info.setAsyncBatchUpdate(wAsyncBatch.getSelection());
+    info.setMultiRowInsert(wMultiRow.getSelection());
     info.setPartitioningEnabled(wUsePart.getSelection());
     info.setPartitioningField(wPartField.getText());
     info.setPartitioningDaily(wPartDaily.getSelection());
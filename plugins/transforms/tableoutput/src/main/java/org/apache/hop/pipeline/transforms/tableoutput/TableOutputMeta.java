@@ -99,6 +99,20 @@ public class TableOutputMeta extends BaseTransformMeta
       injectionKeyDescription = "TableOutputMeta.Injection.UseBatch.Field")
   private boolean useBatchUpdate;
 
+  /** Execute the batches on a separate thread while the next batch is being filled */
+  @HopMetadataProperty(
+      key = "async_batch",
+      injectionKey = "ASYNC_BATCH_UPDATE",
+      injectionKeyDescription = "TableOutputMeta.Injection.AsyncBatch.Field")
+  private boolean asyncBatchUpdate;
+
+  /** Insert the rows of an asynchronous batch with multi-row INSERT statements if possible */
+  @HopMetadataProperty(
+      key = "multi_row_insert",
+      injectionKey = "MULTI_ROW_INSERT",
+      injectionKeyDescription = "TableOutputMeta.Injection.MultiRowInsert.Field")
+  private boolean multiRowInsert;
+
   @HopMetadataProperty(
       key = "partitioning_enabled",
       injectionKey = "PARTITION_OVER_TABLES",
@@ -370,6 +384,26 @@ public class TableOutputMeta extends BaseTransformMeta
     return useBatchUpdate;
   }
 
+  /** @param asyncBatchUpdate true to execute the batches on a separate thread */
+  public void setAsyncBatchUpdate(boolean asyncBatchUpdate) {
+    this.asyncBatchUpdate = asyncBatchUpdate;
+  }
+
+  /** @return true if the batches are executed on a separate thread */
+  public boolean isAsyncBatchUpdate() {
+    return asyncBatchUpdate;
+  }
+
+  /** @param multiRowInsert true to insert several rows per INSERT statement */
+  public void setMultiRowInsert(boolean multiRowInsert) {
+    this.multiRowInsert = multiRowInsert;
+  }
+
+  /** @return true if several rows are inserted per INSERT statement */
+  public boolean isMultiRowInsert() {
+    return multiRowInsert;
+  }
+
   @Override
   public void setDefault() {
     tableName = "";
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TableOutputBatchWriterTest {
+  private TableOutputData data;
+  private Database db;
+  private PreparedStatement ps;
+  private IRowMeta rowMeta;
+  private TableOutputBatchWriter writer;
+
+  @Before
+  public void setUp() throws Exception {
+    db = mock(Database.class);
+    ps = mock(PreparedStatement.class);
+    when(db.getInsertStatement(anyString(), anyString(), any(IRowMeta.class))).thenReturn("sql");
+    when(db.getInsertStatement(anyString(), anyString(), any(IRowMeta.class), anyInt()))
+        .thenReturn("multi");
+    when(db.prepareSql(anyString())).thenReturn(ps);
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+
+    data = new TableOutputData();
+    data.db = db;
+    data.insertRowMeta = rowMeta;
+    data.commitSize = 3;
+  }
+
+  @After
+  public void tearDown() {
+    if (writer != null) {
+      writer.shutdown();
+    }
+  }
+
+  private TableOutputBatchWriter.Batch createBatch(int nrRows) {
+    TableOutputBatchWriter.Batch batch = new TableOutputBatchWriter.Batch("table", rowMeta);
+    for (int i = 0; i < nrRows; i++) {
+      Object[] row = new Object[] {"row" + i};
+      batch.add(row, row);
+    }
+    return batch;
+  }
+
+  private TableOutputBatchWriter createWriter(boolean errorHandling, boolean multiRow) {
+    writer =
+        new TableOutputBatchWriter(
+            data, mock(ILogChannel.class), "writer", "schema", errorHandling, false, multiRow);
+    return writer;
+  }
+
+  @Test
+  public void testBatchIsExecutedAndCommitted() throws Exception {
+    createWriter(false, false);
+    TableOutputBatchWriter.Batch batch = createBatch(3);
+
+    assertNull(writer.waitForBatch());
+    writer.execute(batch);
+    assertSame(batch, writer.waitForBatch());
+
+    assertNull(batch.exception);
+    assertNull(batch.batchException);
+    assertEquals(3, batch.batchRows.size());
+    verify(db, times(3)).insertRow(ps, true, false);
+    verify(ps).executeBatch();
+    verify(db).commit();
+    assertSame(ps, data.preparedStatements.get("table"));
+  }
+
+  @Test
+  public void testBatchErrorWithErrorHandling() throws Exception {
+    createWriter(true, false);
+    doThrow(new BatchUpdateException(new int[] {1, 0, 1})).when(ps).executeBatch();
+    TableOutputBatchWriter.Batch batch = createBatch(3);
+
+    writer.execute(batch);
+    writer.waitForBatch();
+
+    assertNull(batch.exception);
+    assertNotNull(batch.batchException);
+    assertEquals(3, batch.batchException.getUpdateCounts().length);
+    assertEquals(3, batch.batchRows.size());
+    verify(db).commit(true);
+    verify(db, never()).rollback();
+  }
+
+  @Test
+  public void testBatchErrorWithoutErrorHandlingRollsBack() throws Exception {
+    createWriter(false, false);
+    doThrow(new BatchUpdateException(new int[0])).when(ps).executeBatch();
+    TableOutputBatchWriter.Batch batch = createBatch(3);
+
+    writer.execute(batch);
+    writer.waitForBatch();
+
+    assertNotNull(batch.exception);
+    verify(db).rollback();
+    verify(db, never()).commit();
+  }
+
+  @Test
+  public void testRejectedRowWithErrorHandling() throws Exception {
+    createWriter(true, false);
+    TableOutputBatchWriter.Batch batch = createBatch(3);
+    Object[] rejected = batch.insertRows.get(1);
+    doThrow(new HopDatabaseException("conversion"))
+        .when(db)
+        .setValues(rowMeta, rejected, ps);
+
+    writer.execute(batch);
+    writer.waitForBatch();
+
+    assertNull(batch.exception);
+    assertEquals(2, batch.batchRows.size());
+    assertEquals(1, batch.rejectedRows.size());
+    assertSame(rejected, batch.rejectedRows.get(0));
+    verify(db, times(2)).insertRow(ps, true, false);
+  }
+
+  @Test
+  public void testMultiRowInsert() throws Exception {
+    data.commitSize = 2500;
+    createWriter(false, true);
+    TableOutputBatchWriter.Batch batch = createBatch(2500);
+
+    writer.execute(batch);
+    writer.waitForBatch();
+
+    assertNull(batch.exception);
+    assertEquals(2500, batch.batchRows.size());
+
+    // Two statements of the maximum size, the full one is prepared once, and one for the rest
+    //
+    verify(db).getInsertStatement("schema", "table", rowMeta, 1000);
+    verify(db).getInsertStatement("schema", "table", rowMeta, 500);
+    verify(ps, times(3)).executeUpdate();
+    verify(db, times(2500)).setValue(eq(ps), any(), any(), anyInt());
+    verify(db).commit();
+    verify(db, never()).insertRow(any(PreparedStatement.class), anyBoolean(), anyBoolean());
+  }
+}
@@ -47,6 +47,7 @@ import org.dom4j.*;
 import org.dom4j.io.SAXReader;
 import org.dom4j.tree.AbstractNode;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
@@ -636,19 +637,25 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
               BaseMessages.getString(PKG, "GetXMLData.Log.OpeningFile", data.file.toString()));
         }
 
-        // Open the XML document
-        if (!setDocument(null, data.file, false, false)) {
-          if (data.stopPruning) {
-            return false; // ignore error when stopped while pruning
+        if (data.streamReader != null) {
+          // The rows are read from the file as they are needed
+          openStream(data.file);
+        } else {
+          // Open the XML document
+          if (!setDocument(null, data.file, false, false)) {
+            if (data.stopPruning) {
+              return false; // ignore error when stopped while pruning
+            }
+            throw new HopException(
+                BaseMessages.getString(PKG, "GetXMLData.Log.UnableCreateDocument"));
           }
-          throw new HopException(
-              BaseMessages.getString(PKG, "GetXMLData.Log.UnableCreateDocument"));
-        }
 
-        // Apply XPath and set node list
-        if (data.prunePath == null) { // this was already done in processStreaming()
-          if (!applyXPath()) {
-            throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Log.UnableApplyXPath"));
+          // Apply XPath and set node list
+          if (data.prunePath == null) { // this was already done in processStreaming()
+            if (!applyXPath()) {
+              throw new HopException(
+                  BaseMessages.getString(PKG, "GetXMLData.Log.UnableApplyXPath"));
+            }
           }
         }
 
@@ -657,6 +664,8 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
         if (log.isDetailed()) {
           logDetailed(
               BaseMessages.getString(PKG, "GetXMLData.Log.FileOpened", data.file.toString()));
+        }
+        if (log.isDetailed() && data.streamReader == null) {
           logDetailed(
               BaseMessages.getString(
                   PKG,
@@ -736,6 +745,9 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
 
   private Object[] getXmlRow() throws HopException {
 
+    if (data.streamReader != null) {
+      return getStreamedXmlRow();
+    }
     if (!meta.isInFields()) {
       while ((data.nodenr >= data.nodesize || data.file == null)) {
         if (!openNextFile()) {
@@ -747,6 +759,64 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
     return getXmlRowPutRowWithErrorhandling();
   }
 
+  /** Read the next loop node from the file being streamed, moving on to the next file at its end */
+  private Object[] getStreamedXmlRow() throws HopException {
+    data.errorInRowButContinue = false;
+    try {
+      String[] values = data.file == null ? null : data.streamReader.nextRow();
+      while (values == null) {
+        if (!openNextFile()) {
+          closeStream();
+          return null;
+        }
+        values = data.streamReader.nextRow();
+      }
+      return processPutRow(null, values);
+    } catch (XMLStreamException e) {
+      throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
+    }
+  }
+
+  private void openStream(FileObject file) throws Exception {
+    closeStream();
+    this.prevRow = buildEmptyRow();
+    data.streamInputStream = HopVfs.getInputStream(file);
+    data.streamReader.open(data.streamInputStream, meta.getEncoding());
+  }
+
+  private void closeStream() {
+    if (data.streamReader != null) {
+      try {
+        data.streamReader.close();
+      } catch (XMLStreamException e) {
+        // Ignore close errors
+      }
+    }
+    BaseTransform.closeQuietly(data.streamInputStream);
+    data.streamInputStream = null;
+  }
+
+  /**
+   * See if the XML can be read by streaming it with constant memory. That's only possible for
+   * files and for the XPath subset the stream reader understands, otherwise the document is loaded.
+   *
+   * @return The stream reader or null if the document needs to be loaded
+   */
+  private GetXmlDataStreamReader createStreamReader() {
+    if (meta.isInFields() || meta.isNamespaceAware() || meta.isValidating() || meta.isuseToken()) {
+      return null;
+    }
+    String[] fieldPaths = new String[data.nrInputFields];
+    for (int i = 0; i < data.nrInputFields; i++) {
+      GetXmlDataField xmlDataField = meta.getInputFields()[i];
+      if (xmlDataField.getResultType() != GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+        return null;
+      }
+      fieldPaths[i] = xmlDataField.getResolvedXPath();
+    }
+    return GetXmlDataStreamReader.compile(data.PathValue, fieldPaths);
+  }
+
   private Object[] getXmlRowPutRowWithErrorhandling() throws HopException {
     // Build an empty row based on the meta-data
     Object[] r;
@@ -763,7 +833,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
         }
       }
 
-      r = processPutRow(data.an.get(data.nodenr));
+      r = processPutRow(data.an.get(data.nodenr), null);
     } catch (Exception e) {
       throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
     }
@@ -771,7 +841,13 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
     return r;
   }
 
-  private Object[] processPutRow(Node node) throws HopException {
+  /**
+   * Build an output row for a loop node.
+   *
+   * @param node The loop node to apply the field XPaths to, null when streaming
+   * @param streamedValues The field values read by the stream reader, null for a loaded document
+   */
+  private Object[] processPutRow(Node node, String[] streamedValues) throws HopException {
     // Create new row...
     Object[] outputRowData = buildEmptyRow();
 
@@ -786,48 +862,12 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
       for (int i = 0; i < data.nrInputFields; i++) {
         // Get field
         GetXmlDataField xmlDataField = meta.getInputFields()[i];
-        // Get the Path to look for
-        String xPathValue = xmlDataField.getResolvedXPath();
-
-        if (meta.isuseToken()) {
-          // See if user use Token inside path field
-          // The syntax is : @_Fieldname-
-          // Apache Hop will search for Fieldname value and replace it
-          // Fieldname must be defined before the current node
-          xPathValue = substituteToken(xPathValue, outputRowData);
-          if (isDetailed()) {
-            logDetailed(xPathValue);
-          }
-        }
-
         // Get node value
         String nodevalue;
-
-        // Handle namespaces
-        if (meta.isNamespaceAware()) {
-          XPath xpathField = node.createXPath(addNSPrefix(xPathValue, data.PathValue));
-          xpathField.setNamespaceURIs(data.NAMESPACE);
-          if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
-            nodevalue = xpathField.valueOf(node);
-          } else {
-            Node n = xpathField.selectSingleNode(node);
-            if (n != null) {
-              nodevalue = n.asXML();
-            } else {
-              nodevalue = "";
-            }
-          }
+        if (streamedValues != null) {
+          nodevalue = streamedValues[i];
         } else {
-          if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
-            nodevalue = node.valueOf(xPathValue);
-          } else {
-            Node n = node.selectSingleNode(xPathValue);
-            if (n != null) {
-              nodevalue = n.asXML();
-            } else {
-              nodevalue = "";
-            }
-          }
+          nodevalue = getNodeValue(node, xmlDataField, outputRowData);
         }
 
         // Do trimming
@@ -930,6 +970,54 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
     return outputRowData;
   }
 
+  /** Apply the XPath of a field to a loop node of the loaded document */
+  private String getNodeValue(Node node, GetXmlDataField xmlDataField, Object[] outputRowData) {
+    // Get the Path to look for
+    String xPathValue = xmlDataField.getResolvedXPath();
+
+    if (meta.isuseToken()) {
+      // See if user use Token inside path field
+      // The syntax is : @_Fieldname-
+      // Apache Hop will search for Fieldname value and replace it
+      // Fieldname must be defined before the current node
+      xPathValue = substituteToken(xPathValue, outputRowData);
+      if (isDetailed()) {
+        logDetailed(xPathValue);
+      }
+    }
+
+    // Get node value
+    String nodevalue;
+
+    // Handle namespaces
+    if (meta.isNamespaceAware()) {
+      XPath xpathField = node.createXPath(addNSPrefix(xPathValue, data.PathValue));
+      xpathField.setNamespaceURIs(data.NAMESPACE);
+      if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+        nodevalue = xpathField.valueOf(node);
+      } else {
+        Node n = xpathField.selectSingleNode(node);
+        if (n != null) {
+          nodevalue = n.asXML();
+        } else {
+          nodevalue = "";
+        }
+      }
+    } else {
+      if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+        nodevalue = node.valueOf(xPathValue);
+      } else {
+        Node n = node.selectSingleNode(xPathValue);
+        if (n != null) {
+          nodevalue = n.asXML();
+        } else {
+          nodevalue = "";
+        }
+      }
+    }
+    return nodevalue;
+  }
+
   public String substituteToken(String aString, Object[] outputRowData) {
     if (aString == null) {
       return null;
@@ -1030,6 +1118,18 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
         }
       }
 
+      if (meta.isStreaming()) {
+        data.streamReader = createStreamReader();
+        if (data.streamReader == null) {
+          logBasic(BaseMessages.getString(PKG, "GetXMLData.Log.StaxStreaming.NotPossible"));
+        } else {
+          if (log.isDetailed()) {
+            logDetailed(BaseMessages.getString(PKG, "GetXMLData.Log.StaxStreaming.Activated"));
+          }
+          data.prunePath = null;
+        }
+      }
+
       return true;
     }
     return false;
@@ -1037,6 +1137,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData>
 
   @Override
   public void dispose() {
+    closeStream();
     if (data.file != null) {
       try {
         data.file.close();
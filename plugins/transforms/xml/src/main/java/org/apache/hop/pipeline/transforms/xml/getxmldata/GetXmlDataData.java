@@ -27,6 +27,7 @@ import org.dom4j.Node;
 
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.text.*;
 import java.util.*;
 
@@ -52,6 +53,11 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
       prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when
   // no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+
+  /** Reads the rows with constant memory, null when the documents are loaded */
+  public GetXmlDataStreamReader streamReader;
+
+  public InputStream streamInputStream;
   public boolean
       errorInRowButContinue; // true when actual row has an error and error handling is active:
   // means
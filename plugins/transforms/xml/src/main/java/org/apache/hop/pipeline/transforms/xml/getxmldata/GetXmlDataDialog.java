@@ -119,6 +119,9 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
   private Label wlPrunePath;
   private TextVar wPrunePath;
 
+  private Label wlStreaming;
+  private Button wStreaming;
+
   private Label wlEncoding;
   private CCombo wEncoding;
 
@@ -795,6 +798,23 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     fdPrunePath.right = new FormAttachment(100, 0);
     wPrunePath.setLayoutData(fdPrunePath);
 
+    // Read the files with constant memory?
+    wlStreaming = new Label(wXmlConf, SWT.RIGHT);
+    wlStreaming.setText(BaseMessages.getString(PKG, "GetXMLDataDialog.Streaming.Label"));
+    props.setLook(wlStreaming);
+    FormData fdlStreaming = new FormData();
+    fdlStreaming.left = new FormAttachment(0, 0);
+    fdlStreaming.top = new FormAttachment(wPrunePath, margin);
+    fdlStreaming.right = new FormAttachment(middle, -margin);
+    wlStreaming.setLayoutData(fdlStreaming);
+    wStreaming = new Button(wXmlConf, SWT.CHECK);
+    props.setLook(wStreaming);
+    wStreaming.setToolTipText(BaseMessages.getString(PKG, "GetXMLDataDialog.Streaming.Tooltip"));
+    FormData fdStreaming = new FormData();
+    fdStreaming.left = new FormAttachment(middle, 0);
+    fdStreaming.top = new FormAttachment(wlStreaming, 0, SWT.CENTER);
+    wStreaming.setLayoutData(fdStreaming);
+
     FormData fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment(0, margin);
     fdXmlConf.top = new FormAttachment(0, margin);
@@ -1393,6 +1413,8 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     wPreview.setEnabled(!wXMLStreamField.getSelection());
     wPrunePath.setEnabled(!wXMLStreamField.getSelection());
     wlPrunePath.setEnabled(!wXMLStreamField.getSelection());
+    wStreaming.setEnabled(!wXMLStreamField.getSelection());
+    wlStreaming.setEnabled(!wXMLStreamField.getSelection());
     wlShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wlPathFieldName.setEnabled(!wXMLStreamField.getSelection());
@@ -1723,6 +1745,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     if (in.getPrunePath() != null) {
       wPrunePath.setText(in.getPrunePath());
     }
+    wStreaming.setSelection(in.isStreaming());
     if (in.getLoopXPath() != null) {
       wLoopXPath.setText(in.getLoopXPath());
     }
@@ -1861,6 +1884,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     // copy info to TextFileInputMeta class (input)
     in.setRowLimit(Const.toLong(wLimit.getText(), 0L));
     in.setPrunePath(wPrunePath.getText());
+    in.setStreaming(wStreaming.getSelection());
     in.setLoopXPath(wLoopXPath.getText());
     in.setEncoding(wEncoding.getText());
     in.setFilenameField(wInclFilenameField.getText());
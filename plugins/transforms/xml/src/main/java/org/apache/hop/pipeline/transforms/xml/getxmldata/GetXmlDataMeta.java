@@ -148,6 +148,9 @@ public class GetXmlDataMeta extends BaseTransformMeta
   // Given this path activates the streaming algorithm to process large files
   private String prunePath;
 
+  /** Flag : read the files with constant memory if the XPaths allow it */
+  private boolean streaming;
+
   /** Additional fields * */
   private String shortFileFieldName;
 
@@ -490,6 +493,16 @@ public class GetXmlDataMeta extends BaseTransformMeta
     this.prunePath = prunePath;
   }
 
+  /** @return the streaming flag */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /** @param streaming the streaming flag to set */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -582,6 +595,7 @@ public class GetXmlDataMeta extends BaseTransformMeta
     retval.append("    ").append(XmlHandler.addTagValue("IsAFile", isAFile));
     retval.append("    ").append(XmlHandler.addTagValue("XmlField", xmlField));
     retval.append("    ").append(XmlHandler.addTagValue("prunePath", prunePath));
+    retval.append("    ").append(XmlHandler.addTagValue("streaming", streaming));
     retval.append("    ").append(XmlHandler.addTagValue("shortFileFieldName", shortFileFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("pathFieldName", pathFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("hiddenFieldName", hiddenFieldName));
@@ -679,6 +693,7 @@ public class GetXmlDataMeta extends BaseTransformMeta
 
       xmlField = XmlHandler.getTagValue(transformNode, "XmlField");
       prunePath = XmlHandler.getTagValue(transformNode, "prunePath");
+      streaming = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streaming"));
 
       shortFileFieldName = XmlHandler.getTagValue(transformNode, "shortFileFieldName");
       pathFieldName = XmlHandler.getTagValue(transformNode, "pathFieldName");
@@ -756,6 +771,7 @@ public class GetXmlDataMeta extends BaseTransformMeta
     inFields = false;
     xmlField = "";
     prunePath = "";
+    streaming = false;
   }
 
   @Override
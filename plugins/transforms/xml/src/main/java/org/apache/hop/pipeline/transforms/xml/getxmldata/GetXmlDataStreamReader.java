@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.apache.hop.core.util.Utils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the rows of the Get data from XML transform from a StAX stream. Only the current loop
+ * node is kept in memory, and only as far as the fields need it, so the memory use doesn't depend
+ * on the size of the document.
+ *
+ * <p>The supported XPath subset is forward-only:
+ *
+ * <ul>
+ *   <li>The loop path is an absolute path of element names like <code>/feed/entry</code>
+ *   <li>A field path is <code>.</code>, a relative path of element names like <code>a/b</code>
+ *       and/or an attribute like <code>@id</code> or <code>a/b/@id</code>
+ * </ul>
+ *
+ * A field gets the value of the first match in document order, like the XPath "value of" would.
+ * Use {@link #compile(String, String[])} to see if the paths are supported.
+ */
+public class GetXmlDataStreamReader {
+
+  private static final Pattern NAME = Pattern.compile("[\\p{L}_][\\p{L}\\p{N}_.\\-]*");
+
+  private final String[] loopPath;
+  private final String[][] fieldSteps;
+  private final String[] fieldAttributes;
+
+  private XMLStreamReader reader;
+
+  /** The depth of the current element, the root element is at depth 1 */
+  private int depth;
+
+  /** The number of loop path elements matched by the current element and its ancestors */
+  private int matchedDepth;
+
+  private boolean inRow;
+
+  /** The element names from below the loop node down to the current element */
+  private final List<String> relativePath = new ArrayList<>();
+
+  private StringBuilder[] values;
+  private boolean[] found;
+
+  /** The depth of the element whose text a field collects, 0 if it isn't collecting */
+  private int[] captureDepth;
+
+  private GetXmlDataStreamReader(
+      String[] loopPath, String[][] fieldSteps, String[] fieldAttributes) {
+    this.loopPath = loopPath;
+    this.fieldSteps = fieldSteps;
+    this.fieldAttributes = fieldAttributes;
+  }
+
+  /**
+   * Compile the loop path and field paths into a streaming matcher.
+   *
+   * @param loopPath The absolute XPath of the loop nodes
+   * @param fieldPaths The XPaths of the fields, relative to the loop nodes
+   * @return The reader or null if the paths use XPath features which can't be streamed
+   */
+  public static GetXmlDataStreamReader compile(String loopPath, String[] fieldPaths) {
+    if (Utils.isEmpty(loopPath)
+        || !loopPath.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)
+        || loopPath.length() == 1) {
+      return null;
+    }
+    String[] loopSteps = loopPath.substring(1).split(GetXmlDataMeta.N0DE_SEPARATOR, -1);
+    if (!areNames(loopSteps)) {
+      return null;
+    }
+
+    String[][] fieldSteps = new String[fieldPaths.length][];
+    String[] fieldAttributes = new String[fieldPaths.length];
+    for (int i = 0; i < fieldPaths.length; i++) {
+      String path = fieldPaths[i] == null ? "" : fieldPaths[i].trim();
+      if (path.startsWith("./")) {
+        path = path.substring(2);
+      }
+      if (path.isEmpty() || path.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+        return null;
+      }
+
+      String[] steps = path.split(GetXmlDataMeta.N0DE_SEPARATOR, -1);
+      int nrSteps = steps.length;
+      String last = steps[nrSteps - 1];
+      if (last.startsWith(GetXmlDataMeta.AT)) {
+        fieldAttributes[i] = last.substring(1);
+        if (!NAME.matcher(fieldAttributes[i]).matches()) {
+          return null;
+        }
+        nrSteps--;
+      } else if (".".equals(path)) {
+        nrSteps = 0;
+      }
+      fieldSteps[i] = Arrays.copyOf(steps, nrSteps);
+      if (!areNames(fieldSteps[i])) {
+        return null;
+      }
+    }
+    return new GetXmlDataStreamReader(loopSteps, fieldSteps, fieldAttributes);
+  }
+
+  private static boolean areNames(String[] steps) {
+    for (String step : steps) {
+      if (!NAME.matcher(step).matches()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Start reading a document. The previous document, if any, is closed.
+   *
+   * @param inputStream The document to read
+   * @param encoding The encoding of the document or null to detect it from the document
+   * @throws XMLStreamException In case the document can't be read
+   */
+  public void open(InputStream inputStream, String encoding) throws XMLStreamException {
+    close();
+
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+    if (Utils.isEmpty(encoding)) {
+      reader = factory.createXMLStreamReader(inputStream);
+    } else {
+      reader = factory.createXMLStreamReader(inputStream, encoding);
+    }
+
+    depth = 0;
+    matchedDepth = 0;
+    inRow = false;
+    relativePath.clear();
+  }
+
+  /**
+   * Read up to the end of the next loop node.
+   *
+   * @return The values of the fields for the loop node, an empty string for a field without a
+   *     match. Null at the end of the document.
+   * @throws XMLStreamException In case the document can't be parsed
+   */
+  public String[] nextRow() throws XMLStreamException {
+    if (reader == null) {
+      return null;
+    }
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          startElement();
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          if (inRow) {
+            characters();
+          }
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          String[] row = endElement();
+          if (row != null) {
+            return row;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return null;
+  }
+
+  /** Stop reading the current document. The input stream is closed by the caller. */
+  public void close() throws XMLStreamException {
+    if (reader != null) {
+      try {
+        reader.close();
+      } finally {
+        reader = null;
+      }
+    }
+  }
+
+  private void startElement() {
+    depth++;
+    String name = getElementName();
+
+    if (!inRow) {
+      if (matchedDepth == depth - 1
+          && depth <= loopPath.length
+          && loopPath[depth - 1].equals(name)) {
+        matchedDepth = depth;
+        if (depth == loopPath.length) {
+          startRow();
+        }
+      }
+      return;
+    }
+
+    int relativeDepth = depth - loopPath.length;
+    while (relativePath.size() >= relativeDepth) {
+      relativePath.remove(relativePath.size() - 1);
+    }
+    relativePath.add(name);
+    matchFields(relativeDepth);
+  }
+
+  private void startRow() {
+    inRow = true;
+    relativePath.clear();
+    values = new StringBuilder[fieldSteps.length];
+    found = new boolean[fieldSteps.length];
+    captureDepth = new int[fieldSteps.length];
+    matchFields(0);
+  }
+
+  /** Let the fields which are still looking for a match check the current element */
+  private void matchFields(int relativeDepth) {
+    for (int i = 0; i < fieldSteps.length; i++) {
+      if (found[i] || fieldSteps[i].length != relativeDepth || !matchesPath(fieldSteps[i])) {
+        continue;
+      }
+      if (fieldAttributes[i] == null) {
+        found[i] = true;
+        values[i] = new StringBuilder();
+        captureDepth[i] = depth;
+      } else {
+        String value = getAttributeValue(fieldAttributes[i]);
+        if (value != null) {
+          found[i] = true;
+          values[i] = new StringBuilder(value);
+        }
+      }
+    }
+  }
+
+  private boolean matchesPath(String[] steps) {
+    for (int s = 0; s < steps.length; s++) {
+      if (!steps[s].equals(relativePath.get(s))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void characters() {
+    for (int i = 0; i < captureDepth.length; i++) {
+      if (captureDepth[i] > 0) {
+        values[i].append(
+            reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+  }
+
+  private String[] endElement() {
+    String[] row = null;
+    if (inRow) {
+      for (int i = 0; i < captureDepth.length; i++) {
+        if (captureDepth[i] == depth) {
+          captureDepth[i] = 0;
+        }
+      }
+      if (depth == loopPath.length) {
+        inRow = false;
+        row = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+          row[i] = values[i] == null ? "" : values[i].toString();
+        }
+        values = null;
+      }
+    }
+    if (matchedDepth == depth) {
+      matchedDepth--;
+    }
+    depth--;
+    return row;
+  }
+
+  /**
+   * Without namespace awareness an XPath name step only selects elements without a namespace, so
+   * an element in a namespace gets a name which doesn't match any step.
+   */
+  private String getElementName() {
+    if (Utils.isEmpty(reader.getNamespaceURI())) {
+      return reader.getLocalName();
+    }
+    return "{" + reader.getNamespaceURI() + "}" + reader.getLocalName();
+  }
+
+  private String getAttributeValue(String name) {
+    for (int a = 0; a < reader.getAttributeCount(); a++) {
+      if (Utils.isEmpty(reader.getAttributeNamespace(a))
+          && name.equals(reader.getAttributeLocalName(a))) {
+        return reader.getAttributeValue(a);
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class GetXmlDataStreamReaderTest {
+
+  private static final String XML =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+          + "<feed>"
+          + "<entry id=\"1\"><name>one</name><size unit=\"kb\">10</size></entry>"
+          + "<other><entry id=\"x\"><name>not a row</name></entry></other>"
+          + "<entry id=\"2\"><name>t<b>w</b>o</name><name>second</name>"
+          + "<note><![CDATA[a < b]]></note></entry>"
+          + "<entry><size>30</size><size unit=\"mb\">31</size></entry>"
+          + "</feed>";
+
+  @Test
+  public void testUnsupportedPaths() {
+    assertNull(GetXmlDataStreamReader.compile("//entry", new String[] {"name"}));
+    assertNull(GetXmlDataStreamReader.compile("/feed/entry[1]", new String[] {"name"}));
+    assertNull(GetXmlDataStreamReader.compile("/feed/*", new String[] {"name"}));
+    assertNull(GetXmlDataStreamReader.compile("/feed/entry", new String[] {"../name"}));
+    assertNull(GetXmlDataStreamReader.compile("/feed/entry", new String[] {"name/text()"}));
+    assertNull(GetXmlDataStreamReader.compile("/feed/entry", new String[] {"/feed/name"}));
+    assertNull(GetXmlDataStreamReader.compile("/feed/entry", new String[] {"a:name"}));
+    assertNull(GetXmlDataStreamReader.compile("/feed/entry", new String[] {"name|size"}));
+    assertNotNull(
+        GetXmlDataStreamReader.compile("/feed/entry", new String[] {".", "@id", "a/b/@c"}));
+  }
+
+  @Test
+  public void testReadRows() throws Exception {
+    GetXmlDataStreamReader reader =
+        GetXmlDataStreamReader.compile(
+            "/feed/entry", new String[] {"@id", "name", "size", "size/@unit", "note"});
+    assertNotNull(reader);
+
+    reader.open(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), null);
+    assertArrayEquals(new String[] {"1", "one", "10", "kb", ""}, reader.nextRow());
+    assertArrayEquals(new String[] {"2", "two", "", "", "a < b"}, reader.nextRow());
+    assertArrayEquals(new String[] {"", "", "30", "mb", ""}, reader.nextRow());
+    assertNull(reader.nextRow());
+    reader.close();
+  }
+
+  @Test
+  public void testLoopNodeValue() throws Exception {
+    GetXmlDataStreamReader reader =
+        GetXmlDataStreamReader.compile("/feed/entry/name", new String[] {".", "b"});
+    assertNotNull(reader);
+
+    reader.open(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+    assertArrayEquals(new String[] {"one", ""}, reader.nextRow());
+    assertArrayEquals(new String[] {"two", "w"}, reader.nextRow());
+    assertArrayEquals(new String[] {"second", ""}, reader.nextRow());
+    assertNull(reader.nextRow());
+    reader.close();
+  }
+
+  @Test
+  public void testNamespacedElementsDontMatch() throws Exception {
+    String xml = "<feed xmlns=\"urn:feed\"><entry><name>one</name></entry></feed>";
+    GetXmlDataStreamReader reader =
+        GetXmlDataStreamReader.compile("/feed/entry", new String[] {"name"});
+
+    reader.open(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    assertNull(reader.nextRow());
+    reader.close();
+  }
+}
@@ -86,6 +86,14 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
 
   private TableView wOptions;
 
+  private Button wUsePool;
+  private Label wlInitialPoolSize;
+  private TextVar wInitialPoolSize;
+  private Label wlMaxPoolSize;
+  private TextVar wMaxPoolSize;
+  private Label wlPoolParameters;
+  private TableView wPoolParameters;
+
   private PropsUi props;
   private int middle;
   private int margin;
@@ -174,6 +182,7 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     addGeneralTab();
     addAdvancedTab();
     addOptionsTab();
+    addPoolingTab();
 
     // Select the general tab
     //
@@ -211,6 +220,10 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wPreferredSchema.addListener(SWT.Modify, modifyListener);
     wSqlStatements.addListener(SWT.Modify, modifyListener);
     wOptions.addListener(SWT.Modify, modifyListener);
+    wUsePool.addListener(SWT.Selection, modifyListener);
+    wInitialPoolSize.addListener(SWT.Modify, modifyListener);
+    wMaxPoolSize.addListener(SWT.Modify, modifyListener);
+    wPoolParameters.addListener(SWT.Modify, modifyListener);
   }
 
   private void addGeneralTab() {
@@ -690,6 +703,157 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wOptionsTab.setControl(wOptionsComp);
   }
 
+  private void addPoolingTab() {
+
+    DatabaseMeta databaseMeta = this.getMetadata();
+
+    CTabItem wPoolingTab = new CTabItem(wTabFolder, SWT.NONE);
+    wPoolingTab.setText(
+        "   " + BaseMessages.getString(PKG, "DatabaseDialog.PoolingTab.title") + "   ");
+
+    Composite wPoolingComp = new Composite(wTabFolder, SWT.NONE);
+    props.setLook(wPoolingComp);
+
+    FormLayout poolingLayout = new FormLayout();
+    poolingLayout.marginWidth = Const.FORM_MARGIN * 2;
+    poolingLayout.marginHeight = Const.FORM_MARGIN * 2;
+    wPoolingComp.setLayout(poolingLayout);
+
+    // Use a connection pool?
+    //
+    Label wlUsePool = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlUsePool);
+    wlUsePool.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.UseConnectionPool"));
+    FormData fdlUsePool = new FormData();
+    fdlUsePool.top = new FormAttachment(0, 0);
+    fdlUsePool.left = new FormAttachment(0, 0); // First one in the left top corner
+    fdlUsePool.right = new FormAttachment(middle, 0);
+    wlUsePool.setLayoutData(fdlUsePool);
+    wUsePool = new Button(wPoolingComp, SWT.CHECK | SWT.LEFT);
+    props.setLook(wUsePool);
+    FormData fdUsePool = new FormData();
+    fdUsePool.top = new FormAttachment(wlUsePool, 0, SWT.CENTER);
+    fdUsePool.left = new FormAttachment(middle, margin); // To the right of the label
+    fdUsePool.right = new FormAttachment(100, 0);
+    wUsePool.setLayoutData(fdUsePool);
+    wUsePool.addListener(SWT.Selection, e -> enablePoolingFields());
+    Control lastControl = wUsePool;
+
+    // The initial pool size
+    //
+    wlInitialPoolSize = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlInitialPoolSize);
+    wlInitialPoolSize.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.InitialPoolSize"));
+    FormData fdlInitialPoolSize = new FormData();
+    fdlInitialPoolSize.top = new FormAttachment(lastControl, margin);
+    fdlInitialPoolSize.left = new FormAttachment(0, 0);
+    fdlInitialPoolSize.right = new FormAttachment(middle, 0);
+    wlInitialPoolSize.setLayoutData(fdlInitialPoolSize);
+    wInitialPoolSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wInitialPoolSize);
+    FormData fdInitialPoolSize = new FormData();
+    fdInitialPoolSize.top = new FormAttachment(wlInitialPoolSize, 0, SWT.CENTER);
+    fdInitialPoolSize.left = new FormAttachment(middle, margin); // To the right of the label
+    fdInitialPoolSize.right = new FormAttachment(100, 0);
+    wInitialPoolSize.setLayoutData(fdInitialPoolSize);
+    lastControl = wInitialPoolSize;
+
+    // The maximum pool size
+    //
+    wlMaxPoolSize = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlMaxPoolSize);
+    wlMaxPoolSize.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.MaximumPoolSize"));
+    FormData fdlMaxPoolSize = new FormData();
+    fdlMaxPoolSize.top = new FormAttachment(lastControl, margin);
+    fdlMaxPoolSize.left = new FormAttachment(0, 0);
+    fdlMaxPoolSize.right = new FormAttachment(middle, 0);
+    wlMaxPoolSize.setLayoutData(fdlMaxPoolSize);
+    wMaxPoolSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wMaxPoolSize);
+    FormData fdMaxPoolSize = new FormData();
+    fdMaxPoolSize.top = new FormAttachment(wlMaxPoolSize, 0, SWT.CENTER);
+    fdMaxPoolSize.left = new FormAttachment(middle, margin); // To the right of the label
+    fdMaxPoolSize.right = new FormAttachment(100, 0);
+    wMaxPoolSize.setLayoutData(fdMaxPoolSize);
+    lastControl = wMaxPoolSize;
+
+    // The pooling parameters
+    //
+    ColumnInfo[] poolColumns =
+        new ColumnInfo[] {
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.PoolParameter"),
+              ColumnInfo.COLUMN_TYPE_CCOMBO,
+              DatabaseConnectionPoolParameter.getParameterNames(
+                  BaseDatabaseMeta.poolingParameters),
+              false),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.PoolValue"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.PoolDefault"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              true),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.PoolDescription"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              true),
+        };
+    poolColumns[0].setToolTip(
+        BaseMessages.getString(PKG, "DatabaseDialog.column.SelectPoolParameter"));
+    poolColumns[1].setUsingVariables(true);
+
+    wlPoolParameters = new Label(wPoolingComp, SWT.LEFT);
+    props.setLook(wlPoolParameters);
+    wlPoolParameters.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolParameters"));
+    FormData fdlPoolParameters = new FormData();
+    fdlPoolParameters.top = new FormAttachment(lastControl, margin * 2);
+    fdlPoolParameters.left = new FormAttachment(0, 0);
+    fdlPoolParameters.right = new FormAttachment(100, 0);
+    wlPoolParameters.setLayoutData(fdlPoolParameters);
+    wPoolParameters =
+        new TableView(
+            manager.getVariables(),
+            wPoolingComp,
+            SWT.BORDER,
+            poolColumns,
+            databaseMeta.getConnectionPoolingProperties().size(),
+            event -> setChanged(),
+            props);
+    props.setLook(wPoolParameters);
+    FormData fdPoolParameters = new FormData();
+    fdPoolParameters.top = new FormAttachment(wlPoolParameters, margin);
+    fdPoolParameters.bottom = new FormAttachment(100, 0);
+    fdPoolParameters.left = new FormAttachment(0, 0);
+    fdPoolParameters.right = new FormAttachment(100, 0);
+    wPoolParameters.setLayoutData(fdPoolParameters);
+
+    FormData fdPoolingComp = new FormData();
+    fdPoolingComp.left = new FormAttachment(0, 0);
+    fdPoolingComp.top = new FormAttachment(0, 0);
+    fdPoolingComp.right = new FormAttachment(100, 0);
+    fdPoolingComp.bottom = new FormAttachment(100, 0);
+    wPoolingComp.setLayoutData(fdPoolingComp);
+
+    wPoolingComp.layout();
+    wPoolingTab.setControl(wPoolingComp);
+  }
+
+  private void enablePoolingFields() {
+    boolean usePool = wUsePool.getSelection();
+    wlInitialPoolSize.setEnabled(usePool);
+    wInitialPoolSize.setEnabled(usePool);
+    wlMaxPoolSize.setEnabled(usePool);
+    wMaxPoolSize.setEnabled(usePool);
+    wlPoolParameters.setEnabled(usePool);
+    wPoolParameters.setEnabled(usePool);
+  }
+
   private void enableFields() {
     boolean manualUrl =
         StringUtils.isNotEmpty(wManualUrl.getText())
@@ -775,7 +939,32 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wOptions.setRowNums();
     wOptions.optWidth(true);
 
+    wUsePool.setSelection(databaseMeta.isUsingConnectionPool());
+    wInitialPoolSize.setText(Const.NVL(databaseMeta.getInitialPoolSizeString(), ""));
+    wMaxPoolSize.setText(Const.NVL(databaseMeta.getMaximumPoolSizeString(), ""));
+
+    wPoolParameters.clearAll(false);
+    Properties poolProperties = databaseMeta.getConnectionPoolingProperties();
+    List<String> poolParameters = new ArrayList<>(poolProperties.stringPropertyNames());
+    Collections.sort(poolParameters);
+    for (String parameter : poolParameters) {
+      DatabaseConnectionPoolParameter poolParameter =
+          DatabaseConnectionPoolParameter.findParameter(
+              parameter, BaseDatabaseMeta.poolingParameters);
+      TableItem item = new TableItem(wPoolParameters.table, SWT.NONE);
+      item.setText(1, parameter);
+      item.setText(2, Const.NVL(poolProperties.getProperty(parameter), ""));
+      if (poolParameter != null) {
+        item.setText(3, Const.NVL(poolParameter.getDefaultValue(), ""));
+        item.setText(4, Const.NVL(poolParameter.getDescription(), ""));
+      }
+    }
+    wPoolParameters.removeEmptyRows();
+    wPoolParameters.setRowNums();
+    wPoolParameters.optWidth(true);
+
     enableFields();
+    enablePoolingFields();
   }
 
   @Override
@@ -809,6 +998,21 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
       String value = item.getText(2);
       meta.addExtraOption(meta.getPluginId(), option, value);
     }
+
+    meta.setUsingConnectionPool(wUsePool.getSelection());
+    meta.setInitialPoolSizeString(wInitialPoolSize.getText());
+    meta.setMaximumPoolSizeString(wMaxPoolSize.getText());
+
+    Properties poolProperties = new Properties();
+    for (int i = 0; i < wPoolParameters.nrNonEmpty(); i++) {
+      TableItem item = wPoolParameters.getNonEmpty(i);
+      String parameter = item.getText(1);
+      String value = item.getText(2);
+      if (StringUtils.isNotEmpty(parameter)) {
+        poolProperties.setProperty(parameter, Const.NVL(value, ""));
+      }
+    }
+    meta.setConnectionPoolingProperties(poolProperties);
   }
 
   /** Test the database connection */
@@ -59,6 +59,8 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
   private TextVar wField;
   private ComboVar wContentType;
   private Button wListStatus;
+  private TextVar wMaxConcurrency;
+  private TextVar wQueueTimeout;
 
   public WebServiceEditor(HopGui hopGui, MetadataManager<WebService> manager, WebService metadata) {
     super(hopGui, manager, metadata);
@@ -247,6 +249,54 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
     fdListStatus.right = new FormAttachment(100, 0);
     fdListStatus.top = new FormAttachment(wlListStatus, 0, SWT.CENTER);
     wListStatus.setLayoutData(fdListStatus);
+    lastControl = wlListStatus;
+
+    // The maximum number of concurrent requests
+    //
+    Label wlMaxConcurrency = new Label(parent, SWT.RIGHT);
+    props.setLook(wlMaxConcurrency);
+    wlMaxConcurrency.setText(BaseMessages.getString(PKG, "WebServiceEditor.MaxConcurrency.Label"));
+    wlMaxConcurrency.setToolTipText(
+        BaseMessages.getString(PKG, "WebServiceEditor.MaxConcurrency.Tooltip"));
+    FormData fdlMaxConcurrency = new FormData();
+    fdlMaxConcurrency.left = new FormAttachment(0, 0);
+    fdlMaxConcurrency.right = new FormAttachment(middle, 0);
+    fdlMaxConcurrency.top = new FormAttachment(lastControl, 2 * margin);
+    wlMaxConcurrency.setLayoutData(fdlMaxConcurrency);
+    wMaxConcurrency =
+        new TextVar(manager.getVariables(), parent, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wMaxConcurrency);
+    wMaxConcurrency.setToolTipText(
+        BaseMessages.getString(PKG, "WebServiceEditor.MaxConcurrency.Tooltip"));
+    FormData fdMaxConcurrency = new FormData();
+    fdMaxConcurrency.left = new FormAttachment(middle, margin);
+    fdMaxConcurrency.right = new FormAttachment(100, 0);
+    fdMaxConcurrency.top = new FormAttachment(wlMaxConcurrency, 0, SWT.CENTER);
+    wMaxConcurrency.setLayoutData(fdMaxConcurrency);
+    lastControl = wlMaxConcurrency;
+
+    // How long to wait for a turn
+    //
+    Label wlQueueTimeout = new Label(parent, SWT.RIGHT);
+    props.setLook(wlQueueTimeout);
+    wlQueueTimeout.setText(BaseMessages.getString(PKG, "WebServiceEditor.QueueTimeout.Label"));
+    wlQueueTimeout.setToolTipText(
+        BaseMessages.getString(PKG, "WebServiceEditor.QueueTimeout.Tooltip"));
+    FormData fdlQueueTimeout = new FormData();
+    fdlQueueTimeout.left = new FormAttachment(0, 0);
+    fdlQueueTimeout.right = new FormAttachment(middle, 0);
+    fdlQueueTimeout.top = new FormAttachment(lastControl, 2 * margin);
+    wlQueueTimeout.setLayoutData(fdlQueueTimeout);
+    wQueueTimeout =
+        new TextVar(manager.getVariables(), parent, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wQueueTimeout);
+    wQueueTimeout.setToolTipText(
+        BaseMessages.getString(PKG, "WebServiceEditor.QueueTimeout.Tooltip"));
+    FormData fdQueueTimeout = new FormData();
+    fdQueueTimeout.left = new FormAttachment(middle, margin);
+    fdQueueTimeout.right = new FormAttachment(100, 0);
+    fdQueueTimeout.top = new FormAttachment(wlQueueTimeout, 0, SWT.CENTER);
+    wQueueTimeout.setLayoutData(fdQueueTimeout);
 
     setWidgetsContent();
 
@@ -259,6 +309,8 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
     wField.addListener(SWT.Modify, modifyListener);
     wContentType.addListener(SWT.Modify, modifyListener);
     wListStatus.addListener(SWT.Selection, modifyListener);
+    wMaxConcurrency.addListener(SWT.Modify, modifyListener);
+    wQueueTimeout.addListener(SWT.Modify, modifyListener);
   }
 
   /**
@@ -361,6 +413,8 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
     wField.setText(Const.NVL(ws.getFieldName(), ""));
     wContentType.setText(Const.NVL(ws.getContentType(), ""));
     wListStatus.setSelection(ws.isListingStatus());
+    wMaxConcurrency.setText(Const.NVL(ws.getMaxConcurrency(), ""));
+    wQueueTimeout.setText(Const.NVL(ws.getQueueTimeout(), ""));
   }
 
   @Override
@@ -372,6 +426,8 @@ public class WebServiceEditor extends MetadataEditor<WebService> {
     ws.setFieldName(wField.getText());
     ws.setContentType(wContentType.getText());
     ws.setListingStatus(wListStatus.getSelection());
+    ws.setMaxConcurrency(wMaxConcurrency.getText());
+    ws.setQueueTimeout(wQueueTimeout.getText());
   }
 
   @Override